@@ -0,0 +1,189 @@
+package org.lld.practice.common.concurrent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer ring buffer.
+ *
+ * Each slot carries a sequence number (Vyukov's bounded queue):
+ * <pre>
+ *   sequence == position             slot is free for the producer claiming position
+ *   sequence == position + 1         slot holds the element at position
+ *   sequence == position + capacity  consumed, free for the next lap
+ * </pre>
+ *
+ * A producer claims a position with one CAS on the tail and then publishes
+ * the element by advancing the slot's sequence, so producers never wait for
+ * each other beyond a failed CAS, and the consumer never takes a lock.
+ *
+ * The consumer works in two steps: drainTo() hands out published elements,
+ * release() frees their slots once it is done with them. With a factory,
+ * the slots hold preallocated elements that producers fill in place
+ * (offer(source, translator)), so steady-state publishing allocates nothing.
+ */
+public class RingBuffer<E> {
+
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final boolean preallocated;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;   // released position, written by the consumer only
+    private long readPosition;    // drained position, consumer-private
+
+    /**
+     * Ring of element references.
+     *
+     * @param capacity a power of two
+     */
+    public RingBuffer(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Ring of preallocated elements, filled in place by offer(source, translator).
+     *
+     * @param capacity a power of two
+     * @param factory creates the element for each slot, or null for a ring of references
+     */
+    public RingBuffer(int capacity, Supplier<? extends E> factory) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two >= 2: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+            if (factory != null) {
+                slots[i] = factory.get();
+            }
+        }
+        this.mask = capacity - 1;
+        this.preallocated = factory != null;
+    }
+
+    /**
+     * Add an element if there is space (any thread; reference rings only).
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (preallocated) {
+            throw new IllegalStateException("Preallocated ring: use offer(source, translator)");
+        }
+        long position = claim();
+        if (position < 0) {
+            return false;
+        }
+        int index = (int) position & mask;
+        slots[index] = element;
+        sequences.set(index, position + 1);   // publishes the element
+        return true;
+    }
+
+    /**
+     * Fill the next preallocated element from source if there is space (any thread).
+     *
+     * @param translator copies source into the slot's element; must not throw
+     * @return false if the buffer is full
+     */
+    @SuppressWarnings("unchecked")
+    public <A> boolean offer(A source, BiConsumer<? super E, ? super A> translator) {
+        if (!preallocated) {
+            throw new IllegalStateException("Reference ring: use offer(element)");
+        }
+        long position = claim();
+        if (position < 0) {
+            return false;
+        }
+        int index = (int) position & mask;
+        translator.accept((E) slots[index], source);
+        sequences.set(index, position + 1);   // publishes the element
+        return true;
+    }
+
+    /**
+     * @return the claimed position, or -1 if the buffer is full
+     */
+    private long claim() {
+        while (true) {
+            long position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return -1;   // the slot still holds the element from the previous lap
+            }
+            // else another producer claimed this position first: retry
+        }
+    }
+
+    /**
+     * Add up to max published elements to out, in order (consumer thread only).
+     * Their slots stay reserved until release().
+     *
+     * @return number of elements drained
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<? super E> out, int max) {
+        long position = readPosition;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;   // empty, or the producer that claimed it has not published yet
+            }
+            out.add((E) slots[index]);
+            position++;
+            drained++;
+        }
+        readPosition = position;
+        return drained;
+    }
+
+    /**
+     * Free the slots of every element drained so far (consumer thread only).
+     */
+    public void release() {
+        for (long position = head; position < readPosition; position++) {
+            int index = (int) position & mask;
+            if (!preallocated) {
+                slots[index] = null;
+            }
+            sequences.set(index, position + slots.length);
+        }
+        head = readPosition;
+    }
+
+    /**
+     * Number of positions claimed so far (published or about to be).
+     */
+    public long getProducedCount() {
+        return tail.get();
+    }
+
+    /**
+     * Number of elements drained and released so far.
+     */
+    public long getConsumedCount() {
+        return head;
+    }
+
+    public boolean isEmpty() {
+        return head == tail.get();
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
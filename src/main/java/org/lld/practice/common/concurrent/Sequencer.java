@@ -0,0 +1,286 @@
+package org.lld.practice.common.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A single-writer event loop: one thread that owns some state and applies
+ * commands to it in the order they were submitted.
+ *
+ * <pre>
+ *   any thread ──submit()──> [ RingBuffer (lock-free, bounded) ] ──> "name"
+ *                                                                      drains up to batchSize,
+ *                                                                      handler.accept(batch)
+ * </pre>
+ *
+ * Because only the sequencer thread touches the state it owns, the handler
+ * needs no locks; submitters pay for one CAS. Draining in batches lets the
+ * handler amortise per-batch work (such as notifying observers or flushing
+ * a file) over many commands. When the ring is full, submit() waits: a full
+ * ring means the sequencer is saturated, and queuing more would only add
+ * latency. tryPublish() returns false instead, so callers can drop.
+ *
+ * With a factory, the ring's slots hold preallocated commands that
+ * publish()/tryPublish() fill in place, so steady-state submitting
+ * allocates nothing; submit() is for rings of references.
+ *
+ * A batch whose handler throws goes to the failure handler, so whoever
+ * waits on those commands can be told. An Error also stops the sequencer:
+ * submitting is refused from then on, the commands still queued go to the
+ * failure handler too, and the thread rethrows the Error once the ring is
+ * empty.
+ *
+ * Shutdown cannot lose a command: a submitter registers itself before it
+ * checks running and deregisters after its offer, and the thread only
+ * exits once running is false, no submitter is registered and the ring is
+ * empty. A submitter that starts later sees running == false and is refused.
+ */
+public class Sequencer<C> {
+
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final long FULL_PARK_NANOS = 10_000;
+    private static final int FULL_SPINS = 64;
+
+    private final String name;
+    private final RingBuffer<C> ring;
+    private final int batchSize;
+    private final Consumer<List<C>> handler;
+    private final BiConsumer<List<C>, Throwable> failureHandler;
+    private final Thread thread;
+    private final AtomicInteger submitting = new AtomicInteger();
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private volatile long processedCount;
+    private volatile long batchCount;
+    private Throwable fatal;       // sequencer thread only
+
+    /**
+     * @param capacity  ring size, a power of two
+     * @param batchSize most commands handed to the handler at once
+     * @param handler   applies a batch, on the sequencer thread (the list is
+     *                  reused afterwards)
+     */
+    public Sequencer(String name, int capacity, int batchSize, Consumer<List<C>> handler) {
+        this(name, capacity, batchSize, handler, (batch, error) -> { });
+    }
+
+    /**
+     * @param failureHandler gets a batch the handler threw on, or that was
+     *                       never applied because an earlier batch threw an
+     *                       Error (on the sequencer thread)
+     */
+    public Sequencer(String name, int capacity, int batchSize, Consumer<List<C>> handler,
+                     BiConsumer<List<C>, Throwable> failureHandler) {
+        this(name, capacity, batchSize, null, handler, failureHandler);
+    }
+
+    /**
+     * @param factory creates the preallocated command for each slot (filled
+     *                by publish()/tryPublish()), or null for a ring of references
+     */
+    public Sequencer(String name, int capacity, int batchSize, Supplier<? extends C> factory,
+                     Consumer<List<C>> handler, BiConsumer<List<C>, Throwable> failureHandler) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.name = name;
+        this.ring = new RingBuffer<>(capacity, factory);
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.failureHandler = failureHandler;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a command (any thread; reference rings only), waiting while the ring is full.
+     *
+     * @throws IllegalStateException if the sequencer has been shut down, or
+     *         if the ring is full and the caller is the sequencer thread
+     *         itself (it would wait for itself forever)
+     */
+    public void submit(C command) {
+        if (!enqueue(command, null, true)) {
+            throw new IllegalStateException(running
+                    ? "Sequencer " + name + " is full and cannot wait for itself"
+                    : "Sequencer " + name + " is shut down");
+        }
+    }
+
+    /**
+     * Fill the next preallocated command from source (any thread), waiting
+     * while the ring is full.
+     *
+     * @param translator copies source into the slot's command; must not throw
+     * @return false if the sequencer has been shut down, or if the ring is
+     *         full and the caller is the sequencer thread itself
+     */
+    public <A> boolean publish(A source, BiConsumer<? super C, ? super A> translator) {
+        return enqueue(source, translator, true);
+    }
+
+    /**
+     * Fill the next preallocated command from source if there is space (any thread).
+     *
+     * @return false if the ring is full or the sequencer has been shut down
+     */
+    public <A> boolean tryPublish(A source, BiConsumer<? super C, ? super A> translator) {
+        return enqueue(source, translator, false);
+    }
+
+    /**
+     * Block until every command submitted before this call has been applied
+     * (or the sequencer thread has stopped).
+     */
+    public void flush() {
+        long target = ring.getProducedCount();
+        while (processedCount < target && thread.isAlive()) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Stop accepting commands, apply everything already queued, and stop the thread.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Whether the caller is this sequencer's thread, e.g. a handler or
+     * something it calls; such a caller must not wait for queued commands.
+     */
+    public boolean isSequencerThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Commands waiting in the ring buffer.
+     */
+    public int getQueuedCount() {
+        return ring.size();
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    /**
+     * Number of batches handed to the handler; processed / batches is the mean batch size.
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * @param translator null to offer source itself (a reference ring)
+     * @param wait       whether to wait while the ring is full
+     * @return false if shut down, or full and not waiting (or unable to wait)
+     */
+    @SuppressWarnings("unchecked")
+    private boolean enqueue(Object source, BiConsumer<? super C, ?> translator, boolean wait) {
+        submitting.incrementAndGet();
+        try {
+            if (!running) {
+                return false;
+            }
+            int spins = 0;
+            while (!(translator == null
+                    ? ring.offer((C) source)
+                    : ring.offer(source, (BiConsumer<? super C, Object>) translator))) {
+                if (!wait || !running || isSequencerThread()) {
+                    return false;
+                }
+                LockSupport.unpark(thread);
+                if (spins++ < FULL_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                }
+            }
+        } finally {
+            submitting.decrementAndGet();
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    private void run() {
+        List<C> batch = new ArrayList<>(batchSize);
+        while (true) {
+            int count = ring.drainTo(batch, batchSize);
+            if (count > 0) {
+                apply(batch);
+                continue;
+            }
+            if (!running) {
+                if (submitting.get() == 0 && ring.isEmpty()) {
+                    if (fatal instanceof Error error) {
+                        throw error;
+                    }
+                    return;
+                }
+                Thread.yield();   // a submitter in progress may still publish
+                continue;
+            }
+            parked = true;
+            if (ring.isEmpty() && running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            parked = false;
+        }
+    }
+
+    private void apply(List<C> batch) {
+        if (fatal != null) {
+            fail(batch, fatal);
+        } else {
+            try {
+                handler.accept(batch);
+            } catch (Throwable e) {
+                // A RuntimeException fails the batch only; an Error stops the sequencer
+                System.err.println("Sequencer " + name + ": failed to apply " + batch.size() + " commands: " + e);
+                if (e instanceof Error) {
+                    fatal = e;
+                    running = false;
+                }
+                fail(batch, e);
+            }
+        }
+        processedCount += batch.size();
+        batchCount++;
+        batch.clear();
+        ring.release();
+    }
+
+    private void fail(List<C> batch, Throwable error) {
+        try {
+            failureHandler.accept(batch, error);
+        } catch (RuntimeException e) {
+            System.err.println("Sequencer " + name + ": failure handler failed: " + e);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package org.lld.practice.design_cache_management_system.improved_solution;
 
 import org.lld.practice.design_cache_management_system.improved_solution.cache.Cache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.LoadingCache;
 import org.lld.practice.design_cache_management_system.improved_solution.factory.CacheFactory;
 import org.lld.practice.design_cache_management_system.improved_solution.models.CacheConfig;
 import org.lld.practice.design_cache_management_system.improved_solution.models.EvictionPolicy;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Demo application for the Cache Management System.
@@ -15,6 +19,7 @@ import java.time.Duration;
  * - LFU Cache with frequency tracking
  * - TTL expiry support
  * - Cache statistics tracking
+ * - Loading cache with request coalescing and refresh-ahead
  */
 public class Main {
     
@@ -36,6 +41,9 @@ public class Main {
         // Demo 4: Compare Eviction Strategies
         compareEvictionStrategies();
         
+        // Demo 5: Loading Cache
+        demoLoadingCache();
+        
         // Summary
         printSummary();
     }
@@ -208,6 +216,44 @@ public class Main {
                 hasC ? "C" : "-");
     }
     
+    private static void demoLoadingCache() throws InterruptedException {
+        System.out.println("\n═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 5: Loading Cache (Request Coalescing + Refresh-Ahead)");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        AtomicInteger databaseCalls = new AtomicInteger();
+        CacheConfig config = CacheConfig.builder()
+                .capacity(10)
+                .ttl(Duration.ofSeconds(1))
+                .refreshAhead(Duration.ofMillis(500))
+                .build();
+        
+        LoadingCache<String, String> cache = CacheFactory.createLoadingCache(config, key -> {
+            databaseCalls.incrementAndGet();
+            Thread.sleep(200);  // Simulate a slow database read
+            return "value-of-" + key + "-v" + databaseCalls.get();
+        });
+        
+        System.out.println("1. 20 threads miss on the same hot key at once");
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Thread thread = new Thread(() -> cache.getOrLoad("hot-key"));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.printf("   Database calls: %d (one load shared by all threads ✓)%n", databaseCalls.get());
+        
+        System.out.println("\n2. Waiting 700ms (entry is now within 500ms of its 1s TTL)...");
+        Thread.sleep(700);
+        System.out.printf("   hot-key = %s (stale value served, refresh started)%n", cache.getOrLoad("hot-key"));
+        Thread.sleep(400);
+        System.out.printf("   hot-key = %s (refreshed in background, never expired)%n", cache.getOrLoad("hot-key"));
+        System.out.printf("   Database calls: %d%n", databaseCalls.get());
+    }
+    
     private static void printSummary() {
         System.out.println("\n═══════════════════════════════════════════════════════════════");
         System.out.println("DEMO COMPLETE - KEY CONCEPTS DEMONSTRATED:");
@@ -219,6 +265,7 @@ public class Main {
         System.out.println("✅ O(1) Operations: HashMap + Doubly Linked List for LRU");
         System.out.println("✅ TTL Expiry: Time-based cache invalidation");
         System.out.println("✅ Statistics: Hit ratio, evictions, expirations tracking");
+        System.out.println("✅ Loading Cache: One in-flight load per key, refresh-ahead");
         System.out.println("\n🎯 When to use each strategy:");
         System.out.println("   LRU - Temporal locality (recent items likely accessed again)");
         System.out.println("   LFU - Frequency matters (popular items should stay cached)");
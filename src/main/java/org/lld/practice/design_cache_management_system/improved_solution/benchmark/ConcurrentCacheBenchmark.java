@@ -0,0 +1,119 @@
+package org.lld.practice.design_cache_management_system.improved_solution.benchmark;
+
+import org.lld.practice.design_cache_management_system.improved_solution.cache.Cache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.ConcurrentCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.InMemoryCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.ThreadSafeCache;
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.LRUEvictionStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Multi-threaded throughput benchmark: ThreadSafeCache (single lock)
+ * vs ConcurrentCache (lock striping).
+ *
+ * Workload: 90% get / 10% put over a fixed key space that fits in the
+ * cache, so the numbers measure locking cost rather than eviction.
+ *
+ * Usage: ConcurrentCacheBenchmark [durationMillisPerRun]
+ */
+public class ConcurrentCacheBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final int KEY_SPACE = 100_000;
+    private static final int CAPACITY = KEY_SPACE * 2;
+    private static final int CONCURRENCY_LEVEL = 64;
+    private static final int READ_PERCENT = 90;
+
+    public static void main(String[] args) throws InterruptedException {
+        long durationMillis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+
+        Integer[] keys = new Integer[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) {
+            keys[i] = i;
+        }
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     ⚡ CACHE THROUGHPUT BENCHMARK (90% get / 10% put)          ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("Key space: %d, capacity: %d, segments: %d, %d ms per run%n%n",
+                KEY_SPACE, CAPACITY, CONCURRENCY_LEVEL, durationMillis);
+        System.out.printf("%-8s %20s %20s %10s%n", "Threads", "ThreadSafe ops/s", "Concurrent ops/s", "Speedup");
+
+        for (int threads : THREAD_COUNTS) {
+            double single = run(() -> new ThreadSafeCache<>(
+                    new InMemoryCache<>(CAPACITY, new LRUEvictionStrategy<>())), keys, threads, durationMillis);
+            double striped = run(() -> new ConcurrentCache<>(
+                    CAPACITY, CONCURRENCY_LEVEL, LRUEvictionStrategy::new), keys, threads, durationMillis);
+            System.out.printf("%-8d %,20.0f %,20.0f %9.2fx%n", threads, single, striped, striped / single);
+        }
+    }
+
+    /**
+     * Run the mixed workload against a fresh cache and return ops/sec.
+     */
+    private static double run(Supplier<Cache<Integer, Integer>> cacheSupplier,
+                              Integer[] keys,
+                              int threadCount,
+                              long durationMillis) throws InterruptedException {
+        Cache<Integer, Integer> cache = cacheSupplier.get();
+        for (Integer key : keys) {
+            cache.put(key, key);
+        }
+
+        // Short warm-up so the JIT has compiled the hot path
+        drive(cache, keys, threadCount, Math.max(100, durationMillis / 4));
+        long ops = drive(cache, keys, threadCount, durationMillis);
+        return ops * 1000.0 / durationMillis;
+    }
+
+    private static long drive(Cache<Integer, Integer> cache,
+                              Integer[] keys,
+                              int threadCount,
+                              long durationMillis) throws InterruptedException {
+        LongAdder totalOps = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threadCount; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (System.nanoTime() < deadline[0]) {
+                    // Check the clock every 256 ops to keep it off the hot path
+                    for (int i = 0; i < 256; i++) {
+                        Integer key = keys[random.nextInt(keys.length)];
+                        if (random.nextInt(100) < READ_PERCENT) {
+                            cache.get(key);
+                        } else {
+                            cache.put(key, key);
+                        }
+                    }
+                    ops += 256;
+                }
+                totalOps.add(ops);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        deadline[0] = System.nanoTime() + durationMillis * 1_000_000L;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return totalOps.sum();
+    }
+}
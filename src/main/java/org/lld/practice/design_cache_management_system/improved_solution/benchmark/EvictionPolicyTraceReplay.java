@@ -0,0 +1,181 @@
+package org.lld.practice.design_cache_management_system.improved_solution.benchmark;
+
+import org.lld.practice.design_cache_management_system.improved_solution.cache.Cache;
+import org.lld.practice.design_cache_management_system.improved_solution.factory.CacheFactory;
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheConfig;
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheStats;
+import org.lld.practice.design_cache_management_system.improved_solution.models.EvictionPolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Trace-replay harness comparing hit ratio and throughput of every EvictionPolicy.
+ *
+ * Each trace is replayed cache-aside style: get(key), and on a miss put(key).
+ * Built-in synthetic traces:
+ * - zipf:      skewed popularity (exponent 0.99), the classic "hot set" workload
+ * - zipf+scan: the same hot set interrupted by long scans of one-hit-wonder keys
+ * - loop:      cyclic scan slightly larger than the cache (LRU's worst case)
+ *
+ * Usage: EvictionPolicyTraceReplay [capacity] [traceFile]
+ * A trace file contains one key per line and is replayed in addition to the synthetic traces.
+ */
+public class EvictionPolicyTraceReplay {
+
+    private static final int DEFAULT_CAPACITY = 2_000;
+    private static final int HOT_KEYS = 100_000;
+    private static final int REQUESTS = 1_000_000;
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CAPACITY;
+
+        Map<String, int[]> traces = new LinkedHashMap<>();
+        traces.put("zipf", zipfTrace());
+        traces.put("zipf+scan", zipfWithScansTrace());
+        traces.put("loop", loopTrace(capacity));
+        if (args.length > 1) {
+            traces.put(Path.of(args[1]).getFileName().toString(), fileTrace(Path.of(args[1])));
+        }
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     📼 EVICTION POLICY TRACE REPLAY                            ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("Cache capacity: %d%n%n", capacity);
+        System.out.printf("%-12s %-12s %10s %16s %12s%n", "Trace", "Policy", "Hit ratio", "ops/sec", "Evictions");
+
+        for (Map.Entry<String, int[]> trace : traces.entrySet()) {
+            Integer[] keys = boxKeys(trace.getValue());
+            for (EvictionPolicy policy : EvictionPolicy.values()) {
+                // Warm-up pass on a throwaway cache so the JIT compiles the strategy first
+                replay(policy, capacity, keys);
+                long start = System.nanoTime();
+                CacheStats stats = replay(policy, capacity, keys);
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+                System.out.printf("%-12s %-12s %9.2f%% %,16.0f %,12d%n",
+                        trace.getKey(), policy, stats.getHitRatio() * 100,
+                        keys.length / seconds, stats.getEvictions());
+            }
+            System.out.println();
+        }
+    }
+
+    private static CacheStats replay(EvictionPolicy policy, int capacity, Integer[] keys) {
+        Cache<Integer, Integer> cache = CacheFactory.createCache(CacheConfig.builder()
+                .capacity(capacity)
+                .evictionPolicy(policy)
+                .threadSafe(false)
+                .logEvictions(false)
+                .build());
+
+        for (Integer key : keys) {
+            if (cache.get(key).isEmpty()) {
+                cache.put(key, key);
+            }
+        }
+        return cache.getStats();
+    }
+
+    private static int[] zipfTrace() {
+        ZipfGenerator zipf = new ZipfGenerator(HOT_KEYS, ZIPF_EXPONENT, new Random(SEED));
+        int[] trace = new int[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            trace[i] = zipf.next();
+        }
+        return trace;
+    }
+
+    /**
+     * Every 50k hot requests, a scan touches 20k keys that are never seen again.
+     */
+    private static int[] zipfWithScansTrace() {
+        ZipfGenerator zipf = new ZipfGenerator(HOT_KEYS, ZIPF_EXPONENT, new Random(SEED));
+        int[] trace = new int[REQUESTS];
+        int nextScanKey = HOT_KEYS;
+        int i = 0;
+        while (i < REQUESTS) {
+            for (int hot = 0; hot < 50_000 && i < REQUESTS; hot++) {
+                trace[i++] = zipf.next();
+            }
+            for (int scan = 0; scan < 20_000 && i < REQUESTS; scan++) {
+                trace[i++] = nextScanKey++;
+            }
+        }
+        return trace;
+    }
+
+    private static int[] loopTrace(int capacity) {
+        int loopSize = capacity + capacity / 5;
+        int[] trace = new int[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            trace[i] = i % loopSize;
+        }
+        return trace;
+    }
+
+    /**
+     * Map arbitrary string keys in a trace file to dense integer ids.
+     */
+    private static int[] fileTrace(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        Map<String, Integer> ids = new HashMap<>();
+        int[] trace = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            trace[i] = ids.computeIfAbsent(lines.get(i).trim(), key -> ids.size());
+        }
+        return trace;
+    }
+
+    /**
+     * Pre-box keys so the replay loop measures the cache, not Integer allocation.
+     */
+    private static Integer[] boxKeys(int[] trace) {
+        int maxKey = Arrays.stream(trace).max().orElse(0);
+        Integer[] pool = new Integer[maxKey + 1];
+        Integer[] keys = new Integer[trace.length];
+        for (int i = 0; i < trace.length; i++) {
+            int id = trace[i];
+            if (pool[id] == null) {
+                pool[id] = id;
+            }
+            keys[i] = pool[id];
+        }
+        return keys;
+    }
+
+    /**
+     * Zipf-distributed key ids via inverse CDF lookup (binary search).
+     */
+    private static class ZipfGenerator {
+        private final double[] cumulative;
+        private final Random random;
+
+        ZipfGenerator(int size, double exponent, Random random) {
+            this.cumulative = new double[size];
+            this.random = random;
+            double sum = 0;
+            for (int rank = 1; rank <= size; rank++) {
+                sum += 1.0 / Math.pow(rank, exponent);
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < size; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next() {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+        }
+    }
+}
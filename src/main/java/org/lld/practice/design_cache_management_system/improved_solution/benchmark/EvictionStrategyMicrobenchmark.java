@@ -0,0 +1,156 @@
+package org.lld.practice.design_cache_management_system.improved_solution.benchmark;
+
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.ArrayLFUEvictionStrategy;
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.ArrayLRUEvictionStrategy;
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.EvictionStrategy;
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.LFUEvictionStrategy;
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.LRUEvictionStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmark of eviction bookkeeping: latency and allocation per operation.
+ *
+ * Drives each EvictionStrategy directly (no cache around it) with the same
+ * operation mix a full cache generates: on a hit recordAccess(), on a miss
+ * evict the candidate and recordInsertion(). Keys are pre-boxed so the only
+ * allocation measured is the strategy's own.
+ *
+ * Structured like a JMH run - forked-free, but with warmup iterations to
+ * reach steady-state JIT and measurement iterations reported as mean ns/op
+ * and bytes/op (from the per-thread allocation counter).
+ *
+ * Usage:
+ *   java ... EvictionStrategyMicrobenchmark [capacity] [opsPerIteration]
+ */
+public class EvictionStrategyMicrobenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final int KEY_SPACE_MULTIPLIER = 4;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final long SEED = 42;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int opsPerIteration = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     ⏱️  EVICTION STRATEGY MICROBENCHMARK                        ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+
+        Integer[] keys = boxedKeys(capacity * KEY_SPACE_MULTIPLIER);
+        int[] trace = zipfTrace(keys.length, opsPerIteration);
+        System.out.printf("Capacity %,d, key space %,d, zipf(%.1f), %,d ops x %d iterations (+%d warmup)%n%n",
+                capacity, keys.length, ZIPF_EXPONENT, opsPerIteration, MEASUREMENT_ITERATIONS, WARMUP_ITERATIONS);
+        System.out.printf("%-26s %10s %12s %10s%n", "Strategy", "ns/op", "bytes/op", "hit ratio");
+
+        run("LRU (LinkedHashMap nodes)", LRUEvictionStrategy::new, capacity, keys, trace);
+        run("ArrayLRU (int[] links)", () -> new ArrayLRUEvictionStrategy<>(capacity), capacity, keys, trace);
+        run("LFU (HashMap + sets)", LFUEvictionStrategy::new, capacity, keys, trace);
+        run("ArrayLFU (frequency list)", () -> new ArrayLFUEvictionStrategy<>(capacity), capacity, keys, trace);
+    }
+
+    private static void run(String name,
+                            Supplier<EvictionStrategy<Integer>> strategySupplier,
+                            int capacity,
+                            Integer[] keys,
+                            int[] trace) {
+        EvictionStrategy<Integer> strategy = strategySupplier.get();
+        boolean[] resident = new boolean[keys.length];
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(strategy, capacity, keys, resident, trace);
+        }
+
+        long hits = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            hits += iteration(strategy, capacity, keys, resident, trace);
+            totalNanos += System.nanoTime() - start;
+            totalBytes += THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        }
+
+        long ops = (long) trace.length * MEASUREMENT_ITERATIONS;
+        System.out.printf("%-26s %10.1f %12.2f %9.1f%%%n",
+                name, totalNanos / (double) ops, totalBytes / (double) ops, 100.0 * hits / ops);
+    }
+
+    /**
+     * One pass over the trace.
+     *
+     * @return number of hits
+     */
+    private static long iteration(EvictionStrategy<Integer> strategy,
+                                  int capacity,
+                                  Integer[] keys,
+                                  boolean[] resident,
+                                  int[] trace) {
+        long hits = 0;
+        for (int index : trace) {
+            Integer key = keys[index];
+            if (resident[index]) {
+                strategy.recordAccess(key);
+                hits++;
+                continue;
+            }
+            if (strategy.size() >= capacity) {
+                // Optional is scalar-replaced once inlined; any that survives shows up in bytes/op
+                Integer victim = strategy.getEvictionCandidate().orElseThrow();
+                strategy.remove(victim);
+                resident[victim] = false;
+            }
+            strategy.recordInsertion(key);
+            resident[index] = true;
+        }
+        return hits;
+    }
+
+    private static Integer[] boxedKeys(int count) {
+        Integer[] keys = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = i;  // values above 127 are fresh boxes, created once here
+        }
+        return keys;
+    }
+
+    /**
+     * Zipf-distributed key indices via inverse-CDF sampling over a precomputed table.
+     */
+    private static int[] zipfTrace(int keySpace, int length) {
+        double[] cdf = new double[keySpace];
+        double sum = 0;
+        for (int i = 0; i < keySpace; i++) {
+            sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cdf[i] = sum;
+        }
+
+        Random random = new Random(SEED);
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = keySpace - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cdf[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            // Scatter ranks so popular keys do not cluster in the hash tables
+            trace[i] = (int) ((low * 0x9E3779B1L) % keySpace);
+        }
+        return trace;
+    }
+}
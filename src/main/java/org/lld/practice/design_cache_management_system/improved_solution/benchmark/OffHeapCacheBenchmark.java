@@ -0,0 +1,167 @@
+package org.lld.practice.design_cache_management_system.improved_solution.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.Cache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.InMemoryCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.OffHeapCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.ValueSerializer;
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheConfig;
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.LRUEvictionStrategy;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Heap vs off-heap benchmark: GC pause time and heap footprint with ~1 GB of cached data.
+ *
+ * Both caches are bounded to the same number of bytes. Values are byte arrays
+ * with sizes drawn log-uniformly between 50 bytes and 2 MB. After filling the
+ * cache, a 80% get / 20% put workload runs for a fixed time while every GC
+ * pause is recorded through GC notifications.
+ *
+ * Usage (needs heap for the heap-only run):
+ *   java -Xmx3g ... OffHeapCacheBenchmark [cacheMegabytes] [seconds]
+ */
+public class OffHeapCacheBenchmark {
+
+    private static final int MIN_VALUE_BYTES = 50;
+    private static final int MAX_VALUE_BYTES = 2 * 1024 * 1024;
+    private static final int KEY_OVERHEAD_BYTES = 64;
+    private static final int READ_PERCENT = 80;
+    private static final long SEED = 7;
+
+    private static final List<Long> pauses = Collections.synchronizedList(new ArrayList<>());
+
+    public static void main(String[] args) throws InterruptedException {
+        long cacheBytes = (args.length > 0 ? Long.parseLong(args[0]) : 1024) * 1024 * 1024;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        installPauseListener();
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🧠 HEAP vs OFF-HEAP CACHE BENCHMARK                        ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("Cache budget: %d MB, values %d B - %d KB, %d s workload, max heap %d MB%n%n",
+                cacheBytes >> 20, MIN_VALUE_BYTES, MAX_VALUE_BYTES >> 10, seconds,
+                Runtime.getRuntime().maxMemory() >> 20);
+
+        run("heap (weighted InMemoryCache)", () -> new InMemoryCache<>(
+                CacheConfig.builder().maximumWeight(cacheBytes).logEvictions(false).build(),
+                (Integer key, byte[] value) -> value.length + KEY_OVERHEAD_BYTES,
+                new LRUEvictionStrategy<>()), cacheBytes, seconds);
+
+        run("off-heap (OffHeapCache)", () -> new OffHeapCache<>(
+                cacheBytes, ValueSerializer.byteArray()), cacheBytes, seconds);
+    }
+
+    private static void run(String name,
+                            Supplier<Cache<Integer, byte[]>> cacheSupplier,
+                            long cacheBytes,
+                            int seconds) throws InterruptedException {
+        System.out.println("▶ " + name);
+        Cache<Integer, byte[]> cache = cacheSupplier.get();
+        Random random = new Random(SEED);
+
+        // Fill to the budget; 1.5x the keys needed so the workload keeps evicting
+        int keySpace = 0;
+        long filled = 0;
+        while (filled < cacheBytes) {
+            byte[] value = randomValue(random);
+            cache.put(keySpace++, value);
+            filled += value.length;
+        }
+        keySpace = keySpace * 3 / 2;
+
+        System.gc();
+        Thread.sleep(200);
+        long heapAfterFill = usedHeap();
+        long directAfterFill = usedDirect();
+
+        pauses.clear();
+        long ops = 0;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            Integer key = random.nextInt(keySpace);
+            if (random.nextInt(100) < READ_PERCENT) {
+                cache.get(key);
+            } else {
+                cache.put(key, randomValue(random));
+            }
+            ops++;
+        }
+
+        List<Long> sorted;
+        synchronized (pauses) {
+            sorted = new ArrayList<>(pauses);
+        }
+        Collections.sort(sorted);
+        long totalPause = sorted.stream().mapToLong(Long::longValue).sum();
+
+        System.out.printf("   Entries:            %,d%n", cache.size());
+        System.out.printf("   Heap used (live):   %,d MB%n", heapAfterFill >> 20);
+        System.out.printf("   Direct memory:      %,d MB%n", directAfterFill >> 20);
+        System.out.printf("   Throughput:         %,.0f ops/s%n", ops / (double) seconds);
+        System.out.printf("   GC pauses:          %d (total %d ms, p99 %d ms, max %d ms)%n%n",
+                sorted.size(), totalPause, percentile(sorted, 0.99), percentile(sorted, 1.0));
+
+        cache.clear();
+        System.gc();
+    }
+
+    /**
+     * Log-uniform size: as many 100-byte values as 100-KB values, like real payload mixes.
+     */
+    private static byte[] randomValue(Random random) {
+        double logMin = Math.log(MIN_VALUE_BYTES);
+        double logMax = Math.log(MAX_VALUE_BYTES);
+        int size = (int) Math.exp(logMin + random.nextDouble() * (logMax - logMin));
+        byte[] value = new byte[size];
+        value[0] = (byte) size;
+        return value;
+    }
+
+    private static void installPauseListener() {
+        NotificationListener listener = (notification, handback) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // Concurrent cycles are reported too but do not stop application threads
+                if (!info.getGcName().contains("Concurrent")) {
+                    pauses.add(info.getGcInfo().getDuration());
+                }
+            }
+        };
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
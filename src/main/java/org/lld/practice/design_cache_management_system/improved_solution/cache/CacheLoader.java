@@ -0,0 +1,37 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes values for a LoadingCache on a miss (typically by reading the backing store).
+ *
+ * @param <K> Type of cache keys
+ * @param <V> Type of cache values
+ */
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+
+    /**
+     * Load the value for a single key.
+     *
+     * @return the value (must not be null)
+     * @throws Exception if the value cannot be loaded
+     */
+    V load(K key) throws Exception;
+
+    /**
+     * Load values for several keys in one round trip.
+     * Override when the backing store supports batch reads (e.g. SQL IN, Redis MGET);
+     * the default falls back to one load() per key.
+     * Keys missing from the returned map are treated as "not found".
+     */
+    default Map<K, V> loadAll(Set<? extends K> keys) throws Exception {
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            values.put(key, load(key));
+        }
+        return values;
+    }
+}
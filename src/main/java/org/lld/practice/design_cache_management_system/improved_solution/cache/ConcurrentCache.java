@@ -0,0 +1,234 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheConfig;
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheStats;
+import org.lld.practice.design_cache_management_system.improved_solution.strategies.EvictionStrategy;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Lock-striped concurrent cache.
+ *
+ * Splits the key space into N independent segments. Each segment owns its
+ * own storage, its own EvictionStrategy and its own lock, so threads working
+ * on keys in different segments never contend with each other.
+ *
+ * Segments use an exclusive lock (not a ReadWriteLock) because a cache "read"
+ * is really a write: get() updates access metadata and the eviction
+ * strategy's ordering.
+ *
+ * Trade-off: eviction is per segment, so the cache approximates the global
+ * policy (e.g. evicts the LRU key of the segment, not of the whole cache).
+ * Segment capacities add up to exactly the configured capacity (the
+ * remainder is spread one entry each over the first segments). Evictions
+ * are only logged to the console when built from a CacheConfig that asks
+ * for it, since the logging happens while holding a segment lock.
+ *
+ * @param <K> Type of cache keys
+ * @param <V> Type of cache values
+ */
+public class ConcurrentCache<K, V> implements Cache<K, V> {
+
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final int capacity;
+    private final CacheStats stats;
+
+    public ConcurrentCache(int capacity, int concurrencyLevel, Supplier<EvictionStrategy<K>> strategySupplier) {
+        this(capacity, concurrencyLevel, strategySupplier, null);
+    }
+
+    public ConcurrentCache(int capacity,
+                           int concurrencyLevel,
+                           Supplier<EvictionStrategy<K>> strategySupplier,
+                           Duration defaultTtl) {
+        this(capacity, concurrencyLevel, strategySupplier, defaultTtl, new CacheStats(), false);
+    }
+
+    /**
+     * Create a cache from configuration, honoring its stats and eviction-logging flags.
+     */
+    public ConcurrentCache(CacheConfig config, Supplier<EvictionStrategy<K>> strategySupplier) {
+        this(config.getCapacity(), config.getConcurrencyLevel(), strategySupplier, config.getDefaultTtl(),
+                CacheStats.forConfig(config), config.isLogEvictions());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentCache(int capacity,
+                            int concurrencyLevel,
+                            Supplier<EvictionStrategy<K>> strategySupplier,
+                            Duration defaultTtl,
+                            CacheStats stats,
+                            boolean logEvictions) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive");
+        }
+
+        // Round down to a power of two so the segment index is a cheap mask
+        int segmentCount = Integer.highestOneBit(Math.min(Math.min(concurrencyLevel, capacity), MAX_SEGMENTS));
+        int segmentCapacity = capacity / segmentCount;
+        int remainder = capacity % segmentCount;
+
+        this.capacity = capacity;
+        this.stats = stats;
+        this.segmentMask = segmentCount - 1;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(new InMemoryCache<>(
+                    segmentCapacity + (i < remainder ? 1 : 0), strategySupplier.get(), defaultTtl, stats, logEvictions));
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.cache.get(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.cache.put(key, value);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Put a value with custom TTL.
+     */
+    public void put(K key, V value, Duration ttl) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.cache.put(key, value, ttl);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<V> remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.cache.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        // containsKey may remove an expired entry, so it needs the lock too
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.cache.containsKey(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Sum of segment sizes. Segments are locked one at a time, so the result
+     * is a moment-in-time estimate while other threads are writing.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.cache.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.cache.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Clean up expired entries in every segment.
+     */
+    public int cleanupExpired() {
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                removed += segment.cache.cleanupExpired();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Pick a segment by spreading the high bits of the hash into the low
+     * bits (same idea as HashMap) so poor hashCodes still distribute well.
+     */
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    /**
+     * One independently locked slice of the cache.
+     */
+    private static class Segment<K, V> {
+        final InMemoryCache<K, V> cache;
+        final ReentrantLock lock = new ReentrantLock();
+
+        Segment(InMemoryCache<K, V> cache) {
+            this.cache = cache;
+        }
+    }
+}
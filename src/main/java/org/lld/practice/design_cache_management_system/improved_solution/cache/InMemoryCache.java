@@ -1,11 +1,11 @@
 package org.lld.practice.design_cache_management_system.improved_solution.cache;
 
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheConfig;
 import org.lld.practice.design_cache_management_system.improved_solution.models.CacheEntry;
 import org.lld.practice.design_cache_management_system.improved_solution.models.CacheStats;
 import org.lld.practice.design_cache_management_system.improved_solution.strategies.EvictionStrategy;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -14,11 +14,15 @@ import java.util.Optional;
  * In-memory cache implementation with configurable eviction strategy.
  * 
  * Features:
- * - Configurable capacity
+ * - Configurable capacity (entry count, or total weight via a Weigher)
  * - Pluggable eviction strategy (LRU, LFU, FIFO)
  * - Optional TTL support
  * - Statistics tracking
  *
+ * TTL entries are tracked in a hierarchical TimerWheel. Every write first
+ * advances the wheel, so expired entries are dropped (and stop counting
+ * against capacity) before a live entry is evicted, without scanning the map.
+ *
  * @param <K> Type of cache keys
  * @param <V> Type of cache values
  */
@@ -27,24 +31,80 @@ public class InMemoryCache<K, V> implements Cache<K, V> {
     private final Map<K, CacheEntry<V>> storage = new HashMap<>();
     private final EvictionStrategy<K> evictionStrategy;
     private final int capacity;
+    private final long maximumWeight;
+    private final Weigher<? super K, ? super V> weigher;  // null means bounded by entry count
     private final Duration defaultTtl;
-    private final CacheStats stats = new CacheStats();
+    private final CacheStats stats;
+    private final boolean logEvictions;
+    private final TimerWheel<K> timerWheel = new TimerWheel<>(System.nanoTime());
+    private long weightedSize;
 
     public InMemoryCache(int capacity, EvictionStrategy<K> evictionStrategy) {
         this(capacity, evictionStrategy, null);
     }
 
     public InMemoryCache(int capacity, EvictionStrategy<K> evictionStrategy, Duration defaultTtl) {
+        this(capacity, evictionStrategy, defaultTtl, new CacheStats(), true);
+    }
+
+    public InMemoryCache(CacheConfig config, EvictionStrategy<K> evictionStrategy) {
+        this(config.getCapacity(), evictionStrategy, config.getDefaultTtl(), CacheStats.forConfig(config),
+                config.isLogEvictions());
+    }
+
+    /**
+     * Create a cache bounded by total weight (config.getMaximumWeight()) instead of entry count.
+     * Entries are evicted until the new entry fits; an entry heavier than the
+     * maximum weight on its own is not cached.
+     */
+    public InMemoryCache(CacheConfig config, Weigher<? super K, ? super V> weigher, EvictionStrategy<K> evictionStrategy) {
+        this(Integer.MAX_VALUE, config.getMaximumWeight(), weigher, evictionStrategy,
+                config.getDefaultTtl(), CacheStats.forConfig(config), config.isLogEvictions());
+    }
+
+    /**
+     * Create a cache that reports into an existing stats instance.
+     * Used by ConcurrentCache so all segments share one set of counters.
+     */
+    InMemoryCache(int capacity,
+                  EvictionStrategy<K> evictionStrategy,
+                  Duration defaultTtl,
+                  CacheStats stats,
+                  boolean logEvictions) {
+        this(capacity, Long.MAX_VALUE, null, evictionStrategy, defaultTtl, stats, logEvictions);
+    }
+
+    private InMemoryCache(int capacity,
+                          long maximumWeight,
+                          Weigher<? super K, ? super V> weigher,
+                          EvictionStrategy<K> evictionStrategy,
+                          Duration defaultTtl,
+                          CacheStats stats,
+                          boolean logEvictions) {
         if (capacity <= 0) {
             throw new IllegalArgumentException("Capacity must be positive");
         }
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
         this.capacity = capacity;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
         this.evictionStrategy = evictionStrategy;
         this.defaultTtl = defaultTtl;
+        this.stats = stats;
+        this.logEvictions = logEvictions;
     }
 
     @Override
     public Optional<V> get(K key) {
+        return getEntry(key).map(CacheEntry::getValue);
+    }
+
+    /**
+     * Same as get(), but exposes entry metadata (e.g. expiry for refresh-ahead).
+     */
+    Optional<CacheEntry<V>> getEntry(K key) {
         CacheEntry<V> entry = storage.get(key);
         
         if (entry == null) {
@@ -65,46 +125,69 @@ public class InMemoryCache<K, V> implements Cache<K, V> {
         evictionStrategy.recordAccess(key);
         stats.recordHit();
         
+        return Optional.of(entry);
+    }
+
+    /**
+     * Look up a live value without touching statistics or eviction order.
+     */
+    Optional<V> peek(K key) {
+        CacheEntry<V> entry = storage.get(key);
+        if (entry == null || entry.isExpired()) {
+            return Optional.empty();
+        }
         return Optional.of(entry.getValue());
     }
 
     @Override
     public void put(K key, V value) {
-        // Check if we need to evict
-        if (!storage.containsKey(key) && storage.size() >= capacity) {
-            evictOne();
-        }
-        
-        // Create entry with TTL if configured
-        Instant expiresAt = defaultTtl != null ? Instant.now().plus(defaultTtl) : null;
-        CacheEntry<V> entry = new CacheEntry<>(value, expiresAt);
-        
-        storage.put(key, entry);
-        evictionStrategy.recordInsertion(key);
-        stats.recordPut();
+        put(key, value, defaultTtl);
     }
 
     /**
      * Put a value with custom TTL.
      */
     public void put(K key, V value, Duration ttl) {
-        if (!storage.containsKey(key) && storage.size() >= capacity) {
-            evictOne();
+        long now = System.nanoTime();
+        // Piggyback expiration on writes: free space held by dead entries first
+        timerWheel.advance(now, this::expire);
+
+        int weight = weigher != null ? weigher.weigh(key, value) : 1;
+        if (weight > maximumWeight) {
+            // Can never fit: drop any older value rather than serve it stale
+            removeEntry(key);
+            return;
+        }
+
+        // Check if we need to evict
+        if (weigher == null) {
+            if (!storage.containsKey(key) && storage.size() >= capacity) {
+                evictOne();
+            }
+        } else {
+            while (weightedSize - weightOf(storage.get(key)) + weight > maximumWeight && evictOne()) {
+                // Keep evicting until the new entry fits
+            }
         }
         
-        Instant expiresAt = ttl != null ? Instant.now().plus(ttl) : null;
-        CacheEntry<V> entry = new CacheEntry<>(value, expiresAt);
+        // Create entry with TTL if configured
+        long expiresAtNanos = ttl != null ? now + ttl.toNanos() : CacheEntry.NO_EXPIRY;
+        CacheEntry<V> entry = new CacheEntry<>(value, expiresAtNanos, weight);
         
-        storage.put(key, entry);
+        weightedSize += weight - weightOf(storage.put(key, entry));
         evictionStrategy.recordInsertion(key);
+        if (ttl != null) {
+            timerWheel.schedule(key, now + ttl.toNanos());
+        } else {
+            timerWheel.cancel(key);
+        }
         stats.recordPut();
     }
 
     @Override
     public Optional<V> remove(K key) {
-        CacheEntry<V> entry = storage.remove(key);
+        CacheEntry<V> entry = removeEntry(key);
         if (entry != null) {
-            evictionStrategy.remove(key);
             stats.recordRemoval();
             return Optional.of(entry.getValue());
         }
@@ -144,6 +227,8 @@ public class InMemoryCache<K, V> implements Cache<K, V> {
     public void clear() {
         storage.clear();
         evictionStrategy.clear();
+        timerWheel.clear();
+        weightedSize = 0;
     }
 
     @Override
@@ -151,37 +236,70 @@ public class InMemoryCache<K, V> implements Cache<K, V> {
         return stats;
     }
 
+    /**
+     * Total weight of cached entries (equals size() when no Weigher is used).
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
     /**
      * Evict one entry based on eviction strategy.
+     *
+     * @return false if there was nothing left to evict
      */
-    private void evictOne() {
+    private boolean evictOne() {
         Optional<K> candidate = evictionStrategy.getEvictionCandidate();
-        if (candidate.isPresent()) {
-            K key = candidate.get();
-            storage.remove(key);
-            evictionStrategy.remove(key);
-            stats.recordEviction();
+        if (candidate.isEmpty()) {
+            return false;
+        }
+        K key = candidate.get();
+        removeEntry(key);
+        stats.recordEviction();
+        if (logEvictions) {
             System.out.printf("🗑️ Evicted key: %s%n", key);
         }
+        return true;
+    }
+
+    /**
+     * Remove a key from storage, eviction tracking, the timer wheel and the weight total.
+     */
+    private CacheEntry<V> removeEntry(K key) {
+        CacheEntry<V> entry = storage.remove(key);
+        if (entry != null) {
+            weightedSize -= entry.getWeight();
+            evictionStrategy.remove(key);
+            timerWheel.cancel(key);
+        }
+        return entry;
+    }
+
+    private static int weightOf(CacheEntry<?> entry) {
+        return entry == null ? 0 : entry.getWeight();
     }
 
     /**
      * Clean up expired entries.
      * Can be called periodically or on-demand.
+     *
+     * Advances the timer wheel instead of scanning every entry, so the cost is
+     * proportional to the number of entries that expired. Entries may be
+     * collected up to one wheel tick (~17 ms) after their deadline.
      */
     public int cleanupExpired() {
-        int removed = 0;
-        var iterator = storage.entrySet().iterator();
-        while (iterator.hasNext()) {
-            var entry = iterator.next();
-            if (entry.getValue().isExpired()) {
-                evictionStrategy.remove(entry.getKey());
-                iterator.remove();
-                stats.recordExpiration();
-                removed++;
-            }
-        }
-        return removed;
+        return timerWheel.advance(System.nanoTime(), this::expire);
     }
-}
 
+    /**
+     * Timer wheel callback: the wheel has already dropped its own timer.
+     */
+    private void expire(K key) {
+        removeEntry(key);
+        stats.recordExpiration();
+    }
+}
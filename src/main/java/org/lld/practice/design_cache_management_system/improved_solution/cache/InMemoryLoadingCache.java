@@ -0,0 +1,377 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import org.lld.practice.design_cache_management_system.improved_solution.exceptions.CacheLoadingException;
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheEntry;
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheStats;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe loading cache built on InMemoryCache.
+ *
+ * Request coalescing: in-flight loads are tracked as CompletableFutures in a
+ * ConcurrentHashMap. The first caller to miss on a key installs the future and
+ * runs the loader; everyone else arriving before it completes joins the same
+ * future.
+ *
+ * Refresh-ahead: when a hit finds an entry that expires within the configured
+ * refresh-ahead window, a background reload is started and the current value
+ * is returned immediately. Hot keys therefore never actually expire, and
+ * readers never wait on the backing store for them.
+ *
+ * The loader always runs outside the cache lock, so a slow backing store
+ * does not block hits on other keys.
+ *
+ * A put(), remove() or clear() supersedes the loads running for the keys it
+ * touches: their waiters still get the loaded value, but it is not stored,
+ * so a slow load never overwrites a newer write.
+ *
+ * @param <K> Type of cache keys
+ * @param <V> Type of cache values
+ */
+public class InMemoryLoadingCache<K, V> implements LoadingCache<K, V> {
+
+    private final InMemoryCache<K, V> cache;
+    private final CacheLoader<K, V> loader;
+    private final Executor executor;
+    private final Duration refreshAhead;  // null means no refresh-ahead
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public InMemoryLoadingCache(InMemoryCache<K, V> cache,
+                                CacheLoader<K, V> loader,
+                                Executor executor,
+                                Duration refreshAhead) {
+        this.cache = Objects.requireNonNull(cache, "Cache cannot be null");
+        this.loader = Objects.requireNonNull(loader, "Loader cannot be null");
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+        this.refreshAhead = refreshAhead;
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        return lookup(key);
+    }
+
+    @Override
+    public V getOrLoad(K key) {
+        Optional<V> cached = lookup(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return join(load(key, false, false));
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(K key) {
+        Optional<V> cached = lookup(key);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        return load(key, true, false);
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<K, V> result = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> waiting = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> claimed = new LinkedHashMap<>();
+
+        for (K key : keys) {
+            if (result.containsKey(key) || waiting.containsKey(key) || claimed.containsKey(key)) {
+                continue;
+            }
+            Optional<V> cached = lookup(key);
+            if (cached.isPresent()) {
+                result.put(key, cached.get());
+                continue;
+            }
+            CompletableFuture<V> created = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                waiting.put(key, existing);
+            } else {
+                claimed.put(key, created);
+            }
+        }
+
+        Set<K> notFound = claimed.isEmpty() ? Collections.emptySet() : loadBatch(claimed);
+
+        claimed.forEach((key, future) -> {
+            if (!notFound.contains(key)) {
+                result.put(key, join(future));
+            }
+        });
+        waiting.forEach((key, future) -> {
+            try {
+                result.put(key, join(future));
+            } catch (KeyNotFoundException e) {
+                // Another getAll() claimed the key and its loader did not return it
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<V> refresh(K key) {
+        return load(key, true, true);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            inFlight.remove(key);
+            cache.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<V> remove(K key) {
+        lock.lock();
+        try {
+            inFlight.remove(key);
+            return cache.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        lock.lock();
+        try {
+            return cache.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return cache.capacity();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            inFlight.clear();
+            cache.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Number of loads currently running (useful to observe coalescing).
+     */
+    public int getInFlightLoadCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Cache lookup that also kicks off a refresh-ahead reload when the entry
+     * is close to expiry. The (still valid) current value is returned either way.
+     */
+    private Optional<V> lookup(K key) {
+        Optional<CacheEntry<V>> entry;
+        lock.lock();
+        try {
+            entry = cache.getEntry(key);
+        } finally {
+            lock.unlock();
+        }
+
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+        if (isDueForRefresh(entry.get())) {
+            load(key, true, true);
+        }
+        return Optional.of(entry.get().getValue());
+    }
+
+    private Optional<V> peek(K key) {
+        lock.lock();
+        try {
+            return cache.peek(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isDueForRefresh(CacheEntry<V> entry) {
+        long expiresAtNanos = entry.getExpiresAtNanos();
+        return refreshAhead != null
+                && expiresAtNanos != CacheEntry.NO_EXPIRY
+                && System.nanoTime() + refreshAhead.toNanos() - expiresAtNanos > 0;
+    }
+
+    /**
+     * Start (or join) the single in-flight load for a key.
+     *
+     * @param async  run the loader on the executor instead of the calling thread
+     * @param reload load even if a value is present (refresh) rather than only on a miss
+     */
+    private CompletableFuture<V> load(K key, boolean async, boolean reload) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Another load may have finished between our miss and claiming the slot
+        if (!reload) {
+            Optional<V> loaded = peek(key);
+            if (loaded.isPresent()) {
+                inFlight.remove(key, created);
+                created.complete(loaded.get());
+                return created;
+            }
+        }
+
+        Runnable task = () -> {
+            try {
+                V value = loader.load(key);
+                if (value == null) {
+                    throw new CacheLoadingException("Loader returned null for key: " + key);
+                }
+                complete(key, created, value);
+            } catch (Throwable e) {
+                // Settle the future whatever happens, or every waiter on the key hangs
+                fail(key, created, e);
+                if (e instanceof Error error) {
+                    throw error;
+                }
+            }
+        };
+
+        if (async) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                fail(key, created, e);
+            }
+        } else {
+            task.run();
+        }
+        return created;
+    }
+
+    /**
+     * Run one loadAll() for every claimed key and settle their futures.
+     *
+     * @return keys the loader did not return
+     */
+    private Set<K> loadBatch(Map<K, CompletableFuture<V>> claimed) {
+        Map<K, V> loaded;
+        try {
+            loaded = loader.loadAll(Collections.unmodifiableSet(claimed.keySet()));
+        } catch (Throwable e) {
+            claimed.forEach((key, future) -> fail(key, future, e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+            throw wrap(e);
+        }
+
+        Set<K> notFound = new HashSet<>();
+        claimed.forEach((key, future) -> {
+            V value = loaded == null ? null : loaded.get(key);
+            if (value != null) {
+                complete(key, future, value);
+            } else {
+                notFound.add(key);
+                fail(key, future, new KeyNotFoundException(key));
+            }
+        });
+        return notFound;
+    }
+
+    /**
+     * Store the value and release the in-flight slot under the lock, so a
+     * caller that misses right after this finds the value instead of
+     * starting a new load. A load that no longer owns the slot was
+     * superseded by a write, and its value is not stored.
+     */
+    private void complete(K key, CompletableFuture<V> future, V value) {
+        lock.lock();
+        try {
+            if (inFlight.remove(key, future)) {
+                cache.put(key, value);
+            }
+        } finally {
+            lock.unlock();
+        }
+        future.complete(value);
+    }
+
+    private void fail(K key, CompletableFuture<V> future, Throwable cause) {
+        inFlight.remove(key, future);
+        future.completeExceptionally(wrap(cause));
+    }
+
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw wrap(e.getCause());
+        }
+    }
+
+    private static CacheLoadingException wrap(Throwable cause) {
+        if (cause instanceof CacheLoadingException loadingException) {
+            return loadingException;
+        }
+        return new CacheLoadingException("Failed to load value", cause);
+    }
+
+    /**
+     * A bulk loader did not return the key; getAll() leaves such keys out.
+     */
+    private static final class KeyNotFoundException extends CacheLoadingException {
+
+        private static final long serialVersionUID = 1L;
+
+        KeyNotFoundException(Object key) {
+            super("Key not found by bulk loader: " + key);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache that fills itself from a CacheLoader on a miss.
+ *
+ * Guarantees at most one in-flight load per key: concurrent callers that
+ * miss on the same key wait for the same load instead of each hitting the
+ * backing store (no thundering herd when a hot key expires).
+ *
+ * @param <K> Type of cache keys
+ * @param <V> Type of cache values
+ */
+public interface LoadingCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Get a value, loading it on a miss. Blocks until the value is available.
+     *
+     * @throws org.lld.practice.design_cache_management_system.improved_solution.exceptions.CacheLoadingException
+     *         if the loader fails
+     */
+    V getOrLoad(K key);
+
+    /**
+     * Get a value, loading it asynchronously on a miss.
+     * Completes immediately on a hit.
+     */
+    CompletableFuture<V> getAsync(K key);
+
+    /**
+     * Get values for several keys; all misses are fetched with a single
+     * CacheLoader.loadAll() call. Keys the loader does not return are left out.
+     */
+    Map<K, V> getAll(Collection<? extends K> keys);
+
+    /**
+     * Reload a key in the background. The current value (if any) keeps
+     * being served until the new one is stored.
+     */
+    CompletableFuture<V> refresh(K key);
+}
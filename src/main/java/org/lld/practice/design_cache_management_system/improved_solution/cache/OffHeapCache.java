@@ -0,0 +1,225 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import org.lld.practice.design_cache_management_system.improved_solution.models.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cache that keeps serialized values outside the Java heap.
+ *
+ * Values live in a ring of fixed-size direct ByteBuffer slabs; the heap only
+ * holds a small index (key → packed slab/offset address, kept as primitive
+ * longs in an OffHeapIndex, so a put boxes nothing). The garbage
+ * collector never traces or copies the cached bytes, so GC pauses stay flat
+ * no matter how many gigabytes are cached.
+ *
+ * <pre>
+ *   index (heap):   key → [slab 2 | offset 4096]
+ *   slabs (direct): [slab 0][slab 1][slab 2 ◄ write][slab 3] ... (ring)
+ *   record layout:  [int length][serialized value bytes]
+ * </pre>
+ *
+ * Writes are appended to the active slab. When it is full the ring advances
+ * and the next slab is recycled wholesale: every key still pointing into it
+ * is evicted. This is FIFO at slab granularity - coarser than LRU/LFU, but
+ * it needs no per-entry bookkeeping and no free-space management.
+ * Overwritten values leave dead bytes behind until their slab is recycled.
+ *
+ * No TTL support. Not thread-safe; wrap with ThreadSafeCache if shared.
+ *
+ * @param <K> Type of cache keys
+ * @param <V> Type of cache values
+ */
+public class OffHeapCache<K, V> implements Cache<K, V> {
+
+    public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int MIN_SLABS = 2;
+
+    private final ByteBuffer[] slabs;           // allocated lazily
+    private final List<List<K>> slabKeys;       // keys written into each slab, for recycling
+    private final OffHeapIndex<K> index = new OffHeapIndex<>();
+    private final ValueSerializer<V> serializer;
+    private final int slabSize;
+    private final CacheStats stats = new CacheStats();
+    private int activeSlab;
+    private int writeOffset;
+
+    public OffHeapCache(long maximumBytes, ValueSerializer<V> serializer) {
+        this(maximumBytes, (int) Math.min(DEFAULT_SLAB_SIZE, maximumBytes / MIN_SLABS), serializer);
+    }
+
+    public OffHeapCache(long maximumBytes, int slabSize, ValueSerializer<V> serializer) {
+        if (slabSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Slab size must be larger than " + HEADER_BYTES + " bytes");
+        }
+        if (maximumBytes < (long) slabSize * MIN_SLABS) {
+            throw new IllegalArgumentException("Maximum bytes must hold at least " + MIN_SLABS + " slabs");
+        }
+        long slabCount = maximumBytes / slabSize;
+        if (slabCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many slabs; use a larger slab size");
+        }
+
+        this.serializer = Objects.requireNonNull(serializer, "Serializer cannot be null");
+        this.slabSize = slabSize;
+        this.slabs = new ByteBuffer[(int) slabCount];
+        this.slabKeys = new ArrayList<>();
+        for (int i = 0; i < slabCount; i++) {
+            slabKeys.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        long address = index.get(key);
+        if (address == OffHeapIndex.MISSING) {
+            stats.recordMiss();
+            return Optional.empty();
+        }
+        stats.recordHit();
+        return Optional.of(read(address));
+    }
+
+    /**
+     * Store a value.
+     *
+     * @throws IllegalArgumentException if the serialized value does not fit in one slab
+     */
+    @Override
+    public void put(K key, V value) {
+        Objects.requireNonNull(value, "Value cannot be null");
+        byte[] bytes = serializer.serialize(value);
+        int recordSize = HEADER_BYTES + bytes.length;
+        if (recordSize > slabSize) {
+            throw new IllegalArgumentException(
+                    "Serialized value (" + bytes.length + " bytes) does not fit in a " + slabSize + " byte slab");
+        }
+
+        if (writeOffset + recordSize > slabSize) {
+            advanceSlab();
+        }
+
+        ByteBuffer slab = slab(activeSlab);
+        slab.putInt(writeOffset, bytes.length);
+        slab.put(writeOffset + HEADER_BYTES, bytes);
+
+        index.put(key, address(activeSlab, writeOffset));
+        slabKeys.get(activeSlab).add(key);
+        writeOffset += recordSize;
+        stats.recordPut();
+    }
+
+    @Override
+    public Optional<V> remove(K key) {
+        long address = index.remove(key);
+        if (address == OffHeapIndex.MISSING) {
+            return Optional.empty();
+        }
+        stats.recordRemoval();
+        return Optional.of(read(address));
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Off-heap caches are bounded by bytes (see getMaximumBytes()), not entry count.
+     */
+    @Override
+    public int capacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        slabKeys.forEach(List::clear);
+        activeSlab = 0;
+        writeOffset = 0;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public long getMaximumBytes() {
+        return (long) slabs.length * slabSize;
+    }
+
+    /**
+     * Direct memory reserved so far (slabs are allocated on first use).
+     */
+    public long getAllocatedBytes() {
+        long allocated = 0;
+        for (ByteBuffer slab : slabs) {
+            if (slab != null) {
+                allocated += slab.capacity();
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Move the write position to the next slab in the ring, evicting every
+     * live entry that still points into it.
+     */
+    private void advanceSlab() {
+        activeSlab = (activeSlab + 1) % slabs.length;
+        writeOffset = 0;
+
+        List<K> keys = slabKeys.get(activeSlab);
+        for (K key : keys) {
+            long address = index.get(key);
+            // Skip keys that were removed or rewritten into another slab since
+            if (address != OffHeapIndex.MISSING && slabOf(address) == activeSlab) {
+                index.remove(key);
+                stats.recordEviction();
+            }
+        }
+        keys.clear();
+    }
+
+    private V read(long address) {
+        ByteBuffer slab = slabs[slabOf(address)];
+        int offset = offsetOf(address);
+        int length = slab.getInt(offset);
+        return serializer.deserialize(slab.slice(offset + HEADER_BYTES, length).asReadOnlyBuffer());
+    }
+
+    private ByteBuffer slab(int slabIndex) {
+        if (slabs[slabIndex] == null) {
+            slabs[slabIndex] = ByteBuffer.allocateDirect(slabSize);
+        }
+        return slabs[slabIndex];
+    }
+
+    private static long address(int slabIndex, int offset) {
+        return ((long) slabIndex << 32) | offset;
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+}
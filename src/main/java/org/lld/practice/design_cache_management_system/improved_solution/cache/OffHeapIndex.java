@@ -0,0 +1,152 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from keys to packed long addresses, used as the
+ * on-heap index of OffHeapCache.
+ *
+ * A HashMap&lt;K, Long&gt; costs a node and a boxed Long per entry (and a new
+ * Long on every put). Here keys and addresses sit in two parallel arrays:
+ *
+ * <pre>
+ *   keys:      [ k7 | null | k2 | k9 | null | ... ]
+ *   addresses: [ a7 |  -   | a2 | a9 |  -   | ... ]
+ * </pre>
+ *
+ * - Linear probing from the key's spread hash; the table is a power of two
+ *   and grows when it is more than half full, so probe runs stay short
+ * - remove() shifts later entries of the run back instead of leaving
+ *   tombstones, so lookups never slow down after many removals
+ *
+ * Addresses must be non-negative; MISSING (-1) means "no entry".
+ * Not thread-safe; owned by its OffHeapCache.
+ *
+ * @param <K> Type of keys
+ */
+class OffHeapIndex<K> {
+
+    static final long MISSING = -1L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] keys;
+    private long[] addresses;
+    private int mask;
+    private int size;
+
+    OffHeapIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @return the key's address, or MISSING
+     */
+    long get(Object key) {
+        int slot = find(key);
+        return slot >= 0 ? addresses[slot] : MISSING;
+    }
+
+    boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Insert or overwrite the key's address.
+     */
+    void put(K key, long address) {
+        int slot = slotFor(key);
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                addresses[slot] = address;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        addresses[slot] = address;
+        if (++size > (mask + 1) / 2) {
+            resize((mask + 1) * 2);
+        }
+    }
+
+    /**
+     * @return the removed address, or MISSING if the key was absent
+     */
+    long remove(Object key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return MISSING;
+        }
+        long address = addresses[slot];
+        deleteSlot(slot);
+        return address;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * @return the key's slot, or -1
+     */
+    private int find(Object key) {
+        for (int slot = slotFor(key); keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Empty the slot and move back every later entry of the probe run that
+     * may live there, so no entry ends up behind a gap from its home slot.
+     */
+    private void deleteSlot(int gap) {
+        for (int slot = (gap + 1) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            int home = slotFor(keys[slot]);
+            // Movable if the gap lies on the entry's probe path (home .. slot)
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                addresses[gap] = addresses[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = null;
+        size--;
+    }
+
+    private int slotFor(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;   // Fibonacci hashing spreads clustered hash codes
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        long[] oldAddresses = addresses;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put((K) oldKeys[i], oldAddresses[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        addresses = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+}
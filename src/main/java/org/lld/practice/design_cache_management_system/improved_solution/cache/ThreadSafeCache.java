@@ -11,9 +11,15 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * 
  * Decorates any Cache implementation to make it thread-safe.
  * Uses ReadWriteLock for better read concurrency:
- * - Multiple readers can access simultaneously
+ * - Multiple readers can access simultaneously (size, isEmpty)
  * - Writers have exclusive access
  *
+ * Note: get() and containsKey() are writers here. A cache lookup updates
+ * access metadata and the eviction strategy (and may drop expired entries),
+ * so running it under the shared read lock would corrupt those structures.
+ * Every access therefore serializes on one lock - use ConcurrentCache when
+ * many threads share the cache.
+ *
  * @param <K> Type of cache keys
  * @param <V> Type of cache values
  */
@@ -28,11 +34,11 @@ public class ThreadSafeCache<K, V> implements Cache<K, V> {
 
     @Override
     public Optional<V> get(K key) {
-        lock.readLock().lock();
+        lock.writeLock().lock();
         try {
             return delegate.get(key);
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
     }
 
@@ -58,11 +64,11 @@ public class ThreadSafeCache<K, V> implements Cache<K, V> {
 
     @Override
     public boolean containsKey(K key) {
-        lock.readLock().lock();
+        lock.writeLock().lock();
         try {
             return delegate.containsKey(key);
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
     }
 
@@ -0,0 +1,203 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for proactive TTL expiration.
+ *
+ * Like the hour/minute/second hands of a clock, each level is a ring of
+ * buckets with a coarser resolution than the one below it:
+ *
+ * <pre>
+ *   level 0: 64 buckets x ~16.8 ms  (covers ~1 s)
+ *   level 1: 64 buckets x ~1.07 s   (covers ~69 s)
+ *   level 2: 64 buckets x ~68.7 s   (covers ~73 min)
+ *   level 3: 64 buckets x ~73 min   (covers ~78 h)
+ *   level 4:  1 bucket  (overflow for anything longer)
+ * </pre>
+ *
+ * - schedule/cancel: O(1) - link/unlink a node in a bucket's doubly linked list
+ * - advance: only the buckets whose tick has passed are visited; timers that
+ *   are not due yet cascade down to a finer level. Each timer is touched at
+ *   most once per level, so expiration is amortized O(1) per entry instead of
+ *   an O(n) scan of the whole cache.
+ *
+ * Timers fire at most one level-0 tick (~16.8 ms) late. Bucket sizes and
+ * spans are powers of two so index math is shifts and masks.
+ *
+ * Not thread-safe; owned by the cache (or cache segment) that drives it.
+ *
+ * @param <K> Type of keys being timed
+ */
+public class TimerWheel<K> {
+
+    private static final int[] BUCKETS = {64, 64, 64, 64, 1};
+    private static final int[] SHIFT = {24, 30, 36, 42, 48};
+
+    private final Node<K>[][] wheel;
+    private final Map<K, Node<K>> timers = new HashMap<>();
+    private final long originNanos;
+    private long currentNanos;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long nowNanos) {
+        this.originNanos = nowNanos;
+        this.wheel = (Node<K>[][]) new Node<?>[BUCKETS.length][];
+        for (int level = 0; level < BUCKETS.length; level++) {
+            wheel[level] = (Node<K>[]) new Node<?>[BUCKETS[level]];
+            for (int bucket = 0; bucket < BUCKETS[level]; bucket++) {
+                wheel[level][bucket] = Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedule (or reschedule) a key to expire at the given System.nanoTime() deadline.
+     */
+    public void schedule(K key, long deadlineNanos) {
+        cancel(key);
+        Node<K> node = new Node<>(key, Math.max(deadlineNanos - originNanos, currentNanos));
+        timers.put(key, node);
+        link(node);
+    }
+
+    /**
+     * Stop tracking a key (removed, evicted, or overwritten without TTL).
+     */
+    public void cancel(K key) {
+        Node<K> node = timers.remove(key);
+        if (node != null) {
+            node.unlink();
+        }
+    }
+
+    /**
+     * Move the wheel forward to the given System.nanoTime() and hand every
+     * key whose deadline has passed to the callback.
+     *
+     * @return number of keys expired
+     */
+    public int advance(long nowNanos, Consumer<K> onExpire) {
+        long previousNanos = currentNanos;
+        currentNanos = Math.max(nowNanos - originNanos, previousNanos);
+
+        int expired = 0;
+        for (int level = 0; level < SHIFT.length; level++) {
+            long previousTicks = previousNanos >>> SHIFT[level];
+            long currentTicks = currentNanos >>> SHIFT[level];
+            if (currentTicks == previousTicks) {
+                // Higher levels tick even more slowly, so they cannot have moved either
+                break;
+            }
+            expired += expireBuckets(level, previousTicks, currentTicks - previousTicks, onExpire);
+        }
+        return expired;
+    }
+
+    public void clear() {
+        for (Node<K>[] buckets : wheel) {
+            for (Node<K> sentinel : buckets) {
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+        timers.clear();
+    }
+
+    /**
+     * Number of keys with a pending timer.
+     */
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Drain the buckets passed over between the previous and current tick.
+     * Due timers fire; the rest are re-linked, landing on a finer level.
+     */
+    private int expireBuckets(int level, long previousTicks, long delta, Consumer<K> onExpire) {
+        Node<K>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+
+        int expired = 0;
+        for (int i = start; i < start + steps; i++) {
+            Node<K> sentinel = buckets[i & mask];
+            Node<K> node = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+
+            while (node != sentinel) {
+                Node<K> next = node.next;
+                node.prev = null;
+                node.next = null;
+
+                if (node.deadline <= currentNanos) {
+                    timers.remove(node.key);
+                    onExpire.accept(node.key);
+                    expired++;
+                } else {
+                    link(node);
+                }
+                node = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Place a node on the finest level whose range covers its remaining time.
+     */
+    private void link(Node<K> node) {
+        long remaining = node.deadline - currentNanos;
+        for (int level = 0; level < SHIFT.length - 1; level++) {
+            if (remaining < (1L << SHIFT[level + 1])) {
+                long ticks = node.deadline >>> SHIFT[level];
+                node.linkBefore(wheel[level][(int) (ticks & (BUCKETS[level] - 1))]);
+                return;
+            }
+        }
+        node.linkBefore(wheel[SHIFT.length - 1][0]);
+    }
+
+    /**
+     * Timer node in a circular doubly linked bucket list (sentinel per bucket).
+     */
+    private static class Node<K> {
+        final K key;
+        final long deadline;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        static <K> Node<K> sentinel() {
+            Node<K> sentinel = new Node<>(null, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        void linkBefore(Node<K> sentinel) {
+            prev = sentinel.prev;
+            next = sentinel;
+            sentinel.prev.next = this;
+            sentinel.prev = this;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
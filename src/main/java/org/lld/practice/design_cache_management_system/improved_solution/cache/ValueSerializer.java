@@ -0,0 +1,55 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts cache values to and from bytes for off-heap storage.
+ *
+ * @param <V> Type of cache values
+ */
+public interface ValueSerializer<V> {
+
+    byte[] serialize(V value);
+
+    /**
+     * Rebuild a value from a read-only view of its bytes (position 0, limit = length).
+     */
+    V deserialize(ByteBuffer bytes);
+
+    /**
+     * Raw byte arrays, copied as-is.
+     */
+    static ValueSerializer<byte[]> byteArray() {
+        return new ValueSerializer<>() {
+            @Override
+            public byte[] serialize(byte[] value) {
+                return value;
+            }
+
+            @Override
+            public byte[] deserialize(ByteBuffer bytes) {
+                byte[] value = new byte[bytes.remaining()];
+                bytes.get(value);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Strings encoded as UTF-8.
+     */
+    static ValueSerializer<String> utf8String() {
+        return new ValueSerializer<>() {
+            @Override
+            public byte[] serialize(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(ByteBuffer bytes) {
+                return StandardCharsets.UTF_8.decode(bytes).toString();
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package org.lld.practice.design_cache_management_system.improved_solution.cache;
+
+/**
+ * Computes the relative size of a cache entry (typically its approximate size in bytes).
+ *
+ * Lets a cache be bounded by total weight instead of entry count, which keeps
+ * memory predictable when values range from a few bytes to megabytes.
+ *
+ * @param <K> Type of cache keys
+ * @param <V> Type of cache values
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * Weight of an entry. Must be non-negative and must not change while the entry is cached.
+     */
+    int weigh(K key, V value);
+}
@@ -0,0 +1,17 @@
+package org.lld.practice.design_cache_management_system.improved_solution.exceptions;
+
+/**
+ * Exception thrown when a LoadingCache cannot obtain a value from its loader.
+ */
+public class CacheLoadingException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CacheLoadingException(String message) {
+        super(message);
+    }
+
+    public CacheLoadingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
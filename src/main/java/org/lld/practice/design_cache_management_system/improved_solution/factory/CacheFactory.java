@@ -1,11 +1,21 @@
 package org.lld.practice.design_cache_management_system.improved_solution.factory;
 
 import org.lld.practice.design_cache_management_system.improved_solution.cache.Cache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.CacheLoader;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.ConcurrentCache;
 import org.lld.practice.design_cache_management_system.improved_solution.cache.InMemoryCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.InMemoryLoadingCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.LoadingCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.OffHeapCache;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.ValueSerializer;
+import org.lld.practice.design_cache_management_system.improved_solution.cache.Weigher;
 import org.lld.practice.design_cache_management_system.improved_solution.cache.ThreadSafeCache;
 import org.lld.practice.design_cache_management_system.improved_solution.models.CacheConfig;
 import org.lld.practice.design_cache_management_system.improved_solution.strategies.*;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Factory for creating cache instances.
  * Uses the Factory pattern to centralize cache creation logic.
@@ -20,13 +30,17 @@ public class CacheFactory {
      * Create a cache based on configuration.
      */
     public static <K, V> Cache<K, V> createCache(CacheConfig config) {
+        // Striped cache: every segment gets its own eviction strategy
+        if (config.isThreadSafe() && config.getConcurrencyLevel() > 1) {
+            return new ConcurrentCache<>(
+                    config,
+                    () -> createEvictionStrategy(config, config.getCapacity() / config.getConcurrencyLevel())
+            );
+        }
+
         EvictionStrategy<K> strategy = createEvictionStrategy(config);
         
-        Cache<K, V> cache = new InMemoryCache<>(
-                config.getCapacity(),
-                strategy,
-                config.getDefaultTtl()
-        );
+        Cache<K, V> cache = new InMemoryCache<>(config, strategy);
         
         // Wrap with thread-safe decorator if needed
         if (config.isThreadSafe()) {
@@ -66,14 +80,90 @@ public class CacheFactory {
                 .build());
     }
 
+    /**
+     * Create a cache bounded by total weight (config.getMaximumWeight(), e.g. bytes)
+     * rather than entry count.
+     */
+    public static <K, V> Cache<K, V> createWeightedCache(CacheConfig config, Weigher<? super K, ? super V> weigher) {
+        requireMaximumWeight(config);
+        Cache<K, V> cache = new InMemoryCache<>(config, weigher, createEvictionStrategy(config));
+        return config.isThreadSafe() ? new ThreadSafeCache<>(cache) : cache;
+    }
+
+    /**
+     * Create a cache that stores serialized values in direct (off-heap) memory,
+     * using config.getMaximumWeight() as the byte budget.
+     * Eviction is slab-level FIFO; the configured eviction policy and TTL do not apply.
+     */
+    public static <K, V> Cache<K, V> createOffHeapCache(CacheConfig config, ValueSerializer<V> serializer) {
+        requireMaximumWeight(config);
+        Cache<K, V> cache = new OffHeapCache<>(config.getMaximumWeight(), serializer);
+        return config.isThreadSafe() ? new ThreadSafeCache<>(cache) : cache;
+    }
+
+    /**
+     * Create a loading cache; async loads and refreshes run on the common ForkJoinPool.
+     * Loading caches are always thread-safe (they guard their own InMemoryCache).
+     */
+    public static <K, V> LoadingCache<K, V> createLoadingCache(CacheConfig config, CacheLoader<K, V> loader) {
+        return createLoadingCache(config, loader, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a loading cache whose async loads and refreshes run on the given executor.
+     * Use a dedicated executor when the loader blocks on I/O.
+     */
+    public static <K, V> LoadingCache<K, V> createLoadingCache(CacheConfig config,
+                                                              CacheLoader<K, V> loader,
+                                                              Executor executor) {
+        InMemoryCache<K, V> cache = new InMemoryCache<>(config, createEvictionStrategy(config));
+        return new InMemoryLoadingCache<>(cache, loader, executor, config.getRefreshAhead());
+    }
+
+    /**
+     * Create a W-TinyLFU cache with specified capacity.
+     */
+    public static <K, V> Cache<K, V> createWTinyLFUCache(int capacity) {
+        return createCache(CacheConfig.builder()
+                .capacity(capacity)
+                .evictionPolicy(org.lld.practice.design_cache_management_system.improved_solution.models.EvictionPolicy.W_TINY_LFU)
+                .build());
+    }
+
+    /**
+     * Create a lock-striped cache for high-concurrency access (evictions not logged).
+     */
+    public static <K, V> Cache<K, V> createConcurrentCache(int capacity, int concurrencyLevel) {
+        return createCache(CacheConfig.builder()
+                .capacity(capacity)
+                .concurrencyLevel(concurrencyLevel)
+                .logEvictions(false)
+                .build());
+    }
+
+    private static void requireMaximumWeight(CacheConfig config) {
+        if (config.getMaximumWeight() == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("maximumWeight must be configured for a weight-bounded cache");
+        }
+    }
+
     /**
      * Create eviction strategy based on policy.
      */
     private static <K> EvictionStrategy<K> createEvictionStrategy(CacheConfig config) {
+        return createEvictionStrategy(config, config.getCapacity());
+    }
+
+    /**
+     * LRU and LFU use the array-backed implementations, presized for the
+     * expected number of keys so steady-state bookkeeping never allocates.
+     */
+    private static <K> EvictionStrategy<K> createEvictionStrategy(CacheConfig config, int expectedSize) {
         return switch (config.getEvictionPolicy()) {
-            case LRU -> new LRUEvictionStrategy<>();
-            case LFU -> new LFUEvictionStrategy<>();
+            case LRU -> new ArrayLRUEvictionStrategy<>(expectedSize);
+            case LFU -> new ArrayLFUEvictionStrategy<>(expectedSize);
             case FIFO -> new FIFOEvictionStrategy<>();
+            case W_TINY_LFU -> new WTinyLFUEvictionStrategy<>();
         };
     }
 }
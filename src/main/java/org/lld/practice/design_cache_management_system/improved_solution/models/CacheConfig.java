@@ -13,6 +13,10 @@ public class CacheConfig {
     private final Duration defaultTtl;  // null means no TTL
     private final boolean threadSafe;
     private final boolean enableStats;
+    private final int concurrencyLevel;  // > 1 selects the lock-striped ConcurrentCache
+    private final boolean logEvictions;
+    private final Duration refreshAhead;  // null means no refresh-ahead (loading caches only)
+    private final long maximumWeight;     // used instead of capacity when a Weigher is supplied
 
     private CacheConfig(Builder builder) {
         this.capacity = builder.capacity;
@@ -20,6 +24,10 @@ public class CacheConfig {
         this.defaultTtl = builder.defaultTtl;
         this.threadSafe = builder.threadSafe;
         this.enableStats = builder.enableStats;
+        this.concurrencyLevel = builder.concurrencyLevel;
+        this.logEvictions = builder.logEvictions;
+        this.refreshAhead = builder.refreshAhead;
+        this.maximumWeight = builder.maximumWeight;
     }
 
     public int getCapacity() {
@@ -42,14 +50,30 @@ public class CacheConfig {
         return enableStats;
     }
 
+    public int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    public boolean isLogEvictions() {
+        return logEvictions;
+    }
+
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
     public boolean hasTtl() {
         return defaultTtl != null;
     }
 
     @Override
     public String toString() {
-        return String.format("CacheConfig{capacity=%d, policy=%s, ttl=%s, threadSafe=%s}",
-                capacity, evictionPolicy, defaultTtl, threadSafe);
+        return String.format("CacheConfig{capacity=%d, policy=%s, ttl=%s, threadSafe=%s, concurrencyLevel=%d}",
+                capacity, evictionPolicy, defaultTtl, threadSafe, concurrencyLevel);
     }
 
     /**
@@ -61,6 +85,10 @@ public class CacheConfig {
         private Duration defaultTtl = null;
         private boolean threadSafe = true;
         private boolean enableStats = true;
+        private int concurrencyLevel = 1;
+        private boolean logEvictions = true;
+        private Duration refreshAhead = null;
+        private long maximumWeight = Long.MAX_VALUE;
 
         public Builder capacity(int capacity) {
             if (capacity <= 0) {
@@ -90,6 +118,49 @@ public class CacheConfig {
             return this;
         }
 
+        /**
+         * Number of independently locked segments for a thread-safe cache.
+         * 1 keeps exact global eviction order behind a single lock; higher
+         * values trade that for parallelism (see ConcurrentCache).
+         */
+        public Builder concurrencyLevel(int concurrencyLevel) {
+            if (concurrencyLevel <= 0) {
+                throw new IllegalArgumentException("Concurrency level must be positive");
+            }
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * Print each evicted key to the console. Handy for demos,
+         * but should be off for benchmarks and eviction-heavy workloads.
+         */
+        public Builder logEvictions(boolean logEvictions) {
+            this.logEvictions = logEvictions;
+            return this;
+        }
+
+        /**
+         * For loading caches: reload entries in the background once they are
+         * within this duration of expiring, while still serving the old value.
+         * Only meaningful together with a TTL.
+         */
+        public Builder refreshAhead(Duration refreshAhead) {
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        /**
+         * Maximum total weight (e.g. bytes) for caches created with a Weigher.
+         */
+        public Builder maximumWeight(long maximumWeight) {
+            if (maximumWeight <= 0) {
+                throw new IllegalArgumentException("Maximum weight must be positive");
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
         public CacheConfig build() {
             return new CacheConfig(this);
         }
@@ -1,5 +1,6 @@
 package org.lld.practice.design_cache_management_system.improved_solution.models;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 
@@ -7,27 +8,52 @@ import java.util.Objects;
  * Represents a cache entry with value and metadata.
  * Tracks access patterns for eviction strategies.
  *
+ * Timestamps are stored as System.nanoTime() longs rather than Instants, so
+ * recording an access on the hot get() path allocates nothing. The Instant
+ * getters convert on demand for display and interop.
+ *
  * @param <V> Type of the cached value
  */
 public class CacheEntry<V> {
     
+    /**
+     * expiresAtNanos value for entries without TTL.
+     */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
     private final V value;
-    private final Instant createdAt;
-    private final Instant expiresAt;  // null means no expiry
+    private final long createdAtNanos;
+    private final long expiresAtNanos;  // NO_EXPIRY means no expiry
+    private final int weight;           // 1 unless the cache is bounded by a Weigher
     
-    private Instant lastAccessedAt;
+    private long lastAccessedAtNanos;
     private int accessCount;
 
     public CacheEntry(V value) {
-        this(value, null);
+        this(value, NO_EXPIRY, 1);
     }
 
     public CacheEntry(V value, Instant expiresAt) {
+        this(value, expiresAt, 1);
+    }
+
+    public CacheEntry(V value, Instant expiresAt, int weight) {
+        this(value, toNanoDeadline(expiresAt), weight);
+    }
+
+    /**
+     * @param expiresAtNanos System.nanoTime() deadline, or NO_EXPIRY
+     */
+    public CacheEntry(V value, long expiresAtNanos, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
         this.value = Objects.requireNonNull(value, "Value cannot be null");
-        this.createdAt = Instant.now();
-        this.lastAccessedAt = this.createdAt;
-        this.expiresAt = expiresAt;
+        this.createdAtNanos = System.nanoTime();
+        this.lastAccessedAtNanos = this.createdAtNanos;
+        this.expiresAtNanos = expiresAtNanos;
         this.accessCount = 1;
+        this.weight = weight;
     }
 
     /**
@@ -35,7 +61,7 @@ public class CacheEntry<V> {
      * Updates last accessed time and increments access count.
      */
     public void recordAccess() {
-        this.lastAccessedAt = Instant.now();
+        this.lastAccessedAtNanos = System.nanoTime();
         this.accessCount++;
     }
 
@@ -43,10 +69,11 @@ public class CacheEntry<V> {
      * Check if this entry has expired.
      */
     public boolean isExpired() {
-        if (expiresAt == null) {
+        if (expiresAtNanos == NO_EXPIRY) {
             return false;
         }
-        return Instant.now().isAfter(expiresAt);
+        // Compare by subtraction: nanoTime values may overflow, differences do not
+        return System.nanoTime() - expiresAtNanos > 0;
     }
 
     /**
@@ -54,11 +81,11 @@ public class CacheEntry<V> {
      * Returns -1 if no expiry is set.
      */
     public long getTimeToLiveMillis() {
-        if (expiresAt == null) {
+        if (expiresAtNanos == NO_EXPIRY) {
             return -1;
         }
-        long ttl = expiresAt.toEpochMilli() - Instant.now().toEpochMilli();
-        return Math.max(0, ttl);
+        long ttlNanos = expiresAtNanos - System.nanoTime();
+        return Math.max(0, ttlNanos / 1_000_000);
     }
 
     public V getValue() {
@@ -66,15 +93,29 @@ public class CacheEntry<V> {
     }
 
     public Instant getCreatedAt() {
-        return createdAt;
+        return toInstant(createdAtNanos);
     }
 
     public Instant getLastAccessedAt() {
-        return lastAccessedAt;
+        return toInstant(lastAccessedAtNanos);
     }
 
+    /**
+     * Expiry as wall-clock time, or null if no expiry is set.
+     */
     public Instant getExpiresAt() {
-        return expiresAt;
+        return expiresAtNanos == NO_EXPIRY ? null : toInstant(expiresAtNanos);
+    }
+
+    /**
+     * Expiry as a System.nanoTime() deadline, or NO_EXPIRY.
+     */
+    public long getExpiresAtNanos() {
+        return expiresAtNanos;
+    }
+
+    public int getWeight() {
+        return weight;
     }
 
     public int getAccessCount() {
@@ -86,5 +127,15 @@ public class CacheEntry<V> {
         return String.format("CacheEntry{value=%s, accessCount=%d, expired=%s}",
                 value, accessCount, isExpired());
     }
-}
 
+    private static long toNanoDeadline(Instant expiresAt) {
+        if (expiresAt == null) {
+            return NO_EXPIRY;
+        }
+        return System.nanoTime() + Duration.between(Instant.now(), expiresAt).toNanos();
+    }
+
+    private static Instant toInstant(long nanoTime) {
+        return Instant.now().minusNanos(System.nanoTime() - nanoTime);
+    }
+}
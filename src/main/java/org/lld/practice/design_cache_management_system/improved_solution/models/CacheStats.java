@@ -1,73 +1,108 @@
 package org.lld.practice.design_cache_management_system.improved_solution.models;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Statistics for cache operations.
- * Thread-safe using atomic counters.
+ * Thread-safe using striped LongAdder counters, so segments of a
+ * concurrent cache can share one instance without contending on a
+ * single cache line. A disabled instance (CacheConfig.enableStats(false))
+ * ignores every record call and reports zeros.
  */
 public class CacheStats {
     
-    private final AtomicLong hits = new AtomicLong(0);
-    private final AtomicLong misses = new AtomicLong(0);
-    private final AtomicLong puts = new AtomicLong(0);
-    private final AtomicLong evictions = new AtomicLong(0);
-    private final AtomicLong expirations = new AtomicLong(0);
-    private final AtomicLong removals = new AtomicLong(0);
+    private final boolean enabled;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+
+    public CacheStats() {
+        this(true);
+    }
+
+    private CacheStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Stats for a cache configured with enableStats(false).
+     */
+    public static CacheStats disabled() {
+        return new CacheStats(false);
+    }
+
+    public static CacheStats forConfig(CacheConfig config) {
+        return config.isEnableStats() ? new CacheStats() : disabled();
+    }
 
     public void recordHit() {
-        hits.incrementAndGet();
+        if (enabled) {
+            hits.increment();
+        }
     }
 
     public void recordMiss() {
-        misses.incrementAndGet();
+        if (enabled) {
+            misses.increment();
+        }
     }
 
     public void recordPut() {
-        puts.incrementAndGet();
+        if (enabled) {
+            puts.increment();
+        }
     }
 
     public void recordEviction() {
-        evictions.incrementAndGet();
+        if (enabled) {
+            evictions.increment();
+        }
     }
 
     public void recordExpiration() {
-        expirations.incrementAndGet();
+        if (enabled) {
+            expirations.increment();
+        }
     }
 
     public void recordRemoval() {
-        removals.incrementAndGet();
+        if (enabled) {
+            removals.increment();
+        }
     }
 
     public long getHits() {
-        return hits.get();
+        return hits.sum();
     }
 
     public long getMisses() {
-        return misses.get();
+        return misses.sum();
     }
 
     public long getPuts() {
-        return puts.get();
+        return puts.sum();
     }
 
     public long getEvictions() {
-        return evictions.get();
+        return evictions.sum();
     }
 
     public long getExpirations() {
-        return expirations.get();
+        return expirations.sum();
     }
 
     public long getRemovals() {
-        return removals.get();
+        return removals.sum();
     }
 
     /**
      * Get total number of requests (hits + misses).
      */
     public long getTotalRequests() {
-        return hits.get() + misses.get();
+        return hits.sum() + misses.sum();
     }
 
     /**
@@ -75,7 +110,7 @@ public class CacheStats {
      */
     public double getHitRatio() {
         long total = getTotalRequests();
-        return total == 0 ? 0.0 : (double) hits.get() / total;
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
     }
 
     /**
@@ -89,19 +124,19 @@ public class CacheStats {
      * Reset all statistics.
      */
     public void reset() {
-        hits.set(0);
-        misses.set(0);
-        puts.set(0);
-        evictions.set(0);
-        expirations.set(0);
-        removals.set(0);
+        hits.reset();
+        misses.reset();
+        puts.reset();
+        evictions.reset();
+        expirations.reset();
+        removals.reset();
     }
 
     @Override
     public String toString() {
         return String.format(
                 "CacheStats{hits=%d, misses=%d, hitRatio=%.2f%%, puts=%d, evictions=%d, expirations=%d}",
-                hits.get(), misses.get(), getHitRatio() * 100, puts.get(), evictions.get(), expirations.get());
+                hits.sum(), misses.sum(), getHitRatio() * 100, puts.sum(), evictions.sum(), expirations.sum());
     }
 
     /**
@@ -112,14 +147,14 @@ public class CacheStats {
         System.out.println("║          📊 CACHE STATISTICS            ║");
         System.out.println("╠════════════════════════════════════════╣");
         System.out.printf("║ Total Requests:    %-19d ║%n", getTotalRequests());
-        System.out.printf("║ Cache Hits:        %-19d ║%n", hits.get());
-        System.out.printf("║ Cache Misses:      %-19d ║%n", misses.get());
+        System.out.printf("║ Cache Hits:        %-19d ║%n", hits.sum());
+        System.out.printf("║ Cache Misses:      %-19d ║%n", misses.sum());
         System.out.printf("║ Hit Ratio:         %-17.2f%% ║%n", getHitRatio() * 100);
         System.out.println("╠════════════════════════════════════════╣");
-        System.out.printf("║ Total Puts:        %-19d ║%n", puts.get());
-        System.out.printf("║ Evictions:         %-19d ║%n", evictions.get());
-        System.out.printf("║ Expirations:       %-19d ║%n", expirations.get());
-        System.out.printf("║ Manual Removals:   %-19d ║%n", removals.get());
+        System.out.printf("║ Total Puts:        %-19d ║%n", puts.sum());
+        System.out.printf("║ Evictions:         %-19d ║%n", evictions.sum());
+        System.out.printf("║ Expirations:       %-19d ║%n", expirations.sum());
+        System.out.printf("║ Manual Removals:   %-19d ║%n", removals.sum());
         System.out.println("╚════════════════════════════════════════╝\n");
     }
 }
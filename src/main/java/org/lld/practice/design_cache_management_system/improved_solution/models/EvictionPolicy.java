@@ -20,6 +20,14 @@ public enum EvictionPolicy {
      * First In First Out - evicts the oldest inserted item.
      * Best for: Simple scenarios where age matters more than access patterns.
      */
-    FIFO
+    FIFO,
+
+    /**
+     * Window TinyLFU - small LRU window in front of a segmented LRU main area,
+     * guarded by a count-min frequency sketch that only admits keys more popular
+     * than the ones they would displace.
+     * Best for: Skewed workloads mixed with scans, where one-hit wonders would flush LRU.
+     */
+    W_TINY_LFU
 }
 
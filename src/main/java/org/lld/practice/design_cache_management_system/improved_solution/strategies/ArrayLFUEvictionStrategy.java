@@ -0,0 +1,250 @@
+package org.lld.practice.design_cache_management_system.improved_solution.strategies;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Least Frequently Used (LFU) eviction strategy backed by primitive arrays.
+ *
+ * Implements the O(1) LFU "frequency list": a doubly linked list of frequency
+ * buckets in ascending order, each holding a doubly linked list of keys
+ * (oldest first, so ties break LRU-style like LFUEvictionStrategy).
+ *
+ * <pre>
+ *   buckets:  [freq 1] ⇄ [freq 2] ⇄ [freq 5]
+ *                │           │          │
+ *   keys:      k3 ⇄ k5    k1 ⇄ k4      k2
+ * </pre>
+ *
+ * - access: move the key to bucket freq+1 (created right after its bucket if missing)
+ * - evict:  first key of the first bucket - the minimum frequency is always the head
+ * - remove: unlink the key, drop its bucket if empty - no rescan for a new minimum
+ *
+ * Buckets and keys are int indices into parallel arrays (no Node objects,
+ * no boxed Integer frequencies, no LinkedHashSet per frequency), so steady
+ * state operations do not allocate.
+ *
+ * @param <K> Type of cache keys
+ */
+public class ArrayLFUEvictionStrategy<K> implements EvictionStrategy<K> {
+
+    private static final int NONE = -1;
+
+    private final KeySlotTable<K> slots;
+
+    // Per key slot
+    private int[] itemPrev;
+    private int[] itemNext;
+    private int[] itemBucket;
+
+    // Per frequency bucket
+    private int[] bucketFrequency;
+    private int[] bucketPrev;
+    private int[] bucketNext;
+    private int[] bucketHead;   // oldest key (eviction side)
+    private int[] bucketTail;   // newest key
+    private int[] freeBuckets;
+    private int freeBucketCount;
+    private int nextUnusedBucket;
+    private int lowestBucket = NONE;
+
+    public ArrayLFUEvictionStrategy() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize number of keys to size the arrays for up front (usually the cache capacity)
+     */
+    public ArrayLFUEvictionStrategy(int expectedSize) {
+        slots = new KeySlotTable<>(expectedSize);
+        int itemCapacity = slots.slotCapacity();
+        itemPrev = new int[itemCapacity];
+        itemNext = new int[itemCapacity];
+        itemBucket = new int[itemCapacity];
+        allocateBuckets(itemCapacity + 1);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        int slot = slots.find(key);
+        if (slot == NONE) {
+            return;
+        }
+
+        int bucket = itemBucket[slot];
+        int frequency = bucketFrequency[bucket];
+        int target = bucketNext[bucket];
+        if (target == NONE || bucketFrequency[target] != frequency + 1) {
+            target = newBucket(frequency + 1);
+            linkBucketAfter(bucket, target);
+        }
+
+        // Link the new bucket before detaching: detaching may free the old one
+        detachItem(slot);
+        appendItem(target, slot);
+    }
+
+    @Override
+    public void recordInsertion(K key) {
+        if (slots.find(key) != NONE) {
+            // Key exists, just update access
+            recordAccess(key);
+            return;
+        }
+
+        int slot = slots.insert(key);
+        ensureArrayCapacity();
+
+        // New key starts with frequency 1, which is always the lowest bucket
+        int bucket = lowestBucket;
+        if (bucket == NONE || bucketFrequency[bucket] != 1) {
+            bucket = newBucket(1);
+            bucketPrev[bucket] = NONE;
+            bucketNext[bucket] = lowestBucket;
+            if (lowestBucket != NONE) {
+                bucketPrev[lowestBucket] = bucket;
+            }
+            lowestBucket = bucket;
+        }
+        appendItem(bucket, slot);
+    }
+
+    @Override
+    public Optional<K> getEvictionCandidate() {
+        if (lowestBucket == NONE) {
+            return Optional.empty();
+        }
+        // Oldest key among those with the minimum frequency
+        return Optional.of(slots.keyAt(bucketHead[lowestBucket]));
+    }
+
+    @Override
+    public void remove(K key) {
+        int slot = slots.find(key);
+        if (slot != NONE) {
+            detachItem(slot);
+            slots.remove(slot);
+        }
+    }
+
+    @Override
+    public void clear() {
+        slots.clear();
+        freeBucketCount = 0;
+        nextUnusedBucket = 0;
+        lowestBucket = NONE;
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Get the frequency of a key.
+     */
+    public int getFrequency(K key) {
+        int slot = slots.find(key);
+        return slot == NONE ? 0 : bucketFrequency[itemBucket[slot]];
+    }
+
+    private void appendItem(int bucket, int slot) {
+        int last = bucketTail[bucket];
+        itemBucket[slot] = bucket;
+        itemPrev[slot] = last;
+        itemNext[slot] = NONE;
+        if (last != NONE) {
+            itemNext[last] = slot;
+        } else {
+            bucketHead[bucket] = slot;
+        }
+        bucketTail[bucket] = slot;
+    }
+
+    /**
+     * Unlink a key from its bucket, releasing the bucket if it becomes empty.
+     */
+    private void detachItem(int slot) {
+        int bucket = itemBucket[slot];
+        int before = itemPrev[slot];
+        int after = itemNext[slot];
+        if (before != NONE) {
+            itemNext[before] = after;
+        } else {
+            bucketHead[bucket] = after;
+        }
+        if (after != NONE) {
+            itemPrev[after] = before;
+        } else {
+            bucketTail[bucket] = before;
+        }
+
+        if (bucketHead[bucket] == NONE) {
+            unlinkBucket(bucket);
+        }
+    }
+
+    private void linkBucketAfter(int bucket, int newBucket) {
+        int after = bucketNext[bucket];
+        bucketPrev[newBucket] = bucket;
+        bucketNext[newBucket] = after;
+        bucketNext[bucket] = newBucket;
+        if (after != NONE) {
+            bucketPrev[after] = newBucket;
+        }
+    }
+
+    private void unlinkBucket(int bucket) {
+        int before = bucketPrev[bucket];
+        int after = bucketNext[bucket];
+        if (before != NONE) {
+            bucketNext[before] = after;
+        } else {
+            lowestBucket = after;
+        }
+        if (after != NONE) {
+            bucketPrev[after] = before;
+        }
+        freeBuckets[freeBucketCount++] = bucket;
+    }
+
+    private int newBucket(int frequency) {
+        int bucket = freeBucketCount > 0 ? freeBuckets[--freeBucketCount] : nextUnusedBucket++;
+        bucketFrequency[bucket] = frequency;
+        bucketHead[bucket] = NONE;
+        bucketTail[bucket] = NONE;
+        return bucket;
+    }
+
+    /**
+     * Grow the per-key arrays after the slot table grew. There can be at most
+     * one more bucket than keys (a new bucket is linked before the old empties).
+     */
+    private void ensureArrayCapacity() {
+        int itemCapacity = slots.slotCapacity();
+        if (itemPrev.length < itemCapacity) {
+            itemPrev = Arrays.copyOf(itemPrev, itemCapacity);
+            itemNext = Arrays.copyOf(itemNext, itemCapacity);
+            itemBucket = Arrays.copyOf(itemBucket, itemCapacity);
+            allocateBuckets(itemCapacity + 1);
+        }
+    }
+
+    private void allocateBuckets(int bucketCapacity) {
+        if (bucketFrequency == null) {
+            bucketFrequency = new int[bucketCapacity];
+            bucketPrev = new int[bucketCapacity];
+            bucketNext = new int[bucketCapacity];
+            bucketHead = new int[bucketCapacity];
+            bucketTail = new int[bucketCapacity];
+            freeBuckets = new int[bucketCapacity];
+            return;
+        }
+        bucketFrequency = Arrays.copyOf(bucketFrequency, bucketCapacity);
+        bucketPrev = Arrays.copyOf(bucketPrev, bucketCapacity);
+        bucketNext = Arrays.copyOf(bucketNext, bucketCapacity);
+        bucketHead = Arrays.copyOf(bucketHead, bucketCapacity);
+        bucketTail = Arrays.copyOf(bucketTail, bucketCapacity);
+        freeBuckets = Arrays.copyOf(freeBuckets, bucketCapacity);
+    }
+}
@@ -0,0 +1,127 @@
+package org.lld.practice.design_cache_management_system.improved_solution.strategies;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Least Recently Used (LRU) eviction strategy backed by primitive arrays.
+ *
+ * Same ordering as LRUEvictionStrategy, but the doubly linked list lives in
+ * two int[] arrays indexed by slot instead of one Node object per key, and
+ * keys are located through an open-addressing KeySlotTable instead of a
+ * HashMap. In steady state no operation allocates, so tracking a million
+ * keys adds no GC pressure.
+ *
+ * <pre>
+ *   slot:   0    1    2    3
+ *   prev: [ -1 ,  0 ,  3 ,  1 ]     head = 0 (most recent)
+ *   next: [  1 ,  3 , -1 ,  2 ]     tail = 2 (least recent)
+ * </pre>
+ *
+ * @param <K> Type of cache keys
+ */
+public class ArrayLRUEvictionStrategy<K> implements EvictionStrategy<K> {
+
+    private static final int NONE = -1;
+
+    private final KeySlotTable<K> slots;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;  // most recent
+    private int tail = NONE;  // least recent (eviction candidate)
+
+    public ArrayLRUEvictionStrategy() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize number of keys to size the arrays for up front (usually the cache capacity)
+     */
+    public ArrayLRUEvictionStrategy(int expectedSize) {
+        slots = new KeySlotTable<>(expectedSize);
+        prev = new int[slots.slotCapacity()];
+        next = new int[slots.slotCapacity()];
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        int slot = slots.find(key);
+        if (slot != NONE && slot != head) {
+            unlink(slot);
+            linkAtHead(slot);
+        }
+    }
+
+    @Override
+    public void recordInsertion(K key) {
+        int slot = slots.find(key);
+        if (slot != NONE) {
+            // Key already exists, just update access
+            recordAccess(key);
+            return;
+        }
+
+        slot = slots.insert(key);
+        ensureArrayCapacity();
+        linkAtHead(slot);
+    }
+
+    @Override
+    public Optional<K> getEvictionCandidate() {
+        return tail == NONE ? Optional.empty() : Optional.of(slots.keyAt(tail));
+    }
+
+    @Override
+    public void remove(K key) {
+        int slot = slots.find(key);
+        if (slot != NONE) {
+            unlink(slot);
+            slots.remove(slot);
+        }
+    }
+
+    @Override
+    public void clear() {
+        slots.clear();
+        head = NONE;
+        tail = NONE;
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    private void linkAtHead(int slot) {
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) {
+            prev[head] = slot;
+        } else {
+            tail = slot;
+        }
+        head = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            head = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        } else {
+            tail = before;
+        }
+    }
+
+    private void ensureArrayCapacity() {
+        if (prev.length < slots.slotCapacity()) {
+            prev = Arrays.copyOf(prev, slots.slotCapacity());
+            next = Arrays.copyOf(next, slots.slotCapacity());
+        }
+    }
+}
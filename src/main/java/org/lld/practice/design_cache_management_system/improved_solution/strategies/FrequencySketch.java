@@ -0,0 +1,141 @@
+package org.lld.practice.design_cache_management_system.improved_solution.strategies;
+
+import java.util.Arrays;
+
+/**
+ * Approximate access-frequency counter (Count-Min Sketch with 4-bit counters).
+ *
+ * Used as the TinyLFU admission filter: it remembers how popular a key has
+ * been recently - even after the key itself was evicted - using a fixed
+ * amount of memory (8 bytes per 16 counters, no per-key objects).
+ *
+ * Layout:
+ * - long[] table, each long packs sixteen 4-bit counters (max value 15)
+ * - each key maps to 4 counters (depth 4), one per hash function
+ * - frequency = minimum of the 4 counters (limits over-estimation from collisions)
+ *
+ * Aging: after sampleSize increments every counter is halved, so keys that
+ * were popular long ago gradually lose their advantage.
+ *
+ * Not thread-safe; owned by a single eviction strategy.
+ *
+ * @param <K> Type of keys being counted
+ */
+public class FrequencySketch<K> {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MIN_TABLE_SIZE = 64;
+    private static final int SAMPLE_FACTOR = 10;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    public FrequencySketch() {
+        resize(MIN_TABLE_SIZE);
+    }
+
+    /**
+     * Grow the sketch so it stays accurate for the given number of keys.
+     * Resizing discards collected frequencies, so callers should grow in
+     * large steps (the table is sized to the next power of two).
+     */
+    public void ensureCapacity(int maximumSize) {
+        int size = ceilingPowerOfTwo(Math.max(maximumSize, MIN_TABLE_SIZE));
+        if (table.length < size) {
+            resize(size);
+        }
+    }
+
+    private void resize(int size) {
+        table = new long[size];
+        tableMask = size - 1;
+        sampleSize = SAMPLE_FACTOR * size;
+        additions = 0;
+    }
+
+    /**
+     * Increment the popularity of a key (saturates at 15).
+     */
+    public void increment(K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+
+        boolean added = false;
+        for (int depth = 0; depth < 4; depth++) {
+            added |= incrementAt(indexOf(hash, depth), start + depth);
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Estimated number of recent occurrences of a key (0-15).
+     */
+    public int frequency(K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+
+        int frequency = Integer.MAX_VALUE;
+        for (int depth = 0; depth < 4; depth++) {
+            int offset = (start + depth) << 2;
+            int count = (int) ((table[indexOf(hash, depth)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Forget all collected frequencies.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        additions = 0;
+    }
+
+    /**
+     * Halve every counter (shift right by one, masking off the bit that
+     * leaked in from the neighbouring counter).
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    /**
+     * Defend against poor hashCode() implementations.
+     */
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
+    }
+}
@@ -0,0 +1,168 @@
+package org.lld.practice.design_cache_management_system.improved_solution.strategies;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from key to a dense int slot, with no per-entry objects.
+ *
+ * Array-backed eviction strategies keep their per-key state (links,
+ * frequencies) in parallel primitive arrays indexed by slot. This table
+ * assigns those slots and finds them again:
+ *
+ * - keys[slot]  : the key stored in a slot
+ * - table[i]    : slot + 1 for hash bucket i (0 = empty), linear probing
+ * - freeSlots   : stack of released slots for reuse
+ *
+ * Removal uses backward-shift deletion instead of tombstones, so lookups
+ * never slow down as keys churn. Arrays only grow (doubling); in steady
+ * state no operation allocates.
+ *
+ * Not thread-safe.
+ *
+ * @param <K> Type of keys
+ */
+class KeySlotTable<K> {
+
+    private static final int MIN_SLOTS = 16;
+
+    private Object[] keys;
+    private int[] table;
+    private int tableMask;
+    private int[] freeSlots;
+    private int freeCount;
+    private int nextUnusedSlot;
+    private int size;
+
+    KeySlotTable(int expectedSize) {
+        int slots = Math.max(MIN_SLOTS, expectedSize);
+        keys = new Object[slots];
+        freeSlots = new int[slots];
+        table = new int[tableSizeFor(slots)];
+        tableMask = table.length - 1;
+    }
+
+    /**
+     * @return the slot of the key, or -1 if absent
+     */
+    int find(K key) {
+        int i = spread(key.hashCode()) & tableMask;
+        int entry;
+        while ((entry = table[i]) != 0) {
+            if (keys[entry - 1].equals(key)) {
+                return entry - 1;
+            }
+            i = (i + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    /**
+     * Assign a slot to a key that is not yet present.
+     * May grow the slot arrays; callers check slotCapacity() afterwards.
+     */
+    int insert(K key) {
+        if (freeCount == 0 && nextUnusedSlot == keys.length) {
+            growSlots();
+        }
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextUnusedSlot++;
+        keys[slot] = key;
+
+        int i = spread(key.hashCode()) & tableMask;
+        while (table[i] != 0) {
+            i = (i + 1) & tableMask;
+        }
+        table[i] = slot + 1;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Release the slot held by a key.
+     */
+    void remove(int slot) {
+        int i = spread(keys[slot].hashCode()) & tableMask;
+        while (table[i] != slot + 1) {
+            i = (i + 1) & tableMask;
+        }
+        deleteAt(i);
+
+        keys[slot] = null;
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    @SuppressWarnings("unchecked")
+    K keyAt(int slot) {
+        return (K) keys[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Length that parallel per-slot arrays must have.
+     */
+    int slotCapacity() {
+        return keys.length;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(table, 0);
+        freeCount = 0;
+        nextUnusedSlot = 0;
+        size = 0;
+    }
+
+    /**
+     * Backward-shift deletion: pull later entries of the probe run into the
+     * gap when their home bucket allows it, so no tombstone is needed.
+     */
+    private void deleteAt(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & tableMask;
+            int entry = table[i];
+            if (entry == 0) {
+                break;
+            }
+            int home = spread(keys[entry - 1].hashCode()) & tableMask;
+            // Move entry into the gap unless its home lies cyclically in (gap, i]
+            boolean homeBetween = gap <= i ? (gap < home && home <= i) : (gap < home || home <= i);
+            if (!homeBetween) {
+                table[gap] = entry;
+                gap = i;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private void growSlots() {
+        int newLength = keys.length * 2;
+        keys = Arrays.copyOf(keys, newLength);
+        freeSlots = Arrays.copyOf(freeSlots, newLength);
+
+        // Keep the load factor at or below 50% by rebuilding a larger table
+        table = new int[tableSizeFor(newLength)];
+        tableMask = table.length - 1;
+        for (int slot = 0; slot < nextUnusedSlot; slot++) {
+            if (keys[slot] != null) {
+                int i = spread(keys[slot].hashCode()) & tableMask;
+                while (table[i] != 0) {
+                    i = (i + 1) & tableMask;
+                }
+                table[i] = slot + 1;
+            }
+        }
+    }
+
+    private static int tableSizeFor(int slots) {
+        return Integer.highestOneBit(slots * 2 - 1) << 1;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,244 @@
+package org.lld.practice.design_cache_management_system.improved_solution.strategies;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Window TinyLFU (W-TinyLFU) eviction strategy.
+ *
+ * Plain LRU/LFU/FIFO admit every new key, so a scan of one-hit-wonder keys
+ * pushes the whole hot set out. W-TinyLFU puts a frequency-based admission
+ * filter in front of the main cache:
+ *
+ * <pre>
+ *   new key ──► [ Window LRU ~1% ] ──victim──► TinyLFU filter ──► [ Main SLRU ~99% ]
+ *                                               compare freq         probation 20%
+ *                                               with main victim     protected 80%
+ * </pre>
+ *
+ * - Window LRU: every new key lands here, absorbing bursts of recency.
+ * - Main SLRU: keys start in "probation"; a hit promotes them to "protected".
+ * - Admission: when the cache is full, the window victim and the probation
+ *   victim compete; the one with the lower sketch frequency is evicted.
+ *   Scanned keys (frequency ~1) lose against established hot keys.
+ *
+ * Region sizes are derived from the number of tracked keys (its high-water
+ * mark), so the strategy needs no capacity argument and also works inside
+ * ConcurrentCache segments.
+ *
+ * All operations are O(1).
+ *
+ * @param <K> Type of cache keys
+ */
+public class WTinyLFUEvictionStrategy<K> implements EvictionStrategy<K> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final Map<K, Node<K>> nodeMap = new HashMap<>();
+    private final AccessOrderDeque<K> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K> protectedQueue = new AccessOrderDeque<>();
+    private final FrequencySketch<K> sketch = new FrequencySketch<>();
+    private int maximumSize;
+
+    @Override
+    public void recordAccess(K key) {
+        sketch.increment(key);
+        Node<K> node = nodeMap.get(key);
+        if (node == null) {
+            return;
+        }
+
+        switch (node.region) {
+            case WINDOW -> window.moveToHead(node);
+            case PROBATION -> promote(node);
+            case PROTECTED -> protectedQueue.moveToHead(node);
+        }
+    }
+
+    @Override
+    public void recordInsertion(K key) {
+        if (nodeMap.containsKey(key)) {
+            recordAccess(key);
+            return;
+        }
+
+        sketch.increment(key);
+        Node<K> node = new Node<>(key, Region.WINDOW);
+        nodeMap.put(key, node);
+        window.addToHead(node);
+
+        if (nodeMap.size() > maximumSize) {
+            maximumSize = nodeMap.size();
+            sketch.ensureCapacity(maximumSize);
+        }
+
+        // Window overflow: the oldest window key moves on to main's probation area
+        while (window.size > windowMaximum()) {
+            Node<K> overflow = window.removeTail();
+            overflow.region = Region.PROBATION;
+            probation.addToHead(overflow);
+        }
+    }
+
+    /**
+     * Called when the cache is full and a new key is about to be inserted.
+     *
+     * The new key will enter the window, pushing the window's LRU key into
+     * main. Main is full too, so either that window key or main's own victim
+     * must go - TinyLFU keeps whichever has been accessed more often.
+     */
+    @Override
+    public Optional<K> getEvictionCandidate() {
+        if (nodeMap.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Node<K> windowVictim = window.size >= windowMaximum() ? window.peekTail() : null;
+        Node<K> mainVictim = probation.size > 0 ? probation.peekTail() : protectedQueue.peekTail();
+
+        if (windowVictim == null && mainVictim == null) {
+            return Optional.ofNullable(window.peekTail()).map(node -> node.key);
+        }
+        if (windowVictim == null) {
+            return Optional.of(mainVictim.key);
+        }
+        if (mainVictim == null) {
+            return Optional.of(windowVictim.key);
+        }
+
+        // Ties go against the newcomer, protecting the established main set
+        boolean admit = sketch.frequency(windowVictim.key) > sketch.frequency(mainVictim.key);
+        return Optional.of(admit ? mainVictim.key : windowVictim.key);
+    }
+
+    @Override
+    public void remove(K key) {
+        Node<K> node = nodeMap.remove(key);
+        if (node != null) {
+            queueFor(node.region).unlink(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        nodeMap.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        sketch.clear();
+        maximumSize = 0;
+    }
+
+    @Override
+    public int size() {
+        return nodeMap.size();
+    }
+
+    /**
+     * Estimated recent access frequency of a key (0-15), including keys
+     * that are no longer cached.
+     */
+    public int getFrequency(K key) {
+        return sketch.frequency(key);
+    }
+
+    /**
+     * Move a probation key into protected; if protected overflows, its LRU
+     * key is demoted back to probation rather than evicted.
+     */
+    private void promote(Node<K> node) {
+        probation.unlink(node);
+        node.region = Region.PROTECTED;
+        protectedQueue.addToHead(node);
+
+        int protectedMaximum = (maximumSize - windowMaximum()) * PROTECTED_PERCENT / 100;
+        while (protectedQueue.size > Math.max(1, protectedMaximum)) {
+            Node<K> demoted = protectedQueue.removeTail();
+            demoted.region = Region.PROBATION;
+            probation.addToHead(demoted);
+        }
+    }
+
+    private int windowMaximum() {
+        return Math.max(1, maximumSize * WINDOW_PERCENT / 100);
+    }
+
+    private AccessOrderDeque<K> queueFor(Region region) {
+        return switch (region) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedQueue;
+        };
+    }
+
+    private enum Region {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    /**
+     * Doubly linked list node, tagged with the region it currently lives in.
+     */
+    private static class Node<K> {
+        final K key;
+        Region region;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key, Region region) {
+            this.key = key;
+            this.region = region;
+        }
+    }
+
+    /**
+     * Doubly linked list with dummy head/tail: head = most recent, tail = eviction side.
+     */
+    private static class AccessOrderDeque<K> {
+        final Node<K> head = new Node<>(null, null);
+        final Node<K> tail = new Node<>(null, null);
+        int size;
+
+        AccessOrderDeque() {
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        void addToHead(Node<K> node) {
+            node.prev = head;
+            node.next = head.next;
+            head.next.prev = node;
+            head.next = node;
+            size++;
+        }
+
+        void unlink(Node<K> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            size--;
+        }
+
+        void moveToHead(Node<K> node) {
+            unlink(node);
+            addToHead(node);
+        }
+
+        Node<K> peekTail() {
+            return size == 0 ? null : tail.prev;
+        }
+
+        Node<K> removeTail() {
+            Node<K> node = tail.prev;
+            unlink(node);
+            return node;
+        }
+
+        void clear() {
+            head.next = tail;
+            tail.prev = head;
+            size = 0;
+        }
+    }
+}
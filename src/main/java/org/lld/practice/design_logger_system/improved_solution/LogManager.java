@@ -1,26 +1,60 @@
 package org.lld.practice.design_logger_system.improved_solution;
 
 import org.lld.practice.design_logger_system.improved_solution.appenders.LogAppender;
+import org.lld.practice.design_logger_system.improved_solution.async.AsyncConfig;
+import org.lld.practice.design_logger_system.improved_solution.async.AsyncLogDispatcher;
 import org.lld.practice.design_logger_system.improved_solution.filters.LogFilter;
 import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
 import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages logging operations, appenders, and filters.
  * Observer pattern: Notifies all registered appenders about log events.
+ * 
+ * Synchronous by default: filters and appenders run on the calling thread.
+ * With an AsyncConfig, filtered events go through a lock-free ring buffer
+ * to a single dispatcher thread that appends them in batches.
+ * 
+ * Also the registry of loggers, one per dotted source name. Levels are
+ * hierarchical: a logger uses the level set on its own name or on its
+ * nearest ancestor ("com.shop" covers "com.shop.payment"), falling back to
+ * the global minimum level at the root. Each logger caches its effective
+ * level and is updated whenever a level changes, so checking a level costs
+ * one volatile read.
  */
 public class LogManager {
+    private static final LogAppender[] NO_APPENDERS = new LogAppender[0];
+    private static final LogFilter[] NO_FILTERS = new LogFilter[0];
+    
     private final List<LogAppender> appenders;
     private final List<LogFilter> filters;
-    private LogLevel globalMinimumLevel;
+    // Array snapshots of the lists for the hot path: iterating an array allocates no iterator
+    private volatile LogAppender[] appenderSnapshot = NO_APPENDERS;
+    private volatile LogFilter[] filterSnapshot = NO_FILTERS;
+    private final AsyncLogDispatcher dispatcher; // null when synchronous
+    private final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private final Map<String, LogLevel> levels = new HashMap<>(); // guarded by this
+    private volatile LogLevel globalMinimumLevel;
     
     public LogManager(LogLevel globalMinimumLevel) {
+        this(globalMinimumLevel, null);
+    }
+    
+    /**
+     * @param globalMinimumLevel The minimum log level
+     * @param asyncConfig Asynchronous logging settings, or null to log synchronously
+     */
+    public LogManager(LogLevel globalMinimumLevel, AsyncConfig asyncConfig) {
         this.globalMinimumLevel = globalMinimumLevel;
         this.appenders = new CopyOnWriteArrayList<>(); // Thread-safe
         this.filters = new CopyOnWriteArrayList<>(); // Thread-safe
+        this.dispatcher = asyncConfig != null ? new AsyncLogDispatcher(asyncConfig, this::appendBatch) : null;
     }
     
     /**
@@ -28,8 +62,9 @@ public class LogManager {
      * 
      * @param appender The appender to add
      */
-    public void addAppender(LogAppender appender) {
+    public synchronized void addAppender(LogAppender appender) {
         appenders.add(appender);
+        appenderSnapshot = appenders.toArray(NO_APPENDERS);
     }
     
     /**
@@ -37,8 +72,82 @@ public class LogManager {
      * 
      * @param appender The appender to remove
      */
-    public void removeAppender(LogAppender appender) {
+    public synchronized void removeAppender(LogAppender appender) {
         appenders.remove(appender);
+        appenderSnapshot = appenders.toArray(NO_APPENDERS);
+    }
+    
+    // ========== Logger Registry ==========
+    
+    /**
+     * Gets the logger for a source, creating it on first use. The same name
+     * always returns the same instance.
+     * 
+     * @param name The source name, dotted for hierarchy (e.g. "com.shop.payment")
+     * @return The logger for the name
+     */
+    public Logger getLogger(String name) {
+        Logger logger = loggers.get(name);
+        return logger != null ? logger : register(name);
+    }
+    
+    private synchronized Logger register(String name) {
+        // Under the lock, so a concurrent setLevel() cannot miss the new logger
+        return loggers.computeIfAbsent(name, n -> new Logger(n, this, effectiveLevelOf(n)));
+    }
+    
+    /**
+     * Sets the level for a source name and everything below it, unless a
+     * descendant has a level of its own.
+     * 
+     * @param name The source name or prefix (e.g. "com.shop")
+     * @param level The minimum level, or null to inherit from the parent again
+     */
+    public synchronized void setLevel(String name, LogLevel level) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Logger name cannot be empty; use setGlobalMinimumLevel for the root");
+        }
+        if (level == null) {
+            levels.remove(name);
+        } else {
+            levels.put(name, level);
+        }
+        refreshLoggerLevels();
+    }
+    
+    /**
+     * The level set on exactly this name, or null if it inherits.
+     */
+    public synchronized LogLevel getLevel(String name) {
+        return levels.get(name);
+    }
+    
+    /**
+     * The level a logger with this name uses: its own, its nearest
+     * ancestor's, or the global minimum level.
+     */
+    public synchronized LogLevel getEffectiveLevel(String name) {
+        return effectiveLevelOf(name);
+    }
+    
+    private LogLevel effectiveLevelOf(String name) {
+        for (String current = name; ; ) {
+            LogLevel level = levels.get(current);
+            if (level != null) {
+                return level;
+            }
+            int dot = current.lastIndexOf('.');
+            if (dot < 0) {
+                return globalMinimumLevel;
+            }
+            current = current.substring(0, dot);
+        }
+    }
+    
+    private void refreshLoggerLevels() {
+        for (Logger logger : loggers.values()) {
+            logger.setEffectiveLevel(effectiveLevelOf(logger.getName()));
+        }
     }
     
     /**
@@ -46,52 +155,130 @@ public class LogManager {
      * 
      * @param filter The filter to add
      */
-    public void addFilter(LogFilter filter) {
+    public synchronized void addFilter(LogFilter filter) {
         filters.add(filter);
+        filterSnapshot = filters.toArray(NO_FILTERS);
+    }
+    
+    /**
+     * Whether a message at this level passes the global minimum level.
+     * Loggers check their own cached effective level instead.
+     */
+    public boolean isEnabled(LogLevel level) {
+        return level.shouldLog(globalMinimumLevel);
     }
     
     /**
-     * Logs a message if it passes all filters.
+     * Logs a message if its level is enabled for its source and it passes
+     * all filters.
+     * The message is not retained after this returns (asynchronous mode
+     * queues a copy), so callers may reuse it.
      * 
      * @param logMessage The log message to log
      */
     public void log(LogMessage logMessage) {
-        // Check global minimum level
-        if (!logMessage.getLevel().shouldLog(globalMinimumLevel)) {
-            return;
+        Logger logger = loggers.get(logMessage.getSource());
+        LogLevel effectiveLevel = logger != null
+                ? logger.getEffectiveLevel() : getEffectiveLevel(logMessage.getSource());
+        if (logMessage.getLevel().shouldLog(effectiveLevel)) {
+            dispatch(logMessage);
         }
-        
+    }
+    
+    /**
+     * Filters and appends a message whose level the logger has already checked.
+     */
+    void dispatch(LogMessage logMessage) {
         // Apply all filters (Chain of Responsibility)
-        for (LogFilter filter : filters) {
+        for (LogFilter filter : filterSnapshot) {
             if (!filter.shouldLog(logMessage)) {
                 return;
             }
         }
         
+        if (dispatcher != null) {
+            dispatcher.submit(logMessage);
+            return;
+        }
+        
         // Notify all appenders (Observer pattern)
-        for (LogAppender appender : appenders) {
+        for (LogAppender appender : appenderSnapshot) {
             appender.append(logMessage);
         }
     }
     
     /**
-     * Sets the global minimum log level.
+     * Delivers a batch from the dispatcher thread to every appender.
+     */
+    private void appendBatch(List<LogMessage> batch) {
+        for (LogAppender appender : appenderSnapshot) {
+            appender.append(batch);
+        }
+    }
+    
+    /**
+     * Waits until every message logged before this call has reached the
+     * appenders (asynchronous mode), then flushes them.
+     */
+    public void flush() {
+        if (dispatcher != null) {
+            dispatcher.flush();
+        }
+        for (LogAppender appender : appenderSnapshot) {
+            appender.flush();
+        }
+    }
+    
+    public boolean isAsync() {
+        return dispatcher != null;
+    }
+    
+    /**
+     * Number of messages dropped because the async buffer was full (0 when synchronous).
+     */
+    public long getDroppedCount() {
+        return dispatcher != null ? dispatcher.getDroppedCount() : 0;
+    }
+    
+    public long getDroppedCount(LogLevel level) {
+        return dispatcher != null ? dispatcher.getDroppedCount(level) : 0;
+    }
+    
+    /**
+     * Sets the global minimum log level: the root of the level hierarchy,
+     * used by every logger without a level of its own or on an ancestor.
      * 
      * @param level The minimum log level
      */
-    public void setGlobalMinimumLevel(LogLevel level) {
+    public synchronized void setGlobalMinimumLevel(LogLevel level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Global minimum level cannot be null");
+        }
         this.globalMinimumLevel = level;
+        refreshLoggerLevels();
+    }
+    
+    public LogLevel getGlobalMinimumLevel() {
+        return globalMinimumLevel;
     }
     
     /**
-     * Closes all appenders and releases resources.
+     * Closes all appenders and releases resources. In asynchronous mode,
+     * messages already queued are appended first.
      */
     public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
         for (LogAppender appender : appenders) {
             appender.close();
         }
-        appenders.clear();
-        filters.clear();
+        synchronized (this) {
+            appenders.clear();
+            filters.clear();
+            appenderSnapshot = NO_APPENDERS;
+            filterSnapshot = NO_FILTERS;
+        }
     }
 }
 
@@ -2,19 +2,41 @@ package org.lld.practice.design_logger_system.improved_solution;
 
 import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
 import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
+import org.lld.practice.design_logger_system.improved_solution.models.MessagePattern;
 
 /**
  * Main logger class that provides a simple interface for logging.
  * Singleton pattern: Provides a single global logger instance.
+ * 
+ * Garbage-free: the level is checked before anything is built, parameterized
+ * calls ({@code info("user {} paid {}", user, amount)}) defer formatting to
+ * the appenders, and each thread reuses one event object, so a logging call
+ * allocates nothing (beyond boxing primitive arguments at the call site, and
+ * the varargs array for more than two arguments).
+ * 
+ * Arguments are rendered in one consistent way whether the appenders run
+ * synchronously or behind an AsyncLogDispatcher: Strings, boxed primitives
+ * and enums may be formatted later, on whichever thread writes the event,
+ * but any other argument has its toString() called on the logging thread,
+ * before the call returns. A mutable argument therefore logs its state at
+ * the time of the call, and an expensive toString() costs the caller.
+ * 
+ * Loggers are registered in their LogManager by source name, and each one
+ * caches its effective level (see LogManager.setLevel): a disabled call, or
+ * an isDebugEnabled() check, is one volatile read.
  */
 public class Logger {
+    private static final ThreadLocal<LogMessage> REUSABLE_EVENT = ThreadLocal.withInitial(LogMessage::new);
+    
     private static Logger instance;
     private final LogManager logManager;
     private final String source;
+    private volatile LogLevel effectiveLevel;  // kept current by the LogManager
     
-    private Logger(String source, LogManager logManager) {
+    Logger(String source, LogManager logManager, LogLevel effectiveLevel) {
         this.source = source;
         this.logManager = logManager;
+        this.effectiveLevel = effectiveLevel;
     }
     
     /**
@@ -26,33 +48,109 @@ public class Logger {
      */
     public static synchronized Logger getInstance(String source, LogManager logManager) {
         if (instance == null) {
-            instance = new Logger(source, logManager);
+            instance = logManager.getLogger(source);
         }
         return instance;
     }
     
     /**
-     * Gets a logger instance for a specific source.
+     * Gets the logger for a specific source from the manager's registry.
      * 
-     * @param source The source identifier
-     * @return A new logger instance for the source
+     * @param source The source identifier, dotted for hierarchy (e.g. "com.shop.payment")
+     * @return The logger for the source (the same instance for the same name)
      */
     public static Logger getLogger(String source, LogManager logManager) {
-        return new Logger(source, logManager);
+        return logManager.getLogger(source);
+    }
+    
+    public String getName() {
+        return source;
+    }
+    
+    /**
+     * The level this logger logs at, from its own name, its nearest
+     * configured ancestor, or the manager's global minimum level.
+     */
+    public LogLevel getEffectiveLevel() {
+        return effectiveLevel;
+    }
+    
+    void setEffectiveLevel(LogLevel effectiveLevel) {
+        this.effectiveLevel = effectiveLevel;
+    }
+    
+    public boolean isEnabled(LogLevel level) {
+        return level.shouldLog(effectiveLevel);
+    }
+    
+    /**
+     * Guard for messages that are expensive to build, e.g.
+     * {@code if (log.isDebugEnabled()) log.debug("state {}", dump());}
+     */
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+    
+    public boolean isInfoEnabled() {
+        return isEnabled(LogLevel.INFO);
+    }
+    
+    public boolean isWarnEnabled() {
+        return isEnabled(LogLevel.WARN);
+    }
+    
+    public boolean isErrorEnabled() {
+        return isEnabled(LogLevel.ERROR);
     }
     
     public void debug(String message) {
         log(LogLevel.DEBUG, message, null);
     }
     
+    public void debug(String pattern, Object argument) {
+        logParameterized(LogLevel.DEBUG, pattern, 1, argument, null);
+    }
+    
+    public void debug(String pattern, Object argument0, Object argument1) {
+        logParameterized(LogLevel.DEBUG, pattern, 2, argument0, argument1);
+    }
+    
+    public void debug(String pattern, Object... arguments) {
+        logParameterized(LogLevel.DEBUG, pattern, arguments);
+    }
+    
     public void info(String message) {
         log(LogLevel.INFO, message, null);
     }
     
+    public void info(String pattern, Object argument) {
+        logParameterized(LogLevel.INFO, pattern, 1, argument, null);
+    }
+    
+    public void info(String pattern, Object argument0, Object argument1) {
+        logParameterized(LogLevel.INFO, pattern, 2, argument0, argument1);
+    }
+    
+    public void info(String pattern, Object... arguments) {
+        logParameterized(LogLevel.INFO, pattern, arguments);
+    }
+    
     public void warn(String message) {
         log(LogLevel.WARN, message, null);
     }
     
+    public void warn(String pattern, Object argument) {
+        logParameterized(LogLevel.WARN, pattern, 1, argument, null);
+    }
+    
+    public void warn(String pattern, Object argument0, Object argument1) {
+        logParameterized(LogLevel.WARN, pattern, 2, argument0, argument1);
+    }
+    
+    public void warn(String pattern, Object... arguments) {
+        logParameterized(LogLevel.WARN, pattern, arguments);
+    }
+    
     public void error(String message) {
         log(LogLevel.ERROR, message, null);
     }
@@ -61,6 +159,18 @@ public class Logger {
         log(LogLevel.ERROR, message, throwable);
     }
     
+    public void error(String pattern, Object argument) {
+        logParameterized(LogLevel.ERROR, pattern, 1, argument, null);
+    }
+    
+    public void error(String pattern, Object argument0, Object argument1) {
+        logParameterized(LogLevel.ERROR, pattern, 2, argument0, argument1);
+    }
+    
+    public void error(String pattern, Object... arguments) {
+        logParameterized(LogLevel.ERROR, pattern, arguments);
+    }
+    
     public void fatal(String message) {
         log(LogLevel.FATAL, message, null);
     }
@@ -69,9 +179,75 @@ public class Logger {
         log(LogLevel.FATAL, message, throwable);
     }
     
+    public void fatal(String pattern, Object argument) {
+        logParameterized(LogLevel.FATAL, pattern, 1, argument, null);
+    }
+    
+    public void fatal(String pattern, Object argument0, Object argument1) {
+        logParameterized(LogLevel.FATAL, pattern, 2, argument0, argument1);
+    }
+    
+    public void fatal(String pattern, Object... arguments) {
+        logParameterized(LogLevel.FATAL, pattern, arguments);
+    }
+    
     private void log(LogLevel level, String message, Throwable throwable) {
-        LogMessage logMessage = new LogMessage(level, message, source, throwable);
-        logManager.log(logMessage);
+        if (!level.shouldLog(effectiveLevel)) {
+            return;
+        }
+        LogMessage event = acquireEvent();
+        try {
+            logManager.dispatch(event.set(level, source, message, throwable, 0, null, null));
+        } finally {
+            event.clear();
+        }
+    }
+    
+    private void logParameterized(LogLevel level, String pattern, int argumentCount,
+                                  Object argument0, Object argument1) {
+        if (!level.shouldLog(effectiveLevel)) {
+            return;
+        }
+        // A trailing Throwable without a placeholder of its own is the exception
+        Throwable throwable = null;
+        Object last = argumentCount == 2 ? argument1 : argument0;
+        if (last instanceof Throwable && MessagePattern.countPlaceholders(pattern) < argumentCount) {
+            throwable = (Throwable) last;
+            argumentCount--;
+        }
+        LogMessage event = acquireEvent();
+        try {
+            logManager.dispatch(event.set(level, source, pattern, throwable, argumentCount, argument0, argument1));
+        } finally {
+            event.clear();
+        }
+    }
+    
+    private void logParameterized(LogLevel level, String pattern, Object[] arguments) {
+        if (!level.shouldLog(effectiveLevel)) {
+            return;
+        }
+        int argumentCount = arguments.length;
+        Throwable throwable = null;
+        if (argumentCount > 0 && arguments[argumentCount - 1] instanceof Throwable
+                && MessagePattern.countPlaceholders(pattern) < argumentCount) {
+            throwable = (Throwable) arguments[--argumentCount];
+        }
+        LogMessage event = acquireEvent();
+        try {
+            logManager.dispatch(event.set(level, source, pattern, throwable, arguments, argumentCount));
+        } finally {
+            event.clear();
+        }
+    }
+    
+    /**
+     * The calling thread's reusable event, or a fresh one if it is already
+     * in use (an appender that logs while appending).
+     */
+    private static LogMessage acquireEvent() {
+        LogMessage event = REUSABLE_EVENT.get();
+        return event.isInUse() ? new LogMessage() : event;
     }
 }
 
@@ -2,10 +2,21 @@ package org.lld.practice.design_logger_system.improved_solution;
 
 import org.lld.practice.design_logger_system.improved_solution.appenders.ConsoleAppender;
 import org.lld.practice.design_logger_system.improved_solution.appenders.FileAppender;
+import org.lld.practice.design_logger_system.improved_solution.appenders.RollingFileAppender;
+import org.lld.practice.design_logger_system.improved_solution.appenders.RollingFileConfig;
+import org.lld.practice.design_logger_system.improved_solution.async.AsyncConfig;
+import org.lld.practice.design_logger_system.improved_solution.async.OverflowPolicy;
 import org.lld.practice.design_logger_system.improved_solution.formatters.JSONFormatter;
 import org.lld.practice.design_logger_system.improved_solution.formatters.PlainTextFormatter;
 import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Demo of improved logger system with multiple appenders and formatters.
  */
@@ -38,22 +49,130 @@ public class Main {
         paymentServiceLogger.info("Payment processing started");
         paymentServiceLogger.error("Payment gateway timeout", new RuntimeException("Connection timeout"));
         
-        System.out.println("\n3. Changing global log level to WARN:");
+        System.out.println("\n3. Parameterized messages (formatted only if enabled, straight into a byte buffer):");
+        paymentServiceLogger.info("User {} paid {} cents", "alice", 1250);
+        paymentServiceLogger.warn("Retry {} of {} for order {}", 2, 3, "ORD-42");
+        paymentServiceLogger.error("Refund failed for {}", "bob", new IllegalStateException("Card expired"));
+        paymentServiceLogger.debug("Skipped entirely: {}", "the console appender is at INFO");
+        
+        System.out.println("\n4. Changing global log level to WARN:");
         logManager.setGlobalMinimumLevel(LogLevel.WARN);
         userServiceLogger.debug("This debug message won't be logged");
         userServiceLogger.info("This info message won't be logged");
         userServiceLogger.warn("This warning will be logged");
         userServiceLogger.error("This error will be logged");
         
+        System.out.println("\n5. Hierarchical levels (nearest configured ancestor wins, root = global WARN):");
+        logManager.setLevel("com.shop", LogLevel.ERROR);
+        logManager.setLevel("com.shop.payment", LogLevel.INFO);
+        Logger cartLogger = Logger.getLogger("com.shop.cart", logManager);
+        Logger refundLogger = Logger.getLogger("com.shop.payment.refund", logManager);
+        System.out.printf("   com.shop.cart -> %s, com.shop.payment.refund -> %s, registry returns same instance: %s%n",
+                cartLogger.getEffectiveLevel(), refundLogger.getEffectiveLevel(),
+                refundLogger == Logger.getLogger("com.shop.payment.refund", logManager));
+        cartLogger.warn("Suppressed: com.shop is at ERROR");
+        refundLogger.info("Refund {} issued (com.shop.payment is at INFO)", "R-7");
+        if (cartLogger.isDebugEnabled()) {
+            cartLogger.debug("Cart contents: {}", List.of("never", "built"));
+        }
+        logManager.setLevel("com.shop", null);  // cached levels are updated immediately
+        System.out.printf("   After clearing com.shop: com.shop.cart -> %s%n", cartLogger.getEffectiveLevel());
+        
         // Cleanup
         logManager.shutdown();
         
+        System.out.println("\n6. Asynchronous logging (ring buffer, DROP_BELOW_LEVEL when full):");
+        demoAsyncLogging();
+        
+        System.out.println("\n7. Rolling file appender (memory-mapped, rolls at 4 KB, gzips rolled files):");
+        demoRollingFile();
+        
         System.out.println("\n=== Design Benefits ===");
         System.out.println("✓ Multiple output destinations (Console, File)");
         System.out.println("✓ Different formatters (Plain Text, JSON)");
         System.out.println("✓ Configurable log levels");
         System.out.println("✓ Thread-safe operations");
         System.out.println("✓ Easy to extend with new appenders/formatters");
+        System.out.println("✓ Async mode: lock-free ring buffer, batched writes, overflow policies");
+        System.out.println("✓ Garbage-free: parameterized messages, reused events, UTF-8 buffer formatting");
+        System.out.println("✓ Hierarchical levels: logger registry, cached effective levels, isDebugEnabled()");
+        System.out.println("✓ Rolling files: memory-mapped writes, size/time rotation, background gzip");
+    }
+    
+    private static void demoAsyncLogging() {
+        AsyncConfig asyncConfig = AsyncConfig.builder()
+                .bufferSize(64)
+                .overflowPolicy(OverflowPolicy.DROP_BELOW_LEVEL)
+                .dropThreshold(LogLevel.WARN)
+                .build();
+        LogManager asyncManager = new LogManager(LogLevel.DEBUG, asyncConfig);
+        Path logFile;
+        try {
+            logFile = Files.createTempFile("async-demo-", ".log");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        asyncManager.addAppender(new FileAppender(logFile.toString(), LogLevel.DEBUG));
+        Logger orderLogger = Logger.getLogger("OrderService", asyncManager);
+        
+        // A burst far larger than the buffer: DEBUG may be dropped, WARN never is
+        for (int i = 0; i < 5_000; i++) {
+            if (i % 100 == 0) {
+                orderLogger.warn("Order " + i + " took longer than 1s");
+            } else {
+                orderLogger.debug("Order " + i + " validated");
+            }
+        }
+        asyncManager.flush();
+        
+        try {
+            List<String> lines = Files.readAllLines(logFile);
+            long warnings = lines.stream().filter(line -> line.contains("[WARN]")).count();
+            System.out.printf("   %s%n", asyncConfig);
+            System.out.printf("   Logged 5000 messages: %d written (%d of 50 WARN), %d DEBUG dropped%n",
+                    lines.size(), warnings, asyncManager.getDroppedCount(LogLevel.DEBUG));
+            Files.deleteIfExists(logFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            asyncManager.shutdown();
+        }
+    }
+    
+    private static void demoRollingFile() {
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("rolling-demo-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        RollingFileConfig config = RollingFileConfig.builder()
+                .maxFileSize(4 * 1024)
+                .maxHistory(3)
+                .flushEveryEvents(100)
+                .build();
+        RollingFileAppender appender = new RollingFileAppender(
+                directory.resolve("orders.log").toString(), LogLevel.INFO, config);
+        LogManager rollingManager = new LogManager(LogLevel.INFO);
+        rollingManager.addAppender(appender);
+        Logger orderLogger = Logger.getLogger("OrderService", rollingManager);
+        
+        for (int i = 0; i < 300; i++) {
+            orderLogger.info("Order {} shipped to warehouse {}", i, i % 7);
+        }
+        orderLogger.error("Order {} failed: payment declined", 300);  // flushed immediately
+        System.out.printf("   %d rollovers; only the newest %d rolled files are kept%n",
+                appender.getRolloverCount(), config.getMaxHistory());
+        rollingManager.shutdown();  // closes the appender, waits for gzip
+        
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted()::iterator) {
+                System.out.printf("   %-40s %,6d bytes%n", path.getFileName(), Files.size(path));
+                Files.delete(path);
+            }
+            Files.delete(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
-
@@ -1,15 +1,19 @@
 package org.lld.practice.design_logger_system.improved_solution.appenders;
 
+import org.lld.practice.design_logger_system.improved_solution.formatters.LogBuffer;
 import org.lld.practice.design_logger_system.improved_solution.formatters.LogFormatter;
 import org.lld.practice.design_logger_system.improved_solution.formatters.PlainTextFormatter;
 import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
 import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
 
+import java.io.PrintStream;
+
 /**
  * Appender that writes logs to the console (System.out/System.err).
  */
 public class ConsoleAppender implements LogAppender {
     private final LogFormatter formatter;
+    private final LogBuffer buffer = new LogBuffer(512);
     private LogLevel minimumLevel;
     
     public ConsoleAppender(LogLevel minimumLevel) {
@@ -27,13 +31,16 @@ public class ConsoleAppender implements LogAppender {
             return;
         }
         
-        String formattedMessage = formatter.format(logMessage);
-        
         // Write ERROR and FATAL to stderr, others to stdout
-        if (logMessage.getLevel() == LogLevel.ERROR || logMessage.getLevel() == LogLevel.FATAL) {
-            System.err.println(formattedMessage);
-        } else {
-            System.out.println(formattedMessage);
+        PrintStream stream = logMessage.getLevel() == LogLevel.ERROR || logMessage.getLevel() == LogLevel.FATAL
+                ? System.err
+                : System.out;
+        synchronized (buffer) {
+            buffer.clear();
+            formatter.format(logMessage, buffer);
+            buffer.append(System.lineSeparator());
+            stream.write(buffer.buffer().array(), 0, buffer.size());
+            stream.flush();
         }
     }
     
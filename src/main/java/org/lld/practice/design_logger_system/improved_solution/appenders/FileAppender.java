@@ -1,21 +1,28 @@
 package org.lld.practice.design_logger_system.improved_solution.appenders;
 
+import org.lld.practice.design_logger_system.improved_solution.formatters.LogBuffer;
 import org.lld.practice.design_logger_system.improved_solution.formatters.LogFormatter;
 import org.lld.practice.design_logger_system.improved_solution.formatters.PlainTextFormatter;
 import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
 import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
 
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * Appender that writes logs to a file.
+ * Lines are encoded as UTF-8 into a reusable buffer and written straight to
+ * the file, so appending allocates nothing.
  */
 public class FileAppender implements LogAppender {
+    private static final int WRITE_THRESHOLD = 64 * 1024;
+    
     private final LogFormatter formatter;
+    private final LogBuffer buffer = new LogBuffer(8192);
     private LogLevel minimumLevel;
-    private PrintWriter writer;
+    private OutputStream out;
     
     public FileAppender(String filePath, LogLevel minimumLevel) {
         this(filePath, minimumLevel, new PlainTextFormatter());
@@ -25,7 +32,7 @@ public class FileAppender implements LogAppender {
         this.minimumLevel = minimumLevel;
         this.formatter = formatter;
         try {
-            this.writer = new PrintWriter(new FileWriter(filePath, true));
+            this.out = new FileOutputStream(filePath, true);
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize file appender: " + filePath, e);
         }
@@ -37,13 +44,43 @@ public class FileAppender implements LogAppender {
             return;
         }
         
-        if (writer == null) {
+        if (out == null) {
+            return;
+        }
+        
+        buffer.clear();
+        formatter.format(logMessage, buffer);
+        buffer.append('\n');
+        write(); // Ensure immediate write
+    }
+    
+    /**
+     * Writes the whole batch under one lock acquisition with one write
+     * (per 64 KB), instead of one write (syscall) per line.
+     */
+    @Override
+    public synchronized void append(List<LogMessage> batch) {
+        if (out == null) {
             return;
         }
         
-        String formattedMessage = formatter.format(logMessage);
-        writer.println(formattedMessage);
-        writer.flush(); // Ensure immediate write
+        buffer.clear();
+        for (LogMessage logMessage : batch) {
+            if (logMessage.getLevel().shouldLog(minimumLevel)) {
+                formatter.format(logMessage, buffer);
+                buffer.append('\n');
+                if (buffer.size() >= WRITE_THRESHOLD) {
+                    write();
+                    buffer.clear();
+                }
+            }
+        }
+        write();
+    }
+    
+    @Override
+    public synchronized void flush() {
+        // Every append writes through to the file; nothing is held back
     }
     
     @Override
@@ -57,11 +94,25 @@ public class FileAppender implements LogAppender {
     }
     
     @Override
-    public void close() {
-        if (writer != null) {
-            writer.close();
-            writer = null;
+    public synchronized void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close file appender", e);
+            }
+            out = null;
+        }
+    }
+    
+    private void write() {
+        if (buffer.size() == 0) {
+            return;
+        }
+        try {
+            buffer.writeTo(out);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write log file", e);
         }
     }
 }
-
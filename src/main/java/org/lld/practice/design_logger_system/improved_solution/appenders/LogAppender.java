@@ -3,6 +3,8 @@ package org.lld.practice.design_logger_system.improved_solution.appenders;
 import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
 import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
 
+import java.util.List;
+
 /**
  * Interface for log appenders that write logs to different destinations.
  * Strategy pattern: Different implementations handle different output destinations.
@@ -15,6 +17,25 @@ public interface LogAppender {
      */
     void append(LogMessage logMessage);
     
+    /**
+     * Appends a batch of log messages (used by asynchronous logging).
+     * Implementations that buffer output should write the whole batch and
+     * flush once at the end.
+     * 
+     * @param batch The log messages to append, in order
+     */
+    default void append(List<LogMessage> batch) {
+        for (LogMessage logMessage : batch) {
+            append(logMessage);
+        }
+    }
+    
+    /**
+     * Flushes any buffered output to the destination.
+     */
+    default void flush() {
+    }
+    
     /**
      * Gets the minimum log level for this appender.
      * 
@@ -0,0 +1,531 @@
+package org.lld.practice.design_logger_system.improved_solution.appenders;
+
+import org.lld.practice.design_logger_system.improved_solution.formatters.LogBuffer;
+import org.lld.practice.design_logger_system.improved_solution.formatters.LogFormatter;
+import org.lld.practice.design_logger_system.improved_solution.formatters.PlainTextFormatter;
+import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
+import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appender that writes into a memory-mapped log file and rolls it over on
+ * size or time boundaries.
+ *
+ * Lines are encoded into a reusable LogBuffer and copied into a mapped
+ * window of the file (RollingFileConfig.mapRegionBytes); when a line does
+ * not fit, the next window is mapped where the file ends. Appending is a
+ * memory copy, with no write syscall per line. When the file is closed or
+ * rolled it is truncated to the bytes actually written, and a file left
+ * padded by a crash is trimmed when it is reopened.
+ *
+ * Rollover: before a line would take the file past maxFileSize, or on the
+ * first line after a period boundary, the file is renamed to
+ * app.log.&lt;period start yyyyMMdd-HHmmss&gt;.&lt;nnn&gt; and a fresh file is
+ * started. A background "log-roller" thread gzips the rolled file, deletes
+ * files beyond maxHistory and runs the timed flush (from the first write on).
+ *
+ * Flush (forcing the mapped pages to disk) happens every N events, every
+ * T ms and/or right after an event at or above a level, as configured.
+ *
+ * A window is unmapped as soon as it is replaced or the file is closed,
+ * since some platforms (Windows) refuse to truncate or rename a file that
+ * is still mapped. If a rollover fails, the current file is reopened and
+ * the next line tries again.
+ */
+public class RollingFileAppender implements LogAppender {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final DateTimeFormatter PERIOD_LABEL =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+    private static final Unmapper UNMAPPER = Unmapper.find();
+
+    private final Path file;
+    private final String fileName;
+    private final Pattern rolledName;   // app.log.<period>.<sequence>[.gz]
+    private final LogFormatter formatter;
+    private final RollingFileConfig config;
+    private final long rolloverIntervalMillis;  // 0 = size only
+    private final LogBuffer buffer = new LogBuffer(8192);
+    private final ScheduledExecutorService roller;
+    private LogLevel minimumLevel;
+
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long fileSize;          // bytes written to the current file
+    private long periodStart;
+    private long nextRollover;
+    private int unflushedEvents;
+    private long rolloverCount;
+    private String lastRolledLabel;
+    private int lastRolledSequence;
+    private boolean closed;
+    private boolean timedFlushScheduled;
+
+    public RollingFileAppender(String filePath, LogLevel minimumLevel) {
+        this(filePath, minimumLevel, new PlainTextFormatter(), RollingFileConfig.defaults());
+    }
+
+    public RollingFileAppender(String filePath, LogLevel minimumLevel, RollingFileConfig config) {
+        this(filePath, minimumLevel, new PlainTextFormatter(), config);
+    }
+
+    public RollingFileAppender(String filePath, LogLevel minimumLevel, LogFormatter formatter,
+                               RollingFileConfig config) {
+        this.file = Paths.get(filePath).toAbsolutePath();
+        this.fileName = file.getFileName().toString();
+        this.rolledName = Pattern.compile(Pattern.quote(fileName) + "\\.(\\d{8}-\\d{6})\\.(\\d+)(\\.gz)?");
+        this.minimumLevel = minimumLevel;
+        this.formatter = formatter;
+        this.config = config;
+        this.rolloverIntervalMillis = config.getRolloverInterval() != null
+                ? config.getRolloverInterval().toMillis() : 0;
+        try {
+            Files.createDirectories(file.getParent());
+            openFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize rolling file appender: " + filePath, e);
+        }
+
+        this.roller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-roller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized void append(LogMessage logMessage) {
+        if (closed || !logMessage.getLevel().shouldLog(minimumLevel)) {
+            return;
+        }
+
+        write(logMessage, System.currentTimeMillis());
+        if (shouldFlush(logMessage.getLevel())) {
+            force();
+        }
+    }
+
+    /**
+     * Copies the whole batch into the mapping under one lock acquisition and
+     * applies the flush policy once at the end.
+     */
+    @Override
+    public synchronized void append(List<LogMessage> batch) {
+        if (closed) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean flushNow = false;
+        for (LogMessage logMessage : batch) {
+            if (logMessage.getLevel().shouldLog(minimumLevel)) {
+                write(logMessage, now);
+                flushNow |= shouldFlush(logMessage.getLevel());
+            }
+        }
+        if (flushNow) {
+            force();
+        }
+    }
+
+    /**
+     * Forces the events appended since the last flush to disk.
+     */
+    @Override
+    public synchronized void flush() {
+        if (!closed && unflushedEvents > 0) {
+            force();
+        }
+    }
+
+    /**
+     * Rolls the current file over now, whatever its size and age.
+     */
+    public synchronized void rollover() {
+        if (closed) {
+            return;
+        }
+        try {
+            rollFile(System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to roll log file " + file, e);
+        }
+    }
+
+    @Override
+    public LogLevel getMinimumLevel() {
+        return minimumLevel;
+    }
+
+    @Override
+    public void setMinimumLevel(LogLevel level) {
+        this.minimumLevel = level;
+    }
+
+    /**
+     * Flushes and truncates the current file, then waits for pending
+     * compressions to finish.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                closeFile();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close rolling file appender", e);
+            } finally {
+                roller.shutdown();
+            }
+        }
+        // Outside the lock: a running timed flush may be waiting for it
+        try {
+            roller.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Number of rollovers since this appender was created.
+     */
+    public synchronized long getRolloverCount() {
+        return rolloverCount;
+    }
+
+    public RollingFileConfig getConfig() {
+        return config;
+    }
+
+    // ========== Writing ==========
+
+    private void write(LogMessage logMessage, long now) {
+        buffer.clear();
+        formatter.format(logMessage, buffer);
+        buffer.append('\n');
+        int length = buffer.size();
+        try {
+            if (region == null) {
+                openFile();   // an earlier rollover failed to reopen it
+            }
+            if (now >= nextRollover
+                    || (fileSize > 0 && fileSize + length > config.getMaxFileSize())) {
+                rollFile(now);
+            }
+            if (region.remaining() < length) {
+                remap(length);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write log file " + file, e);
+        }
+        region.put(buffer.buffer().array(), 0, length);
+        fileSize += length;
+        unflushedEvents++;
+        if (!timedFlushScheduled) {
+            scheduleTimedFlush();
+        }
+    }
+
+    /**
+     * Started by the first write rather than the constructor, so the roller
+     * never sees a partly constructed appender.
+     */
+    private void scheduleTimedFlush() {
+        timedFlushScheduled = true;
+        if (config.getFlushInterval() != null) {
+            long intervalMillis = config.getFlushInterval().toMillis();
+            roller.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean shouldFlush(LogLevel level) {
+        int everyEvents = config.getFlushEveryEvents();
+        LogLevel flushOnLevel = config.getFlushOnLevel();
+        return (everyEvents > 0 && unflushedEvents >= everyEvents)
+                || (flushOnLevel != null && level.shouldLog(flushOnLevel));
+    }
+
+    private void force() {
+        region.force();
+        unflushedEvents = 0;
+    }
+
+    /**
+     * Maps the next window, starting where the file currently ends. Pending
+     * lines in the old window are forced first, since only the current
+     * window is forced later on.
+     */
+    private void remap(int minimum) throws IOException {
+        if (unflushedEvents > 0) {
+            force();
+        }
+        MappedByteBuffer previous = region;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, fileSize,
+                Math.max(config.getMapRegionBytes(), minimum));
+        UNMAPPER.unmap(previous);
+    }
+
+    // ========== Files ==========
+
+    private void openFile() throws IOException {
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            channel = opened;
+            fileSize = writtenSize();
+            long now = System.currentTimeMillis();
+            // A file left from an earlier run belongs to the period it was last written in
+            long lastWritten = fileSize > 0 ? Files.getLastModifiedTime(file).toMillis() : now;
+            periodStart = periodStartOf(Math.min(lastWritten, now));
+            nextRollover = rolloverIntervalMillis > 0 ? periodStart + rolloverIntervalMillis : Long.MAX_VALUE;
+            region = channel.map(FileChannel.MapMode.READ_WRITE, fileSize, config.getMapRegionBytes());
+            unflushedEvents = 0;
+        } catch (IOException | RuntimeException e) {
+            channel = null;
+            opened.close();
+            throw e;
+        }
+    }
+
+    /**
+     * No-op if the file is not open (a failed rollover could not reopen it).
+     */
+    private void closeFile() throws IOException {
+        if (region == null) {
+            return;
+        }
+        if (unflushedEvents > 0) {
+            force();
+        }
+        MappedByteBuffer mapped = region;
+        region = null;
+        UNMAPPER.unmap(mapped);
+        try {
+            channel.truncate(fileSize);  // drop the unused tail of the mapped window
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Size of the existing file without the zero padding of a mapped window
+     * that was never truncated (the process died before close()).
+     */
+    private long writtenSize() throws IOException {
+        long size = channel.size();
+        long limit = Math.max(0, size - config.getMapRegionBytes());
+        ByteBuffer chunk = ByteBuffer.allocate(4096);
+        while (size > limit) {
+            int length = (int) Math.min(chunk.capacity(), size - limit);
+            chunk.clear().limit(length);
+            channel.read(chunk, size - length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk.get(i) != 0) {
+                    return size - length + i + 1;
+                }
+            }
+            size -= length;
+        }
+        return size;
+    }
+
+    /**
+     * If the rename fails, the current file is reopened (and appended to)
+     * before the failure is thrown, so the appender stays usable.
+     */
+    private void rollFile(long now) throws IOException {
+        closeFile();
+        Path rolled = null;
+        try {
+            if (fileSize > 0) {
+                rolled = rolledFileName();
+                Files.move(file, rolled);
+                rolloverCount++;
+            }
+        } finally {
+            openFile();
+        }
+        if (rolled != null) {
+            Path archived = rolled;
+            roller.execute(() -> archive(archived));
+        }
+        if (rolloverIntervalMillis > 0) {
+            periodStart = periodStartOf(now);
+            nextRollover = periodStart + rolloverIntervalMillis;
+        }
+    }
+
+    /**
+     * app.log.20261017-000000.001: start of the file's period plus a sequence
+     * number for size rollovers within the period. The sequence is padded to
+     * three digits but may grow past 999, so age is compared on the parsed
+     * number (RolledFile), not the name.
+     */
+    private Path rolledFileName() {
+        String label = PERIOD_LABEL.format(Instant.ofEpochMilli(periodStart));
+        // Continue the period's sequence even if maxHistory deleted its first files
+        int sequence = label.equals(lastRolledLabel) ? lastRolledSequence + 1 : 1;
+        String prefix = fileName + "." + label + ".";
+        for (; ; sequence++) {
+            Path candidate = file.resolveSibling(prefix + String.format("%03d", sequence));
+            if (!Files.exists(candidate) && !Files.exists(candidate.resolveSibling(candidate.getFileName() + ".gz"))) {
+                lastRolledLabel = label;
+                lastRolledSequence = sequence;
+                return candidate;
+            }
+        }
+    }
+
+    private long periodStartOf(long millis) {
+        if (rolloverIntervalMillis == 0) {
+            return millis;
+        }
+        long offset = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(millis))
+                .getTotalSeconds() * 1000L;
+        long local = millis + offset;
+        // Periods of a day or less restart at local midnight; longer ones count from the epoch
+        long origin = rolloverIntervalMillis <= MILLIS_PER_DAY
+                ? Math.floorDiv(local, MILLIS_PER_DAY) * MILLIS_PER_DAY : 0;
+        return origin + (local - origin) / rolloverIntervalMillis * rolloverIntervalMillis - offset;
+    }
+
+    // ========== Background (log-roller thread) ==========
+
+    private void archive(Path rolled) {
+        try {
+            if (config.isCompress()) {
+                gzip(rolled);
+            }
+            if (config.getMaxHistory() > 0) {
+                deleteOldest(config.getMaxHistory());
+            }
+        } catch (IOException e) {
+            System.err.println("Rolling file appender: failed to archive " + rolled + ": " + e);
+        }
+    }
+
+    private static void gzip(Path rolled) throws IOException {
+        Path compressed = rolled.resolveSibling(rolled.getFileName() + ".gz");
+        try (InputStream in = Files.newInputStream(rolled);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), 64 * 1024)) {
+            in.transferTo(out);
+        }
+        Files.delete(rolled);
+    }
+
+    private void deleteOldest(int keep) throws IOException {
+        List<RolledFile> rolled;
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            rolled = siblings
+                    .map(this::parseRolled)
+                    .filter(parsed -> parsed != null)
+                    .sorted(RolledFile.BY_AGE)
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < rolled.size() - keep; i++) {
+            Files.deleteIfExists(rolled.get(i).path());
+        }
+    }
+
+    /**
+     * @return null if path is not one of this appender's rolled files
+     */
+    private RolledFile parseRolled(Path path) {
+        Matcher matcher = rolledName.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return new RolledFile(path, matcher.group(1), Long.parseLong(matcher.group(2)));
+        } catch (NumberFormatException e) {
+            return null;  // a sequence no rollover could have produced
+        }
+    }
+
+    /**
+     * A rolled file's name parsed into its period label and sequence number;
+     * labels sort by age as text, sequences only as numbers (.999 < .1000).
+     */
+    private record RolledFile(Path path, String periodLabel, long sequence) {
+        static final Comparator<RolledFile> BY_AGE = Comparator.comparing(RolledFile::periodLabel)
+                .thenComparingLong(RolledFile::sequence);
+    }
+
+    /**
+     * Releases a mapping without waiting for the garbage collector, through
+     * sun.misc.Unsafe.invokeCleaner (jdk.unsupported). Where that is not
+     * available the mapping is only dropped, which is enough except on
+     * platforms that refuse to truncate or rename a mapped file.
+     */
+    private static final class Unmapper {
+        private final Object unsafe;
+        private final Method invokeCleaner;
+
+        private Unmapper(Object unsafe, Method invokeCleaner) {
+            this.unsafe = unsafe;
+            this.invokeCleaner = invokeCleaner;
+        }
+
+        static Unmapper find() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return new Unmapper(theUnsafe.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return new Unmapper(null, null);
+            }
+        }
+
+        /**
+         * The buffer must not be touched afterwards: reading an unmapped
+         * buffer crashes the JVM.
+         */
+        void unmap(MappedByteBuffer mapped) {
+            if (mapped == null || invokeCleaner == null) {
+                return;
+            }
+            try {
+                invokeCleaner.invoke(unsafe, mapped);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.err.println("Rolling file appender: failed to unmap log file window: " + e);
+            }
+        }
+    }
+}
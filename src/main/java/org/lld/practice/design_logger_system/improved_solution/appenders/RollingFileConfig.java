@@ -0,0 +1,200 @@
+package org.lld.practice.design_logger_system.improved_solution.appenders;
+
+import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
+
+import java.time.Duration;
+
+/**
+ * Rotation, compression and flush settings for a RollingFileAppender.
+ *
+ * <pre>
+ *   RollingFileConfig config = RollingFileConfig.builder()
+ *           .maxFileSize(50 * 1024 * 1024)        // roll at 50 MB...
+ *           .rolloverInterval(Duration.ofHours(1)) // ...or on every hour boundary
+ *           .maxHistory(48)                        // keep the 48 newest rolled files
+ *           .flushEveryEvents(1000)
+ *           .flushInterval(Duration.ofSeconds(1))
+ *           .flushOnLevel(LogLevel.ERROR)
+ *           .build();
+ *   logManager.addAppender(new RollingFileAppender("logs/app.log", LogLevel.INFO, config));
+ * </pre>
+ *
+ * "Flush" forces the mapped pages to disk. Lines are visible to readers of
+ * the file as soon as they are appended; flushing only bounds how much a
+ * machine crash can lose.
+ */
+public class RollingFileConfig {
+
+    private final long maxFileSize;
+    private final Duration rolloverInterval;
+    private final boolean compress;
+    private final int maxHistory;
+    private final int mapRegionBytes;
+    private final int flushEveryEvents;
+    private final Duration flushInterval;
+    private final LogLevel flushOnLevel;
+
+    private RollingFileConfig(Builder builder) {
+        this.maxFileSize = builder.maxFileSize;
+        this.rolloverInterval = builder.rolloverInterval;
+        this.compress = builder.compress;
+        this.maxHistory = builder.maxHistory;
+        this.mapRegionBytes = builder.mapRegionBytes;
+        this.flushEveryEvents = builder.flushEveryEvents;
+        this.flushInterval = builder.flushInterval;
+        this.flushOnLevel = builder.flushOnLevel;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Defaults: roll at 10 MB or midnight, gzip rolled files, keep 30 of them,
+     * map 1 MB at a time, flush every second and on ERROR.
+     */
+    public static RollingFileConfig defaults() {
+        return builder().build();
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Length of a time period, aligned to local midnight; null if the file only rolls on size.
+     */
+    public Duration getRolloverInterval() {
+        return rolloverInterval;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    /**
+     * Number of rolled files kept; 0 keeps all of them.
+     */
+    public int getMaxHistory() {
+        return maxHistory;
+    }
+
+    public int getMapRegionBytes() {
+        return mapRegionBytes;
+    }
+
+    /**
+     * Flush after this many events; 0 disables the count trigger.
+     */
+    public int getFlushEveryEvents() {
+        return flushEveryEvents;
+    }
+
+    /**
+     * Flush pending events this often; null disables the timer.
+     */
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Flush right after any event at or above this level; null disables the level trigger.
+     */
+    public LogLevel getFlushOnLevel() {
+        return flushOnLevel;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RollingFileConfig{maxSize=%d, interval=%s, compress=%s, history=%d, "
+                        + "region=%d, flushEvery=%d, flushInterval=%s, flushOn=%s}",
+                maxFileSize, rolloverInterval, compress, maxHistory,
+                mapRegionBytes, flushEveryEvents, flushInterval, flushOnLevel);
+    }
+
+    public static class Builder {
+        private long maxFileSize = 10L * 1024 * 1024;
+        private Duration rolloverInterval = Duration.ofDays(1);
+        private boolean compress = true;
+        private int maxHistory = 30;
+        private int mapRegionBytes = 1024 * 1024;
+        private int flushEveryEvents = 0;
+        private Duration flushInterval = Duration.ofSeconds(1);
+        private LogLevel flushOnLevel = LogLevel.ERROR;
+
+        /**
+         * Roll before a line would take the file past this size.
+         */
+        public Builder maxFileSize(long maxFileSize) {
+            if (maxFileSize < 1024) {
+                throw new IllegalArgumentException("Max file size must be at least 1 KB");
+            }
+            this.maxFileSize = maxFileSize;
+            return this;
+        }
+
+        /**
+         * Roll on every multiple of this interval since local midnight
+         * (e.g. one hour rolls at :00). Null rolls on size only.
+         */
+        public Builder rolloverInterval(Duration rolloverInterval) {
+            if (rolloverInterval != null && rolloverInterval.toMillis() < 1000) {
+                throw new IllegalArgumentException("Rollover interval must be at least 1 second");
+            }
+            this.rolloverInterval = rolloverInterval;
+            return this;
+        }
+
+        /**
+         * Gzip rolled files on a background thread.
+         */
+        public Builder compress(boolean compress) {
+            this.compress = compress;
+            return this;
+        }
+
+        public Builder maxHistory(int maxHistory) {
+            if (maxHistory < 0) {
+                throw new IllegalArgumentException("Max history cannot be negative");
+            }
+            this.maxHistory = maxHistory;
+            return this;
+        }
+
+        /**
+         * Size of each mapped window; the file is remapped one window further as it grows.
+         */
+        public Builder mapRegionBytes(int mapRegionBytes) {
+            if (mapRegionBytes < 4096) {
+                throw new IllegalArgumentException("Map region must be at least 4 KB");
+            }
+            this.mapRegionBytes = mapRegionBytes;
+            return this;
+        }
+
+        public Builder flushEveryEvents(int flushEveryEvents) {
+            if (flushEveryEvents < 0) {
+                throw new IllegalArgumentException("Flush event count cannot be negative");
+            }
+            this.flushEveryEvents = flushEveryEvents;
+            return this;
+        }
+
+        public Builder flushInterval(Duration flushInterval) {
+            if (flushInterval != null && flushInterval.toMillis() <= 0) {
+                throw new IllegalArgumentException("Flush interval must be at least 1 ms");
+            }
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        public Builder flushOnLevel(LogLevel flushOnLevel) {
+            this.flushOnLevel = flushOnLevel;
+            return this;
+        }
+
+        public RollingFileConfig build() {
+            return new RollingFileConfig(this);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.lld.practice.design_logger_system.improved_solution.async;
+
+import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
+
+/**
+ * Configuration for asynchronous logging: ring buffer size, batch size and
+ * the overflow policy.
+ *
+ * <pre>
+ *   AsyncConfig config = AsyncConfig.builder()
+ *           .bufferSize(8192)
+ *           .overflowPolicy(OverflowPolicy.DROP_BELOW_LEVEL)
+ *           .dropThreshold(LogLevel.WARN)     // DEBUG/INFO may be dropped
+ *           .build();
+ *   LogManager manager = new LogManager(LogLevel.INFO, config);
+ * </pre>
+ */
+public class AsyncConfig {
+
+    private final int bufferSize;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final LogLevel dropThreshold;
+
+    private AsyncConfig(Builder builder) {
+        this.bufferSize = builder.bufferSize;
+        this.batchSize = builder.batchSize;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.dropThreshold = builder.dropThreshold;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Defaults: 8192 slots, batches of up to 256 events, BLOCK when full.
+     */
+    public static AsyncConfig defaults() {
+        return builder().build();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * With DROP_BELOW_LEVEL, events below this level are dropped when the buffer is full.
+     */
+    public LogLevel getDropThreshold() {
+        return dropThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncConfig{buffer=%d, batch=%d, overflow=%s, dropBelow=%s}",
+                bufferSize, batchSize, overflowPolicy, dropThreshold);
+    }
+
+    public static class Builder {
+        private int bufferSize = 8192;
+        private int batchSize = 256;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private LogLevel dropThreshold = LogLevel.WARN;
+
+        /**
+         * Ring buffer capacity in events, rounded up to a power of two.
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 2 || bufferSize > 1 << 24) {
+                throw new IllegalArgumentException("Buffer size must be between 2 and 2^24");
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Maximum number of events handed to the appenders in one batch (one flush).
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == null) {
+                throw new IllegalArgumentException("Overflow policy cannot be null");
+            }
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder dropThreshold(LogLevel dropThreshold) {
+            if (dropThreshold == null) {
+                throw new IllegalArgumentException("Drop threshold cannot be null");
+            }
+            this.dropThreshold = dropThreshold;
+            return this;
+        }
+
+        public AsyncConfig build() {
+            bufferSize = Integer.highestOneBit(bufferSize - 1) << 1;
+            return new AsyncConfig(this);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.lld.practice.design_logger_system.improved_solution.async;
+
+import org.lld.practice.common.concurrent.Sequencer;
+import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
+import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Hands log events from application threads to a single background thread.
+ *
+ * <pre>
+ *   app threads ──submit()──> [ RingBuffer (lock-free, bounded) ] ──> "log-dispatcher"
+ *                                                                       drains up to batchSize,
+ *                                                                       sink.accept(batch)
+ * </pre>
+ *
+ * Application threads only pay for a CAS and copying the event into a
+ * preallocated slot (the caller's event is reused by its logger, and the
+ * slot's event by the next lap, so nothing is allocated per message);
+ * formatting and I/O happen on the dispatcher thread, one batch (and one
+ * flush) at a time. Because formatting happens later, arguments that could
+ * change in the meantime (anything but Strings, boxed primitives and enums)
+ * are converted to Strings while copying, on the caller thread.
+ * When the buffer is full the OverflowPolicy decides whether the caller
+ * waits or the event is dropped; drops are counted per level.
+ *
+ * The ring and the thread are a common Sequencer of preallocated events,
+ * so an event submitted while shutdown() runs is either delivered or
+ * reported as dropped, and a BLOCK caller stops waiting once shutdown starts.
+ */
+public class AsyncLogDispatcher {
+
+    private static final BiConsumer<LogMessage, LogMessage> COPY = LogMessage::copySnapshotFrom;
+
+    private final AsyncConfig config;
+    private final Consumer<List<LogMessage>> sink;
+    private final LongAdder[] dropped = new LongAdder[LogLevel.values().length];
+    private final Sequencer<LogMessage> sequencer;
+
+    /**
+     * @param sink receives each batch on the dispatcher thread (the list and
+     *             its events are reused afterwards: copy() events to keep them)
+     */
+    public AsyncLogDispatcher(AsyncConfig config, Consumer<List<LogMessage>> sink) {
+        this.config = config;
+        this.sink = sink;
+        for (int i = 0; i < dropped.length; i++) {
+            dropped[i] = new LongAdder();
+        }
+        this.sequencer = new Sequencer<>("log-dispatcher", config.getBufferSize(), config.getBatchSize(),
+                LogMessage::new, this::deliver, this::discard);
+    }
+
+    /**
+     * Queue a copy of an event, applying the overflow policy if the buffer is full.
+     * The caller may reuse the event as soon as this returns.
+     *
+     * @return false if the event was dropped (buffer full, or shut down)
+     */
+    public boolean submit(LogMessage logMessage) {
+        if (sequencer.tryPublish(logMessage, COPY)) {
+            return true;
+        }
+        if (sequencer.isRunning() && !shouldDrop(logMessage.getLevel())
+                && sequencer.publish(logMessage, COPY)) {
+            return true;   // BLOCK: waited for space
+        }
+        dropped[logMessage.getLevel().ordinal()].increment();
+        return false;
+    }
+
+    /**
+     * Block until every event submitted before this call has been handed to the sink.
+     */
+    public void flush() {
+        sequencer.flush();
+    }
+
+    /**
+     * Stop accepting events, deliver everything already queued, and stop the thread.
+     */
+    public void shutdown() {
+        sequencer.shutdown();
+    }
+
+    public long getDroppedCount() {
+        long total = 0;
+        for (LongAdder counter : dropped) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    public long getDroppedCount(LogLevel level) {
+        return dropped[level.ordinal()].sum();
+    }
+
+    /**
+     * Events waiting in the ring buffer.
+     */
+    public int getQueuedCount() {
+        return sequencer.getQueuedCount();
+    }
+
+    public AsyncConfig getConfig() {
+        return config;
+    }
+
+    private boolean shouldDrop(LogLevel level) {
+        switch (config.getOverflowPolicy()) {
+            case DISCARD:
+                return true;
+            case DROP_BELOW_LEVEL:
+                return !level.shouldLog(config.getDropThreshold());
+            default:
+                return false;
+        }
+    }
+
+    private void deliver(List<LogMessage> batch) {
+        try {
+            sink.accept(batch);
+        } catch (RuntimeException e) {
+            // Never let a failing appender stop the dispatcher
+            System.err.println("Async logging: failed to append " + batch.size() + " events: " + e);
+        }
+        clear(batch);
+    }
+
+    /**
+     * Events never delivered because an Error stopped the dispatcher: count them as dropped.
+     */
+    private void discard(List<LogMessage> batch, Throwable error) {
+        for (LogMessage logMessage : batch) {
+            dropped[logMessage.getLevel().ordinal()].increment();
+        }
+        clear(batch);
+    }
+
+    private static void clear(List<LogMessage> batch) {
+        for (LogMessage logMessage : batch) {
+            logMessage.clear();   // drop argument references until the slot is reused
+        }
+    }
+}
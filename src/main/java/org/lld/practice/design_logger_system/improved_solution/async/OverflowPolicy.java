@@ -0,0 +1,23 @@
+package org.lld.practice.design_logger_system.improved_solution.async;
+
+/**
+ * What an asynchronous LogManager does with an event when its ring buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait for space: nothing is lost, but a slow appender slows down the
+     * application threads.
+     */
+    BLOCK,
+
+    /**
+     * Drop events below the configured threshold level (e.g. DEBUG and INFO),
+     * wait for space for the rest: important events are never lost.
+     */
+    DROP_BELOW_LEVEL,
+
+    /**
+     * Drop every event that does not fit: logging never blocks the caller.
+     */
+    DISCARD
+}
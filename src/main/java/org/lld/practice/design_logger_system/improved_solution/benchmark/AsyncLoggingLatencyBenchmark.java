@@ -0,0 +1,139 @@
+package org.lld.practice.design_logger_system.improved_solution.benchmark;
+
+import org.lld.practice.design_logger_system.improved_solution.LogManager;
+import org.lld.practice.design_logger_system.improved_solution.Logger;
+import org.lld.practice.design_logger_system.improved_solution.appenders.FileAppender;
+import org.lld.practice.design_logger_system.improved_solution.async.AsyncConfig;
+import org.lld.practice.design_logger_system.improved_solution.async.OverflowPolicy;
+import org.lld.practice.design_logger_system.improved_solution.formatters.PlainTextFormatter;
+import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Logging call latency: synchronous vs asynchronous (per overflow policy).
+ *
+ * 16 threads each log N messages (80% INFO, 20% WARN) as fast as they can
+ * to a FileAppender with the plain text formatter. Every call is timed with
+ * System.nanoTime(); percentiles are over all calls of all threads. The
+ * elapsed time includes the final flush, so throughput counts messages
+ * actually written (or dropped).
+ *
+ * Usage:
+ *   java ... AsyncLoggingLatencyBenchmark [messagesPerThread] [threads]
+ */
+public class AsyncLoggingLatencyBenchmark {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     ⏱️  LOGGING LATENCY: SYNC vs ASYNC RING BUFFER              ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%d threads x %,d messages, FileAppender, buffer %,d events%n%n",
+                threads, perThread, BUFFER_SIZE);
+
+        // Warm up the JIT on both paths
+        run(null, threads, perThread / 4);
+        run(config(OverflowPolicy.BLOCK), threads, perThread / 4);
+
+        System.out.printf("%-26s %9s %9s %10s %10s %12s %10s%n",
+                "Mode", "p50 µs", "p99 µs", "p99.9 µs", "max µs", "msgs/s", "dropped");
+        print("Synchronous", run(null, threads, perThread));
+        print("Async BLOCK", run(config(OverflowPolicy.BLOCK), threads, perThread));
+        print("Async DROP_BELOW_LEVEL", run(config(OverflowPolicy.DROP_BELOW_LEVEL), threads, perThread));
+        print("Async DISCARD", run(config(OverflowPolicy.DISCARD), threads, perThread));
+    }
+
+    private static AsyncConfig config(OverflowPolicy policy) {
+        return AsyncConfig.builder()
+                .bufferSize(BUFFER_SIZE)
+                .overflowPolicy(policy)
+                .dropThreshold(LogLevel.WARN)
+                .build();
+    }
+
+    private static Result run(AsyncConfig asyncConfig, int threads, int perThread) throws Exception {
+        Path file = Files.createTempFile("logger-bench-", ".log");
+        LogManager manager = new LogManager(LogLevel.INFO, asyncConfig);
+        manager.addAppender(new FileAppender(file.toString(), LogLevel.INFO, new PlainTextFormatter()));
+        Logger logger = Logger.getLogger("OrderService", manager);
+
+        long[][] latencies = new long[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] samples = latencies[t];
+            int threadId = t;
+            workers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < perThread; i++) {
+                    long before = System.nanoTime();
+                    if (i % 5 == 0) {
+                        logger.warn("Order slow to fill: thread=" + threadId + " seq=" + i);
+                    } else {
+                        logger.info("Order accepted: thread=" + threadId + " seq=" + i);
+                    }
+                    samples[i] = System.nanoTime() - before;
+                }
+            });
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        manager.flush();
+        long elapsed = System.nanoTime() - begin;
+        long dropped = manager.getDroppedCount();
+        manager.shutdown();
+        Files.deleteIfExists(file);
+
+        long[] all = new long[threads * perThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+        return new Result(all, (long) threads * perThread * 1_000_000_000L / elapsed, dropped);
+    }
+
+    private static void print(String mode, Result result) {
+        long[] sorted = result.latencies;
+        System.out.printf("%-26s %9.1f %9.1f %10.1f %10.1f %,12d %,10d%n", mode,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted[sorted.length - 1] / 1000.0, result.throughput, result.dropped);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, (long) (quantile * sorted.length))] / 1000.0;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Result {
+        final long[] latencies;
+        final long throughput;
+        final long dropped;
+
+        Result(long[] latencies, long throughput, long dropped) {
+            this.latencies = latencies;
+            this.throughput = throughput;
+            this.dropped = dropped;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.lld.practice.design_logger_system.improved_solution.benchmark;
+
+import org.lld.practice.design_logger_system.improved_solution.LogManager;
+import org.lld.practice.design_logger_system.improved_solution.Logger;
+import org.lld.practice.design_logger_system.improved_solution.appenders.FileAppender;
+import org.lld.practice.design_logger_system.improved_solution.async.AsyncConfig;
+import org.lld.practice.design_logger_system.improved_solution.formatters.JSONFormatter;
+import org.lld.practice.design_logger_system.improved_solution.formatters.LogFormatter;
+import org.lld.practice.design_logger_system.improved_solution.formatters.PlainTextFormatter;
+import org.lld.practice.design_logger_system.improved_solution.models.LogLevel;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Allocation check for the garbage-free logging path.
+ *
+ * Measures bytes allocated per logging call on the calling thread
+ * (com.sun.management.ThreadMXBean), after a warmup long enough for the JIT
+ * to compile the path. Parameterized calls must stay under 1 byte/call;
+ * String concatenation is shown for comparison. In async mode the dispatcher
+ * thread's allocation is reported too.
+ *
+ * Arguments are boxed once up front: boxing an int above 127 at the call
+ * site allocates, whatever the logger does.
+ *
+ * Exits with status 1 if a garbage-free case allocates.
+ *
+ * Usage:
+ *   java ... LoggingAllocationCheck [calls]
+ */
+public class LoggingAllocationCheck {
+
+    private static final double MAX_BYTES_PER_CALL = 1.0;
+    private static final int DISTINCT_ARGUMENTS = 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final Long[] USER_IDS = new Long[DISTINCT_ARGUMENTS];
+    private static final Integer[] AMOUNTS = new Integer[DISTINCT_ARGUMENTS];
+
+    static {
+        for (int i = 0; i < DISTINCT_ARGUMENTS; i++) {
+            USER_IDS[i] = 100_000L + i;
+            AMOUNTS[i] = 1_000 + i * 7;
+        }
+    }
+
+    private interface Call {
+        void log(Logger logger, int i);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🗑️  LOGGING ALLOCATION CHECK (bytes per call)               ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%,d calls per case, FileAppender%n%n", calls);
+        System.out.printf("%-48s %12s %14s  %s%n", "Case", "bytes/call", "dispatcher", "");
+
+        Call parameterized = (logger, i) ->
+                logger.info("user {} paid {} cents", USER_IDS[i & 1023], AMOUNTS[i & 1023]);
+        Call concatenated = (logger, i) ->
+                logger.info("user " + USER_IDS[i & 1023] + " paid " + AMOUNTS[i & 1023] + " cents");
+        Call disabled = (logger, i) ->
+                logger.debug("user {} paid {} cents", USER_IDS[i & 1023], AMOUNTS[i & 1023]);
+        Call disabledConcatenated = (logger, i) ->
+                logger.debug("user " + USER_IDS[i & 1023] + " paid " + AMOUNTS[i & 1023] + " cents");
+
+        boolean passed = true;
+        passed &= check("Disabled debug, parameterized", disabled, new PlainTextFormatter(), null, calls, true);
+        check("Disabled debug, concatenated", disabledConcatenated, new PlainTextFormatter(), null, calls, false);
+        passed &= check("Sync, plain text, parameterized", parameterized, new PlainTextFormatter(), null, calls, true);
+        passed &= check("Sync, JSON, parameterized", parameterized, new JSONFormatter(), null, calls, true);
+        check("Sync, plain text, concatenated", concatenated, new PlainTextFormatter(), null, calls, false);
+        passed &= check("Async, plain text, parameterized", parameterized, new PlainTextFormatter(),
+                AsyncConfig.defaults(), calls, true);
+
+        System.out.println(passed ? "\n✅ PASS: garbage-free paths stay under " + MAX_BYTES_PER_CALL + " byte/call"
+                : "\n❌ FAIL: a garbage-free path allocates");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return true if the case is within budget (or is not expected to be garbage-free)
+     */
+    private static boolean check(String name, Call call, LogFormatter formatter, AsyncConfig asyncConfig,
+                                 int calls, boolean garbageFree) throws IOException {
+        Path file = Files.createTempFile("logger-alloc-", ".log");
+        LogManager manager = new LogManager(LogLevel.INFO, asyncConfig);
+        manager.addAppender(new FileAppender(file.toString(), LogLevel.INFO, formatter));
+        Logger logger = Logger.getLogger("PaymentService", manager);
+        try {
+            // Warmup: reach steady state (JIT, buffer sizes, the day's timestamp cache)
+            for (int i = 0; i < Math.max(200_000, calls / 5); i++) {
+                call.log(logger, i);
+            }
+            manager.flush();
+
+            long dispatcherId = dispatcherThreadId();
+            long dispatcherBefore = dispatcherId >= 0 ? THREADS.getThreadAllocatedBytes(dispatcherId) : 0;
+            long before = THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId());
+            for (int i = 0; i < calls; i++) {
+                call.log(logger, i);
+            }
+            long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId()) - before;
+            manager.flush();
+            long dispatcherAllocated = dispatcherId >= 0
+                    ? THREADS.getThreadAllocatedBytes(dispatcherId) - dispatcherBefore : -1;
+
+            double perCall = (double) allocated / calls;
+            boolean ok = !garbageFree || perCall < MAX_BYTES_PER_CALL;
+            System.out.printf("%-48s %12.2f %14s  %s%n", name, perCall,
+                    dispatcherAllocated >= 0 ? String.format("%.2f", (double) dispatcherAllocated / calls) : "-",
+                    garbageFree ? (ok ? "✅" : "❌") : "(reference)");
+            return ok;
+        } finally {
+            manager.shutdown();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long dispatcherThreadId() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("log-dispatcher")) {
+                return thread.threadId();
+            }
+        }
+        return -1;
+    }
+}
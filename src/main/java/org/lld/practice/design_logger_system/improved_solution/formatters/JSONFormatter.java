@@ -8,27 +8,17 @@ import org.lld.practice.design_logger_system.improved_solution.models.LogMessage
 public class JSONFormatter implements LogFormatter {
     
     @Override
-    public String format(LogMessage logMessage) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{")
-          .append("\"timestamp\":\"").append(logMessage.getTimestamp()).append("\",")
-          .append("\"level\":\"").append(logMessage.getLevel()).append("\",")
-          .append("\"source\":\"").append(logMessage.getSource()).append("\",")
-          .append("\"message\":\"").append(escapeJson(logMessage.getMessage())).append("\"");
+    public void format(LogMessage logMessage, LogBuffer out) {
+        out.append("{\"timestamp\":\"").appendTimestamp(logMessage.getTimestampMillis())
+           .append("\",\"level\":\"").append(logMessage.getLevel().name())
+           .append("\",\"source\":\"").appendJsonEscaped(logMessage.getSource())
+           .append("\",\"message\":\"").appendMessage(logMessage, true)
+           .append('"');
         
         if (logMessage.getThrowable() != null) {
-            sb.append(",\"exception\":\"").append(escapeJson(logMessage.getThrowable().getMessage())).append("\"");
+            out.append(",\"exception\":\"").appendJsonEscaped(logMessage.getThrowable().getMessage()).append('"');
         }
         
-        sb.append("}");
-        return sb.toString();
-    }
-    
-    private String escapeJson(String str) {
-        return str.replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+        out.append('}');
     }
 }
-
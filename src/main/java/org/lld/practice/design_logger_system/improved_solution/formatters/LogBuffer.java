@@ -0,0 +1,287 @@
+package org.lld.practice.design_logger_system.improved_solution.formatters;
+
+import org.lld.practice.design_logger_system.improved_solution.models.LogMessage;
+import org.lld.practice.design_logger_system.improved_solution.models.MessagePattern;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.time.ZoneId;
+
+/**
+ * Reusable, growable UTF-8 output buffer that formatters encode into.
+ * 
+ * Strings are encoded char by char and numbers digit by digit straight into
+ * a heap ByteBuffer, so formatting a line allocates nothing once the buffer
+ * has grown to its working size. Timestamps reuse a cached date prefix for
+ * the current day (recomputed at midnight and at time-zone transitions).
+ * 
+ * Not thread-safe: each appender owns one and uses it under its own lock.
+ */
+public class LogBuffer {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    
+    private ByteBuffer buffer;
+    
+    // Timestamp cache: valid while the day and the UTC offset stay the same
+    private long cacheValidFrom = Long.MAX_VALUE;
+    private long cacheValidTo = Long.MIN_VALUE;
+    private long cachedOffsetMillis;
+    private long cachedLocalDayStart;
+    private byte[] cachedDate;  // "yyyy-MM-dd"
+    
+    public LogBuffer(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+    
+    public LogBuffer clear() {
+        buffer.clear();
+        return this;
+    }
+    
+    /**
+     * Number of bytes written since the last clear().
+     */
+    public int size() {
+        return buffer.position();
+    }
+    
+    /**
+     * The underlying buffer: bytes [0, position) are the encoded output.
+     * Valid until the next append (which may replace it with a larger one).
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+    
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+    }
+    
+    // ========== Text ==========
+    
+    public LogBuffer append(char c) {
+        if (c < 0x80) {
+            ensureRemaining(1);
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            ensureRemaining(2);
+            buffer.put((byte) (0xC0 | (c >> 6))).put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            ensureRemaining(1);
+            buffer.put((byte) '?');  // unpaired surrogate (pairs go through append(CharSequence))
+        } else {
+            ensureRemaining(3);
+            buffer.put((byte) (0xE0 | (c >> 12)))
+                  .put((byte) (0x80 | ((c >> 6) & 0x3F)))
+                  .put((byte) (0x80 | (c & 0x3F)));
+        }
+        return this;
+    }
+    
+    public LogBuffer append(CharSequence text) {
+        if (text == null) {
+            return appendBytes(NULL);
+        }
+        return append(text, 0, text.length(), false);
+    }
+    
+    /**
+     * Appends text escaped for a JSON string (quotes, backslashes, control characters).
+     */
+    public LogBuffer appendJsonEscaped(CharSequence text) {
+        if (text == null) {
+            return appendBytes(NULL);
+        }
+        return append(text, 0, text.length(), true);
+    }
+    
+    private LogBuffer append(CharSequence text, int start, int end, boolean json) {
+        ensureRemaining(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (json && needsJsonEscape(c)) {
+                appendJsonEscape(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                ensureRemaining(4);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)))
+                      .put((byte) (0x80 | ((codePoint >> 12) & 0x3F)))
+                      .put((byte) (0x80 | ((codePoint >> 6) & 0x3F)))
+                      .put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (c < 0x80 && buffer.hasRemaining()) {
+                buffer.put((byte) c);
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+    
+    private static boolean needsJsonEscape(char c) {
+        return c == '"' || c == '\\' || c < 0x20;
+    }
+    
+    private void appendJsonEscape(char c) {
+        ensureRemaining(6);
+        buffer.put((byte) '\\');
+        switch (c) {
+            case '"': buffer.put((byte) '"'); break;
+            case '\\': buffer.put((byte) '\\'); break;
+            case '\n': buffer.put((byte) 'n'); break;
+            case '\r': buffer.put((byte) 'r'); break;
+            case '\t': buffer.put((byte) 't'); break;
+            default:
+                buffer.put((byte) 'u').put((byte) '0').put((byte) '0')
+                      .put(HEX[(c >> 4) & 0xF]).put(HEX[c & 0xF]);
+        }
+    }
+    
+    // ========== Numbers ==========
+    
+    public LogBuffer append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append("-9223372036854775808");
+        }
+        ensureRemaining(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = buffer.position() + digits;
+        for (int position = end - 1; position >= buffer.position(); position--) {
+            buffer.put(position, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+        return this;
+    }
+    
+    private void appendPadded(long value, int width) {
+        for (long limit = 10; width > 1; width--, limit *= 10) {
+            if (value < limit) {
+                append('0');
+            }
+        }
+        append(value);
+    }
+    
+    // ========== Log Fields ==========
+    
+    /**
+     * Appends a local ISO-8601 timestamp with millisecond precision
+     * (2024-05-01T13:45:07.123) in the system time zone.
+     */
+    public LogBuffer appendTimestamp(long epochMillis) {
+        if (epochMillis < cacheValidFrom || epochMillis >= cacheValidTo) {
+            cacheDay(epochMillis);
+        }
+        long millisOfDay = epochMillis + cachedOffsetMillis - cachedLocalDayStart;
+        appendBytes(cachedDate);
+        append('T');
+        appendPadded(millisOfDay / 3_600_000, 2);
+        append(':');
+        appendPadded(millisOfDay / 60_000 % 60, 2);
+        append(':');
+        appendPadded(millisOfDay / 1000 % 60, 2);
+        append('.');
+        appendPadded(millisOfDay % 1000, 3);
+        return this;
+    }
+    
+    /**
+     * Appends the message, substituting "{}" placeholders with the arguments
+     * without building the message String.
+     */
+    public LogBuffer appendMessage(LogMessage logMessage, boolean jsonEscape) {
+        String pattern = logMessage.getPattern();
+        if (pattern == null) {
+            return appendBytes(NULL);
+        }
+        int argumentCount = logMessage.getArgumentCount();
+        int start = 0;
+        int argument = 0;
+        for (int index = argumentCount > 0 ? MessagePattern.nextPlaceholder(pattern, 0) : -1;
+             index >= 0 && argument < argumentCount;
+             index = MessagePattern.nextPlaceholder(pattern, start)) {
+            append(pattern, start, index, jsonEscape);
+            appendArgument(logMessage.getArgument(argument++), jsonEscape);
+            start = index + 2;
+        }
+        return append(pattern, start, pattern.length(), jsonEscape);
+    }
+    
+    /**
+     * Strings and integral numbers are written directly; other objects go
+     * through toString() (which may allocate).
+     */
+    private void appendArgument(Object argument, boolean jsonEscape) {
+        if (argument instanceof CharSequence) {
+            CharSequence text = (CharSequence) argument;
+            append(text, 0, text.length(), jsonEscape);
+        } else if (argument instanceof Long || argument instanceof Integer
+                || argument instanceof Short || argument instanceof Byte) {
+            append(((Number) argument).longValue());
+        } else if (argument instanceof Boolean) {
+            append((Boolean) argument ? "true" : "false");
+        } else if (argument instanceof Character) {
+            char c = (Character) argument;
+            if (jsonEscape && needsJsonEscape(c)) {
+                appendJsonEscape(c);
+            } else {
+                append(c);
+            }
+        } else {
+            String text = String.valueOf(argument);
+            append(text, 0, text.length(), jsonEscape);
+        }
+    }
+    
+    private void cacheDay(long epochMillis) {
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        cachedOffsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+        long day = Math.floorDiv(epochMillis + cachedOffsetMillis, MILLIS_PER_DAY);
+        cachedLocalDayStart = day * MILLIS_PER_DAY;
+        cacheValidFrom = cachedLocalDayStart - cachedOffsetMillis;
+        cacheValidTo = cacheValidFrom + MILLIS_PER_DAY;
+        ZoneOffsetTransition previous = rules.previousTransition(instant);
+        if (previous != null) {
+            cacheValidFrom = Math.max(cacheValidFrom, previous.toEpochSecond() * 1000);
+        }
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        if (next != null) {
+            cacheValidTo = Math.min(cacheValidTo, next.toEpochSecond() * 1000);
+        }
+        cachedDate = LocalDate.ofEpochDay(day).toString().getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private LogBuffer appendBytes(byte[] bytes) {
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+    
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() < bytes) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return new String(buffer.array(), buffer.arrayOffset(), buffer.position(), StandardCharsets.UTF_8);
+    }
+}
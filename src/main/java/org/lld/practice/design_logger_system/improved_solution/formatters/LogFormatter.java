@@ -7,12 +7,24 @@ import org.lld.practice.design_logger_system.improved_solution.models.LogMessage
  * Different implementations can format logs as JSON, XML, Plain Text, etc.
  */
 public interface LogFormatter {
+    /**
+     * Encodes a log message as UTF-8 into a reusable buffer, without
+     * allocating. Appenders call this on their hot path.
+     * 
+     * @param logMessage The log message to format
+     * @param out The buffer to append to
+     */
+    void format(LogMessage logMessage, LogBuffer out);
+    
     /**
      * Formats a log message into a string representation.
      * 
      * @param logMessage The log message to format
      * @return Formatted string representation
      */
-    String format(LogMessage logMessage);
+    default String format(LogMessage logMessage) {
+        LogBuffer out = new LogBuffer(256);
+        format(logMessage, out);
+        return out.toString();
+    }
 }
-
@@ -8,21 +8,17 @@ import org.lld.practice.design_logger_system.improved_solution.models.LogMessage
 public class PlainTextFormatter implements LogFormatter {
     
     @Override
-    public String format(LogMessage logMessage) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(logMessage.getTimestamp())
-          .append(" [")
-          .append(logMessage.getLevel())
-          .append("] ")
-          .append(logMessage.getSource())
-          .append(" - ")
-          .append(logMessage.getMessage());
+    public void format(LogMessage logMessage, LogBuffer out) {
+        out.appendTimestamp(logMessage.getTimestampMillis())
+           .append(" [")
+           .append(logMessage.getLevel().name())
+           .append("] ")
+           .append(logMessage.getSource())
+           .append(" - ")
+           .appendMessage(logMessage, false);
         
         if (logMessage.getThrowable() != null) {
-            sb.append("\nException: ").append(logMessage.getThrowable().getMessage());
+            out.append("\nException: ").append(logMessage.getThrowable().getMessage());
         }
-        
-        return sb.toString();
     }
 }
-
@@ -1,16 +1,32 @@
 package org.lld.practice.design_logger_system.improved_solution.models;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 
 /**
  * Represents a log message with all its metadata.
+ * 
+ * A message is either a literal or a pattern with "{}" placeholders and
+ * arguments (formatted only when an appender writes it). Instances built
+ * with the constructors that take a message are never changed by the
+ * logging system. Loggers reuse events instead: set(...) fills one and
+ * clear() resets it after the call, so an appender that keeps a message
+ * beyond append() must keep copy() of it.
  */
 public class LogMessage {
-    private final LogLevel level;
-    private final String message;
-    private final LocalDateTime timestamp;
-    private final String source;
-    private final Throwable throwable;
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    
+    private LogLevel level;
+    private String pattern;
+    private Object[] arguments = NO_ARGUMENTS;
+    private int argumentCount;
+    private long timestampMillis;
+    private String source;
+    private Throwable throwable;
+    private String formattedMessage;  // cache for getMessage()
+    private boolean inUse;
     
     public LogMessage(LogLevel level, String message, String source) {
         this(level, message, source, null);
@@ -18,22 +34,185 @@ public class LogMessage {
     
     public LogMessage(LogLevel level, String message, String source, Throwable throwable) {
         this.level = level;
-        this.message = message;
+        this.pattern = message;
+        this.source = source;
+        this.throwable = throwable;
+        this.timestampMillis = System.currentTimeMillis();
+    }
+    
+    /**
+     * Creates an empty, reusable event to be filled with set().
+     */
+    public LogMessage() {
+    }
+    
+    // ========== Reuse ==========
+    
+    /**
+     * Fills this event for one logging call, timestamped now.
+     * Arguments are copied into the event's own array (grown when needed).
+     */
+    public LogMessage set(LogLevel level, String source, String pattern, Throwable throwable,
+                          Object[] arguments, int argumentCount) {
+        this.level = level;
         this.source = source;
+        this.pattern = pattern;
         this.throwable = throwable;
-        this.timestamp = LocalDateTime.now();
+        this.timestampMillis = System.currentTimeMillis();
+        this.formattedMessage = null;
+        setArguments(arguments, argumentCount);
+        this.inUse = true;
+        return this;
+    }
+    
+    /**
+     * Convenience for up to two arguments without a varargs array.
+     */
+    public LogMessage set(LogLevel level, String source, String pattern, Throwable throwable,
+                          int argumentCount, Object argument0, Object argument1) {
+        set(level, source, pattern, throwable, null, 0);
+        ensureArgumentCapacity(argumentCount);
+        if (argumentCount > 0) {
+            arguments[0] = argument0;
+        }
+        if (argumentCount > 1) {
+            arguments[1] = argument1;
+        }
+        this.argumentCount = argumentCount;
+        return this;
+    }
+    
+    /**
+     * Copies another event into this one (references, not deep copies), keeping the timestamp.
+     */
+    public void copyFrom(LogMessage other) {
+        this.level = other.level;
+        this.source = other.source;
+        this.pattern = other.pattern;
+        this.throwable = other.throwable;
+        this.timestampMillis = other.timestampMillis;
+        this.formattedMessage = other.formattedMessage;
+        setArguments(other.arguments, other.argumentCount);
+    }
+    
+    /**
+     * Like copyFrom(), but for an event that will be formatted later on
+     * another thread: arguments that could still change (anything but a
+     * String, boxed primitive or enum) are replaced by their String.valueOf()
+     * now, on the calling thread. This is the argument contract Logger
+     * documents: a non-immutable argument is always rendered by its caller.
+     */
+    public void copySnapshotFrom(LogMessage other) {
+        copyFrom(other);
+        for (int i = 0; i < argumentCount; i++) {
+            if (!isImmutable(arguments[i])) {
+                arguments[i] = String.valueOf(arguments[i]);
+            }
+        }
+    }
+    
+    private static boolean isImmutable(Object argument) {
+        return argument == null || argument instanceof String
+                || argument instanceof Integer || argument instanceof Long
+                || argument instanceof Short || argument instanceof Byte
+                || argument instanceof Double || argument instanceof Float
+                || argument instanceof Boolean || argument instanceof Character
+                || argument instanceof Enum<?>;
+    }
+    
+    /**
+     * Drops references held by a reused event and marks it free.
+     */
+    public void clear() {
+        Arrays.fill(arguments, 0, argumentCount, null);
+        argumentCount = 0;
+        pattern = null;
+        source = null;
+        throwable = null;
+        formattedMessage = null;
+        inUse = false;
     }
     
+    /**
+     * Whether a reused event is currently filled (guards against re-entrant logging).
+     */
+    public boolean isInUse() {
+        return inUse;
+    }
+    
+    /**
+     * An independent copy, safe to keep after the logging call returns.
+     */
+    public LogMessage copy() {
+        LogMessage copy = new LogMessage();
+        copy.copyFrom(this);
+        return copy;
+    }
+    
+    private void setArguments(Object[] source, int count) {
+        ensureArgumentCapacity(count);
+        if (count > 0) {
+            System.arraycopy(source, 0, arguments, 0, count);
+        }
+        if (count < argumentCount) {
+            Arrays.fill(arguments, count, argumentCount, null);
+        }
+        argumentCount = count;
+    }
+    
+    private void ensureArgumentCapacity(int count) {
+        if (arguments.length < count) {
+            arguments = Arrays.copyOf(arguments, Math.max(4, count));
+        }
+    }
+    
+    // ========== Getters ==========
+    
     public LogLevel getLevel() {
         return level;
     }
     
+    /**
+     * The message with placeholders replaced (builds a String; formatters
+     * write the pattern and arguments directly instead).
+     */
     public String getMessage() {
-        return message;
+        if (argumentCount == 0) {
+            return pattern;
+        }
+        if (formattedMessage == null) {
+            formattedMessage = MessagePattern.format(pattern, arguments, argumentCount);
+        }
+        return formattedMessage;
     }
     
+    /**
+     * The message as logged: a literal, or a pattern with "{}" placeholders.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+    
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+    
+    public Object getArgument(int index) {
+        if (index < 0 || index >= argumentCount) {
+            throw new IndexOutOfBoundsException("Argument " + index + " of " + argumentCount);
+        }
+        return arguments[index];
+    }
+    
+    /**
+     * Timestamp in the system time zone (allocates; formatters use getTimestampMillis()).
+     */
     public LocalDateTime getTimestamp() {
-        return timestamp;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+    }
+    
+    public long getTimestampMillis() {
+        return timestampMillis;
     }
     
     public String getSource() {
@@ -44,4 +223,3 @@ public class LogMessage {
         return throwable;
     }
 }
-
@@ -0,0 +1,46 @@
+package org.lld.practice.design_logger_system.improved_solution.models;
+
+/**
+ * "{}" placeholder substitution for parameterized messages
+ * ("user {} paid {}" with two arguments). Placeholders beyond the
+ * arguments are kept as is; arguments beyond the placeholders are ignored.
+ */
+public final class MessagePattern {
+    
+    private MessagePattern() {
+    }
+    
+    /**
+     * Index of the next "{}" at or after from, or -1.
+     */
+    public static int nextPlaceholder(String pattern, int from) {
+        int index = pattern.indexOf('{', from);
+        while (index >= 0 && index + 1 < pattern.length()) {
+            if (pattern.charAt(index + 1) == '}') {
+                return index;
+            }
+            index = pattern.indexOf('{', index + 1);
+        }
+        return -1;
+    }
+    
+    public static int countPlaceholders(String pattern) {
+        int count = 0;
+        for (int index = nextPlaceholder(pattern, 0); index >= 0; index = nextPlaceholder(pattern, index + 2)) {
+            count++;
+        }
+        return count;
+    }
+    
+    public static String format(String pattern, Object[] arguments, int argumentCount) {
+        StringBuilder sb = new StringBuilder(pattern.length() + 16 * argumentCount);
+        int start = 0;
+        int argument = 0;
+        for (int index = nextPlaceholder(pattern, 0); index >= 0 && argument < argumentCount;
+             index = nextPlaceholder(pattern, start)) {
+            sb.append(pattern, start, index).append(arguments[argument++]);
+            start = index + 2;
+        }
+        return sb.append(pattern, start, pattern.length()).toString();
+    }
+}
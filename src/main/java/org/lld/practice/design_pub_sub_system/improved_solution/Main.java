@@ -3,10 +3,25 @@ package org.lld.practice.design_pub_sub_system.improved_solution;
 import org.lld.practice.design_pub_sub_system.improved_solution.broker.Broker;
 import org.lld.practice.design_pub_sub_system.improved_solution.consumer.Consumer;
 import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Partition;
 import org.lld.practice.design_pub_sub_system.improved_solution.producer.Producer;
+import org.lld.practice.design_pub_sub_system.improved_solution.producer.ProducerConfig;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.Compression;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogConfig;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogRecords;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.RecordBatchBuilder;
 import org.lld.practice.design_pub_sub_system.improved_solution.strategies.RoundRobinPartitionStrategy;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Demo application for the Pub/Sub Messaging System (Mini-Kafka).
@@ -17,10 +32,14 @@ import java.util.List;
  * - Consumer groups with rebalancing
  * - Offset management
  * - Message ordering within partitions
+ * - Segmented, memory-mapped partition logs with retention and restart recovery
+ * - Batched producer (per-partition accumulator, linger time)
+ * - Long-poll and push-mode (virtual thread) consumers
+ * - Binary record batches (byte[] payloads, headers, CRC, compression) read as slices
  */
 public class Main {
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
         System.out.println("╔═══════════════════════════════════════════════════════════════╗");
         System.out.println("║     📡 PUB/SUB MESSAGING SYSTEM (MINI-KAFKA) - DEMO            ║");
         System.out.println("║     Features: Partitions, Consumer Groups, Offsets            ║");
@@ -43,8 +62,21 @@ public class Main {
         // Demo 5: Offset management
         demoOffsetManagement(broker);
         
+        // Demo 6: Persistent log
+        demoPersistentLog();
+        
+        // Demo 7: Batched producer
+        demoBatchedProducer(broker);
+        
+        // Demo 8: Long poll and push
+        demoLongPollAndPush(broker);
+        
+        // Demo 9: Binary record batches
+        demoBinaryRecords(broker);
+        
         // Summary
         broker.printStatus();
+        broker.close();
         printSummary();
     }
     
@@ -189,6 +221,149 @@ public class Main {
         System.out.println("\n✅ Consumer resumed from where the previous one left off!\n");
     }
     
+    private static void demoPersistentLog() throws IOException {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 6: Persistent Segmented Log (restart + retention)");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        Path directory = Files.createTempDirectory("pubsub-demo-");
+        LogConfig config = LogConfig.builder()
+                .directory(directory)
+                .segmentBytes(4096)
+                .indexIntervalBytes(512)
+                .build();
+        
+        Broker broker = new Broker(config);
+        Partition partition = broker.createTopic("events", 1).getPartition(0);
+        for (int i = 0; i < 200; i++) {
+            partition.append(Message.of("device-" + (i % 4), "reading #" + i, "events"));
+        }
+        System.out.printf("Appended 200 messages: %s%n", partition);
+        broker.close();
+        System.out.println("🔌 Broker stopped\n");
+        
+        Broker restarted = new Broker(config);
+        partition = restarted.createTopic("events", 1).getPartition(0);
+        System.out.printf("After restart: %s%n", partition);
+        LogRecords records = partition.read(150, 3);
+        for (int i = 0; i < records.size(); i++) {
+            // value() is a view of the mapped segment; get(i) would decode a full Message
+            System.out.printf("   📥 offset=%d value='%s'%n", records.offset(i),
+                    StandardCharsets.UTF_8.decode(records.value(i)));
+        }
+        restarted.close();
+        
+        LogConfig retained = LogConfig.builder()
+                .directory(directory)
+                .segmentBytes(4096)
+                .retentionBytes(8192)
+                .build();
+        Broker bounded = new Broker(retained);
+        partition = bounded.createTopic("events", 1).getPartition(0);
+        int deleted = bounded.enforceRetention();
+        System.out.printf("%nRetention of 8 KB deleted %d segments: %s%n", deleted, partition);
+        System.out.printf("Reading from offset 0 now starts at %d%n", partition.read(0, 1).get(0).getOffset());
+        bounded.close();
+        
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        System.out.println();
+    }
+    
+    private static void demoBatchedProducer(Broker broker) throws InterruptedException {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 7: Batched Producer (batch size 4, linger 20ms)");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        ProducerConfig config = ProducerConfig.builder()
+                .batchSize(4)
+                .lingerTime(Duration.ofMillis(20))
+                .build();
+        Producer producer = new Producer(broker, new RoundRobinPartitionStrategy(), config);
+        
+        System.out.println("Sending 10 events to 'user-events' (2 partitions):\n");
+        for (int i = 1; i <= 10; i++) {
+            producer.send("user-events", "event-" + i);
+        }
+        System.out.println("\n⏳ 1 leftover record per partition waits for the linger time...");
+        Thread.sleep(50);
+        producer.close();
+        
+        System.out.println("\n✅ One append (one offset range) per batch instead of per message\n");
+    }
+    
+    private static void demoLongPollAndPush(Broker broker) throws InterruptedException {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 8: Long Poll and Push Consumers");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        broker.createTopic("alerts", 2);
+        Producer producer = new Producer(broker);
+        Consumer poller = new Consumer("Poller", "alert-pollers", broker);
+        poller.subscribe("alerts");
+        
+        System.out.println("\n1. Long poll (min 1 byte, max wait 2s); a message is published after 200ms:");
+        Thread publisher = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            producer.send("alerts", "disk", "Disk usage 91%");
+        });
+        long start = System.nanoTime();
+        List<Message> fetched = poller.poll(10, 1, Duration.ofSeconds(2));
+        System.out.printf("   Returned %d message(s) after %d ms (woken by the append, not the timeout)%n",
+                fetched.size(), (System.nanoTime() - start) / 1_000_000);
+        publisher.join();
+        
+        System.out.println("\n2. Push mode: batches delivered to a callback on a virtual thread:");
+        Consumer pusher = new Consumer("Pusher", "alert-pushers", broker);
+        pusher.subscribe("alerts");
+        pusher.startPush(batch -> batch.forEach(msg -> System.out.printf(
+                "   🔔 pushed P%d offset=%d: %s%n", msg.getPartition(), msg.getOffset(), msg.getValue())),
+                100, 1, Duration.ofMillis(500));
+        producer.send("alerts", "cpu", "CPU load 12.5");
+        producer.send("alerts", "memory", "Heap 87%");
+        Thread.sleep(200);
+        pusher.close();
+        poller.close();
+        
+        System.out.println("\n✅ No busy-spinning: consumers sleep until data arrives or the wait expires\n");
+    }
+    
+    private static void demoBinaryRecords(Broker broker) {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 9: Binary Record Batches (headers, CRC, compression)");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        broker.createTopic("metrics", 1);
+        long now = System.currentTimeMillis();
+        RecordBatchBuilder builder = new RecordBatchBuilder(Compression.DEFLATE);
+        for (int i = 0; i < 50; i++) {
+            byte[] value = ("{\"host\":\"web-" + (i % 5) + "\",\"cpu\":" + (40 + i % 17) + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            builder.append(now, ("web-" + (i % 5)).getBytes(StandardCharsets.UTF_8), value,
+                    Map.of("content-type", "json".getBytes(StandardCharsets.UTF_8)));
+        }
+        ByteBuffer batch = builder.build();
+        System.out.printf("50 records: %,d bytes uncompressed, %,d bytes as a DEFLATE batch%n",
+                builder.estimatedSizeInBytes(), batch.remaining());
+        broker.publishRecords("metrics", 0, batch);
+        
+        LogRecords records = broker.getTopicOrThrow("metrics").getPartition(0).read(48, 10);
+        for (int i = 0; i < records.size(); i++) {
+            ByteBuffer value = records.value(i);   // a slice, not a copy
+            System.out.printf("   📥 offset=%d key=%s content-type=%s value=%s (%d bytes)%n",
+                    records.offset(i), StandardCharsets.UTF_8.decode(records.key(i)),
+                    StandardCharsets.UTF_8.decode(records.header(i, "content-type")),
+                    StandardCharsets.UTF_8.decode(value.duplicate()), value.remaining());
+        }
+        
+        System.out.println("\n✅ Payloads stay bytes end to end: the broker stores the batch as sent\n");
+    }
+    
     private static void printSummary() {
         System.out.println("═══════════════════════════════════════════════════════════════");
         System.out.println("DEMO COMPLETE - KEY CONCEPTS DEMONSTRATED:");
@@ -198,6 +373,10 @@ public class Main {
         System.out.println("✅ Consumer Groups: Load balancing with automatic rebalancing");
         System.out.println("✅ Offset Management: Track position, resume on failure");
         System.out.println("✅ Message Ordering: Guaranteed within a partition");
+        System.out.println("✅ Persistent Log: mmap'd segments, sparse index, retention, recovery");
+        System.out.println("✅ Batched Producer: per-partition batches, one offset range per append");
+        System.out.println("✅ Long Poll / Push: min-bytes / max-wait fetches woken by appends");
+        System.out.println("✅ Binary Records: varint-framed batches, headers, CRC32C, DEFLATE, slice reads");
         System.out.println();
         System.out.println("🎯 Interview Discussion Points:");
         System.out.println("   - Exactly-once semantics with idempotent producers");
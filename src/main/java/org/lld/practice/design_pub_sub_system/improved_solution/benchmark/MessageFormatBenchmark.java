@@ -0,0 +1,201 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.benchmark;
+
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.Compression;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogConfig;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogRecords;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.PartitionLog;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.RecordBatchBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Message objects vs the binary record format: bytes per message and read throughput.
+ *
+ * Payload: JSON order events of about 120 bytes with a 9-byte key, so field
+ * names repeat across records (as in most real topics).
+ *
+ * Size: retained heap per Message (after a full GC) vs encoded bytes per
+ * record in batches of 1 and 100, with and without DEFLATE compression.
+ *
+ * Reads: a partition log of N records, read 500 at a time, consuming each
+ * value by
+ *   - get(i): decoding a Message (key, value and id Strings),
+ *   - value(i): a read-only slice of the mapped bytes,
+ * on uncompressed and compressed logs; plus iterating a heap List<Message>
+ * (the pre-log design) for reference. Bytes/msg is allocation per record read.
+ *
+ * Usage:
+ *   java ... MessageFormatBenchmark [records]
+ */
+public class MessageFormatBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int READ_LIMIT = 500;
+    private static final int HEAP_SAMPLE = 200_000;
+    private static final long SEED = 15;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] keys = new String[records];
+        String[] values = new String[records];
+        Random random = new Random(SEED);
+        for (int i = 0; i < records; i++) {
+            keys[i] = String.format("user-%04d", random.nextInt(10_000));
+            values[i] = String.format("{\"orderId\":%d,\"symbol\":\"%s\",\"side\":\"%s\",\"qty\":%d,"
+                            + "\"price\":%.2f,\"status\":\"NEW\"}",
+                    1_000_000 + i, random.nextBoolean() ? "AAPL" : "MSFT",
+                    random.nextBoolean() ? "BUY" : "SELL", 1 + random.nextInt(500), 100 + random.nextDouble() * 100);
+        }
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🧬 MESSAGE vs BINARY RECORD FORMAT                          ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("Payload: %d-byte keys, ~%d-byte JSON values%n%n",
+                keys[0].length(), values[0].length());
+
+        System.out.printf("%-40s %14s%n", "Representation", "bytes/msg");
+        System.out.printf("%-40s %,14d%n", "Message object (heap, retained)", messageHeapBytes(keys, values));
+        System.out.printf("%-40s %,14.1f%n", "Binary record, batch of 1", encodedBytes(keys, values, 1, Compression.NONE));
+        System.out.printf("%-40s %,14.1f%n", "Binary record, batch of 100",
+                encodedBytes(keys, values, BATCH_SIZE, Compression.NONE));
+        System.out.printf("%-40s %,14.1f%n", "Binary record, batch of 100, DEFLATE",
+                encodedBytes(keys, values, BATCH_SIZE, Compression.DEFLATE));
+
+        System.out.printf("%nReads: %,d records, %d per read%n", records, READ_LIMIT);
+        System.out.printf("%-40s %14s %12s%n", "Read path", "msgs/s", "bytes/msg");
+        for (Compression compression : Compression.values()) {
+            PartitionLog log = fill(keys, values, compression);
+            for (boolean decode : new boolean[]{true, false}) {
+                readAll(log, decode);   // warmup
+                String name = (decode ? "get(i) -> Message" : "value(i) slice") + ", " + compression;
+                long allocatedBefore = THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId());
+                long start = System.nanoTime();
+                long checksum = readAll(log, decode);
+                long elapsed = System.nanoTime() - start;
+                long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId()) - allocatedBefore;
+                printRead(name, records, elapsed, allocated, checksum);
+            }
+            log.close();
+        }
+
+        List<Message> heap = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            heap.add(Message.of(keys[i], values[i], "orders"));
+        }
+        iterateHeap(heap);   // warmup
+        long start = System.nanoTime();
+        long checksum = iterateHeap(heap);
+        printRead("heap List<Message> (no decode)", records, System.nanoTime() - start, 0, checksum);
+    }
+
+    private static long messageHeapBytes(String[] keys, String[] values) throws InterruptedException {
+        int count = Math.min(HEAP_SAMPLE, keys.length);
+        // Fresh copies (new String(String) would share the source's bytes,
+        // which the arrays already retain)
+        long before = usedHeapAfterGc();
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(Message.of(copy(keys[i]), copy(values[i]), "orders"));
+        }
+        long after = usedHeapAfterGc();
+        long perMessage = (after - before - 4L * count) / count;   // minus the list's reference slots
+        if (messages.size() != count) {
+            throw new IllegalStateException();
+        }
+        return perMessage;
+    }
+
+    private static String copy(String value) {
+        return new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static double encodedBytes(String[] keys, String[] values, int batchSize, Compression compression) {
+        long bytes = 0;
+        int count = Math.min(HEAP_SAMPLE, keys.length) / batchSize * batchSize;
+        long now = System.currentTimeMillis();
+        RecordBatchBuilder builder = new RecordBatchBuilder(compression);
+        for (int i = 0; i < count; i += batchSize) {
+            builder.reset();
+            for (int j = i; j < i + batchSize; j++) {
+                builder.append(now, keys[j].getBytes(StandardCharsets.UTF_8), values[j].getBytes(StandardCharsets.UTF_8));
+            }
+            bytes += builder.build().remaining();
+        }
+        return (double) bytes / count;
+    }
+
+    private static PartitionLog fill(String[] keys, String[] values, Compression compression) throws IOException {
+        LogConfig config = LogConfig.builder()
+                .directory(Files.createTempDirectory("pubsub-format-"))
+                .segmentBytes(64 * 1024 * 1024)
+                .deleteOnClose(true)
+                .build();
+        PartitionLog log = new PartitionLog("orders", 0, config);
+        RecordBatchBuilder builder = new RecordBatchBuilder(compression);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < keys.length; i++) {
+            builder.append(now, keys[i].getBytes(StandardCharsets.UTF_8), values[i].getBytes(StandardCharsets.UTF_8),
+                    Map.of("source", "web".getBytes(StandardCharsets.UTF_8)));
+            if (builder.recordCount() == BATCH_SIZE || i == keys.length - 1) {
+                log.appendRecords(builder.build());
+                builder.reset();
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Read the whole log, consuming every value; returns a checksum so the
+     * work is not optimized away.
+     */
+    private static long readAll(PartitionLog log, boolean decode) {
+        long checksum = 0;
+        long offset = 0;
+        while (offset < log.getLatestOffset()) {
+            LogRecords records = log.read(offset, READ_LIMIT);
+            for (int i = 0; i < records.size(); i++) {
+                if (decode) {
+                    checksum += records.get(i).getValue().length();
+                } else {
+                    ByteBuffer value = records.value(i);
+                    checksum += value.remaining() + value.get(0);
+                }
+            }
+            offset = records.nextOffset();
+        }
+        return checksum;
+    }
+
+    private static long iterateHeap(List<Message> messages) {
+        long checksum = 0;
+        for (Message message : messages) {
+            checksum += message.getValue().length();
+        }
+        return checksum;
+    }
+
+    private static void printRead(String name, int records, long elapsedNanos, long allocated, long checksum) {
+        System.out.printf("%-40s %,14.0f %,12d%s%n", name, records * 1e9 / elapsedNanos,
+                allocated / records, checksum == 0 ? " (!)" : "");
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,104 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.benchmark;
+
+import org.lld.practice.design_pub_sub_system.improved_solution.broker.Broker;
+import org.lld.practice.design_pub_sub_system.improved_solution.producer.Producer;
+import org.lld.practice.design_pub_sub_system.improved_solution.producer.ProducerConfig;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogConfig;
+import org.lld.practice.design_pub_sub_system.improved_solution.strategies.RoundRobinPartitionStrategy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.time.Duration;
+
+/**
+ * Publish throughput: unbatched vs accumulator batches, across partition counts.
+ *
+ * One producer thread sends N messages (100-byte values, no key, round-robin
+ * partitioning) and flushes; the time includes building each Message. Each
+ * run uses a fresh broker with its logs in a temporary directory.
+ *
+ * The "verbose" row is the old publish path, printing a line per message
+ * (to a null stream, so only the formatting cost is counted).
+ *
+ * Usage:
+ *   java ... PublishThroughputBenchmark [messages]
+ */
+public class PublishThroughputBenchmark {
+
+    private static final int[] PARTITION_COUNTS = {1, 4, 16};
+    private static final int[] BATCH_SIZES = {1, 10, 100, 1000};
+    private static final int VALUE_BYTES = 100;
+    private static final int DISTINCT_VALUES = 1024;
+
+    public static void main(String[] args) throws IOException {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        String[] values = new String[DISTINCT_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.format("%-" + VALUE_BYTES + "s", "payload-" + i);
+        }
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     📤 PUB/SUB PUBLISH THROUGHPUT BENCHMARK                     ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%,d messages of %d bytes per run, 1 producer thread%n%n", messages, VALUE_BYTES);
+
+        // Warm up the JIT on a mid-sized configuration
+        run(4, 100, messages / 2, values, false);
+
+        System.out.printf("%-11s %-18s %14s %10s%n", "Partitions", "Batch size", "msgs/s", "MB/s");
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        double verbose;
+        try {
+            verbose = run(1, 1, messages / 10, values, true);
+        } finally {
+            System.setOut(console);
+        }
+        printRow(1, "1 (verbose)", verbose);
+
+        for (int partitions : PARTITION_COUNTS) {
+            for (int batchSize : BATCH_SIZES) {
+                printRow(partitions, String.valueOf(batchSize), run(partitions, batchSize, messages, values, false));
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * @return messages per second
+     */
+    private static double run(int partitions, int batchSize, int messages, String[] values, boolean verbose)
+            throws IOException {
+        LogConfig logConfig = LogConfig.builder()
+                .directory(Files.createTempDirectory("pubsub-bench-"))
+                .segmentBytes(64 * 1024 * 1024)
+                .deleteOnClose(true)
+                .build();
+        Broker broker = new Broker(logConfig);
+        broker.setVerbose(verbose);
+        broker.createTopic("bench", partitions);
+        ProducerConfig config = batchSize > 1
+                ? ProducerConfig.builder().batchSize(batchSize).lingerTime(Duration.ofMillis(5)).build()
+                : ProducerConfig.unbatched();
+        Producer producer = new Producer(broker, new RoundRobinPartitionStrategy(), config);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            producer.send("bench", values[i & (DISTINCT_VALUES - 1)]);
+        }
+        producer.flush();
+        long elapsed = System.nanoTime() - start;
+
+        producer.close();
+        broker.close();
+        Files.deleteIfExists(logConfig.getDirectory());
+        return messages * 1e9 / elapsed;
+    }
+
+    private static void printRow(int partitions, String batch, double messagesPerSecond) {
+        System.out.printf("%-11d %-18s %,14.0f %10.1f%n", partitions, batch,
+                messagesPerSecond, messagesPerSecond * VALUE_BYTES / (1024 * 1024));
+    }
+}
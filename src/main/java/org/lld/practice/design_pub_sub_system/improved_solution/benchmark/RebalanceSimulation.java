@@ -0,0 +1,147 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.benchmark;
+
+import org.lld.practice.design_pub_sub_system.improved_solution.strategies.PartitionAssignor;
+import org.lld.practice.design_pub_sub_system.improved_solution.strategies.RoundRobinAssignor;
+import org.lld.practice.design_pub_sub_system.improved_solution.strategies.StickyAssignor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Partitions moved per membership change: round-robin vs sticky assignor.
+ *
+ * Replays one sequence of membership changes on a topic with many
+ * partitions: consumers join one by one, then random joins and leaves
+ * (a rolling restart is a leave + join of the same consumer), then the
+ * group scales back down. Both assignors see the same sequence.
+ *
+ * For every change it counts partitions whose owner changed (each one is an
+ * offset reload and a pause on the new owner), consumers whose assignment
+ * changed at all, and the spread between the largest and smallest
+ * assignment (balance).
+ *
+ * Usage:
+ *   java ... RebalanceSimulation [partitions] [randomChanges]
+ */
+public class RebalanceSimulation {
+
+    private static final int MAX_CONSUMERS = 16;
+    private static final long SEED = 14;
+
+    public static void main(String[] args) {
+        int partitions = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int randomChanges = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        List<List<String>> memberships = membershipSequence(randomChanges);
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🔄 CONSUMER GROUP REBALANCE SIMULATION                      ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%d partitions, %d membership changes (scale up to %d, %d random, scale down)%n%n",
+                partitions, memberships.size() - 1, MAX_CONSUMERS, randomChanges);
+        System.out.printf("%-12s %14s %14s %16s %18s %10s%n", "Assignor", "moved total",
+                "avg per join", "avg per leave", "consumers touched", "max skew");
+
+        for (PartitionAssignor assignor : new PartitionAssignor[]{new RoundRobinAssignor(), new StickyAssignor()}) {
+            simulate(assignor, partitions, memberships);
+        }
+        System.out.println("\nmoved = partitions whose owner changed; touched = consumers whose assignment changed");
+    }
+
+    private static void simulate(PartitionAssignor assignor, int partitions, List<List<String>> memberships) {
+        Map<String, Set<Integer>> assignment = new HashMap<>();
+        long movedTotal = 0;
+        long joinMoves = 0;
+        long leaveMoves = 0;
+        int joins = 0;
+        int leaves = 0;
+        long touched = 0;
+        int maxSkew = 0;
+
+        for (int step = 1; step < memberships.size(); step++) {
+            List<String> members = memberships.get(step);
+            boolean join = members.size() > memberships.get(step - 1).size();
+            Map<String, Set<Integer>> current = new HashMap<>(assignment);
+            current.keySet().retainAll(members);
+            Map<String, Set<Integer>> next = assignor.assign(current, members, partitions);
+
+            int moved = countMoved(assignment, next, partitions);
+            movedTotal += moved;
+            if (join) {
+                joins++;
+                joinMoves += moved;
+            } else {
+                leaves++;
+                leaveMoves += moved;
+            }
+            for (String member : members) {
+                if (!next.get(member).equals(assignment.getOrDefault(member, Set.of()))) {
+                    touched++;
+                }
+            }
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (Set<Integer> owned : next.values()) {
+                min = Math.min(min, owned.size());
+                max = Math.max(max, owned.size());
+            }
+            maxSkew = Math.max(maxSkew, max - min);
+            assignment = next;
+        }
+
+        System.out.printf("%-12s %,14d %14.1f %16.1f %18d %10d%n", assignor.getName(), movedTotal,
+                joinMoves / (double) Math.max(1, joins), leaveMoves / (double) Math.max(1, leaves),
+                touched, maxSkew);
+    }
+
+    /**
+     * Partitions with a different owner after the change (including those of
+     * departed consumers, which must move under any assignor).
+     */
+    private static int countMoved(Map<String, Set<Integer>> before, Map<String, Set<Integer>> after, int partitions) {
+        String[] previousOwner = new String[partitions];
+        before.forEach((member, owned) -> owned.forEach(p -> previousOwner[p] = member));
+        int moved = 0;
+        for (Map.Entry<String, Set<Integer>> entry : after.entrySet()) {
+            for (int partition : entry.getValue()) {
+                if (!entry.getKey().equals(previousOwner[partition])) {
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Group membership after each change, starting from the empty group.
+     */
+    private static List<List<String>> membershipSequence(int randomChanges) {
+        Random random = new Random(SEED);
+        List<List<String>> sequence = new ArrayList<>();
+        List<String> members = new ArrayList<>();
+        sequence.add(List.copyOf(members));
+        int nextId = 0;
+
+        for (int i = 0; i < MAX_CONSUMERS; i++) {
+            members.add(String.format("consumer-%02d", nextId++));
+            sequence.add(List.copyOf(members));
+        }
+        for (int i = 0; i < randomChanges; i++) {
+            boolean leave = members.size() > 2 && (members.size() >= MAX_CONSUMERS || random.nextBoolean());
+            if (leave) {
+                members.remove(random.nextInt(members.size()));
+            } else {
+                members.add(String.format("consumer-%02d", nextId++));
+            }
+            sequence.add(List.copyOf(members));
+        }
+        while (members.size() > 1) {
+            members.remove(members.size() - 1);
+            sequence.add(List.copyOf(members));
+        }
+        return sequence;
+    }
+}
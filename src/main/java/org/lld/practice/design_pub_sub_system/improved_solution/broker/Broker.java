@@ -2,8 +2,11 @@ package org.lld.practice.design_pub_sub_system.improved_solution.broker;
 
 import org.lld.practice.design_pub_sub_system.improved_solution.consumer.Consumer;
 import org.lld.practice.design_pub_sub_system.improved_solution.models.*;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogConfig;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogRecords;
 import org.lld.practice.design_pub_sub_system.improved_solution.strategies.PartitionStrategy;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -14,9 +17,24 @@ import java.util.concurrent.ConcurrentHashMap;
 public class Broker {
     
     private final Map<String, Topic> topics;
-    private final Map<String, ConsumerGroup> consumerGroups;  // groupId -> ConsumerGroup
+    private final Map<String, Map<String, ConsumerGroup>> consumerGroups;  // groupId -> topic -> ConsumerGroup
+    private final LogConfig logConfig;
+    private volatile boolean verbose = true;
 
+    /**
+     * Broker whose partition logs live in a temporary directory (not durable),
+     * deleted by close() or, failing that, at JVM exit.
+     */
     public Broker() {
+        this(LogConfig.temporary());
+    }
+
+    /**
+     * Broker whose partition logs live in logConfig's directory. Creating a
+     * topic that already has logs there reopens them (restart recovery).
+     */
+    public Broker(LogConfig logConfig) {
+        this.logConfig = Objects.requireNonNull(logConfig);
         this.topics = new ConcurrentHashMap<>();
         this.consumerGroups = new ConcurrentHashMap<>();
     }
@@ -31,9 +49,11 @@ public class Broker {
             throw new IllegalArgumentException("Topic already exists: " + name);
         }
         
-        Topic topic = new Topic(name, numPartitions);
+        Topic topic = new Topic(name, numPartitions, logConfig);
         topics.put(name, topic);
-        System.out.printf("📁 Created topic '%s' with %d partitions%n", name, numPartitions);
+        if (verbose) {
+            System.out.printf("📁 Created topic '%s' with %d partitions%n", name, numPartitions);
+        }
         return topic;
     }
 
@@ -74,12 +94,61 @@ public class Broker {
         // Append message to partition
         long offset = partition.append(message);
         
+        if (!verbose) {
+            return;
+        }
         System.out.printf("📤 Published to %s[P%d] offset=%d: key='%s' value='%s'%n",
                 message.getTopic(), partitionId, offset,
                 message.getKey() != null ? message.getKey() : "null",
                 truncate(message.getValue(), 30));
     }
 
+    /**
+     * Publish a batch of messages to one partition (used by the producer's
+     * RecordAccumulator). The batch gets a contiguous offset range.
+     * @return The offset assigned to the first message
+     */
+    public long publishBatch(String topicName, int partitionId, List<Message> messages) {
+        Partition partition = getTopicOrThrow(topicName).getPartition(partitionId);
+        long baseOffset = partition.appendBatch(messages);
+        
+        if (verbose) {
+            System.out.printf("📦 Published batch to %s[P%d] offsets=%d..%d (%d messages)%n",
+                    topicName, partitionId, baseOffset, baseOffset + messages.size() - 1, messages.size());
+        }
+        return baseOffset;
+    }
+
+    /**
+     * Publish a binary record batch (built with a RecordBatchBuilder, any
+     * compression) to one partition. The batch is CRC-checked and appended
+     * as is; its records never become Message objects on the broker.
+     * @return The offset assigned to the batch's first record
+     */
+    public long publishRecords(String topicName, int partitionId, ByteBuffer batch) {
+        Partition partition = getTopicOrThrow(topicName).getPartition(partitionId);
+        long baseOffset = partition.appendRecords(batch);
+
+        if (verbose) {
+            System.out.printf("📦 Published record batch to %s[P%d] at offset=%d (%d bytes)%n",
+                    topicName, partitionId, baseOffset, batch.remaining());
+        }
+        return baseOffset;
+    }
+
+    /**
+     * Turn the broker's console output (topic creation, one line per publish)
+     * on or off. Printing a line per message costs far more than the append
+     * itself; turn it off for real workloads.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
     // ========== Consumer Management ==========
 
     /**
@@ -88,9 +157,9 @@ public class Broker {
     public void subscribe(Consumer consumer, String topicName, String groupId) {
         Topic topic = getTopicOrThrow(topicName);
         
-        String groupKey = groupId + ":" + topicName;
-        ConsumerGroup group = consumerGroups.computeIfAbsent(groupKey,
-                k -> new ConsumerGroup(groupId, topicName));
+        ConsumerGroup group = consumerGroups
+                .computeIfAbsent(groupId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(topicName, k -> new ConsumerGroup(groupId, topicName));
         
         group.addConsumer(consumer, topic.getNumPartitions());
     }
@@ -99,68 +168,99 @@ public class Broker {
      * Unsubscribe a consumer.
      */
     public void unsubscribe(Consumer consumer, String groupId) {
-        // Find all groups this consumer belongs to
-        for (ConsumerGroup group : consumerGroups.values()) {
-            if (group.getGroupId().equals(groupId)) {
-                Topic topic = getTopicOrThrow(group.getTopicName());
-                group.removeConsumer(consumer.getConsumerId(), topic.getNumPartitions());
-            }
+        // Leave every topic this group consumes
+        for (ConsumerGroup group : groupsOf(groupId)) {
+            Topic topic = getTopicOrThrow(group.getTopicName());
+            group.removeConsumer(consumer.getConsumerId(), topic.getNumPartitions());
         }
     }
 
     /**
      * Poll messages for a consumer from a specific partition.
+     * Returns immediately; see Consumer.poll(maxMessages, minBytes, maxWait) for long polling.
      */
-    public List<Message> poll(Consumer consumer, int partitionId, long fromOffset, int limit) {
-        // Find the topic for this consumer's group
-        String groupKey = consumer.getGroupId() + ":" + findTopicForConsumer(consumer);
-        ConsumerGroup group = consumerGroups.get(groupKey);
-        
-        if (group == null) {
-            return Collections.emptyList();
+    public LogRecords poll(Consumer consumer, int partitionId, long fromOffset, int limit) {
+        String topicName = consumer.getSubscribedTopic();
+        if (topicName == null || lookupGroup(consumer.getGroupId(), topicName) == null) {
+            return LogRecords.empty(topicName, partitionId);
         }
         
-        Topic topic = getTopicOrThrow(group.getTopicName());
-        Partition partition = topic.getPartition(partitionId);
-        
+        Partition partition = getTopicOrThrow(topicName).getPartition(partitionId);
         return partition.read(fromOffset, limit);
     }
 
+    // ========== Offset Management ==========
+
     /**
-     * Find topic for a consumer (simplified - assumes one topic per group).
+     * Commit offset for a consumer group on one topic.
      */
-    private String findTopicForConsumer(Consumer consumer) {
-        for (ConsumerGroup group : consumerGroups.values()) {
-            if (group.getGroupId().equals(consumer.getGroupId())) {
-                return group.getTopicName();
-            }
+    public void commitOffset(String groupId, String topicName, int partitionId, long offset) {
+        ConsumerGroup group = lookupGroup(groupId, topicName);
+        if (group != null) {
+            group.commitOffset(partitionId, offset);
         }
-        return null;
     }
 
-    // ========== Offset Management ==========
-
     /**
-     * Commit offset for a consumer group.
+     * Commit offset for a consumer group (every topic the group consumes).
      */
     public void commitOffset(String groupId, int partitionId, long offset) {
-        for (ConsumerGroup group : consumerGroups.values()) {
-            if (group.getGroupId().equals(groupId)) {
-                group.commitOffset(partitionId, offset);
-            }
+        for (ConsumerGroup group : groupsOf(groupId)) {
+            group.commitOffset(partitionId, offset);
         }
     }
 
     /**
-     * Get committed offset for a consumer group.
+     * Get committed offset for a consumer group on one topic.
+     */
+    public long getCommittedOffset(String groupId, String topicName, int partitionId) {
+        ConsumerGroup group = lookupGroup(groupId, topicName);
+        return group != null ? group.getCommittedOffset(partitionId) : 0L;
+    }
+
+    /**
+     * Get committed offset for a consumer group (first topic the group consumes).
      */
     public long getCommittedOffset(String groupId, int partitionId) {
-        for (ConsumerGroup group : consumerGroups.values()) {
-            if (group.getGroupId().equals(groupId)) {
-                return group.getCommittedOffset(partitionId);
-            }
+        Iterator<ConsumerGroup> groups = groupsOf(groupId).iterator();
+        return groups.hasNext() ? groups.next().getCommittedOffset(partitionId) : 0L;
+    }
+
+    private ConsumerGroup lookupGroup(String groupId, String topicName) {
+        Map<String, ConsumerGroup> byTopic = consumerGroups.get(groupId);
+        return byTopic != null ? byTopic.get(topicName) : null;
+    }
+
+    private Collection<ConsumerGroup> groupsOf(String groupId) {
+        Map<String, ConsumerGroup> byTopic = consumerGroups.get(groupId);
+        return byTopic != null ? byTopic.values() : Collections.emptyList();
+    }
+
+    // ========== Log Management ==========
+
+    /**
+     * Apply time- and size-based retention to all topics now (it also runs
+     * whenever a partition rolls to a new segment).
+     * @return Number of segments deleted
+     */
+    public int enforceRetention() {
+        int deleted = 0;
+        for (Topic topic : topics.values()) {
+            deleted += topic.enforceRetention();
         }
-        return 0L;
+        return deleted;
+    }
+
+    /**
+     * Flush and close all partition logs.
+     */
+    public void close() {
+        topics.values().forEach(Topic::close);
+        topics.clear();
+    }
+
+    public LogConfig getLogConfig() {
+        return logConfig;
     }
 
     // ========== Statistics ==========
@@ -169,8 +269,7 @@ public class Broker {
      * Get consumer group info.
      */
     public Optional<ConsumerGroup> getConsumerGroup(String groupId, String topicName) {
-        String groupKey = groupId + ":" + topicName;
-        return Optional.ofNullable(consumerGroups.get(groupKey));
+        return Optional.ofNullable(lookupGroup(groupId, topicName));
     }
 
     /**
@@ -181,7 +280,8 @@ public class Broker {
         System.out.println("║              📡 BROKER STATUS                       ║");
         System.out.println("╠════════════════════════════════════════════════════╣");
         System.out.printf("║ Topics: %-42d ║%n", topics.size());
-        System.out.printf("║ Consumer Groups: %-33d ║%n", consumerGroups.size());
+        System.out.printf("║ Consumer Groups: %-33d ║%n",
+                consumerGroups.values().stream().mapToInt(Map::size).sum());
         System.out.println("╠════════════════════════════════════════════════════╣");
         
         for (Topic topic : topics.values()) {
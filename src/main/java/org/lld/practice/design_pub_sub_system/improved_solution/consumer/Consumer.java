@@ -2,12 +2,25 @@ package org.lld.practice.design_pub_sub_system.improved_solution.consumer;
 
 import org.lld.practice.design_pub_sub_system.improved_solution.broker.Broker;
 import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Partition;
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Topic;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogRecords;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Consumer for reading messages from topics.
+ *
+ * Three ways to fetch:
+ * - poll(maxMessages): returns immediately, possibly empty
+ * - poll(maxMessages, minBytes, maxWait): long poll - waits until minBytes
+ *   are available or maxWait passes, woken by the partitions' append listeners
+ * - startPush(handler, ...): long polls on a virtual thread and hands each
+ *   batch to a callback, committing after it returns
  */
 public class Consumer {
     
@@ -20,6 +33,10 @@ public class Consumer {
     
     // Local offset tracking (not yet committed)
     private final Map<Integer, Long> currentOffsets;
+    
+    private volatile String subscribedTopic;
+    private volatile Thread pushThread;
+    private volatile RebalanceListener rebalanceListener;
 
     public Consumer(String consumerId, String groupId, Broker broker) {
         this.consumerId = Objects.requireNonNull(consumerId);
@@ -33,18 +50,9 @@ public class Consumer {
      * Subscribe to a topic.
      */
     public void subscribe(String topic) {
+        this.subscribedTopic = topic;
+        // Joining triggers a rebalance, which assigns partitions with their committed offsets
         broker.subscribe(this, topic, groupId);
-        initializeOffsets(topic);
-    }
-
-    /**
-     * Initialize offsets from committed positions.
-     */
-    private void initializeOffsets(String topic) {
-        for (int partition : assignedPartitions) {
-            long committedOffset = broker.getCommittedOffset(groupId, partition);
-            currentOffsets.put(partition, committedOffset);
-        }
     }
 
     /**
@@ -55,46 +63,186 @@ public class Consumer {
      */
     public List<Message> poll(int maxMessages) {
         List<Message> messages = new ArrayList<>();
+        fetchAvailable(maxMessages, messages);
+        return messages;
+    }
+
+    /**
+     * Long poll: wait until at least minBytes of messages are available
+     * (record bytes across assigned partitions) or maxWait has passed.
+     * Appends to an assigned partition wake the waiting thread right away,
+     * so there is neither a busy spin nor a sleep-induced delay.
+     * 
+     * @param maxMessages Maximum messages to fetch per partition
+     * @param minBytes Return as soon as this many bytes were fetched (1 = any data)
+     * @param maxWait Longest time to wait
+     * @return Messages fetched, possibly empty if maxWait passed first
+     */
+    public List<Message> poll(int maxMessages, int minBytes, Duration maxWait) {
+        List<Message> messages = new ArrayList<>();
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        List<Partition> partitions = assignedPartitionList();
+        Thread waiter = Thread.currentThread();
+        Runnable wakeUp = () -> LockSupport.unpark(waiter);
         
+        // Register before the first fetch: an append in between leaves an unpark permit
+        partitions.forEach(partition -> partition.addAppendListener(wakeUp));
+        try {
+            long bytes = 0;
+            while (true) {
+                bytes += fetchAvailable(maxMessages, messages);
+                long remaining = deadline - System.nanoTime();
+                if (bytes >= minBytes || remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                    return messages;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            partitions.forEach(partition -> partition.removeAppendListener(wakeUp));
+        }
+    }
+
+    /**
+     * Push mode: long poll on a virtual thread and deliver every non-empty
+     * batch to the handler, committing offsets after it returns.
+     * Runs until stopPush() or close(). If the handler throws, push delivery
+     * stops with the batch uncommitted and the local offsets moved back to
+     * its start, so the next poll or startPush() delivers it again.
+     */
+    public synchronized void startPush(MessageHandler handler, int maxMessages, int minBytes, Duration maxWait) {
+        if (pushThread != null && pushThread.isAlive()) {
+            throw new IllegalStateException("Consumer " + consumerId + " is already pushing");
+        }
+        pushThread = Thread.ofVirtual().name("push-" + consumerId).start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                Map<Integer, Long> batchStart = Map.copyOf(currentOffsets);
+                List<Message> batch = poll(maxMessages, minBytes, maxWait);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                try {
+                    handler.onMessages(batch);
+                } catch (RuntimeException e) {
+                    batchStart.forEach((partition, offset) ->
+                            currentOffsets.computeIfPresent(partition, (p, current) -> offset));
+                    System.err.println("Consumer " + consumerId + ": push handler failed, stopped pushing: " + e);
+                    return;
+                }
+                commit();
+            }
+        });
+    }
+
+    /**
+     * Stop push delivery and wait for the in-flight batch to finish.
+     *
+     * @throws IllegalStateException if the handler is still running after 5 seconds
+     */
+    public synchronized void stopPush() {
+        Thread thread = pushThread;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            throw new IllegalStateException("Consumer " + consumerId + ": push handler did not stop within 5 seconds");
+        }
+        pushThread = null;
+    }
+
+    /**
+     * Commit current offsets of the partitions still assigned (manual commit).
+     */
+    public void commit() {
+        for (int partition : assignedPartitions) {
+            Long offset = currentOffsets.get(partition);
+            if (offset != null) {
+                broker.commitOffset(groupId, subscribedTopic, partition, offset);
+            }
+        }
+    }
+
+    /**
+     * One non-blocking pass over the assigned partitions.
+     * @return Record bytes fetched
+     */
+    private long fetchAvailable(int maxMessages, List<Message> messages) {
+        long bytes = 0;
         for (int partition : assignedPartitions) {
             long offset = currentOffsets.getOrDefault(partition, 0L);
-            List<Message> partitionMessages = broker.poll(this, partition, offset, maxMessages);
+            LogRecords records = broker.poll(this, partition, offset, maxMessages);
             
-            if (!partitionMessages.isEmpty()) {
-                messages.addAll(partitionMessages);
-                // Update local offset
-                long newOffset = partitionMessages.get(partitionMessages.size() - 1).getOffset() + 1;
-                currentOffsets.put(partition, newOffset);
+            if (!records.isEmpty()) {
+                messages.addAll(records);
+                bytes += records.sizeInBytes();
+                // Advance only from where this fetch started: a rebalance may have
+                // revoked the partition (no entry) or reassigned it (new offset) meanwhile
+                long next = records.nextOffset();
+                currentOffsets.computeIfPresent(partition, (p, current) -> current == offset ? next : current);
             }
         }
-        
-        return messages;
+        return bytes;
+    }
+
+    private List<Partition> assignedPartitionList() {
+        String topicName = subscribedTopic;
+        if (topicName == null) {
+            return Collections.emptyList();
+        }
+        Topic topic = broker.getTopicOrThrow(topicName);
+        List<Partition> partitions = new ArrayList<>();
+        for (int partition : assignedPartitions) {
+            partitions.add(topic.getPartition(partition));
+        }
+        return partitions;
     }
 
     /**
-     * Commit current offsets (manual commit).
+     * Partitions taken away by a rebalance (called by the group before any
+     * other consumer is given them). Their uncommitted offsets are dropped.
      */
-    public void commit() {
-        for (Map.Entry<Integer, Long> entry : currentOffsets.entrySet()) {
-            broker.commitOffset(groupId, entry.getKey(), entry.getValue());
+    public void revokePartitions(Set<Integer> partitions) {
+        RebalanceListener listener = rebalanceListener;
+        if (listener != null) {
+            listener.onPartitionsRevoked(Collections.unmodifiableSet(partitions));
         }
+        Set<Integer> remaining = new HashSet<>(assignedPartitions);
+        remaining.removeAll(partitions);
+        this.assignedPartitions = remaining;
+        partitions.forEach(currentOffsets::remove);
     }
 
     /**
-     * Update partition assignments (called during rebalance).
+     * Partitions gained in a rebalance. Only these load their committed
+     * offsets; partitions kept across the rebalance continue where they were.
      */
-    public void updateAssignment(Set<Integer> partitions) {
-        this.assignedPartitions = new HashSet<>(partitions);
-        
-        // Initialize offsets for newly assigned partitions
+    public void assignPartitions(Set<Integer> partitions) {
         for (int partition : partitions) {
-            if (!currentOffsets.containsKey(partition)) {
-                long committedOffset = broker.getCommittedOffset(groupId, partition);
-                currentOffsets.put(partition, committedOffset);
-            }
+            long committedOffset = broker.getCommittedOffset(groupId, subscribedTopic, partition);
+            currentOffsets.put(partition, committedOffset);
+        }
+        Set<Integer> updated = new HashSet<>(assignedPartitions);
+        updated.addAll(partitions);
+        this.assignedPartitions = updated;
+        
+        RebalanceListener listener = rebalanceListener;
+        if (listener != null) {
+            listener.onPartitionsAssigned(Collections.unmodifiableSet(partitions));
         }
     }
 
+    /**
+     * Be told which partitions this consumer loses and gains in rebalances.
+     */
+    public void setRebalanceListener(RebalanceListener listener) {
+        this.rebalanceListener = listener;
+    }
+
     /**
      * Get current offset for a partition.
      */
@@ -113,6 +261,7 @@ public class Consumer {
      * Unsubscribe and leave the group.
      */
     public void close() {
+        stopPush();
         broker.unsubscribe(this, groupId);
     }
 
@@ -124,6 +273,10 @@ public class Consumer {
         return groupId;
     }
 
+    public String getSubscribedTopic() {
+        return subscribedTopic;
+    }
+
     @Override
     public String toString() {
         return String.format("Consumer{id='%s', group='%s', partitions=%s}",
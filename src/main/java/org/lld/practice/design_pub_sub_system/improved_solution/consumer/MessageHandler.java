@@ -0,0 +1,18 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.consumer;
+
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+
+import java.util.List;
+
+/**
+ * Callback for push-mode consumption (Consumer.startPush).
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+    /**
+     * Handle one fetched batch. Offsets are committed after this returns;
+     * an exception stops the push loop without committing the batch.
+     */
+    void onMessages(List<Message> messages);
+}
@@ -0,0 +1,22 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.consumer;
+
+import java.util.Set;
+
+/**
+ * Notified when a rebalance changes a consumer's partitions (like Kafka's
+ * ConsumerRebalanceListener). Only the partitions that actually moved are
+ * reported; consumers whose assignment did not change are not called.
+ */
+public interface RebalanceListener {
+
+    /**
+     * Called before the partitions are taken away; the consumer's offsets for
+     * them are still available, so this is the place to commit().
+     */
+    void onPartitionsRevoked(Set<Integer> partitions);
+
+    /**
+     * Called after the partitions were added, with their committed offsets loaded.
+     */
+    void onPartitionsAssigned(Set<Integer> partitions);
+}
@@ -1,6 +1,8 @@
 package org.lld.practice.design_pub_sub_system.improved_solution.models;
 
 import org.lld.practice.design_pub_sub_system.improved_solution.consumer.Consumer;
+import org.lld.practice.design_pub_sub_system.improved_solution.strategies.PartitionAssignor;
+import org.lld.practice.design_pub_sub_system.improved_solution.strategies.StickyAssignor;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -8,6 +10,11 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Represents a consumer group.
  * Consumers in the same group share the work of consuming from a topic's partitions.
+ * 
+ * Rebalancing is incremental and cooperative: the assignor (sticky by
+ * default) keeps partitions where they are unless they must move, and
+ * consumers are told only what they lost, then only what they gained,
+ * so a partition is never held by two consumers at once.
  */
 public class ConsumerGroup {
     
@@ -16,10 +23,17 @@ public class ConsumerGroup {
     private final Map<String, Consumer> consumers;                    // consumerId -> Consumer
     private final Map<String, Set<Integer>> consumerPartitions;       // consumerId -> assigned partitions
     private final Map<Integer, Long> committedOffsets;                // partitionId -> committed offset
+    private final PartitionAssignor assignor;
+    private int lastMovedPartitions;
 
     public ConsumerGroup(String groupId, String topicName) {
+        this(groupId, topicName, new StickyAssignor());
+    }
+
+    public ConsumerGroup(String groupId, String topicName, PartitionAssignor assignor) {
         this.groupId = Objects.requireNonNull(groupId);
         this.topicName = Objects.requireNonNull(topicName);
+        this.assignor = Objects.requireNonNull(assignor);
         this.consumers = new ConcurrentHashMap<>();
         this.consumerPartitions = new ConcurrentHashMap<>();
         this.committedOffsets = new ConcurrentHashMap<>();
@@ -39,8 +53,11 @@ public class ConsumerGroup {
      * Remove a consumer from the group and trigger rebalance.
      */
     public synchronized void removeConsumer(String consumerId, int totalPartitions) {
-        consumers.remove(consumerId);
-        consumerPartitions.remove(consumerId);
+        Consumer consumer = consumers.remove(consumerId);
+        Set<Integer> released = consumerPartitions.remove(consumerId);
+        if (consumer != null && released != null && !released.isEmpty()) {
+            consumer.revokePartitions(released);
+        }
         if (!consumers.isEmpty()) {
             rebalance(totalPartitions);
         }
@@ -48,32 +65,40 @@ public class ConsumerGroup {
     }
 
     /**
-     * Rebalance partitions among consumers.
-     * Uses round-robin assignment strategy.
+     * Rebalance partitions among consumers using the assignor, then notify
+     * only the consumers whose partitions changed: all revocations first,
+     * then all assignments.
      */
     private void rebalance(int totalPartitions) {
-        // Clear current assignments
-        consumerPartitions.clear();
-        
-        if (consumers.isEmpty()) return;
-        
+        Map<String, Set<Integer>> previous = new HashMap<>(consumerPartitions);
         List<String> consumerIds = new ArrayList<>(consumers.keySet());
+        Map<String, Set<Integer>> next = assignor.assign(previous, consumerIds, totalPartitions);
         
-        // Round-robin assignment
-        for (int partition = 0; partition < totalPartitions; partition++) {
-            String consumerId = consumerIds.get(partition % consumerIds.size());
-            consumerPartitions.computeIfAbsent(consumerId, k -> new HashSet<>())
-                    .add(partition);
+        // Phase 1: revoke (the partitions are free before anyone gets them)
+        for (String consumerId : consumerIds) {
+            Set<Integer> lost = new TreeSet<>(previous.getOrDefault(consumerId, Collections.emptySet()));
+            lost.removeAll(next.get(consumerId));
+            if (!lost.isEmpty()) {
+                consumers.get(consumerId).revokePartitions(lost);
+            }
         }
         
-        // Update consumers with their assignments
-        for (Map.Entry<String, Consumer> entry : consumers.entrySet()) {
-            Set<Integer> partitions = consumerPartitions.getOrDefault(
-                    entry.getKey(), Collections.emptySet());
-            entry.getValue().updateAssignment(partitions);
+        // Phase 2: assign
+        int moved = 0;
+        for (String consumerId : consumerIds) {
+            Set<Integer> gained = new TreeSet<>(next.get(consumerId));
+            gained.removeAll(previous.getOrDefault(consumerId, Collections.emptySet()));
+            if (!gained.isEmpty()) {
+                consumers.get(consumerId).assignPartitions(gained);
+                moved += gained.size();
+            }
         }
         
-        System.out.printf("🔄 Rebalanced group '%s': %s%n", groupId, consumerPartitions);
+        consumerPartitions.clear();
+        consumerPartitions.putAll(next);
+        lastMovedPartitions = moved;
+        System.out.printf("🔄 Rebalanced group '%s' (%s, %d partitions moved): %s%n",
+                groupId, assignor.getName(), moved, new TreeMap<>(consumerPartitions));
     }
 
     /**
@@ -104,6 +129,13 @@ public class ConsumerGroup {
         return Collections.unmodifiableMap(committedOffsets);
     }
 
+    /**
+     * Partitions that changed owner (or were newly assigned) in the last rebalance.
+     */
+    public synchronized int getLastMovedPartitions() {
+        return lastMovedPartitions;
+    }
+
     public String getGroupId() {
         return groupId;
     }
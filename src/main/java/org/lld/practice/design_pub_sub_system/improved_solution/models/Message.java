@@ -1,8 +1,9 @@
 package org.lld.practice.design_pub_sub_system.improved_solution.models;
 
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a message in the pub/sub system.
@@ -19,7 +20,8 @@ public class Message {
     private long offset;               // Position in partition
 
     public Message(String key, String value, String topic) {
-        this.messageId = UUID.randomUUID().toString().substring(0, 8);
+        // 8 random hex digits, like the old UUID prefix, without SecureRandom per message
+        this.messageId = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextInt());
         this.key = key;
         this.value = Objects.requireNonNull(value, "Message value cannot be null");
         this.topic = Objects.requireNonNull(topic, "Topic cannot be null");
@@ -28,6 +30,25 @@ public class Message {
         this.offset = -1;     // Not yet assigned
     }
 
+    private Message(String messageId, String key, String value, String topic,
+                    Instant timestamp, int partition, long offset) {
+        this.messageId = messageId;
+        this.key = key;
+        this.value = value;
+        this.topic = topic;
+        this.timestamp = timestamp;
+        this.partition = partition;
+        this.offset = offset;
+    }
+
+    /**
+     * Rebuild a message read back from a partition log.
+     */
+    public static Message restore(String messageId, String key, String value, String topic,
+                                  Instant timestamp, int partition, long offset) {
+        return new Message(messageId, key, value, topic, timestamp, partition, offset);
+    }
+
     /**
      * Create a message without a key (round-robin partitioning).
      */
@@ -1,30 +1,30 @@
 package org.lld.practice.design_pub_sub_system.improved_solution.models;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogConfig;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogRecords;
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.PartitionLog;
+
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a partition within a topic.
- * A partition is an ordered, immutable sequence of messages (log).
+ * A partition is an ordered, immutable sequence of messages (log), stored in
+ * a segmented, memory-mapped PartitionLog rather than on the heap.
  */
 public class Partition {
     
     private final int partitionId;
     private final String topicName;
-    private final List<Message> messages;
-    private final ReadWriteLock lock;
-    
-    private long nextOffset;
+    private final PartitionLog log;
+    private final Set<Runnable> appendListeners = ConcurrentHashMap.newKeySet();
 
-    public Partition(int partitionId, String topicName) {
+    public Partition(int partitionId, String topicName, LogConfig logConfig) {
         this.partitionId = partitionId;
         this.topicName = topicName;
-        this.messages = new ArrayList<>();
-        this.lock = new ReentrantReadWriteLock();
-        this.nextOffset = 0;
+        this.log = new PartitionLog(topicName, partitionId, logConfig);
     }
 
     /**
@@ -32,69 +32,122 @@ public class Partition {
      * @return The offset assigned to the message
      */
     public long append(Message message) {
-        lock.writeLock().lock();
-        try {
-            long offset = nextOffset++;
+        long offset = log.append(message.getMessageId(), message.getKey(),
+                message.getValue(), message.getTimestamp());
+        message.setPartition(partitionId);
+        message.setOffset(offset);
+        notifyAppend();
+        return offset;
+    }
+
+    /**
+     * Append messages as one batch: one contiguous offset range claimed in a
+     * single step, written together and visible to readers all at once.
+     * @return The offset assigned to the first message
+     */
+    public long appendBatch(List<Message> messages) {
+        long baseOffset = log.appendBatch(messages);
+        long offset = baseOffset;
+        for (Message message : messages) {
             message.setPartition(partitionId);
-            message.setOffset(offset);
-            messages.add(message);
-            return offset;
-        } finally {
-            lock.writeLock().unlock();
+            message.setOffset(offset++);
         }
+        notifyAppend();
+        return baseOffset;
+    }
+
+    /**
+     * Append a binary record batch built with a RecordBatchBuilder, stored as
+     * is (compressed batches stay compressed).
+     * @return The offset assigned to the batch's first record
+     */
+    public long appendRecords(ByteBuffer batch) {
+        long baseOffset = log.appendRecords(batch);
+        notifyAppend();
+        return baseOffset;
+    }
+
+    /**
+     * Register a callback run (on the appending thread) after every append
+     * that makes new messages readable. Used by long-polling fetches to wake
+     * up as soon as data arrives; keep it short and non-blocking.
+     */
+    public void addAppendListener(Runnable listener) {
+        appendListeners.add(listener);
+    }
+
+    public void removeAppendListener(Runnable listener) {
+        appendListeners.remove(listener);
     }
 
     /**
      * Read messages starting from the given offset.
-     * @param fromOffset Starting offset (inclusive)
+     * Records are served from the mapped segments and only decoded into
+     * Message objects when accessed.
+     * @param fromOffset Starting offset (inclusive); offsets removed by retention start at the earliest
      * @param limit Maximum number of messages to return
-     * @return List of messages
+     * @return Records (a List of Message)
      */
-    public List<Message> read(long fromOffset, int limit) {
-        lock.readLock().lock();
-        try {
-            if (fromOffset < 0 || fromOffset >= messages.size()) {
-                return Collections.emptyList();
-            }
-            
-            int endIndex = (int) Math.min(fromOffset + limit, messages.size());
-            return new ArrayList<>(messages.subList((int) fromOffset, endIndex));
-        } finally {
-            lock.readLock().unlock();
-        }
+    public LogRecords read(long fromOffset, int limit) {
+        return log.read(fromOffset, limit);
     }
 
     /**
      * Get the next offset that will be assigned.
      */
     public long getLatestOffset() {
-        lock.readLock().lock();
-        try {
-            return nextOffset;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return log.getLatestOffset();
     }
 
     /**
-     * Get the earliest available offset.
+     * Get the earliest available offset (moves forward as retention deletes segments).
      */
     public long getEarliestOffset() {
-        return 0;  // We keep all messages in this simple implementation
+        return log.getEarliestOffset();
     }
 
     /**
      * Get the message count.
      */
     public int getMessageCount() {
-        lock.readLock().lock();
-        try {
-            return messages.size();
-        } finally {
-            lock.readLock().unlock();
+        return (int) Math.min(Integer.MAX_VALUE, getLatestOffset() - getEarliestOffset());
+    }
+
+    /**
+     * Delete segments past the retention time or size.
+     * @return Number of segments deleted
+     */
+    public int enforceRetention() {
+        return log.enforceRetention();
+    }
+
+    /**
+     * Force appended messages to disk.
+     */
+    public void flush() {
+        log.flush();
+    }
+
+    public void close() {
+        log.close();
+    }
+
+    private void notifyAppend() {
+        if (!appendListeners.isEmpty()) {
+            for (Runnable listener : appendListeners) {
+                listener.run();
+            }
         }
     }
 
+    public int getSegmentCount() {
+        return log.getSegmentCount();
+    }
+
+    public long getSizeInBytes() {
+        return log.getSizeInBytes();
+    }
+
     public int getPartitionId() {
         return partitionId;
     }
@@ -105,8 +158,7 @@ public class Partition {
 
     @Override
     public String toString() {
-        return String.format("Partition{topic='%s', id=%d, messages=%d, latestOffset=%d}",
-                topicName, partitionId, getMessageCount(), getLatestOffset());
+        return String.format("Partition{topic='%s', id=%d, offsets=[%d, %d), segments=%d}",
+                topicName, partitionId, getEarliestOffset(), getLatestOffset(), getSegmentCount());
     }
 }
-
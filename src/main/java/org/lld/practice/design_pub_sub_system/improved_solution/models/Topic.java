@@ -1,5 +1,7 @@
 package org.lld.practice.design_pub_sub_system.improved_solution.models;
 
+import org.lld.practice.design_pub_sub_system.improved_solution.storage.LogConfig;
+
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -15,7 +17,7 @@ public class Topic {
     private final List<Partition> partitions;
     private final Instant createdAt;
 
-    public Topic(String name, int numPartitions) {
+    public Topic(String name, int numPartitions, LogConfig logConfig) {
         if (numPartitions < 1) {
             throw new IllegalArgumentException("Topic must have at least 1 partition");
         }
@@ -25,7 +27,7 @@ public class Topic {
         this.createdAt = Instant.now();
         
         for (int i = 0; i < numPartitions; i++) {
-            partitions.add(new Partition(i, name));
+            partitions.add(new Partition(i, name, logConfig));
         }
     }
 
@@ -62,6 +64,23 @@ public class Topic {
                 .sum();
     }
 
+    /**
+     * Apply log retention to every partition.
+     * @return Number of segments deleted
+     */
+    public int enforceRetention() {
+        return partitions.stream()
+                .mapToInt(Partition::enforceRetention)
+                .sum();
+    }
+
+    /**
+     * Flush and close every partition log.
+     */
+    public void close() {
+        partitions.forEach(Partition::close);
+    }
+
     public String getName() {
         return name;
     }
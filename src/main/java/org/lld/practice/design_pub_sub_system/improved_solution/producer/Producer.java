@@ -2,6 +2,7 @@ package org.lld.practice.design_pub_sub_system.improved_solution.producer;
 
 import org.lld.practice.design_pub_sub_system.improved_solution.broker.Broker;
 import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Topic;
 import org.lld.practice.design_pub_sub_system.improved_solution.strategies.KeyHashPartitionStrategy;
 import org.lld.practice.design_pub_sub_system.improved_solution.strategies.PartitionStrategy;
 
@@ -10,21 +11,30 @@ import java.util.UUID;
 
 /**
  * Producer for publishing messages to topics.
+ * With a batching ProducerConfig, records go through a RecordAccumulator and
+ * are published per partition in batches; call flush() or close() to publish
+ * what is still pending.
  */
 public class Producer {
     
     private final String producerId;
     private final Broker broker;
     private final PartitionStrategy partitionStrategy;
+    private final RecordAccumulator accumulator;   // null when not batching
 
     public Producer(Broker broker) {
         this(broker, new KeyHashPartitionStrategy());
     }
 
     public Producer(Broker broker, PartitionStrategy partitionStrategy) {
+        this(broker, partitionStrategy, ProducerConfig.unbatched());
+    }
+
+    public Producer(Broker broker, PartitionStrategy partitionStrategy, ProducerConfig config) {
         this.producerId = "P-" + UUID.randomUUID().toString().substring(0, 4);
         this.broker = Objects.requireNonNull(broker);
         this.partitionStrategy = Objects.requireNonNull(partitionStrategy);
+        this.accumulator = config.isBatching() ? new RecordAccumulator(broker, config) : null;
     }
 
     /**
@@ -38,15 +48,38 @@ public class Producer {
      * Send a message with a key.
      */
     public void send(String topic, String key, String value) {
-        Message message = Message.of(key, value, topic);
-        broker.publish(message, partitionStrategy);
+        send(Message.of(key, value, topic));
     }
 
     /**
      * Send a pre-constructed message.
      */
     public void send(Message message) {
-        broker.publish(message, partitionStrategy);
+        if (accumulator == null) {
+            broker.publish(message, partitionStrategy);
+            return;
+        }
+        Topic topic = broker.getTopicOrThrow(message.getTopic());
+        int partitionId = partitionStrategy.selectPartition(message, topic.getNumPartitions());
+        accumulator.append(message, partitionId, topic.getNumPartitions());
+    }
+
+    /**
+     * Publish all batched messages now.
+     */
+    public void flush() {
+        if (accumulator != null) {
+            accumulator.flush();
+        }
+    }
+
+    /**
+     * Publish pending batches and stop the background sender.
+     */
+    public void close() {
+        if (accumulator != null) {
+            accumulator.close();
+        }
     }
 
     public String getProducerId() {
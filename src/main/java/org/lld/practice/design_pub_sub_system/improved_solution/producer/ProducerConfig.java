@@ -0,0 +1,77 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.producer;
+
+import java.time.Duration;
+
+/**
+ * Producer batching settings (like Kafka's batch.size / linger.ms, counted in records).
+ * Uses Builder pattern.
+ */
+public class ProducerConfig {
+
+    private final int batchSize;
+    private final Duration lingerTime;
+
+    private ProducerConfig(Builder builder) {
+        this.batchSize = builder.batchSize;
+        this.lingerTime = builder.lingerTime;
+    }
+
+    /**
+     * No batching: every send() is published immediately.
+     */
+    public static ProducerConfig unbatched() {
+        return builder().build();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public Duration getLingerTime() {
+        return lingerTime;
+    }
+
+    public boolean isBatching() {
+        return batchSize > 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ProducerConfig{batchSize=%d, linger=%dms}", batchSize, lingerTime.toMillis());
+    }
+
+    public static class Builder {
+        private int batchSize = 1;
+        private Duration lingerTime = Duration.ofMillis(5);
+
+        /**
+         * Records per partition batch; a full batch is published right away.
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Longest a record waits for its batch to fill before it is published anyway.
+         */
+        public Builder lingerTime(Duration lingerTime) {
+            if (lingerTime == null || lingerTime.isNegative() || lingerTime.isZero()) {
+                throw new IllegalArgumentException("Linger time must be positive");
+            }
+            this.lingerTime = lingerTime;
+            return this;
+        }
+
+        public ProducerConfig build() {
+            return new ProducerConfig(this);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+}
@@ -0,0 +1,219 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.producer;
+
+import org.lld.practice.design_pub_sub_system.improved_solution.broker.Broker;
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer-side batching (like Kafka's RecordAccumulator).
+ *
+ * Records are collected per topic partition and published with one
+ * Broker.publishBatch() call - one partition lock and one log write - when
+ * the batch reaches batchSize, or by the sender thread once the oldest
+ * record in it has waited lingerTime.
+ *
+ * - Lookup: topic name -> array indexed by partition, no key object per record.
+ * - Ordering: a batch is published while its partition's monitor is held, so
+ *   batches reach the partition in the order they were filled and per-key
+ *   ordering is kept.
+ * - Sender: started by the first append, so an accumulator that is never
+ *   used (or not yet fully constructed) has no thread.
+ * - Failures: a batch the broker rejects is kept and retried by the sender.
+ *   Until a retry succeeds, the next append to that partition retries it
+ *   first and throws if it fails again, and flush() and close() throw, so
+ *   the caller learns about the failure instead of losing the records.
+ */
+public class RecordAccumulator {
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Broker broker;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Map<String, PartitionBatch[]> batches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sender;   // guarded by this; null until the first append
+    private volatile boolean closed;           // written under this
+
+    public RecordAccumulator(Broker broker, ProducerConfig config) {
+        this.broker = broker;
+        this.batchSize = config.getBatchSize();
+        this.lingerNanos = config.getLingerTime().toNanos();
+    }
+
+    /**
+     * Add a record to its partition's batch, publishing the batch if it is full.
+     *
+     * @throws IllegalStateException if the accumulator is closed
+     * @throws RuntimeException      the publish error, if the partition's previous
+     *                               batch failed and retrying it fails again (the
+     *                               record is not added)
+     */
+    public void append(Message message, int partitionId, int numPartitions) {
+        if (closed) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        PartitionBatch[] topicBatches = batches.get(message.getTopic());
+        if (topicBatches == null) {
+            topicBatches = batches.computeIfAbsent(message.getTopic(),
+                    topic -> createBatches(topic, numPartitions));
+            startSender();
+        }
+        topicBatches[partitionId].add(message);
+    }
+
+    /**
+     * Publish every batch that has waited at least the linger time.
+     */
+    public void flushExpired() {
+        long now = System.nanoTime();
+        for (PartitionBatch[] topicBatches : batches.values()) {
+            for (PartitionBatch batch : topicBatches) {
+                batch.publishIfOlderThan(now - lingerNanos);
+            }
+        }
+    }
+
+    /**
+     * Publish all pending records now.
+     *
+     * @throws RuntimeException the first publish error; every other batch was
+     *                          still tried, and failed batches are kept
+     */
+    public void flush() {
+        RuntimeException failure = null;
+        for (PartitionBatch[] topicBatches : batches.values()) {
+            for (PartitionBatch batch : topicBatches) {
+                try {
+                    batch.publishIfOlderThan(Long.MAX_VALUE);
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Stop the sender thread, letting a send in progress finish, then
+     * publish pending records. The sender is not interrupted: an interrupt
+     * while it publishes would abort the write.
+     *
+     * @throws RuntimeException if a pending batch could not be published
+     */
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            closed = true;
+            running = sender;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                if (!running.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    System.err.println("⚠️ Producer sender still busy after " + CLOSE_TIMEOUT_SECONDS + "s");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private synchronized void startSender() {
+        if (sender != null || closed) {
+            return;
+        }
+        sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "producer-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Check twice per linger time: a record waits at most 1.5x lingerTime
+        long interval = Math.max(lingerNanos / 2, TimeUnit.MICROSECONDS.toNanos(100));
+        sender.scheduleAtFixedRate(this::sendExpired, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    private void sendExpired() {
+        try {
+            flushExpired();
+        } catch (RuntimeException e) {
+            // Keep the sender running; the failed batch is kept and retried next time
+            System.err.println("❌ Failed to publish batch, will retry: " + e.getMessage());
+        }
+    }
+
+    private PartitionBatch[] createBatches(String topic, int numPartitions) {
+        PartitionBatch[] topicBatches = new PartitionBatch[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            topicBatches[i] = new PartitionBatch(topic, i);
+        }
+        return topicBatches;
+    }
+
+    /**
+     * Pending records for one partition. The list is reused across batches:
+     * publishBatch() does not keep it.
+     */
+    private class PartitionBatch {
+        private final String topic;
+        private final int partitionId;
+        private final List<Message> records = new ArrayList<>(batchSize);
+        private long firstAppendNanos;
+        private boolean failed;     // the last publish threw; records are the failed batch
+
+        PartitionBatch(String topic, int partitionId) {
+            this.topic = topic;
+            this.partitionId = partitionId;
+        }
+
+        synchronized void add(Message message) {
+            if (failed) {
+                publish();  // retry first; a second failure rejects this record
+            }
+            if (records.isEmpty()) {
+                firstAppendNanos = System.nanoTime();
+            }
+            records.add(message);
+            if (records.size() >= batchSize || closed) {
+                try {
+                    publish();
+                } catch (RuntimeException e) {
+                    if (closed) {
+                        throw e;  // raced with close(): no sender is left to retry
+                    }
+                    // The record is accepted: the sender retries the batch
+                }
+            }
+        }
+
+        synchronized void publishIfOlderThan(long nanos) {
+            if (!records.isEmpty() && firstAppendNanos - nanos <= 0) {
+                publish();
+            }
+        }
+
+        private void publish() {
+            try {
+                broker.publishBatch(topic, partitionId, records);
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+            failed = false;
+            records.clear();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.storage;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Batch-level compression codec. A whole record batch's records section is
+ * compressed as one block, so repeated field names and values across the
+ * records of a batch compress well.
+ */
+public enum Compression {
+    NONE(0),
+    DEFLATE(1);
+
+    private final int id;
+
+    Compression(int id) {
+        this.id = id;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    static Compression fromId(int id) {
+        for (Compression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compression id: " + id);
+    }
+
+    /**
+     * Compress src (position to limit) into a new heap buffer, flipped for reading.
+     */
+    ByteBuffer compress(ByteBuffer src) {
+        if (this == NONE) {
+            return src.duplicate();
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(src.duplicate());
+            deflater.finish();
+            ByteBuffer out = ByteBuffer.allocate(Math.max(64, src.remaining() / 2));
+            while (!deflater.finished()) {
+                if (!out.hasRemaining()) {
+                    out = grow(out);
+                }
+                deflater.deflate(out);
+            }
+            return out.flip();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompress src (position to limit) into a new heap buffer of exactly uncompressedSize bytes.
+     */
+    ByteBuffer decompress(ByteBuffer src, int uncompressedSize) {
+        if (this == NONE) {
+            return src.duplicate();
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(src.duplicate());
+            ByteBuffer out = ByteBuffer.allocate(uncompressedSize);
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+            if (out.hasRemaining()) {
+                throw new IllegalStateException("Corrupt compressed batch: expected "
+                        + uncompressedSize + " bytes, got " + out.position());
+            }
+            return out.flip();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed batch", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        return larger.put(buffer.flip());
+    }
+}
@@ -0,0 +1,182 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Configuration for partition logs.
+ * Uses Builder pattern, like Kafka's log.* broker settings.
+ */
+public class LogConfig {
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexIntervalBytes;
+    private final Duration retentionTime;    // null = keep forever
+    private final long retentionBytes;       // -1 = unlimited
+    private final boolean deleteOnClose;
+
+    private LogConfig(Builder builder) {
+        this.directory = builder.directory;
+        this.segmentBytes = builder.segmentBytes;
+        this.indexIntervalBytes = builder.indexIntervalBytes;
+        this.retentionTime = builder.retentionTime;
+        this.retentionBytes = builder.retentionBytes;
+        this.deleteOnClose = builder.deleteOnClose;
+    }
+
+    /**
+     * A log in a fresh temporary directory, deleted when the partitions are
+     * closed. Behaves like the old in-memory partitions, without the heap cost.
+     * Logs that are never closed are deleted, with the directory, at JVM exit.
+     */
+    public static LogConfig temporary() {
+        try {
+            Path directory = Files.createTempDirectory("pubsub-log-");
+            TemporaryDirectories.PATHS.add(directory);
+            return builder().directory(directory).deleteOnClose(true).build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create temporary log directory", e);
+        }
+    }
+
+    /**
+     * Directory holding one partition's segment and index files.
+     */
+    public Path partitionDirectory(String topic, int partitionId) {
+        return directory.resolve(topic + "-" + partitionId);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public int getIndexIntervalBytes() {
+        return indexIntervalBytes;
+    }
+
+    public Duration getRetentionTime() {
+        return retentionTime;
+    }
+
+    public long getRetentionBytes() {
+        return retentionBytes;
+    }
+
+    public boolean isDeleteOnClose() {
+        return deleteOnClose;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LogConfig{dir=%s, segmentBytes=%d, indexInterval=%d, retention=%s/%s}",
+                directory, segmentBytes, indexIntervalBytes,
+                retentionTime != null ? retentionTime : "forever",
+                retentionBytes >= 0 ? retentionBytes + " bytes" : "unbounded");
+    }
+
+    /**
+     * Temporary log directories, deleted recursively by one shutdown hook
+     * (File.deleteOnExit() only removes empty directories).
+     */
+    private static final class TemporaryDirectories {
+        static final Set<Path> PATHS = ConcurrentHashMap.newKeySet();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(TemporaryDirectories::deleteAll, "pubsub-log-cleanup"));
+        }
+
+        private static void deleteAll() {
+            for (Path directory : PATHS) {
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                } catch (IOException | UncheckedIOException e) {
+                    // Already gone, or not ours to clean up any more
+                }
+            }
+        }
+    }
+
+    public static class Builder {
+        private Path directory;
+        private int segmentBytes = 8 * 1024 * 1024;
+        private int indexIntervalBytes = 4096;
+        private Duration retentionTime;
+        private long retentionBytes = -1;
+        private boolean deleteOnClose;
+
+        public Builder directory(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "Directory cannot be null");
+            return this;
+        }
+
+        /**
+         * Size of each segment file; the active segment rolls when full.
+         */
+        public Builder segmentBytes(int segmentBytes) {
+            if (segmentBytes < 1024) {
+                throw new IllegalArgumentException("Segment size must be at least 1 KB");
+            }
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * Bytes of records between two sparse index entries (lookup scans at most this much).
+         */
+        public Builder indexIntervalBytes(int indexIntervalBytes) {
+            if (indexIntervalBytes <= 0) {
+                throw new IllegalArgumentException("Index interval must be positive");
+            }
+            this.indexIntervalBytes = indexIntervalBytes;
+            return this;
+        }
+
+        /**
+         * Delete segments whose newest message is older than this.
+         */
+        public Builder retentionTime(Duration retentionTime) {
+            if (retentionTime != null && (retentionTime.isNegative() || retentionTime.isZero())) {
+                throw new IllegalArgumentException("Retention time must be positive");
+            }
+            this.retentionTime = retentionTime;
+            return this;
+        }
+
+        /**
+         * Delete the oldest segments while a partition is larger than this.
+         */
+        public Builder retentionBytes(long retentionBytes) {
+            this.retentionBytes = retentionBytes;
+            return this;
+        }
+
+        public Builder deleteOnClose(boolean deleteOnClose) {
+            this.deleteOnClose = deleteOnClose;
+            return this;
+        }
+
+        public LogConfig build() {
+            if (directory == null) {
+                throw new IllegalArgumentException("Log directory is required");
+            }
+            return new LogConfig(this);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+}
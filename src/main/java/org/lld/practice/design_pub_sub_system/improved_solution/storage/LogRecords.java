@@ -0,0 +1,227 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.storage;
+
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Result of a partition read: positions of records inside their batches.
+ *
+ * Nothing is copied when the read is served from uncompressed batches: the
+ * records buffers are slices of the mapped segments. A compressed batch is
+ * inflated once per read, and its records point into that buffer.
+ *
+ * get(i) decodes the record into a Message on demand; key(), value() and
+ * header() hand out read-only slices of the record bytes, so consumers that
+ * only need the payload never build Message objects or Strings.
+ */
+public class LogRecords extends AbstractList<Message> implements RandomAccess {
+
+    private static final ByteBuffer[] NO_BUFFERS = new ByteBuffer[0];
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+    private static final byte[] MESSAGE_ID_HEADER =
+            RecordBatchBuilder.MESSAGE_ID_HEADER.getBytes(StandardCharsets.UTF_8);
+
+    private final String topic;
+    private final int partitionId;
+    private final ByteBuffer[] buffers;    // records section of the batch, per record
+    private final int[] positions;         // record start within that buffer
+    private final long[] offsets;
+    private final long[] baseTimestamps;   // batch base timestamp, per record
+    private int count;
+
+    LogRecords(String topic, int partitionId, int capacity) {
+        this.topic = topic;
+        this.partitionId = partitionId;
+        this.buffers = capacity > 0 ? new ByteBuffer[capacity] : NO_BUFFERS;
+        this.positions = capacity > 0 ? new int[capacity] : NO_POSITIONS;
+        this.offsets = capacity > 0 ? new long[capacity] : NO_LONGS;
+        this.baseTimestamps = capacity > 0 ? new long[capacity] : NO_LONGS;
+    }
+
+    public static LogRecords empty(String topic, int partitionId) {
+        return new LogRecords(topic, partitionId, 0);
+    }
+
+    void add(ByteBuffer records, int position, long offset, long baseTimestamp) {
+        buffers[count] = records;
+        positions[count] = position;
+        offsets[count] = offset;
+        baseTimestamps[count] = baseTimestamp;
+        count++;
+    }
+
+    /**
+     * Decode record i into a Message (copies key and value out as UTF-8
+     * Strings). Records appended without an "id" header get "offset-N".
+     */
+    @Override
+    public Message get(int i) {
+        ByteBuffer key = key(i);
+        ByteBuffer value = value(i);
+        checkIndex(i);
+        ByteBuffer id = header(i, MESSAGE_ID_HEADER);
+        return Message.restore(id != null ? decode(id) : "offset-" + offsets[i],
+                key != null ? decode(key) : null,
+                value != null ? decode(value) : "",
+                topic, Instant.ofEpochMilli(timestamp(i)), partitionId, offsets[i]);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    public long offset(int i) {
+        checkIndex(i);
+        return offsets[i];
+    }
+
+    public long timestamp(int i) {
+        checkIndex(i);
+        long length = RecordBatch.readVarint(buffers[i], positions[i]);
+        long delta = RecordBatch.readVarint(buffers[i], RecordBatch.next(length));
+        return baseTimestamps[i] + RecordBatch.value(delta);
+    }
+
+    /**
+     * Read-only view of record i's key bytes without copying, or null if it has no key.
+     */
+    public ByteBuffer key(int i) {
+        checkIndex(i);
+        return field(buffers[i], keyPosition(i));
+    }
+
+    /**
+     * Read-only view of record i's value bytes without copying, or null for a null value.
+     */
+    public ByteBuffer value(int i) {
+        checkIndex(i);
+        ByteBuffer buffer = buffers[i];
+        return field(buffer, skipField(buffer, keyPosition(i)));
+    }
+
+    /**
+     * Read-only view of the value of record i's first header with the given
+     * key, or null if there is none.
+     */
+    public ByteBuffer header(int i, String name) {
+        checkIndex(i);
+        return header(i, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ByteBuffer header(int i, byte[] wanted) {
+        ByteBuffer buffer = buffers[i];
+        long headerCount = RecordBatch.readVarint(buffer, headersPosition(i));
+        int position = RecordBatch.next(headerCount);
+        for (int h = 0; h < RecordBatch.value(headerCount); h++) {
+            long keyLength = RecordBatch.readVarint(buffer, position);
+            int keyStart = RecordBatch.next(keyLength);
+            int valuePosition = keyStart + RecordBatch.value(keyLength);
+            if (RecordBatch.value(keyLength) == wanted.length && matches(buffer, keyStart, wanted)) {
+                return field(buffer, valuePosition);
+            }
+            position = skipField(buffer, valuePosition);
+        }
+        return null;
+    }
+
+    /**
+     * All of record i's headers, values as read-only slices (in record order).
+     */
+    public Map<String, ByteBuffer> headers(int i) {
+        checkIndex(i);
+        ByteBuffer buffer = buffers[i];
+        long headerCount = RecordBatch.readVarint(buffer, headersPosition(i));
+        if (RecordBatch.value(headerCount) == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, ByteBuffer> headers = new LinkedHashMap<>();
+        int position = RecordBatch.next(headerCount);
+        for (int h = 0; h < RecordBatch.value(headerCount); h++) {
+            long keyLength = RecordBatch.readVarint(buffer, position);
+            String name = decode(buffer.slice(RecordBatch.next(keyLength), RecordBatch.value(keyLength)));
+            int valuePosition = RecordBatch.next(keyLength) + RecordBatch.value(keyLength);
+            headers.putIfAbsent(name, field(buffer, valuePosition));
+            position = skipField(buffer, valuePosition);
+        }
+        return headers;
+    }
+
+    /**
+     * Offset after the last record (where the next read should start), or -1 if empty.
+     */
+    public long nextOffset() {
+        return count > 0 ? offsets[count - 1] + 1 : -1;
+    }
+
+    /**
+     * Total encoded size of the records (uncompressed, batch headers excluded).
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (int i = 0; i < count; i++) {
+            bytes += RecordBatch.nextRecord(buffers[i], positions[i]) - positions[i];
+        }
+        return bytes;
+    }
+
+    // ========== Record Walking ==========
+
+    /**
+     * Position of record i's key length (after the length and timestamp delta).
+     */
+    private int keyPosition(int i) {
+        ByteBuffer buffer = buffers[i];
+        long length = RecordBatch.readVarint(buffer, positions[i]);
+        return RecordBatch.next(RecordBatch.readVarint(buffer, RecordBatch.next(length)));
+    }
+
+    private int headersPosition(int i) {
+        ByteBuffer buffer = buffers[i];
+        return skipField(buffer, skipField(buffer, keyPosition(i)));
+    }
+
+    private static int skipField(ByteBuffer buffer, int position) {
+        long length = RecordBatch.readVarint(buffer, position);
+        return RecordBatch.next(length) + Math.max(0, RecordBatch.value(length));
+    }
+
+    private static ByteBuffer field(ByteBuffer buffer, int position) {
+        long length = RecordBatch.readVarint(buffer, position);
+        if (RecordBatch.value(length) < 0) {
+            return null;
+        }
+        // Records buffers are read-only, and so are their slices
+        return buffer.slice(RecordBatch.next(length), RecordBatch.value(length));
+    }
+
+    private static boolean matches(ByteBuffer buffer, int position, byte[] bytes) {
+        for (int b = 0; b < bytes.length; b++) {
+            if (buffer.get(position + b) != bytes[b]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for " + count + " records");
+        }
+    }
+
+    private static String decode(ByteBuffer bytes) {
+        byte[] copy = new byte[bytes.remaining()];
+        bytes.get(copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,314 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.storage;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * One segment of a partition log: a fixed-size file of record batches plus
+ * a sparse offset index.
+ *
+ * The file is preallocated (sparse) to the segment size and mapped
+ * read-write once; batches are copied into the mapping and read straight
+ * from it, so a read never copies through a heap buffer. Files are named
+ * after the segment's base offset (00000000000000001000.log / .index).
+ *
+ * No FileChannel is kept open. FileChannel I/O is interruptible: a write
+ * from a thread with its interrupt flag set closes the channel, and every
+ * later append would fail. Stores into the mapping, force() on it and the
+ * java.io stream that writes the index are not interruptible.
+ *
+ * The file is a sequence of RecordBatch entries, stored exactly as the
+ * producer encoded them (compressed batches stay compressed on disk).
+ *
+ * Index: one entry (batch baseOffset - segment baseOffset, file position)
+ * every indexIntervalBytes of batches, so a lookup binary-searches the index
+ * and then scans at most one interval. The index is kept in memory and
+ * written to the .index file when the segment is sealed or closed; after a
+ * crash the tail beyond the last written index is recovered by scanning and
+ * CRC-checking batches.
+ *
+ * Single writer (the owning PartitionLog), any number of readers.
+ */
+class LogSegment {
+
+    private static final int INDEX_HEADER_SIZE = 24;  // see writeIndex()
+
+    private final long baseOffset;
+    private final Path logFile;
+    private final Path indexFile;
+    private final int indexIntervalBytes;
+    private final MappedByteBuffer mapped;
+    private final int capacity;
+
+    // Written by the single writer; readers bound themselves by the log's end offset
+    private volatile int size;
+    private volatile long nextOffset;
+    private volatile long maxTimestamp = -1;
+    private volatile long[] index = new long[16];   // (relativeOffset << 32) | position
+    private volatile int indexEntries;
+    private int bytesSinceIndex;
+
+    private LogSegment(Path directory, long baseOffset, int segmentBytes, int indexIntervalBytes) throws IOException {
+        this.baseOffset = baseOffset;
+        this.logFile = directory.resolve(String.format("%020d.log", baseOffset));
+        this.indexFile = directory.resolve(String.format("%020d.index", baseOffset));
+        this.indexIntervalBytes = indexIntervalBytes;
+        try (RandomAccessFile file = new RandomAccessFile(logFile.toFile(), "rw")) {
+            long existing = file.length();
+            this.capacity = (int) Math.max(existing, segmentBytes);
+            if (existing < capacity) {
+                // Extend to full size (sparse) so the whole segment can be mapped once
+                file.setLength(capacity);
+            }
+            this.mapped = map(file.getChannel(), capacity);
+        }
+        this.nextOffset = baseOffset;
+    }
+
+    /**
+     * Map the whole file. The mapping stays valid after the channel is closed.
+     * The interrupt flag is cleared for the call (an interrupt would close
+     * the channel mid-map) and restored afterwards.
+     */
+    private static MappedByteBuffer map(FileChannel channel, int capacity) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Open (creating or recovering) the segment starting at baseOffset.
+     */
+    static LogSegment open(Path directory, long baseOffset, int segmentBytes, int indexIntervalBytes) {
+        try {
+            LogSegment segment = new LogSegment(directory, baseOffset, segmentBytes, indexIntervalBytes);
+            segment.loadIndex();
+            segment.recover();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open log segment " + baseOffset + " in " + directory, e);
+        }
+    }
+
+    // ========== Writing (single writer) ==========
+
+    /**
+     * Append encoded, consecutive batches (position to limit of the buffer,
+     * base offsets already stamped) with a single copy into the mapping.
+     * Consumes the buffer.
+     *
+     * @param maxTimestamp newest timestamp among the batches
+     */
+    void append(ByteBuffer batches, long maxTimestamp) {
+        int start = size;
+        int length = batches.remaining();
+        int batchesStart = batches.position();
+        mapped.put(start, batches, batchesStart, length);
+        batches.position(batches.limit());
+        // Index the batches just written (sizes and offsets are read back from the buffer)
+        long offset = nextOffset;
+        for (int relative = 0; relative < length; ) {
+            int position = batchesStart + relative;
+            int batchSize = RecordBatch.sizeInBytes(batches, position);
+            if (indexEntries == 0 || bytesSinceIndex >= indexIntervalBytes) {
+                addIndexEntry(RecordBatch.baseOffset(batches, position), start + relative);
+                bytesSinceIndex = 0;
+            }
+            bytesSinceIndex += batchSize;
+            offset = RecordBatch.nextOffset(batches, position);
+            relative += batchSize;
+        }
+        this.maxTimestamp = Math.max(this.maxTimestamp, maxTimestamp);
+        nextOffset = offset;
+        size = start + length;
+    }
+
+    int remaining() {
+        return capacity - size;
+    }
+
+    /**
+     * Flush appended records to disk.
+     */
+    void flush() {
+        mapped.force(0, size);
+    }
+
+    /**
+     * Flush and persist the index: called when the segment stops being active.
+     */
+    void seal() {
+        flush();
+        writeIndex();
+    }
+
+    void close() {
+        seal();
+    }
+
+    /**
+     * Delete both files. Readers still holding the mapping keep working.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(logFile);
+            Files.deleteIfExists(indexFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete segment " + logFile, e);
+        }
+    }
+
+    // ========== Reading ==========
+
+    /**
+     * File position of the batch containing the given offset, which must lie
+     * in [baseOffset, nextOffset).
+     */
+    int positionOf(long offset) {
+        int count = indexEntries;
+        long[] entries = index;  // read after the count: a replaced array is a superset
+        int relative = (int) (offset - baseOffset);
+        int low = 0;
+        int high = count - 1;
+        int position = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if ((int) (entries[mid] >>> 32) <= relative) {
+                position = (int) entries[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        while (RecordBatch.nextOffset(mapped, position) <= offset) {
+            position = nextPosition(position);
+        }
+        return position;
+    }
+
+    int nextPosition(int position) {
+        return position + RecordBatch.sizeInBytes(mapped, position);
+    }
+
+    ByteBuffer buffer() {
+        return mapped;
+    }
+
+    long getBaseOffset() {
+        return baseOffset;
+    }
+
+    long getNextOffset() {
+        return nextOffset;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    // ========== Index and Recovery ==========
+
+    private void addIndexEntry(long offset, int position) {
+        long[] entries = index;
+        int count = indexEntries;
+        if (count == entries.length) {
+            entries = Arrays.copyOf(entries, count * 2);
+            index = entries;
+        }
+        entries[count] = ((offset - baseOffset) << 32) | position;
+        indexEntries = count + 1;
+    }
+
+    /**
+     * Index file: int entries | int size | long nextOffset | long maxTimestamp | long[] entries.
+     * Describes a prefix of the segment that needs no scanning on recovery.
+     */
+    private void writeIndex() {
+        int count = indexEntries;
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER_SIZE + count * 8);
+        buffer.putInt(count).putInt(size).putLong(nextOffset).putLong(maxTimestamp);
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(index[i]);
+        }
+        try (OutputStream out = new FileOutputStream(indexFile.toFile())) {
+            out.write(buffer.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write index " + indexFile, e);
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        if (buffer.remaining() < INDEX_HEADER_SIZE) {
+            return;
+        }
+        int count = buffer.getInt();
+        int indexedSize = buffer.getInt();
+        long indexedNextOffset = buffer.getLong();
+        long indexedMaxTimestamp = buffer.getLong();
+        if (count < 0 || buffer.remaining() != count * 8 || indexedSize > capacity) {
+            return;  // Unusable: rebuild by scanning the whole segment
+        }
+        long[] entries = new long[Math.max(16, count)];
+        for (int i = 0; i < count; i++) {
+            entries[i] = buffer.getLong();
+        }
+        index = entries;
+        indexEntries = count;
+        size = indexedSize;
+        nextOffset = indexedNextOffset;
+        maxTimestamp = indexedMaxTimestamp;
+        bytesSinceIndex = count > 0 ? size - (int) entries[count - 1] : 0;
+    }
+
+    /**
+     * Scan forward from the indexed prefix, accepting batches while they are
+     * complete, CRC-valid and consecutive. Anything after (a torn write, or the
+     * zeroed preallocated tail) is overwritten by the next append.
+     */
+    private void recover() {
+        CRC32C crc = new CRC32C();
+        int position = size;
+        while (RecordBatch.isValid(mapped, position, capacity, crc)
+                && RecordBatch.baseOffset(mapped, position) == nextOffset) {
+            int length = RecordBatch.sizeInBytes(mapped, position);
+            if (indexEntries == 0 || bytesSinceIndex >= indexIntervalBytes) {
+                addIndexEntry(nextOffset, position);
+                bytesSinceIndex = 0;
+            }
+            bytesSinceIndex += length;
+            maxTimestamp = Math.max(maxTimestamp, RecordBatch.maxTimestamp(mapped, position));
+            nextOffset = RecordBatch.nextOffset(mapped, position);
+            position += length;
+        }
+        size = position;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LogSegment{base=%d, next=%d, bytes=%d/%d, indexEntries=%d}",
+                baseOffset, nextOffset, size, capacity, indexEntries);
+    }
+}
@@ -0,0 +1,342 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.storage;
+
+import org.lld.practice.design_pub_sub_system.improved_solution.models.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent, segmented append-only log backing one partition.
+ *
+ * <pre>
+ *   partition dir: orders-0/
+ *     00000000000000000000.log / .index   (sealed)
+ *     00000000000000004217.log / .index   (sealed)
+ *     00000000000000008391.log            (active: appends go here)
+ * </pre>
+ *
+ * - Appends are serialized (one writer at a time) and go to the active
+ *   segment as binary record batches (see RecordBatch); it rolls to a new
+ *   segment when the next batch does not fit.
+ * - Reads are lock-free: segments sit in a skip list keyed by base offset,
+ *   and the end offset is published through a volatile after the bytes are
+ *   written, so a reader only ever sees complete batches.
+ * - Retention deletes whole sealed segments, oldest first, by age (newest
+ *   message in the segment) and by total size. The earliest offset moves
+ *   forward accordingly.
+ * - Reopening the directory recovers all segments, so the log survives a
+ *   broker restart.
+ */
+public class PartitionLog {
+
+    private final String topic;
+    private final int partitionId;
+    private final LogConfig config;
+    private final Path directory;
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+    private final CRC32C crc = new CRC32C();
+    private final RecordBatchBuilder builder = new RecordBatchBuilder();
+    private ByteBuffer encodeBuffer = ByteBuffer.allocateDirect(4096);
+    private LogSegment active;
+    private volatile long nextOffset;
+
+    public PartitionLog(String topic, int partitionId, LogConfig config) {
+        this.topic = topic;
+        this.partitionId = partitionId;
+        this.config = config;
+        this.directory = config.partitionDirectory(topic, partitionId);
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.log")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    long baseOffset = Long.parseLong(name.substring(0, name.length() - ".log".length()));
+                    segments.put(baseOffset, openSegment(baseOffset));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open partition log " + directory, e);
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, openSegment(0));
+        }
+        this.active = segments.lastEntry().getValue();
+        this.nextOffset = active.getNextOffset();
+    }
+
+    /**
+     * Append a message (as a batch of one).
+     *
+     * @return the offset assigned to it
+     */
+    public synchronized long append(String messageId, String key, String value, Instant timestamp) {
+        builder.reset().appendMessage(timestamp.toEpochMilli(), utf8(key), utf8(value), utf8(messageId));
+        ByteBuffer batch = builder.buildInto(encodeBuffer(builder.estimatedSizeInBytes()));
+        checkFits(batch.remaining());
+        long offset = nextOffset;
+        write(batch, offset);
+        nextOffset = offset + 1;   // publishes the record to readers
+        return offset;
+    }
+
+    /**
+     * Append messages as one record batch (split only if it would not fit in a
+     * segment). The batch claims a contiguous offset range under a single lock
+     * acquisition, is written with one write, and becomes visible to readers
+     * all at once.
+     *
+     * @return the offset assigned to the first message
+     */
+    public synchronized long appendBatch(List<Message> messages) {
+        int count = messages.size();
+        byte[][] ids = new byte[count][];
+        byte[][] keys = new byte[count][];
+        byte[][] values = new byte[count][];
+        // Validate every record before writing any, so a bad batch appends nothing
+        for (int i = 0; i < count; i++) {
+            Message message = messages.get(i);
+            ids[i] = utf8(message.getMessageId());
+            keys[i] = utf8(message.getKey());
+            values[i] = utf8(message.getValue());
+            checkFits(RecordBatch.RECORDS + RecordBatchBuilder.messageRecordSize(keys[i], values[i], ids[i]));
+        }
+
+        long baseOffset = nextOffset;
+        long offset = baseOffset;
+        builder.reset();
+        for (int i = 0; i < count; i++) {
+            int recordSize = RecordBatchBuilder.messageRecordSize(keys[i], values[i], ids[i]);
+            if (!builder.isEmpty() && builder.estimatedSizeInBytes() + recordSize > config.getSegmentBytes()) {
+                offset = writeBuilder(offset);
+            }
+            builder.appendMessage(messages.get(i).getTimestamp().toEpochMilli(), keys[i], values[i], ids[i]);
+        }
+        if (!builder.isEmpty()) {
+            offset = writeBuilder(offset);
+        }
+        nextOffset = offset;   // publishes the whole batch to readers
+        return baseOffset;
+    }
+
+    /**
+     * Append a batch encoded by a RecordBatchBuilder (position to limit of the
+     * buffer), as is: compressed batches are stored compressed. The batch is
+     * CRC-checked first; its base offset is then stamped into the buffer.
+     *
+     * @return the offset assigned to the batch's first record
+     */
+    public synchronized long appendRecords(ByteBuffer batch) {
+        int position = batch.position();
+        if (batch.remaining() < RecordBatch.RECORDS
+                || RecordBatch.sizeInBytes(batch, position) != batch.remaining()
+                || !RecordBatch.isValid(batch, position, batch.limit(), crc)) {
+            throw new IllegalArgumentException("Not a single valid record batch ("
+                    + batch.remaining() + " bytes)");
+        }
+        checkFits(batch.remaining());
+        long offset = nextOffset;
+        write(batch.duplicate(), offset);
+        nextOffset = offset + RecordBatch.recordCount(batch, position);   // publishes the batch
+        return offset;
+    }
+
+    /**
+     * Read up to limit records starting at fromOffset. An offset that has
+     * already been deleted by retention reads from the earliest offset.
+     */
+    public LogRecords read(long fromOffset, int limit) {
+        long end = nextOffset;
+        Map.Entry<Long, LogSegment> entry = segments.floorEntry(Math.max(fromOffset, 0));
+        if (entry == null) {
+            entry = segments.firstEntry();
+        }
+        long offset = Math.max(fromOffset, entry.getKey());
+        if (limit <= 0 || offset >= end) {
+            return LogRecords.empty(topic, partitionId);
+        }
+
+        LogRecords records = new LogRecords(topic, partitionId, (int) Math.min(limit, end - offset));
+        while (entry != null && offset < end && records.size() < limit) {
+            LogSegment segment = entry.getValue();
+            offset = Math.max(offset, segment.getBaseOffset());
+            long segmentEnd = Math.min(end, segment.getNextOffset());
+            if (offset < segmentEnd) {
+                ByteBuffer mapped = segment.buffer();
+                int position = segment.positionOf(offset);
+                // Batches are published whole, so one below the end offset is complete
+                while (offset < segmentEnd && records.size() < limit) {
+                    long batchOffset = RecordBatch.baseOffset(mapped, position);
+                    long baseTimestamp = RecordBatch.baseTimestamp(mapped, position);
+                    int batchCount = RecordBatch.recordCount(mapped, position);
+                    ByteBuffer batchRecords = RecordBatch.records(mapped, position);
+                    int recordPosition = 0;
+                    for (int i = 0; i < batchCount && records.size() < limit; i++) {
+                        if (batchOffset + i >= offset) {
+                            records.add(batchRecords, recordPosition, batchOffset + i, baseTimestamp);
+                        }
+                        recordPosition = RecordBatch.nextRecord(batchRecords, recordPosition);
+                    }
+                    offset = records.size() < limit ? batchOffset + batchCount : records.nextOffset();
+                    position = segment.nextPosition(position);
+                }
+            }
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return records;
+    }
+
+    /**
+     * Delete sealed segments that are past the retention time, or needed to
+     * get under the retention size. The active segment is never deleted.
+     *
+     * @return number of segments deleted
+     */
+    public synchronized int enforceRetention() {
+        long retentionMillis = config.getRetentionTime() != null ? config.getRetentionTime().toMillis() : -1;
+        long retentionBytes = config.getRetentionBytes();
+        long now = System.currentTimeMillis();
+        long totalBytes = getSizeInBytes();
+        int deleted = 0;
+        for (LogSegment segment : segments.values()) {
+            boolean overSize = retentionBytes >= 0 && totalBytes > retentionBytes;
+            boolean expired = retentionMillis >= 0 && now - segment.getMaxTimestamp() > retentionMillis;
+            if (segment == active || (!overSize && !expired)) {
+                break;
+            }
+            segments.remove(segment.getBaseOffset());
+            segment.delete();
+            totalBytes -= segment.size();
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Force appended records to disk (fsync).
+     */
+    public synchronized void flush() {
+        active.flush();
+    }
+
+    /**
+     * Flush and close all segments, persisting their indexes. With
+     * deleteOnClose the partition directory is removed instead.
+     */
+    public synchronized void close() {
+        for (LogSegment segment : segments.values()) {
+            if (config.isDeleteOnClose()) {
+                segment.delete();
+            } else {
+                segment.close();
+            }
+        }
+        if (config.isDeleteOnClose()) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete " + directory, e);
+            }
+        }
+    }
+
+    public long getLatestOffset() {
+        return nextOffset;
+    }
+
+    public long getEarliestOffset() {
+        return segments.firstKey();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (LogSegment segment : segments.values()) {
+            bytes += segment.size();
+        }
+        return bytes;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Seal the active segment and start a new one at baseOffset.
+     */
+    private void roll(long baseOffset) {
+        active.seal();
+        LogSegment next = openSegment(baseOffset);
+        segments.put(baseOffset, next);
+        active = next;
+        enforceRetention();
+    }
+
+    /**
+     * Write the builder's records as one batch starting at offset, and reset it.
+     *
+     * @return the offset after the batch
+     */
+    private long writeBuilder(long offset) {
+        ByteBuffer batch = builder.buildInto(encodeBuffer(builder.estimatedSizeInBytes()));
+        write(batch, offset);
+        long next = offset + builder.recordCount();
+        builder.reset();
+        return next;
+    }
+
+    /**
+     * Stamp the base offset into an encoded batch and write it to the active
+     * segment, rolling first if it does not fit. Does not publish it.
+     */
+    private void write(ByteBuffer batch, long baseOffset) {
+        if (active.remaining() < batch.remaining()) {
+            roll(baseOffset);
+        }
+        batch.putLong(batch.position() + RecordBatch.BASE_OFFSET, baseOffset);
+        active.append(batch, RecordBatch.maxTimestamp(batch, batch.position()));
+    }
+
+    private void checkFits(int batchSize) {
+        if (batchSize > config.getSegmentBytes()) {
+            throw new IllegalArgumentException("Batch of " + batchSize
+                    + " bytes does not fit in a segment of " + config.getSegmentBytes() + " bytes");
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * The reusable direct encode buffer, cleared and grown to at least the given size.
+     */
+    private ByteBuffer encodeBuffer(int bytes) {
+        if (encodeBuffer.capacity() < bytes) {
+            encodeBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(bytes - 1) << 1);
+        }
+        return encodeBuffer.clear();
+    }
+
+    private LogSegment openSegment(long baseOffset) {
+        return LogSegment.open(directory, baseOffset, config.getSegmentBytes(), config.getIndexIntervalBytes());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PartitionLog{%s, offsets=[%d, %d), segments=%d, bytes=%d}",
+                directory.getFileName(), getEarliestOffset(), nextOffset, segments.size(), getSizeInBytes());
+    }
+}
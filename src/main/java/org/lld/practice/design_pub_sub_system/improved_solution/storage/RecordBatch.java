@@ -0,0 +1,184 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.storage;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of a record batch: the unit the log stores, the producer
+ * sends, and a read hands back slices of.
+ *
+ * Batch (big-endian, fixed-size header):
+ * <pre>
+ *   long  baseOffset       offset of the first record, stamped by the log on append
+ *   int   batchLength      bytes after this field
+ *   int   crc32c           of everything after this field (baseOffset is not covered,
+ *                          so the log can stamp it without recomputing the CRC)
+ *   byte  attributes       compression codec id
+ *   int   recordCount
+ *   long  baseTimestamp    epoch millis, records store a delta from it
+ *   long  maxTimestamp
+ *   int   recordsSize      size of the records section before compression
+ *   records...             compressed as one block when attributes != NONE
+ * </pre>
+ *
+ * Record (zigzag varints, so small lengths cost one byte and -1 means null):
+ * <pre>
+ *   varint length          bytes after this field
+ *   varint timestampDelta
+ *   varint keyLength   | key bytes
+ *   varint valueLength | value bytes
+ *   varint headerCount | (varint keyLength | UTF-8 key | varint valueLength | value bytes)*
+ * </pre>
+ *
+ * Offsets of records are implicit (baseOffset + index), so a record costs
+ * its payload plus about six bytes.
+ */
+final class RecordBatch {
+
+    static final int BASE_OFFSET = 0;
+    static final int BATCH_LENGTH = 8;
+    static final int CRC = 12;
+    static final int ATTRIBUTES = 16;
+    static final int RECORD_COUNT = 17;
+    static final int BASE_TIMESTAMP = 21;
+    static final int MAX_TIMESTAMP = 29;
+    static final int RECORDS_SIZE = 37;
+    static final int RECORDS = 41;
+
+    /** Bytes before batchLength's coverage starts: baseOffset + batchLength. */
+    static final int LOG_OVERHEAD = 12;
+
+    private RecordBatch() {
+    }
+
+    // ========== Batch Access ==========
+
+    static int sizeInBytes(ByteBuffer buffer, int position) {
+        return LOG_OVERHEAD + buffer.getInt(position + BATCH_LENGTH);
+    }
+
+    static long baseOffset(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + BASE_OFFSET);
+    }
+
+    static int recordCount(ByteBuffer buffer, int position) {
+        return buffer.getInt(position + RECORD_COUNT);
+    }
+
+    static long nextOffset(ByteBuffer buffer, int position) {
+        return baseOffset(buffer, position) + recordCount(buffer, position);
+    }
+
+    static long baseTimestamp(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + BASE_TIMESTAMP);
+    }
+
+    static long maxTimestamp(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + MAX_TIMESTAMP);
+    }
+
+    static Compression compression(ByteBuffer buffer, int position) {
+        return Compression.fromId(buffer.get(position + ATTRIBUTES));
+    }
+
+    /**
+     * The batch's records section, uncompressed, as a buffer whose position 0
+     * is the first record. Uncompressed batches are a slice of the given
+     * buffer (no copy); compressed ones are inflated once into a heap buffer.
+     * Either way the result is read-only.
+     */
+    static ByteBuffer records(ByteBuffer buffer, int position) {
+        int recordsSize = buffer.getInt(position + RECORDS_SIZE);
+        int storedSize = sizeInBytes(buffer, position) - RECORDS;
+        ByteBuffer stored = buffer.slice(position + RECORDS, storedSize).asReadOnlyBuffer();
+        Compression compression = compression(buffer, position);
+        return compression == Compression.NONE
+                ? stored
+                : compression.decompress(stored, recordsSize).asReadOnlyBuffer();
+    }
+
+    /**
+     * Check that a complete, CRC-valid batch starts at position and ends by limit.
+     */
+    static boolean isValid(ByteBuffer buffer, int position, int limit, CRC32C crc) {
+        if (position + RECORDS > limit) {
+            return false;
+        }
+        int batchLength = buffer.getInt(position + BATCH_LENGTH);
+        if (batchLength < RECORDS - LOG_OVERHEAD || batchLength > limit - position - LOG_OVERHEAD
+                || buffer.getInt(position + RECORD_COUNT) <= 0) {
+            return false;
+        }
+        return buffer.getInt(position + CRC) == checksum(buffer, position, crc);
+    }
+
+    /**
+     * CRC32C over the batch from the attributes byte to its end.
+     */
+    static int checksum(ByteBuffer buffer, int position, CRC32C crc) {
+        int end = position + sizeInBytes(buffer, position);
+        crc.reset();
+        crc.update(buffer.duplicate().limit(end).position(position + ATTRIBUTES));
+        return (int) crc.getValue();
+    }
+
+    // ========== Record Access ==========
+
+    /**
+     * Position of the record following the one at position (in a records buffer).
+     */
+    static int nextRecord(ByteBuffer records, int position) {
+        long length = readVarint(records, position);
+        return next(length) + value(length);
+    }
+
+    // ========== Varints ==========
+
+    /**
+     * Read a zigzag varint at position. Returns the value in the high 32 bits
+     * and the position after it in the low 32 bits, so hot read paths can
+     * walk a record without allocating a cursor; see value() and next().
+     */
+    static long readVarint(ByteBuffer buffer, int position) {
+        int raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 28) {
+                throw new IllegalStateException("Malformed varint at position " + position);
+            }
+            b = buffer.get(position++);
+            raw |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        int value = (raw >>> 1) ^ -(raw & 1);
+        return ((long) value << 32) | (position & 0xFFFFFFFFL);
+    }
+
+    static int value(long varint) {
+        return (int) (varint >> 32);
+    }
+
+    static int next(long varint) {
+        return (int) varint;
+    }
+
+    static void writeVarint(ByteBuffer buffer, int value) {
+        int raw = (value << 1) ^ (value >> 31);
+        while ((raw & ~0x7F) != 0) {
+            buffer.put((byte) ((raw & 0x7F) | 0x80));
+            raw >>>= 7;
+        }
+        buffer.put((byte) raw);
+    }
+
+    static int varintSize(int value) {
+        int raw = (value << 1) ^ (value >> 31);
+        int bytes = 1;
+        while ((raw & ~0x7F) != 0) {
+            bytes++;
+            raw >>>= 7;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,247 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Encodes records into one binary record batch (see RecordBatch for the layout).
+ *
+ * Keys, values and header values are raw bytes, given as byte[] or as the
+ * remaining bytes of a ByteBuffer (which is not consumed). With a
+ * compression codec, the records section of the batch is compressed as one
+ * block when built; if that does not make it smaller it is stored as is.
+ *
+ * <pre>
+ *   ByteBuffer batch = new RecordBatchBuilder(Compression.DEFLATE)
+ *           .append(now, key, value)
+ *           .append(now, key, value, Map.of("trace-id", traceId))
+ *           .build();
+ *   broker.publishRecords("orders", 0, batch);
+ * </pre>
+ *
+ * Not thread-safe; reusable after reset().
+ */
+public class RecordBatchBuilder {
+
+    /** Header carrying the id of records appended as a Message. */
+    static final String MESSAGE_ID_HEADER = "id";
+
+    private static final byte[] MESSAGE_ID_HEADER_BYTES = MESSAGE_ID_HEADER.getBytes(StandardCharsets.UTF_8);
+    private static final byte[][] NO_HEADER_KEYS = new byte[0][];
+
+    private final Compression compression;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer records = ByteBuffer.allocate(1024);
+    private int recordCount;
+    private long baseTimestamp;
+    private long maxTimestamp = -1;
+
+    public RecordBatchBuilder() {
+        this(Compression.NONE);
+    }
+
+    public RecordBatchBuilder(Compression compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression cannot be null, use Compression.NONE");
+        }
+        this.compression = compression;
+    }
+
+    // ========== Appending ==========
+
+    public RecordBatchBuilder append(long timestamp, byte[] key, byte[] value) {
+        return append(timestamp, wrap(key), wrap(value), null);
+    }
+
+    public RecordBatchBuilder append(long timestamp, byte[] key, byte[] value, Map<String, byte[]> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return append(timestamp, key, value);
+        }
+        byte[][] headerKeys = new byte[headers.size()][];
+        ByteBuffer[] headerValues = new ByteBuffer[headers.size()];
+        int i = 0;
+        for (Map.Entry<String, byte[]> header : headers.entrySet()) {
+            headerKeys[i] = headerKey(header.getKey());
+            headerValues[i++] = wrap(header.getValue());
+        }
+        appendRecord(timestamp, wrap(key), wrap(value), headerKeys, headerValues);
+        return this;
+    }
+
+    public RecordBatchBuilder append(long timestamp, ByteBuffer key, ByteBuffer value) {
+        return append(timestamp, key, value, null);
+    }
+
+    public RecordBatchBuilder append(long timestamp, ByteBuffer key, ByteBuffer value,
+                                     Map<String, ByteBuffer> headers) {
+        if (headers == null || headers.isEmpty()) {
+            appendRecord(timestamp, key, value, NO_HEADER_KEYS, null);
+            return this;
+        }
+        byte[][] headerKeys = new byte[headers.size()][];
+        ByteBuffer[] headerValues = new ByteBuffer[headers.size()];
+        int i = 0;
+        for (Map.Entry<String, ByteBuffer> header : headers.entrySet()) {
+            headerKeys[i] = headerKey(header.getKey());
+            headerValues[i++] = header.getValue();
+        }
+        appendRecord(timestamp, key, value, headerKeys, headerValues);
+        return this;
+    }
+
+    /**
+     * Append a record converted from a Message: UTF-8 key and value, the
+     * message id as the "id" header.
+     */
+    void appendMessage(long timestamp, byte[] key, byte[] value, byte[] messageId) {
+        appendRecord(timestamp, wrap(key), wrap(value),
+                new byte[][]{MESSAGE_ID_HEADER_BYTES}, new ByteBuffer[]{ByteBuffer.wrap(messageId)});
+    }
+
+    /**
+     * Upper bound on the encoded size of a record appended by appendMessage()
+     * (exact except for the timestamp delta, counted at its maximum of 5 bytes).
+     */
+    static int messageRecordSize(byte[] key, byte[] value, byte[] messageId) {
+        int bodySize = 5 + fieldSize(wrap(key)) + fieldSize(wrap(value)) + RecordBatch.varintSize(1)
+                + RecordBatch.varintSize(MESSAGE_ID_HEADER_BYTES.length) + MESSAGE_ID_HEADER_BYTES.length
+                + fieldSize(wrap(messageId));
+        return RecordBatch.varintSize(bodySize) + bodySize;
+    }
+
+    // ========== Building ==========
+
+    public int recordCount() {
+        return recordCount;
+    }
+
+    public boolean isEmpty() {
+        return recordCount == 0;
+    }
+
+    /**
+     * Size of the batch if built without compression: an upper bound on build().remaining().
+     */
+    public int estimatedSizeInBytes() {
+        return RecordBatch.RECORDS + records.position();
+    }
+
+    /**
+     * Encode the batch into a new buffer, ready to read (baseOffset 0 until
+     * the log stamps it). The builder keeps its records; call reset() to reuse it.
+     */
+    public ByteBuffer build() {
+        return buildInto(null);
+    }
+
+    /**
+     * Encode the batch into out (cleared; must hold estimatedSizeInBytes()),
+     * or into a new exact-size buffer if out is null.
+     */
+    ByteBuffer buildInto(ByteBuffer out) {
+        if (recordCount == 0) {
+            throw new IllegalStateException("Cannot build an empty record batch");
+        }
+        ByteBuffer section = records.duplicate().flip();
+        Compression stored = compression;
+        ByteBuffer body = section;
+        if (compression != Compression.NONE) {
+            body = compression.compress(section);
+            if (body.remaining() >= section.remaining()) {
+                stored = Compression.NONE;
+                body = section;
+            }
+        }
+
+        ByteBuffer batch = out != null ? out.clear() : ByteBuffer.allocate(RecordBatch.RECORDS + body.remaining());
+        int start = batch.position();
+        batch.putLong(0L)
+                .putInt(RecordBatch.RECORDS - RecordBatch.LOG_OVERHEAD + body.remaining())
+                .putInt(0)
+                .put((byte) stored.getId())
+                .putInt(recordCount)
+                .putLong(baseTimestamp)
+                .putLong(maxTimestamp)
+                .putInt(section.remaining())
+                .put(body);
+        batch.flip();
+        batch.putInt(start + RecordBatch.CRC, RecordBatch.checksum(batch, start, crc));
+        return batch;
+    }
+
+    public RecordBatchBuilder reset() {
+        records.clear();
+        recordCount = 0;
+        maxTimestamp = -1;
+        return this;
+    }
+
+    // ========== Encoding ==========
+
+    private void appendRecord(long timestamp, ByteBuffer key, ByteBuffer value,
+                              byte[][] headerKeys, ByteBuffer[] headerValues) {
+        if (recordCount == 0) {
+            baseTimestamp = timestamp;
+        }
+        long delta = timestamp - baseTimestamp;
+        if (delta != (int) delta) {
+            throw new IllegalArgumentException("Record timestamp " + timestamp
+                    + " is too far from the batch's first timestamp " + baseTimestamp);
+        }
+
+        int bodySize = RecordBatch.varintSize((int) delta)
+                + fieldSize(key) + fieldSize(value)
+                + RecordBatch.varintSize(headerKeys.length);
+        for (int i = 0; i < headerKeys.length; i++) {
+            bodySize += RecordBatch.varintSize(headerKeys[i].length) + headerKeys[i].length
+                    + fieldSize(headerValues[i]);
+        }
+        ensureRemaining(RecordBatch.varintSize(bodySize) + bodySize);
+
+        RecordBatch.writeVarint(records, bodySize);
+        RecordBatch.writeVarint(records, (int) delta);
+        writeField(key);
+        writeField(value);
+        RecordBatch.writeVarint(records, headerKeys.length);
+        for (int i = 0; i < headerKeys.length; i++) {
+            RecordBatch.writeVarint(records, headerKeys[i].length);
+            records.put(headerKeys[i]);
+            writeField(headerValues[i]);
+        }
+        recordCount++;
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+    }
+
+    private static int fieldSize(ByteBuffer field) {
+        return field == null ? 1 : RecordBatch.varintSize(field.remaining()) + field.remaining();
+    }
+
+    private void writeField(ByteBuffer field) {
+        if (field == null) {
+            RecordBatch.writeVarint(records, -1);
+        } else {
+            RecordBatch.writeVarint(records, field.remaining());
+            records.put(field.duplicate());
+        }
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (records.remaining() < bytes) {
+            int capacity = Math.max(records.capacity() * 2, records.position() + bytes);
+            records = ByteBuffer.allocate(capacity).put(records.flip());
+        }
+    }
+
+    private static byte[] headerKey(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Header key cannot be null");
+        }
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        return bytes != null ? ByteBuffer.wrap(bytes) : null;
+    }
+}
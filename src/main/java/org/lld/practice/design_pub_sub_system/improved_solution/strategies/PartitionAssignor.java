@@ -0,0 +1,26 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.strategies;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Strategy interface for assigning a topic's partitions to the consumers of a group.
+ */
+public interface PartitionAssignor {
+    
+    /**
+     * Compute the assignment after a membership change.
+     * 
+     * @param current Current assignment (consumerId -> partitions); departed consumers are absent
+     * @param consumerIds Consumers in the group after the change
+     * @param numPartitions Total number of partitions
+     * @return New assignment with an entry (possibly empty) for every consumer
+     */
+    Map<String, Set<Integer>> assign(Map<String, Set<Integer>> current, List<String> consumerIds, int numPartitions);
+    
+    /**
+     * Get the assignor name.
+     */
+    String getName();
+}
@@ -0,0 +1,38 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.strategies;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Round-robin ("eager") assignor: ignores the current assignment and deals
+ * partitions out in order. Balanced, but most partitions change owner on
+ * every membership change.
+ */
+public class RoundRobinAssignor implements PartitionAssignor {
+
+    @Override
+    public Map<String, Set<Integer>> assign(Map<String, Set<Integer>> current,
+                                            List<String> consumerIds, int numPartitions) {
+        Map<String, Set<Integer>> assignment = new HashMap<>();
+        for (String consumerId : consumerIds) {
+            assignment.put(consumerId, new TreeSet<>());
+        }
+        if (consumerIds.isEmpty()) {
+            return assignment;
+        }
+        List<String> members = new ArrayList<>(consumerIds);
+        for (int partition = 0; partition < numPartitions; partition++) {
+            assignment.get(members.get(partition % members.size())).add(partition);
+        }
+        return assignment;
+    }
+
+    @Override
+    public String getName() {
+        return "Round-Robin";
+    }
+}
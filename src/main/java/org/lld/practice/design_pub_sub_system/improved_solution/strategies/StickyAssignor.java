@@ -0,0 +1,92 @@
+package org.lld.practice.design_pub_sub_system.improved_solution.strategies;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sticky assignor: balanced like round-robin, but moves only the partitions
+ * that have to move.
+ *
+ * With P partitions and C consumers every consumer ends up with P / C
+ * partitions, and P % C of them with one more. Starting from the current
+ * assignment:
+ * 1. Partitions of departed consumers (or beyond the partition count) become unowned.
+ * 2. The consumers that already hold the most are the ones allowed the extra partition.
+ * 3. Consumers above their quota give up their excess partitions.
+ * 4. Unowned partitions go to the consumers furthest below their quota.
+ *
+ * Only partitions in steps 1 and 3 change owner. That is the minimum for a
+ * balanced result: a join moves about P / C partitions instead of nearly all.
+ */
+public class StickyAssignor implements PartitionAssignor {
+
+    @Override
+    public Map<String, Set<Integer>> assign(Map<String, Set<Integer>> current,
+                                            List<String> consumerIds, int numPartitions) {
+        Map<String, Set<Integer>> assignment = new HashMap<>();
+        if (consumerIds.isEmpty()) {
+            return assignment;
+        }
+
+        // 1. Keep what current members still validly own
+        boolean[] owned = new boolean[numPartitions];
+        for (String consumerId : consumerIds) {
+            Set<Integer> kept = new TreeSet<>();
+            for (int partition : current.getOrDefault(consumerId, Set.of())) {
+                if (partition < numPartitions && !owned[partition]) {
+                    owned[partition] = true;
+                    kept.add(partition);
+                }
+            }
+            assignment.put(consumerId, kept);
+        }
+
+        // 2. Quotas: the largest current holders get the extra partitions
+        int base = numPartitions / consumerIds.size();
+        int extra = numPartitions % consumerIds.size();
+        List<String> bySize = new ArrayList<>(consumerIds);
+        bySize.sort(Comparator.<String>comparingInt(id -> assignment.get(id).size()).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        Map<String, Integer> quota = new HashMap<>();
+        for (int i = 0; i < bySize.size(); i++) {
+            quota.put(bySize.get(i), base + (i < extra ? 1 : 0));
+        }
+
+        // 3. Consumers over quota give up their highest partitions
+        TreeSet<Integer> unowned = new TreeSet<>();
+        for (int partition = 0; partition < numPartitions; partition++) {
+            if (!owned[partition]) {
+                unowned.add(partition);
+            }
+        }
+        for (String consumerId : consumerIds) {
+            TreeSet<Integer> partitions = (TreeSet<Integer>) assignment.get(consumerId);
+            while (partitions.size() > quota.get(consumerId)) {
+                unowned.add(partitions.pollLast());
+            }
+        }
+
+        // 4. Fill consumers below quota, emptiest first
+        bySize.sort(Comparator.<String>comparingInt(id -> assignment.get(id).size() - quota.get(id))
+                .thenComparing(Comparator.naturalOrder()));
+        Iterator<Integer> pending = unowned.iterator();
+        for (String consumerId : bySize) {
+            Set<Integer> partitions = assignment.get(consumerId);
+            while (partitions.size() < quota.get(consumerId) && pending.hasNext()) {
+                partitions.add(pending.next());
+            }
+        }
+        return assignment;
+    }
+
+    @Override
+    public String getName() {
+        return "Sticky";
+    }
+}
@@ -1,8 +1,14 @@
 package org.lld.practice.design_rate_limiter.improved_solution;
 
 import org.lld.practice.design_rate_limiter.improved_solution.factory.RateLimiterFactory;
+import org.lld.practice.design_rate_limiter.improved_solution.limiter.InMemoryRateLimiter;
+import org.lld.practice.design_rate_limiter.improved_solution.limiter.QuotaChain;
 import org.lld.practice.design_rate_limiter.improved_solution.limiter.RateLimiter;
+import org.lld.practice.design_rate_limiter.improved_solution.models.QuotaChainResult;
+import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitConfig;
 import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitResult;
+import org.lld.practice.design_rate_limiter.improved_solution.models.ShardMetrics;
+import org.lld.practice.design_rate_limiter.improved_solution.strategies.TokenBucketStrategy;
 
 import java.time.Duration;
 
@@ -14,6 +20,8 @@ import java.time.Duration;
  * - Fixed Window algorithm
  * - Sliding Window Counter algorithm
  * - Sliding Window Log algorithm
+ * - Bounded, sharded client registry with idle eviction
+ * - Hierarchical quotas (user -> tenant -> global) and batch decisions
  */
 public class Main {
     
@@ -35,6 +43,12 @@ public class Main {
         // Demo 4: Compare Algorithms
         compareAlgorithms();
         
+        // Demo 5: Client Registry
+        demoClientRegistry();
+        
+        // Demo 6: Hierarchical Quotas and Batches
+        demoQuotaChain();
+        
         // Summary
         printSummary();
     }
@@ -161,9 +175,10 @@ public class Main {
         RateLimiter fixedWindow = RateLimiterFactory.createFixedWindow(5, Duration.ofSeconds(5));
         RateLimiter slidingCounter = RateLimiterFactory.createSlidingWindowCounter(5, Duration.ofSeconds(5));
         RateLimiter slidingLog = RateLimiterFactory.createSlidingWindowLog(5, Duration.ofSeconds(5));
+        RateLimiter slidingBuckets = RateLimiterFactory.createSlidingWindowBuckets(5, Duration.ofSeconds(5), 10);
         
-        RateLimiter[] limiters = {tokenBucket, fixedWindow, slidingCounter, slidingLog};
-        String[] clients = {"client-1", "client-2", "client-3", "client-4"};
+        RateLimiter[] limiters = {tokenBucket, fixedWindow, slidingCounter, slidingLog, slidingBuckets};
+        String[] clients = {"client-1", "client-2", "client-3", "client-4", "client-5"};
         
         System.out.println("Results (8 rapid requests each):");
         System.out.println("─".repeat(60));
@@ -190,6 +205,88 @@ public class Main {
         System.out.println("  - Fixed Window: Allowed exactly 5, blocked rest");
         System.out.println("  - Sliding Counter: Similar to fixed but smoother");
         System.out.println("  - Sliding Log: Most accurate, blocked after 5");
+        System.out.println("  - Sliding Buckets: Same as log here, with fixed memory per client");
+        System.out.println();
+    }
+    
+    private static void demoClientRegistry() throws InterruptedException {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 5: Client Registry (idle eviction, max clients, shards)");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        RateLimitConfig config = RateLimitConfig.builder()
+                .maxRequests(5)
+                .windowSize(Duration.ofMillis(200))
+                .idleTimeout(Duration.ofMillis(300))
+                .maxClients(100)
+                .shards(4)
+                .build();
+        InMemoryRateLimiter limiter = new InMemoryRateLimiter(config, new TokenBucketStrategy());
+        
+        System.out.println("📦 Config: max 100 clients, 4 shards, idle timeout 300ms");
+        System.out.println("\n1. 1,000 rotating client IDs, 3 requests each:");
+        for (int i = 0; i < 1_000; i++) {
+            for (int j = 0; j < 3; j++) {
+                limiter.allow("rotating-" + i);
+            }
+        }
+        System.out.println("   Tracked clients: " + limiter.getClientCount() + " (capped)");
+        
+        System.out.println("\n2. One hot client keeps sending while the rest go quiet...");
+        for (int i = 0; i < 10; i++) {
+            limiter.allow("hot-client");
+            Thread.sleep(50);
+        }
+        System.out.println("   Tracked clients after idle sweep: " + limiter.getClientCount());
+        
+        System.out.println("\n3. Per-shard metrics:");
+        for (ShardMetrics metrics : limiter.getShardMetrics()) {
+            System.out.printf("   shard %d: active=%d, evictions=%d (idle %d, capacity %d), allowed=%d, denied=%d%n",
+                    metrics.getShard(), metrics.getActiveClients(), metrics.getEvictions(),
+                    metrics.getIdleEvictions(), metrics.getCapacityEvictions(),
+                    metrics.getAllowed(), metrics.getDenied());
+        }
+        limiter.shutdown();
+        System.out.println();
+    }
+    
+    private static void demoQuotaChain() {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 6: Hierarchical Quotas and Batch Decisions");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        RateLimiter userLimiter = RateLimiterFactory.createFixedWindow(5, Duration.ofMinutes(1));
+        RateLimiter tenantLimiter = RateLimiterFactory.createFixedWindow(8, Duration.ofMinutes(1));
+        RateLimiter globalLimiter = RateLimiterFactory.createTokenBucket(1_000, 1_000);
+        QuotaChain chain = QuotaChain.builder()
+                .level("user", userLimiter)
+                .level("tenant", tenantLimiter)
+                .level("global", globalLimiter)
+                .build();
+        
+        System.out.println("📦 Config: 5/min per user, 8/min per tenant, 1,000/s global");
+        System.out.println("\n1. alice and bob (tenant acme) send 5 requests each:");
+        for (String user : new String[]{"alice", "bob"}) {
+            for (int i = 1; i <= 5; i++) {
+                QuotaChainResult result = chain.tryAcquireAll(1, user, "acme", "global");
+                System.out.printf("   %s request %d: %s%n", user, i,
+                        result.isAllowed() ? "✅ ALLOWED (remaining " + result.getBindingResult().getRemaining() + ")"
+                                : "❌ DENIED by " + result.getDeniedBy());
+            }
+        }
+        System.out.printf("   bob's own quota after the tenant denials: %d/5 (rolled back)%n",
+                userLimiter.getRemainingQuota("bob"));
+        
+        System.out.println("\n2. One batch of 10 requests (one clock read, lookups per run):");
+        String[] batch = {"u1", "u1", "u1", "u1", "u1", "u1", "u2", "u2", "u3", "u1"};
+        boolean[] decisions = new boolean[batch.length];
+        int allowed = userLimiter.allowBatch(batch, 1, decisions);
+        StringBuilder line = new StringBuilder("  ");
+        for (int i = 0; i < batch.length; i++) {
+            line.append(' ').append(batch[i]).append(decisions[i] ? "✅" : "❌");
+        }
+        System.out.println(line);
+        System.out.printf("   %d of %d allowed (u1 limited to 5)%n", allowed, batch.length);
         System.out.println();
     }
     
@@ -206,6 +303,7 @@ public class Main {
         System.out.println("   Fixed Window    → Simple use cases, OK with boundary spikes");
         System.out.println("   Sliding Counter → High traffic, memory efficient");
         System.out.println("   Sliding Log     → Precision critical, lower traffic");
+        System.out.println("   Sliding Buckets → Log-like precision, high traffic, bounded memory");
         System.out.println();
         System.out.println("📋 HTTP Rate Limit Headers:");
         System.out.println("   X-RateLimit-Limit     → Maximum requests allowed");
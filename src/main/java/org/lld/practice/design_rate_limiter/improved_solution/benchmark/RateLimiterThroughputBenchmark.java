@@ -0,0 +1,204 @@
+package org.lld.practice.design_rate_limiter.improved_solution.benchmark;
+
+import org.lld.practice.design_rate_limiter.improved_solution.factory.RateLimiterFactory;
+import org.lld.practice.design_rate_limiter.improved_solution.limiter.RateLimiter;
+import org.lld.practice.design_rate_limiter.improved_solution.models.ClientBucket;
+import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitAlgorithm;
+import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitConfig;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Multi-threaded throughput of the rate limiter hot path.
+ *
+ * All threads hammer one client (the worst case: every call contends on the
+ * same bucket). Compared:
+ * - the previous synchronized ClientBucket token bucket (reproduced below as the baseline)
+ * - the lock-free ClientBucket token bucket and window counter
+ * - RateLimiter.tryAcquire() (builds a RateLimitResult) vs allow() (primitive)
+ *
+ * Each row also reports how many requests were allowed against the
+ * theoretical maximum, so a race that over-admits shows up immediately.
+ *
+ * Usage:
+ *   java ... RateLimiterThroughputBenchmark [maxThreads] [millisPerRun]
+ */
+public class RateLimiterThroughputBenchmark {
+
+    private static final int RATE_PER_SECOND = 1_000_000;
+    private static final int BURST = 100_000;
+    private static final int ALLOCATION_SAMPLE_OPS = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int millis = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🚦 RATE LIMITER THROUGHPUT BENCHMARK                        ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("One hot client, %,d permits/s, burst %,d, %d ms per run, %d CPUs%n%n",
+                RATE_PER_SECOND, BURST, millis, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-36s %7s %14s %12s %12s%n", "Path", "Threads", "ops/s", "allowed", "max allowed");
+
+        RateLimitConfig tokenConfig = RateLimitConfig.builder()
+                .maxRequests(RATE_PER_SECOND)
+                .windowSize(Duration.ofSeconds(1))
+                .burstCapacity(BURST)
+                .algorithm(RateLimitAlgorithm.TOKEN_BUCKET)
+                .build();
+        RateLimitConfig windowConfig = RateLimitConfig.builder()
+                .maxRequests(BURST)
+                .windowSize(Duration.ofMillis(100))
+                .algorithm(RateLimitAlgorithm.FIXED_WINDOW)
+                .build();
+        // Upper bounds on allowed requests given the measured lifetime of the bucket
+        LongUnaryOperator tokenMax = nanos -> BURST + RATE_PER_SECOND * nanos / 1_000_000_000L;
+        LongUnaryOperator windowMax = nanos -> BURST * (nanos / 100_000_000L + 1);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run("synchronized token bucket (before)", threads, millis, tokenMax,
+                    () -> new SynchronizedTokenBucket(tokenConfig)::tryAcquireTokens);
+            run("CAS token bucket", threads, millis, tokenMax,
+                    () -> new ClientBucket("hot", tokenConfig)::tryAcquireTokens);
+            run("CAS fixed window", threads, millis, windowMax,
+                    () -> new ClientBucket("hot", windowConfig)::tryAcquireFixedWindow);
+            run("RateLimiter.tryAcquire (result)", threads, millis, tokenMax, () -> {
+                RateLimiter limiter = RateLimiterFactory.create(tokenConfig);
+                return permits -> limiter.tryAcquire("hot", permits).isAllowed();
+            });
+            run("RateLimiter.allow (primitive)", threads, millis, tokenMax, () -> {
+                RateLimiter limiter = RateLimiterFactory.create(tokenConfig);
+                return permits -> limiter.allow("hot", permits);
+            });
+            System.out.println();
+        }
+
+        reportAllocation(tokenConfig);
+    }
+
+    /**
+     * @param maxAllowed  bound on allowed requests for a bucket that lived the given nanoseconds
+     * @param limiterFactory creates the limiter under test; timed from creation
+     */
+    private static void run(String name,
+                            int threads,
+                            int millis,
+                            LongUnaryOperator maxAllowed,
+                            Supplier<IntPredicate> limiterFactory) throws InterruptedException {
+        long created = System.nanoTime();
+        IntPredicate acquire = limiterFactory.get();
+        LongAdder ops = new LongAdder();
+        LongAdder allowed = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                long localOps = 0;
+                long localAllowed = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (!stop.get()) {
+                    if (acquire.test(1)) {
+                        localAllowed++;
+                    }
+                    localOps++;
+                }
+                ops.add(localOps);
+                allowed.add(localAllowed);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long lifetime = System.nanoTime() - created;
+
+        System.out.printf("%-36s %7d %,14.0f %,12d %,12d%n",
+                name, threads, ops.sum() * 1000.0 / millis, allowed.sum(), maxAllowed.applyAsLong(lifetime));
+    }
+
+    /**
+     * Bytes allocated per call, single thread, after warmup.
+     */
+    private static void reportAllocation(RateLimitConfig config) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        RateLimiter limiter = RateLimiterFactory.create(config);
+
+        System.out.println("Allocation per call (single thread):");
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;  // first round is JIT warmup
+
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < ALLOCATION_SAMPLE_OPS; i++) {
+                limiter.tryAcquire("hot", 1);
+            }
+            long resultBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+            before = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < ALLOCATION_SAMPLE_OPS; i++) {
+                limiter.allow("hot", 1);
+            }
+            long primitiveBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+            if (report) {
+                System.out.printf("   tryAcquire(): %8.1f bytes/op%n", resultBytes / (double) ALLOCATION_SAMPLE_OPS);
+                System.out.printf("   allow():      %8.1f bytes/op%n", primitiveBytes / (double) ALLOCATION_SAMPLE_OPS);
+            }
+        }
+    }
+
+    /**
+     * The token bucket as ClientBucket implemented it before the CAS rewrite:
+     * a double token count and a refill timestamp guarded by the monitor.
+     */
+    private static class SynchronizedTokenBucket {
+        private final RateLimitConfig config;
+        private final AtomicLong lastRefillTimeNanos = new AtomicLong(System.nanoTime());
+        private volatile double tokens;
+
+        SynchronizedTokenBucket(RateLimitConfig config) {
+            this.config = config;
+            this.tokens = config.getBurstCapacity();
+        }
+
+        synchronized boolean tryAcquireTokens(int permits) {
+            refillTokens();
+            if (tokens >= permits) {
+                tokens -= permits;
+                return true;
+            }
+            return false;
+        }
+
+        private void refillTokens() {
+            long now = System.nanoTime();
+            long lastRefill = lastRefillTimeNanos.get();
+            double elapsedSeconds = (now - lastRefill) / 1_000_000_000.0;
+            tokens = Math.min(config.getBurstCapacity(), tokens + elapsedSeconds * config.getRefillRate());
+            lastRefillTimeNanos.set(now);
+        }
+    }
+}
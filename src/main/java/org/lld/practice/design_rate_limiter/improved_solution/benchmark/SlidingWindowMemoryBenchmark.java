@@ -0,0 +1,183 @@
+package org.lld.practice.design_rate_limiter.improved_solution.benchmark;
+
+import org.lld.practice.design_rate_limiter.improved_solution.models.ClientBucket;
+import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitAlgorithm;
+import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitConfig;
+import org.lld.practice.design_rate_limiter.improved_solution.models.SubWindowRing;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sliding window log vs sliding window buckets: memory per client and accuracy.
+ *
+ * Memory: fills clients to their limit (10k requests / minute) with each
+ * algorithm and measures retained heap per client after a full GC. The
+ * bucket variants use 50x more clients so their small state is measurable.
+ *
+ * Accuracy: replays the same bursty arrival trace on a simulated clock
+ * through an exact timestamp log and through SubWindowRing at several
+ * sub-window counts. Reports admitted requests relative to the exact log,
+ * and checks that no trailing window ever admits more than the limit.
+ *
+ * Usage:
+ *   java ... SlidingWindowMemoryBenchmark [clients]
+ */
+public class SlidingWindowMemoryBenchmark {
+
+    private static final int LIMIT = 10_000;
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+    private static final int PROJECTED_CLIENTS = 500_000;
+    private static final int SIMULATED_WINDOWS = 20;
+    private static final int FIXED_STATE_CLIENT_MULTIPLIER = 50;  // small states need more samples
+    private static final long SEED = 11;
+
+    public static void main(String[] args) throws InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     📏 SLIDING WINDOW LOG vs BUCKETS: MEMORY & ACCURACY        ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+
+        System.out.printf("Memory: clients at their limit (%,d requests / %s), including client id%n",
+                LIMIT, WINDOW);
+        System.out.printf("%-28s %16s %22s%n", "Algorithm", "bytes/client", "projected @500k clients");
+        measureMemory("Sliding window log", RateLimitAlgorithm.SLIDING_WINDOW_LOG, 60, clients);
+        for (int subWindows : new int[]{6, 60, 600}) {
+            measureMemory("Buckets (N=" + subWindows + ")", RateLimitAlgorithm.SLIDING_WINDOW_BUCKETS,
+                    subWindows, clients * FIXED_STATE_CLIENT_MULTIPLIER);
+        }
+
+        System.out.printf("%nAccuracy: %d simulated windows, bursty arrivals averaging 1.5x the limit%n",
+                SIMULATED_WINDOWS);
+        System.out.printf("%-28s %12s %12s %16s%n", "Algorithm", "admitted", "vs exact", "max in a window");
+        long[] trace = burstyTrace();
+        int exactAdmitted = replayExact(trace);
+        for (int subWindows : new int[]{6, 60, 600}) {
+            replayRing(trace, subWindows, exactAdmitted);
+        }
+    }
+
+    private static void measureMemory(String name, RateLimitAlgorithm algorithm, int subWindows, int clients)
+            throws InterruptedException {
+        RateLimitConfig config = RateLimitConfig.builder()
+                .maxRequests(LIMIT)
+                .windowSize(WINDOW)
+                .algorithm(algorithm)
+                .subWindows(subWindows)
+                .build();
+
+        long before = usedHeapAfterGc();
+        List<ClientBucket> buckets = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            ClientBucket bucket = new ClientBucket("client-" + c, config);
+            for (int i = 0; i < LIMIT; i++) {
+                if (algorithm == RateLimitAlgorithm.SLIDING_WINDOW_LOG) {
+                    bucket.tryAcquireSlidingWindowLog(1);
+                } else {
+                    bucket.tryAcquireSlidingWindowBuckets(1);
+                }
+            }
+            buckets.add(bucket);
+        }
+        long perClient = (usedHeapAfterGc() - before) / clients;
+
+        System.out.printf("%-28s %,16d %,19d MB   (%,d clients)%n",
+                name, perClient, perClient * PROJECTED_CLIENTS >> 20, clients);
+        buckets.clear();
+    }
+
+    /**
+     * Reference: one timestamp per admitted request, same rule as
+     * ClientBucket.tryAcquireSlidingWindowLog() but on the simulated clock.
+     *
+     * @return number of admitted requests
+     */
+    private static int replayExact(long[] trace) {
+        long windowNanos = WINDOW.toNanos();
+        Deque<Long> log = new ArrayDeque<>();
+        List<Long> admitted = new ArrayList<>();
+        for (long time : trace) {
+            while (!log.isEmpty() && log.peekFirst() < time - windowNanos) {
+                log.pollFirst();
+            }
+            if (log.size() < LIMIT) {
+                log.addLast(time);
+                admitted.add(time);
+            }
+        }
+        System.out.printf("%-28s %,12d %11.2f%% %,16d%n", "Exact log", admitted.size(), 100.0,
+                maxInAnyWindow(admitted, windowNanos));
+        return admitted.size();
+    }
+
+    private static void replayRing(long[] trace, int subWindows, int exactAdmitted) {
+        long windowNanos = WINDOW.toNanos();
+        SubWindowRing ring = new SubWindowRing(LIMIT, windowNanos, subWindows);
+        long base = System.nanoTime();  // simulated time starts after the ring's origin
+        List<Long> admitted = new ArrayList<>();
+        for (long time : trace) {
+            if (ring.tryAcquire(1, base + time)) {
+                admitted.add(time);
+            }
+        }
+        System.out.printf("%-28s %,12d %11.2f%% %,16d%n", "Buckets (N=" + subWindows + ")",
+                admitted.size(), 100.0 * admitted.size() / exactAdmitted, maxInAnyWindow(admitted, windowNanos));
+    }
+
+    /**
+     * Largest number of admitted requests in any window [t - W, t] (two-pointer sweep).
+     */
+    private static int maxInAnyWindow(List<Long> admitted, long windowNanos) {
+        int max = 0;
+        int start = 0;
+        for (int end = 0; end < admitted.size(); end++) {
+            while (admitted.get(start) < admitted.get(end) - windowNanos) {
+                start++;
+            }
+            max = Math.max(max, end - start + 1);
+        }
+        return max;
+    }
+
+    /**
+     * Arrival times (nanoseconds from 0): alternating quiet and burst phases of
+     * random length, 1.5x the limit on average, so the limiter is regularly
+     * saturated and then drains.
+     */
+    private static long[] burstyTrace() {
+        Random random = new Random(SEED);
+        long windowNanos = WINDOW.toNanos();
+        long end = windowNanos * SIMULATED_WINDOWS;
+        double meanGap = windowNanos / (LIMIT * 1.5);
+
+        List<Long> times = new ArrayList<>();
+        long time = 0;
+        boolean burst = false;
+        long phaseEnd = 0;
+        while (time < end) {
+            if (time >= phaseEnd) {
+                burst = !burst;
+                phaseEnd = time + (long) (random.nextDouble() * windowNanos);
+            }
+            // Bursts arrive 4x faster than average, quiet phases 4x slower
+            double gap = burst ? meanGap / 4 : meanGap * 4;
+            time += (long) (-Math.log(1 - random.nextDouble()) * gap) + 1;
+            times.add(time);
+        }
+        return times.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
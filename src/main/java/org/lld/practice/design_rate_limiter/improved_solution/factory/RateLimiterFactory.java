@@ -86,6 +86,24 @@ public class RateLimiterFactory {
         return create(config);
     }
 
+    /**
+     * Create a Sliding Window Buckets rate limiter: sliding-log behaviour
+     * with a fixed per-client footprint.
+     * 
+     * @param maxRequests Maximum requests per window
+     * @param windowSize Size of the time window
+     * @param subWindows Sub-windows per window (accuracy vs memory)
+     */
+    public static RateLimiter createSlidingWindowBuckets(int maxRequests, Duration windowSize, int subWindows) {
+        RateLimitConfig config = RateLimitConfig.builder()
+                .maxRequests(maxRequests)
+                .windowSize(windowSize)
+                .algorithm(RateLimitAlgorithm.SLIDING_WINDOW_BUCKETS)
+                .subWindows(subWindows)
+                .build();
+        return create(config);
+    }
+
     /**
      * Create the appropriate strategy for an algorithm.
      */
@@ -95,6 +113,7 @@ public class RateLimiterFactory {
             case FIXED_WINDOW -> new FixedWindowStrategy();
             case SLIDING_WINDOW_COUNTER -> new SlidingWindowCounterStrategy();
             case SLIDING_WINDOW_LOG -> new SlidingWindowLogStrategy();
+            case SLIDING_WINDOW_BUCKETS -> new SlidingWindowBucketsStrategy();
         };
     }
 }
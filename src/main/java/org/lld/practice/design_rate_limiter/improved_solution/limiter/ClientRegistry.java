@@ -0,0 +1,320 @@
+package org.lld.practice.design_rate_limiter.improved_solution.limiter;
+
+import org.lld.practice.design_rate_limiter.improved_solution.models.ClientBucket;
+import org.lld.practice.design_rate_limiter.improved_solution.models.ShardMetrics;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Sharded, bounded registry of per-client buckets.
+ *
+ * Clients are spread over a power-of-two number of shards, each with its own
+ * map and counters, so metrics can be read per shard and capacity
+ * eviction only locks one shard.
+ *
+ * Idle tracking uses a CLOCK-style reference bit per client: a request only
+ * sets the bit (one volatile read, a write only if it was clear - no clock
+ * read on the hot path). The sweeper clears bits; a client whose bit stays
+ * clear for the idle timeout is evicted.
+ *
+ * - Idle eviction: a sweep runs every idleTimeout / 4, so clients are
+ *   removed between 1 and 1.25 idle timeouts after their last request.
+ *   Sweeps run on one daemon thread shared by every registry, scheduled
+ *   when the first client arrives. The scheduled task only holds the
+ *   registry weakly and cancels itself once the registry is unreachable,
+ *   so a registry that is dropped without shutdown() is still collected.
+ *   Keep the idle timeout at least as long as the rate limit window: by
+ *   then an evicted bucket would have fully refilled anyway, so eviction
+ *   never hands a client extra quota.
+ * - Capacity eviction: when a shard exceeds its share of maxClients, the
+ *   shard's CLOCK hand sweeps its entries, giving recently used clients a
+ *   second chance and evicting the first one that is not.
+ *
+ * @see ShardMetrics
+ */
+public class ClientRegistry {
+
+    private static final int MAX_SHARDS = 1 << 16;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int shardShift;
+    private final int maxClientsPerShard;
+    private final long idleTimeoutNanos;   // 0 means clients never expire
+    private final Function<String, ClientBucket> bucketFactory;
+    private volatile ScheduledFuture<?> sweep;   // null until the first client arrives
+    private boolean shutdown;                    // guarded by this
+
+    /**
+     * @param shardCount  rounded down to a power of two
+     * @param maxClients  upper bound on tracked clients (split evenly across shards)
+     * @param idleTimeout evict clients idle this long; null to keep them until removed
+     */
+    public ClientRegistry(int shardCount,
+                          int maxClients,
+                          Duration idleTimeout,
+                          Function<String, ClientBucket> bucketFactory) {
+        if (shardCount <= 0 || maxClients <= 0) {
+            throw new IllegalArgumentException("Shard count and max clients must be positive");
+        }
+        int count = Integer.highestOneBit(Math.min(Math.min(shardCount, maxClients), MAX_SHARDS));
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = count - 1;
+        this.shardShift = Integer.numberOfLeadingZeros(shardMask);
+        this.maxClientsPerShard = (int) (((long) maxClients + count - 1) / count);
+        this.bucketFactory = bucketFactory;
+        this.idleTimeoutNanos = idleTimeout != null ? idleTimeout.toNanos() : 0;
+    }
+
+    /**
+     * Look up a client's bucket, creating it if needed, and mark the client as active.
+     */
+    public ClientBucket getOrCreate(String clientId) {
+        Shard shard = shardFor(clientId);
+        Entry entry = shard.clients.get(clientId);
+        if (entry == null) {
+            entry = shard.clients.computeIfAbsent(clientId,
+                    id -> new Entry(bucketFactory.apply(id), System.nanoTime()));
+            if (shard.clients.size() > maxClientsPerShard) {
+                shard.evictForCapacity(entry);
+            }
+            if (sweep == null && idleTimeoutNanos > 0) {
+                startSweeper();
+            }
+        }
+        entry.markUsed();
+        return entry.bucket;
+    }
+
+    /**
+     * Look up a client's bucket without creating it or marking it active.
+     *
+     * @return the bucket, or null if the client is not tracked
+     */
+    public ClientBucket get(String clientId) {
+        Entry entry = shardFor(clientId).clients.get(clientId);
+        return entry != null ? entry.bucket : null;
+    }
+
+    /**
+     * Count an allow/deny decision towards the client's shard.
+     */
+    public void recordDecision(String clientId, boolean allowed) {
+        Shard shard = shardFor(clientId);
+        if (allowed) {
+            shard.allowed.increment();
+        } else {
+            shard.denied.increment();
+        }
+    }
+
+    /**
+     * Count several decisions for one client at once (batched requests).
+     */
+    public void recordDecisions(String clientId, int allowed, int denied) {
+        Shard shard = shardFor(clientId);
+        if (allowed > 0) {
+            shard.allowed.add(allowed);
+        }
+        if (denied > 0) {
+            shard.denied.add(denied);
+        }
+    }
+
+    public void remove(String clientId) {
+        shardFor(clientId).clients.remove(clientId);
+    }
+
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.clients.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.clients.size();
+        }
+        return size;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * One sweeper pass: clear reference bits, evict clients idle for the timeout.
+     * Runs on the sweeper thread; callable directly to sweep on demand.
+     *
+     * @return number of clients evicted
+     */
+    public int evictIdleClients() {
+        if (idleTimeoutNanos == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Shard shard : shards) {
+            for (Map.Entry<String, Entry> mapping : shard.clients.entrySet()) {
+                Entry entry = mapping.getValue();
+                if (entry.used) {
+                    entry.used = false;
+                    entry.idleSinceNanos = now;
+                } else if (now - entry.idleSinceNanos >= idleTimeoutNanos
+                        && shard.clients.remove(mapping.getKey(), entry)) {
+                    shard.idleEvictions.increment();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public List<ShardMetrics> getShardMetrics() {
+        List<ShardMetrics> metrics = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            metrics.add(new ShardMetrics(i, shard.clients.size(), shard.idleEvictions.sum(),
+                    shard.capacityEvictions.sum(), shard.allowed.sum(), shard.denied.sum()));
+        }
+        return metrics;
+    }
+
+    /**
+     * Stop sweeping this registry. Tracked clients are kept, and
+     * evictIdleClients() can still be called directly.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (sweep != null) {
+            sweep.cancel(false);
+        }
+    }
+
+    private synchronized void startSweeper() {
+        if (sweep == null && !shutdown) {
+            long interval = Math.max(1, idleTimeoutNanos / 4);
+            Sweep task = new Sweep(this);
+            sweep = Sweeper.EXECUTOR.scheduleAtFixedRate(task, interval, interval, TimeUnit.NANOSECONDS);
+            task.future = sweep;
+        }
+    }
+
+    /**
+     * Shards are chosen by the top bits of a mixed hash: ConcurrentHashMap
+     * indexes its bins by the low bits, which must stay varied within a shard.
+     */
+    private Shard shardFor(String clientId) {
+        int hash = clientId.hashCode() * 0x9E3779B9;
+        return shards[(hash >>> shardShift) & shardMask];
+    }
+
+    /**
+     * The shared sweeper thread, created on first use.
+     */
+    private static final class Sweeper {
+        static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Periodic sweep of one registry, which it does not keep alive.
+     */
+    private static final class Sweep implements Runnable {
+        private final WeakReference<ClientRegistry> registry;
+        volatile ScheduledFuture<?> future;
+
+        Sweep(ClientRegistry registry) {
+            this.registry = new WeakReference<>(registry);
+        }
+
+        @Override
+        public void run() {
+            ClientRegistry target = registry.get();
+            if (target != null) {
+                target.evictIdleClients();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Registry entry: the bucket plus CLOCK idle-tracking state.
+     */
+    private static class Entry {
+        final ClientBucket bucket;
+        volatile boolean used = true;   // reference bit: set on access, cleared by sweeps
+        volatile long idleSinceNanos;   // when the bit was last found set (written by sweeps)
+
+        Entry(ClientBucket bucket, long createdNanos) {
+            this.bucket = bucket;
+            this.idleSinceNanos = createdNanos;
+        }
+
+        void markUsed() {
+            // Read first: avoids dirtying the cache line on every request
+            if (!used) {
+                used = true;
+            }
+        }
+    }
+
+    private class Shard {
+        final Map<String, Entry> clients = new ConcurrentHashMap<>();
+        final LongAdder allowed = new LongAdder();
+        final LongAdder denied = new LongAdder();
+        final LongAdder idleEvictions = new LongAdder();
+        final LongAdder capacityEvictions = new LongAdder();
+        private Iterator<Map.Entry<String, Entry>> clockHand;
+
+        /**
+         * Evict clients until the shard is back within its share of maxClients.
+         * The CLOCK hand persists across calls, so successive evictions walk
+         * the whole shard instead of always sampling the same entries.
+         *
+         * @param protectedEntry the entry just inserted, never chosen
+         */
+        synchronized void evictForCapacity(Entry protectedEntry) {
+            // Two full rounds always find a victim: the first clears every bit
+            int budget = 2 * clients.size() + 1;
+            while (clients.size() > maxClientsPerShard && budget-- > 0) {
+                if (clockHand == null || !clockHand.hasNext()) {
+                    clockHand = clients.entrySet().iterator();
+                    if (!clockHand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, Entry> candidate = clockHand.next();
+                Entry entry = candidate.getValue();
+                if (entry == protectedEntry) {
+                    continue;
+                }
+                if (entry.used) {
+                    entry.used = false;
+                } else if (clients.remove(candidate.getKey(), entry)) {
+                    capacityEvictions.increment();
+                }
+            }
+        }
+    }
+}
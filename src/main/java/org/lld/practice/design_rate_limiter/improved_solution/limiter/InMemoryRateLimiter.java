@@ -3,26 +3,31 @@ package org.lld.practice.design_rate_limiter.improved_solution.limiter;
 import org.lld.practice.design_rate_limiter.improved_solution.models.ClientBucket;
 import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitConfig;
 import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitResult;
+import org.lld.practice.design_rate_limiter.improved_solution.models.ShardMetrics;
 import org.lld.practice.design_rate_limiter.improved_solution.strategies.RateLimitStrategy;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 
 /**
  * In-memory rate limiter implementation.
  * 
  * Uses a pluggable strategy for different rate limiting algorithms.
- * Maintains per-client buckets for tracking rate limits.
+ * Maintains per-client buckets for tracking rate limits in a sharded
+ * ClientRegistry, which evicts idle clients and enforces maxClients.
+ * The strategy must match config.getAlgorithm(): buckets only hold state
+ * for the configured algorithm (RateLimiterFactory pairs them).
  */
 public class InMemoryRateLimiter implements RateLimiter {
     
     private final RateLimitConfig config;
     private final RateLimitStrategy strategy;
-    private final Map<String, ClientBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final ClientRegistry registry;
 
     public InMemoryRateLimiter(RateLimitConfig config, RateLimitStrategy strategy) {
         this.config = config;
         this.strategy = strategy;
+        this.registry = new ClientRegistry(config.getShards(), config.getMaxClients(),
+                config.getIdleTimeout(), id -> new ClientBucket(id, config));
     }
 
     @Override
@@ -32,13 +37,68 @@ public class InMemoryRateLimiter implements RateLimiter {
 
     @Override
     public RateLimitResult tryAcquire(String clientId, int permits) {
-        ClientBucket bucket = getOrCreateBucket(clientId);
-        return strategy.tryAcquire(bucket, permits);
+        ClientBucket bucket = registry.getOrCreate(clientId);
+        RateLimitResult result = strategy.tryAcquire(bucket, permits);
+        registry.recordDecision(clientId, result.isAllowed());
+        return result;
+    }
+
+    @Override
+    public boolean allow(String clientId) {
+        return allow(clientId, 1);
+    }
+
+    @Override
+    public boolean allow(String clientId, int permits) {
+        boolean allowed = strategy.allow(registry.getOrCreate(clientId), permits);
+        registry.recordDecision(clientId, allowed);
+        return allowed;
+    }
+
+    @Override
+    public int allowBatch(String[] clientIds, int permits, boolean[] results) {
+        if (results.length < clientIds.length) {
+            throw new IllegalArgumentException("Results array shorter than the batch");
+        }
+        long now = System.nanoTime();
+        int allowedTotal = 0;
+        int runStart = 0;
+        while (runStart < clientIds.length) {
+            String clientId = clientIds[runStart];
+            ClientBucket bucket = registry.getOrCreate(clientId);
+            int runEnd = runStart;
+            int allowed = 0;
+            // Consecutive requests from the same client share the lookup and the metrics update
+            do {
+                boolean decision = strategy.allow(bucket, permits, now);
+                results[runEnd++] = decision;
+                if (decision) {
+                    allowed++;
+                }
+            } while (runEnd < clientIds.length && clientId.equals(clientIds[runEnd]));
+            registry.recordDecisions(clientId, allowed, runEnd - runStart - allowed);
+            allowedTotal += allowed;
+            runStart = runEnd;
+        }
+        return allowedTotal;
+    }
+
+    /**
+     * Returned permits are not subtracted from the shard's allowed count:
+     * metrics count this limiter's decisions, not completed requests.
+     * A client evicted since the acquire has nothing to give back.
+     */
+    @Override
+    public void release(String clientId, int permits, long acquiredAtNanos) {
+        ClientBucket bucket = registry.get(clientId);
+        if (bucket != null) {
+            strategy.release(bucket, permits, acquiredAtNanos);
+        }
     }
 
     @Override
     public int getRemainingQuota(String clientId) {
-        ClientBucket bucket = clientBuckets.get(clientId);
+        ClientBucket bucket = registry.get(clientId);
         if (bucket == null) {
             return config.getMaxRequests();
         }
@@ -49,6 +109,7 @@ public class InMemoryRateLimiter implements RateLimiter {
             case FIXED_WINDOW -> bucket.getFixedWindowRemaining();
             case SLIDING_WINDOW_COUNTER -> bucket.getSlidingWindowCounterRemaining();
             case SLIDING_WINDOW_LOG -> bucket.getSlidingWindowLogRemaining();
+            case SLIDING_WINDOW_BUCKETS -> bucket.getSlidingWindowBucketsRemaining();
         };
     }
 
@@ -57,33 +118,48 @@ public class InMemoryRateLimiter implements RateLimiter {
         return strategy.getName();
     }
 
-    /**
-     * Get or create a bucket for a client.
-     */
-    private ClientBucket getOrCreateBucket(String clientId) {
-        return clientBuckets.computeIfAbsent(clientId, 
-                id -> new ClientBucket(id, config));
-    }
-
     /**
      * Remove a client's bucket (for cleanup).
      */
     public void removeClient(String clientId) {
-        clientBuckets.remove(clientId);
+        registry.remove(clientId);
     }
 
     /**
      * Clear all client buckets.
      */
     public void clear() {
-        clientBuckets.clear();
+        registry.clear();
     }
 
     /**
      * Get number of tracked clients.
      */
     public int getClientCount() {
-        return clientBuckets.size();
+        return registry.size();
+    }
+
+    /**
+     * Per-shard active clients, evictions and allow/deny counts.
+     */
+    public List<ShardMetrics> getShardMetrics() {
+        return registry.getShardMetrics();
+    }
+
+    /**
+     * Evict idle clients now instead of waiting for the sweeper.
+     *
+     * @return number of clients evicted
+     */
+    public int evictIdleClients() {
+        return registry.evictIdleClients();
+    }
+
+    /**
+     * Stop the background idle sweeper.
+     */
+    public void shutdown() {
+        registry.shutdown();
     }
 }
 
@@ -0,0 +1,129 @@
+package org.lld.practice.design_rate_limiter.improved_solution.limiter;
+
+import org.lld.practice.design_rate_limiter.improved_solution.models.QuotaChainResult;
+import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical quotas: a request must pass every level of a chain of limits,
+ * e.g. per-user, then per-tenant, then global.
+ *
+ * Levels are acquired in order. If a level denies, the permits already taken
+ * from the earlier levels are released (in reverse order), so a request
+ * denied by its tenant does not use up its user's quota. The outcome is
+ * all-or-nothing; the levels are not locked together, so while a request is
+ * being rolled back a concurrent request may briefly see the earlier levels
+ * as used and be denied. Permits are only given back to the window they were
+ * taken from: if a level's window rolled over during the chain, its
+ * permits have already been released by the rollover.
+ *
+ * Put the most selective level first: it denies most often and is the
+ * cheapest to roll back.
+ *
+ * <pre>
+ *   QuotaChain chain = QuotaChain.builder()
+ *           .level("user", userLimiter)
+ *           .level("tenant", tenantLimiter)
+ *           .level("global", globalLimiter)
+ *           .build();
+ *   chain.tryAcquireAll(1, userId, tenantId, "global");
+ * </pre>
+ */
+public class QuotaChain {
+
+    private final String[] names;
+    private final RateLimiter[] limiters;
+
+    private QuotaChain(Builder builder) {
+        this.names = builder.names.toArray(new String[0]);
+        this.limiters = builder.limiters.toArray(new RateLimiter[0]);
+    }
+
+    /**
+     * Acquire permits at every level, or at none.
+     *
+     * @param clientIds the client ID to charge at each level, in level order
+     * @return every evaluated level's result and the level that denied, if any
+     */
+    public QuotaChainResult tryAcquireAll(int permits, String... clientIds) {
+        checkLevels(clientIds);
+        List<String> evaluated = new ArrayList<>(limiters.length);
+        List<RateLimitResult> results = new ArrayList<>(limiters.length);
+        long acquiredAt = System.nanoTime();
+        for (int level = 0; level < limiters.length; level++) {
+            RateLimitResult result = limiters[level].tryAcquire(clientIds[level], permits);
+            evaluated.add(names[level]);
+            results.add(result);
+            if (!result.isAllowed()) {
+                rollback(level, permits, clientIds, acquiredAt);
+                return new QuotaChainResult(false, names[level], evaluated, results);
+            }
+        }
+        return new QuotaChainResult(true, null, evaluated, results);
+    }
+
+    /**
+     * Hot-path variant of tryAcquireAll(): same decision, no result objects.
+     */
+    public boolean allowAll(int permits, String... clientIds) {
+        checkLevels(clientIds);
+        long acquiredAt = System.nanoTime();
+        for (int level = 0; level < limiters.length; level++) {
+            if (!limiters[level].allow(clientIds[level], permits)) {
+                rollback(level, permits, clientIds, acquiredAt);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getLevelCount() {
+        return limiters.length;
+    }
+
+    /**
+     * Release the levels before the denying one, innermost first.
+     */
+    private void rollback(int deniedLevel, int permits, String[] clientIds, long acquiredAt) {
+        for (int level = deniedLevel - 1; level >= 0; level--) {
+            limiters[level].release(clientIds[level], permits, acquiredAt);
+        }
+    }
+
+    private void checkLevels(String[] clientIds) {
+        if (clientIds.length != limiters.length) {
+            throw new IllegalArgumentException("Expected " + limiters.length
+                    + " client IDs (one per level), got " + clientIds.length);
+        }
+    }
+
+    public static class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<RateLimiter> limiters = new ArrayList<>();
+
+        /**
+         * Add the next level; levels are evaluated in the order they are added.
+         */
+        public Builder level(String name, RateLimiter limiter) {
+            if (name == null || limiter == null) {
+                throw new IllegalArgumentException("Level name and limiter are required");
+            }
+            names.add(name);
+            limiters.add(limiter);
+            return this;
+        }
+
+        public QuotaChain build() {
+            if (limiters.isEmpty()) {
+                throw new IllegalArgumentException("A quota chain needs at least one level");
+            }
+            return new QuotaChain(this);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+}
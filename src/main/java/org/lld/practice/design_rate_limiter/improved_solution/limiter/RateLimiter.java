@@ -24,6 +24,39 @@ public interface RateLimiter {
      */
     RateLimitResult tryAcquire(String clientId, int permits);
     
+    /**
+     * Hot-path variant of tryAcquire(): same decision, but returns only
+     * allowed/denied and builds no result object.
+     */
+    boolean allow(String clientId);
+    
+    /**
+     * Hot-path variant of tryAcquire(clientId, permits).
+     */
+    boolean allow(String clientId, int permits);
+    
+    /**
+     * Decide a batch of requests in one call: one clock read for the whole
+     * batch, and one bucket lookup per run of consecutive equal client IDs.
+     * 
+     * @param clientIds Client of each request (repeats allowed)
+     * @param permits Permits per request
+     * @param results Filled with each request's decision; at least as long as clientIds
+     * @return Number of allowed requests
+     */
+    int allowBatch(String[] clientIds, int permits, boolean[] results);
+    
+    /**
+     * Return permits from an allowed request that was not carried out,
+     * e.g. because a later limit in a QuotaChain denied it.
+     * 
+     * @param clientId Identifier for the client
+     * @param permits Number of permits to give back
+     * @param acquiredAtNanos System.nanoTime() read before the acquire, so the
+     *        permits go back to the window they were taken from (or nowhere)
+     */
+    void release(String clientId, int permits, long acquiredAtNanos);
+    
     /**
      * Get remaining quota for a client.
      */
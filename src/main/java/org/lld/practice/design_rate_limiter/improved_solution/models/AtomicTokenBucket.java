@@ -0,0 +1,94 @@
+package org.lld.practice.design_rate_limiter.improved_solution.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket whose whole state is a single long.
+ *
+ * Instead of (tokens, lastRefillTime) the bucket stores one timestamp:
+ * the System.nanoTime() at which it will be full again ("fullAt"). With
+ * T = nanos per token and B = capacity:
+ *
+ * <pre>
+ *   tokens(now)  = B - max(0, fullAt - now) / T
+ *   acquire(p):    fullAt' = max(fullAt, now) + p * T
+ *                  allowed iff fullAt' - now <= B * T
+ * </pre>
+ *
+ * Refill is implicit in the passage of time, so an acquire is one read and
+ * one compareAndSet - no lock, no floating point, no allocation. This is the
+ * same math as GCRA (generic cell rate algorithm). Under contention a failed
+ * CAS just recomputes against the fresh value.
+ */
+public class AtomicTokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;   // B * T: how far fullAt may run ahead of now
+    private final int capacity;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity      maximum tokens (burst size); the bucket starts full
+     * @param tokensPerWindow tokens added per window
+     * @param windowNanos   window length in nanoseconds
+     */
+    public AtomicTokenBucket(int capacity, int tokensPerWindow, long windowNanos) {
+        if (capacity <= 0 || tokensPerWindow <= 0 || windowNanos <= 0) {
+            throw new IllegalArgumentException("Capacity, rate and window must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, windowNanos / tokensPerWindow);
+        this.capacityNanos = Math.multiplyExact(capacity, nanosPerToken);
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire(int permits) {
+        return tryAcquire(permits, System.nanoTime());
+    }
+
+    /**
+     * @param nowNanos System.nanoTime() reading, so callers can share one clock read
+     */
+    public boolean tryAcquire(int permits, long nowNanos) {
+        long cost = permits * nanosPerToken;
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long next = base + cost;
+            if (next - nowNanos > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back permits from an acquire that was not used (e.g. rolled back).
+     * The bucket never exceeds its capacity: tokens are capped on read.
+     */
+    public void release(int permits) {
+        fullAt.addAndGet(-permits * nanosPerToken);
+    }
+
+    /**
+     * Tokens available now, including fractional refill progress.
+     */
+    public double getAvailableTokens() {
+        long debtNanos = Math.max(0, fullAt.get() - System.nanoTime());
+        return Math.max(0, (capacityNanos - debtNanos) / (double) nanosPerToken);
+    }
+
+    /**
+     * Nanoseconds until the given number of permits will be available (0 if now).
+     */
+    public long nanosUntilAvailable(int permits) {
+        long availableAt = fullAt.get() - (long) (capacity - permits) * nanosPerToken;
+        return Math.max(0, availableAt - System.nanoTime());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
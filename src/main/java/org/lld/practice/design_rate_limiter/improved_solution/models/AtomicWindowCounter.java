@@ -0,0 +1,203 @@
+package org.lld.practice.design_rate_limiter.improved_solution.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free fixed-window / sliding-window-counter state packed into one long.
+ *
+ * <pre>
+ *   63          40 39            20 19             0
+ *   [window index ][current count  ][previous count ]
+ *      24 bits         20 bits          20 bits
+ * </pre>
+ *
+ * Windows are aligned to the counter's creation time. Every acquire reads the
+ * state once, rolls it forward to the current window if needed (current
+ * becomes previous, or both reset after a gap of two or more windows),
+ * checks the limit and publishes the result with a single compareAndSet.
+ * Rollover and increment are therefore one atomic step, so two threads
+ * crossing a window boundary together cannot both reset the counter or
+ * lose each other's increments.
+ *
+ * The window index is kept modulo 2^24 and only compared as a difference,
+ * so it never overflows - but it does wrap. A counter left untouched for an
+ * exact multiple of 2^24 windows (194 days with 1-second windows), or one
+ * window more, reads its old counts as current (or previous) until they
+ * roll out; any other gap of two or more windows clears them. Counts are
+ * limited to 2^20 - 1 per window, which RateLimitConfig enforces for the
+ * algorithms that use this class.
+ */
+public class AtomicWindowCounter {
+
+    public static final int MAX_COUNT = (1 << 20) - 1;
+
+    private static final int COUNT_BITS = 20;
+    private static final int INDEX_SHIFT = 2 * COUNT_BITS;
+    private static final long COUNT_MASK = MAX_COUNT;
+    private static final long INDEX_MASK = (1L << 24) - 1;
+
+    private final int limit;
+    private final long windowNanos;
+    private final long originNanos;
+    private final AtomicLong state = new AtomicLong();
+
+    public AtomicWindowCounter(int limit, long windowNanos) {
+        if (limit <= 0 || limit > MAX_COUNT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_COUNT);
+        }
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+        this.originNanos = System.nanoTime();
+    }
+
+    /**
+     * Fixed window: allow while the current window's count stays within the limit.
+     */
+    public boolean tryAcquireFixed(int permits, long nowNanos) {
+        if (permits > limit) {
+            return false;
+        }
+        long index = windowIndex(nowNanos);
+        boolean clockRefreshed = false;
+        while (true) {
+            long current = state.get();
+            if (!clockRefreshed && isAhead(current, index)) {
+                index = windowIndex(System.nanoTime());
+                clockRefreshed = true;
+                continue;
+            }
+            long rolled = rollTo(current, index);
+            if (currentCount(rolled) + permits > limit) {
+                return false;
+            }
+            if (state.compareAndSet(current, rolled + permits * (1L << COUNT_BITS))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Sliding window counter: allow while previous * (1 - position) + current
+     * stays within the limit.
+     */
+    public boolean tryAcquireSliding(int permits, long nowNanos) {
+        if (permits > limit) {
+            return false;
+        }
+        long index = windowIndex(nowNanos);
+        boolean clockRefreshed = false;
+        while (true) {
+            long current = state.get();
+            if (!clockRefreshed && isAhead(current, index)) {
+                nowNanos = System.nanoTime();
+                index = windowIndex(nowNanos);
+                clockRefreshed = true;
+                continue;
+            }
+            long rolled = rollTo(current, index);
+            if (weightedCount(rolled, nowNanos) + permits > limit) {
+                return false;
+            }
+            if (state.compareAndSet(current, rolled + permits * (1L << COUNT_BITS))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back permits from an acquire that was not used (e.g. rolled back).
+     *
+     * The permits are returned to the window they were taken from: the
+     * current count if the window has not rolled since, the previous count
+     * if it rolled once, and nowhere after that (the window's count has
+     * already been dropped). Never from a newer window, which would hand
+     * out that window's quota twice.
+     *
+     * @param acquiredAtNanos System.nanoTime() read before the acquire; if
+     *        the acquire itself straddled a window boundary, the previous
+     *        window's count is the one reduced
+     */
+    public void release(int permits, long acquiredAtNanos) {
+        long index = windowIndex(acquiredAtNanos);
+        while (true) {
+            long current = state.get();
+            long windowsSince = ((current >>> INDEX_SHIFT) - index) & INDEX_MASK;
+            long next;
+            if (windowsSince == 0) {
+                next = current - Math.min(permits, currentCount(current)) * (1L << COUNT_BITS);
+            } else if (windowsSince == 1) {
+                next = current - Math.min(permits, previousCount(current));
+            } else {
+                return;
+            }
+            if (next == current || state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    public int getFixedRemaining() {
+        long rolled = rollTo(state.get(), windowIndex(System.nanoTime()));
+        return Math.max(0, limit - currentCount(rolled));
+    }
+
+    public int getSlidingRemaining() {
+        long now = System.nanoTime();
+        long rolled = rollTo(state.get(), windowIndex(now));
+        return Math.max(0, (int) (limit - weightedCount(rolled, now)));
+    }
+
+    /**
+     * Nanoseconds until the current window ends.
+     */
+    public long nanosUntilWindowEnd() {
+        long elapsed = System.nanoTime() - originNanos;
+        return windowNanos - elapsed % windowNanos;
+    }
+
+    private long windowIndex(long nowNanos) {
+        return ((nowNanos - originNanos) / windowNanos) & INDEX_MASK;
+    }
+
+    private double weightedCount(long state, long nowNanos) {
+        double position = (double) ((nowNanos - originNanos) % windowNanos) / windowNanos;
+        return previousCount(state) * (1 - position) + currentCount(state);
+    }
+
+    /**
+     * True if the state belongs to a later window than {@code index}: the
+     * caller read the clock, was descheduled, and another thread has since
+     * moved the window on. Rolling "forward" to the stale index would wrap
+     * around and wipe the real current window's count, so callers re-read
+     * the clock instead. If the state is still ahead of a fresh reading it
+     * is simply more than 2^23 windows old and is rolled over normally.
+     */
+    private static boolean isAhead(long state, long index) {
+        long delta = (index - (state >>> INDEX_SHIFT)) & INDEX_MASK;
+        return delta > INDEX_MASK >>> 1;
+    }
+
+    /**
+     * The state as it reads in window {@code index}: unchanged if already
+     * there, shifted by one window, or cleared after a longer gap.
+     */
+    private static long rollTo(long state, long index) {
+        long delta = (index - (state >>> INDEX_SHIFT)) & INDEX_MASK;
+        if (delta == 0) {
+            return state;
+        }
+        long previous = delta == 1 ? currentCount(state) : 0;
+        return (index << INDEX_SHIFT) | previous;
+    }
+
+    private static int currentCount(long state) {
+        return (int) ((state >>> COUNT_BITS) & COUNT_MASK);
+    }
+
+    private static int previousCount(long state) {
+        return (int) (state & COUNT_MASK);
+    }
+}
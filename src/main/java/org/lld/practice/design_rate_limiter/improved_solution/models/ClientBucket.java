@@ -3,12 +3,14 @@ package org.lld.practice.design_rate_limiter.improved_solution.models;
 import java.time.Instant;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents the rate limiting state for a single client.
- * Thread-safe using atomic operations.
+ * Thread-safe and lock-free: the token bucket and the window counters each
+ * keep their whole state in one AtomicLong updated by compareAndSet.
+ *
+ * Only the state for the configured algorithm is allocated; calling another
+ * algorithm's methods throws IllegalStateException.
  */
 public class ClientBucket {
     
@@ -16,134 +18,102 @@ public class ClientBucket {
     private final RateLimitConfig config;
     
     // Token bucket state
-    private volatile double tokens;
-    private final AtomicLong lastRefillTimeNanos = new AtomicLong(System.nanoTime());
+    private final AtomicTokenBucket tokenBucket;
     
-    // Fixed/Sliding window state
-    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
-    private final AtomicInteger currentWindowCount = new AtomicInteger(0);
-    private final AtomicInteger previousWindowCount = new AtomicInteger(0);
+    // Fixed/Sliding window counter state
+    private final AtomicWindowCounter windowCounter;
     
     // Sliding window log state (stores request timestamps)
-    private final Deque<Long> requestTimestamps = new ConcurrentLinkedDeque<>();
+    private final Deque<Long> requestTimestamps;
+    
+    // Sliding window buckets state (counts per sub-window)
+    private final SubWindowRing subWindowRing;
 
     public ClientBucket(String clientId, RateLimitConfig config) {
         this.clientId = clientId;
         this.config = config;
-        this.tokens = config.getBurstCapacity();
+        long windowNanos = config.getWindowSize().toNanos();
+        RateLimitAlgorithm algorithm = config.getAlgorithm();
+        this.tokenBucket = algorithm == RateLimitAlgorithm.TOKEN_BUCKET
+                ? new AtomicTokenBucket(config.getBurstCapacity(), config.getMaxRequests(), windowNanos)
+                : null;
+        this.windowCounter = algorithm == RateLimitAlgorithm.FIXED_WINDOW
+                || algorithm == RateLimitAlgorithm.SLIDING_WINDOW_COUNTER
+                ? new AtomicWindowCounter(config.getMaxRequests(), windowNanos)
+                : null;
+        this.requestTimestamps = algorithm == RateLimitAlgorithm.SLIDING_WINDOW_LOG
+                ? new ConcurrentLinkedDeque<>()
+                : null;
+        this.subWindowRing = algorithm == RateLimitAlgorithm.SLIDING_WINDOW_BUCKETS
+                ? new SubWindowRing(config.getMaxRequests(), windowNanos, config.getSubWindows())
+                : null;
     }
 
     // ========== Token Bucket Methods ==========
 
-    public synchronized boolean tryAcquireTokens(int permits) {
-        refillTokens();
-        if (tokens >= permits) {
-            tokens -= permits;
-            return true;
-        }
-        return false;
+    public boolean tryAcquireTokens(int permits) {
+        return tokenBucket().tryAcquire(permits);
     }
 
-    public synchronized double getAvailableTokens() {
-        refillTokens();
-        return tokens;
+    public boolean tryAcquireTokens(int permits, long nowNanos) {
+        return tokenBucket().tryAcquire(permits, nowNanos);
     }
 
-    private void refillTokens() {
-        long now = System.nanoTime();
-        long lastRefill = lastRefillTimeNanos.get();
-        double elapsedSeconds = (now - lastRefill) / 1_000_000_000.0;
-        
-        double newTokens = elapsedSeconds * config.getRefillRate();
-        tokens = Math.min(config.getBurstCapacity(), tokens + newTokens);
-        lastRefillTimeNanos.set(now);
+    public void releaseTokens(int permits) {
+        tokenBucket().release(permits);
+    }
+
+    public double getAvailableTokens() {
+        return tokenBucket().getAvailableTokens();
     }
 
     public Instant getTokenRefillTime(int permits) {
-        double tokensNeeded = permits - tokens;
-        if (tokensNeeded <= 0) {
-            return Instant.now();
-        }
-        double secondsNeeded = tokensNeeded / config.getRefillRate();
-        return Instant.now().plusMillis((long) (secondsNeeded * 1000));
+        return Instant.now().plusNanos(tokenBucket().nanosUntilAvailable(permits));
     }
 
     // ========== Fixed Window Methods ==========
 
     public boolean tryAcquireFixedWindow(int permits) {
-        long now = System.currentTimeMillis();
-        long windowMs = config.getWindowSize().toMillis();
-        long currentStart = windowStart.get();
-        
-        // Check if we need to start a new window
-        if (now - currentStart >= windowMs) {
-            // New window - reset counter
-            windowStart.set(now);
-            previousWindowCount.set(currentWindowCount.get());
-            currentWindowCount.set(permits);
-            return true;
-        }
-        
-        // Same window - check and increment
-        int current = currentWindowCount.get();
-        if (current + permits <= config.getMaxRequests()) {
-            currentWindowCount.addAndGet(permits);
-            return true;
-        }
-        return false;
+        return tryAcquireFixedWindow(permits, System.nanoTime());
+    }
+
+    public boolean tryAcquireFixedWindow(int permits, long nowNanos) {
+        return windowCounter().tryAcquireFixed(permits, nowNanos);
+    }
+
+    /**
+     * Release permits for either window counter algorithm (fixed or sliding).
+     */
+    public void releaseWindowPermits(int permits, long acquiredAtNanos) {
+        windowCounter().release(permits, acquiredAtNanos);
     }
 
     public int getFixedWindowRemaining() {
-        return Math.max(0, config.getMaxRequests() - currentWindowCount.get());
+        return windowCounter().getFixedRemaining();
     }
 
     public Instant getFixedWindowResetTime() {
-        long windowMs = config.getWindowSize().toMillis();
-        return Instant.ofEpochMilli(windowStart.get() + windowMs);
+        return Instant.now().plusNanos(windowCounter().nanosUntilWindowEnd());
     }
 
     // ========== Sliding Window Counter Methods ==========
 
     public boolean tryAcquireSlidingWindowCounter(int permits) {
-        long now = System.currentTimeMillis();
-        long windowMs = config.getWindowSize().toMillis();
-        long currentStart = windowStart.get();
-        
-        // Check if we need to start a new window
-        if (now - currentStart >= windowMs) {
-            previousWindowCount.set(currentWindowCount.get());
-            currentWindowCount.set(0);
-            windowStart.set(currentStart + windowMs);
-            currentStart = windowStart.get();
-        }
-        
-        // Calculate weighted count
-        double positionInWindow = (double) (now - currentStart) / windowMs;
-        double weightedCount = previousWindowCount.get() * (1 - positionInWindow) 
-                             + currentWindowCount.get();
-        
-        if (weightedCount + permits <= config.getMaxRequests()) {
-            currentWindowCount.addAndGet(permits);
-            return true;
-        }
-        return false;
+        return tryAcquireSlidingWindowCounter(permits, System.nanoTime());
+    }
+
+    public boolean tryAcquireSlidingWindowCounter(int permits, long nowNanos) {
+        return windowCounter().tryAcquireSliding(permits, nowNanos);
     }
 
     public int getSlidingWindowCounterRemaining() {
-        long now = System.currentTimeMillis();
-        long windowMs = config.getWindowSize().toMillis();
-        long currentStart = windowStart.get();
-        
-        double positionInWindow = (double) (now - currentStart) / windowMs;
-        double weightedCount = previousWindowCount.get() * (1 - positionInWindow) 
-                             + currentWindowCount.get();
-        
-        return Math.max(0, (int) (config.getMaxRequests() - weightedCount));
+        return windowCounter().getSlidingRemaining();
     }
 
     // ========== Sliding Window Log Methods ==========
 
     public boolean tryAcquireSlidingWindowLog(int permits) {
+        Deque<Long> requestTimestamps = requestTimestamps();
         long now = System.currentTimeMillis();
         long windowMs = config.getWindowSize().toMillis();
         long windowStart = now - windowMs;
@@ -163,7 +133,26 @@ public class ClientBucket {
         return false;
     }
 
+    /**
+     * Drop the newest timestamps, none older than the acquire. Under
+     * concurrency these may belong to another request made at (nearly) the
+     * same moment, which has the same effect.
+     */
+    public void releaseSlidingWindowLog(int permits, long acquiredAtNanos) {
+        Deque<Long> requestTimestamps = requestTimestamps();
+        // The log is in wall-clock millis; 1 ms of slack for the two clocks' rounding
+        long acquiredAtMs = System.currentTimeMillis() - (System.nanoTime() - acquiredAtNanos) / 1_000_000 - 1;
+        for (int i = 0; i < permits; i++) {
+            Long newest = requestTimestamps.peekLast();
+            if (newest == null || newest < acquiredAtMs) {
+                return;
+            }
+            requestTimestamps.pollLast();
+        }
+    }
+
     public int getSlidingWindowLogRemaining() {
+        Deque<Long> requestTimestamps = requestTimestamps();
         long now = System.currentTimeMillis();
         long windowMs = config.getWindowSize().toMillis();
         long windowStart = now - windowMs;
@@ -177,6 +166,7 @@ public class ClientBucket {
     }
 
     public Instant getSlidingWindowLogResetTime() {
+        Deque<Long> requestTimestamps = requestTimestamps();
         if (requestTimestamps.isEmpty()) {
             return Instant.now();
         }
@@ -188,6 +178,28 @@ public class ClientBucket {
         return Instant.ofEpochMilli(oldest + config.getWindowSize().toMillis());
     }
 
+    // ========== Sliding Window Buckets Methods ==========
+
+    public boolean tryAcquireSlidingWindowBuckets(int permits) {
+        return tryAcquireSlidingWindowBuckets(permits, System.nanoTime());
+    }
+
+    public boolean tryAcquireSlidingWindowBuckets(int permits, long nowNanos) {
+        return subWindowRing().tryAcquire(permits, nowNanos);
+    }
+
+    public void releaseSlidingWindowBuckets(int permits, long acquiredAtNanos) {
+        subWindowRing().release(permits, acquiredAtNanos);
+    }
+
+    public int getSlidingWindowBucketsRemaining() {
+        return subWindowRing().getRemaining();
+    }
+
+    public Instant getSlidingWindowBucketsResetTime() {
+        return Instant.now().plusNanos(subWindowRing().nanosUntilOldestExpires());
+    }
+
     // ========== Common Methods ==========
 
     public String getClientId() {
@@ -197,5 +209,28 @@ public class ClientBucket {
     public RateLimitConfig getConfig() {
         return config;
     }
-}
 
+    private AtomicTokenBucket tokenBucket() {
+        return requireState(tokenBucket);
+    }
+
+    private AtomicWindowCounter windowCounter() {
+        return requireState(windowCounter);
+    }
+
+    private Deque<Long> requestTimestamps() {
+        return requireState(requestTimestamps);
+    }
+
+    private SubWindowRing subWindowRing() {
+        return requireState(subWindowRing);
+    }
+
+    private <T> T requireState(T state) {
+        if (state == null) {
+            throw new IllegalStateException(
+                    "Bucket for " + clientId + " is configured for " + config.getAlgorithm());
+        }
+        return state;
+    }
+}
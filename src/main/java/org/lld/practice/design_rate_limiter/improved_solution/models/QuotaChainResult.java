@@ -0,0 +1,69 @@
+package org.lld.practice.design_rate_limiter.improved_solution.models;
+
+import java.util.List;
+
+/**
+ * Result of evaluating a chain of limits (e.g. user -> tenant -> global).
+ *
+ * Holds the result of every level that was evaluated: all levels when the
+ * request was allowed, up to and including the denying level otherwise.
+ */
+public class QuotaChainResult {
+
+    private final boolean allowed;
+    private final String deniedBy;
+    private final List<String> levelNames;
+    private final List<RateLimitResult> levelResults;
+
+    public QuotaChainResult(boolean allowed, String deniedBy,
+                            List<String> levelNames, List<RateLimitResult> levelResults) {
+        this.allowed = allowed;
+        this.deniedBy = deniedBy;
+        this.levelNames = List.copyOf(levelNames);
+        this.levelResults = List.copyOf(levelResults);
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    /**
+     * Name of the level that denied the request, or null if allowed.
+     */
+    public String getDeniedBy() {
+        return deniedBy;
+    }
+
+    public List<String> getLevelNames() {
+        return levelNames;
+    }
+
+    public List<RateLimitResult> getLevelResults() {
+        return levelResults;
+    }
+
+    /**
+     * The result to report to the client (e.g. as HTTP headers): the denying
+     * level's result, or the allowed level with the least quota remaining.
+     */
+    public RateLimitResult getBindingResult() {
+        RateLimitResult last = levelResults.get(levelResults.size() - 1);
+        if (!allowed) {
+            return last;
+        }
+        RateLimitResult binding = last;
+        for (RateLimitResult result : levelResults) {
+            if (result.getRemaining() < binding.getRemaining()) {
+                binding = result;
+            }
+        }
+        return binding;
+    }
+
+    @Override
+    public String toString() {
+        return allowed
+                ? String.format("QuotaChainResult{ALLOWED, binding=%s}", getBindingResult())
+                : String.format("QuotaChainResult{DENIED by %s, %s}", deniedBy, getBindingResult());
+    }
+}
@@ -18,6 +18,13 @@ public enum RateLimitAlgorithm {
      */
     SLIDING_WINDOW_LOG,
     
+    /**
+     * Sliding Window Buckets: Counts per sub-window in a fixed-size ring.
+     * Bounded memory per client, never more permissive than the log.
+     * Best for: Log-like precision at high request rates.
+     */
+    SLIDING_WINDOW_BUCKETS,
+    
     /**
      * Sliding Window Counter: Weighted average of two windows.
      * Good balance of accuracy and memory.
@@ -12,12 +12,20 @@ public class RateLimitConfig {
     private final Duration windowSize;
     private final RateLimitAlgorithm algorithm;
     private final int burstCapacity;  // For token bucket
+    private final int subWindows;     // For sliding window buckets
+    private final Duration idleTimeout;  // null means client buckets never expire
+    private final int maxClients;
+    private final int shards;
 
     private RateLimitConfig(Builder builder) {
         this.maxRequests = builder.maxRequests;
         this.windowSize = builder.windowSize;
         this.algorithm = builder.algorithm;
         this.burstCapacity = builder.burstCapacity;
+        this.subWindows = builder.subWindows;
+        this.idleTimeout = builder.idleTimeout;
+        this.maxClients = builder.maxClients;
+        this.shards = builder.shards;
     }
 
     public int getMaxRequests() {
@@ -36,11 +44,27 @@ public class RateLimitConfig {
         return burstCapacity;
     }
 
+    public int getSubWindows() {
+        return subWindows;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
     /**
      * Get refill rate for token bucket (tokens per second).
      */
     public double getRefillRate() {
-        return (double) maxRequests / windowSize.getSeconds();
+        return maxRequests * 1_000_000_000.0 / windowSize.toNanos();
     }
 
     @Override
@@ -54,6 +78,10 @@ public class RateLimitConfig {
         private Duration windowSize = Duration.ofMinutes(1);
         private RateLimitAlgorithm algorithm = RateLimitAlgorithm.TOKEN_BUCKET;
         private int burstCapacity = -1;  // -1 means use maxRequests
+        private int subWindows = 60;
+        private Duration idleTimeout = null;
+        private int maxClients = Integer.MAX_VALUE;
+        private int shards = 16;
 
         public Builder maxRequests(int maxRequests) {
             if (maxRequests <= 0) {
@@ -81,7 +109,66 @@ public class RateLimitConfig {
             return this;
         }
 
+        /**
+         * Sub-windows per window for SLIDING_WINDOW_BUCKETS: more means
+         * closer to the exact log, at 4 bytes per sub-window per client.
+         */
+        public Builder subWindows(int subWindows) {
+            if (subWindows <= 0) {
+                throw new IllegalArgumentException("Sub-windows must be positive");
+            }
+            this.subWindows = subWindows;
+            return this;
+        }
+
+        /**
+         * Evict a client's bucket after this long without requests.
+         * Should be at least the window size, so evicted state had fully reset.
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            if (idleTimeout != null && (idleTimeout.isZero() || idleTimeout.isNegative())) {
+                throw new IllegalArgumentException("Idle timeout must be positive");
+            }
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Upper bound on tracked clients; least recently active ones are evicted beyond it.
+         */
+        public Builder maxClients(int maxClients) {
+            if (maxClients <= 0) {
+                throw new IllegalArgumentException("Max clients must be positive");
+            }
+            this.maxClients = maxClients;
+            return this;
+        }
+
+        /**
+         * Number of registry shards (rounded down to a power of two).
+         */
+        public Builder shards(int shards) {
+            if (shards <= 0) {
+                throw new IllegalArgumentException("Shards must be positive");
+            }
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if maxRequests exceeds what the
+         *         algorithm's counters can hold (FIXED_WINDOW and
+         *         SLIDING_WINDOW_COUNTER pack counts into 20 bits)
+         */
         public RateLimitConfig build() {
+            if ((algorithm == RateLimitAlgorithm.FIXED_WINDOW
+                    || algorithm == RateLimitAlgorithm.SLIDING_WINDOW_COUNTER)
+                    && maxRequests > AtomicWindowCounter.MAX_COUNT) {
+                throw new IllegalArgumentException(String.format(
+                        "%s supports at most %,d requests per window (got %,d); "
+                                + "use SLIDING_WINDOW_BUCKETS or TOKEN_BUCKET for larger limits",
+                        algorithm, AtomicWindowCounter.MAX_COUNT, maxRequests));
+            }
             if (burstCapacity < 0) {
                 burstCapacity = maxRequests;
             }
@@ -0,0 +1,64 @@
+package org.lld.practice.design_rate_limiter.improved_solution.models;
+
+/**
+ * Point-in-time counters for one shard of the client registry.
+ */
+public class ShardMetrics {
+
+    private final int shard;
+    private final int activeClients;
+    private final long idleEvictions;
+    private final long capacityEvictions;
+    private final long allowed;
+    private final long denied;
+
+    public ShardMetrics(int shard, int activeClients, long idleEvictions,
+                        long capacityEvictions, long allowed, long denied) {
+        this.shard = shard;
+        this.activeClients = activeClients;
+        this.idleEvictions = idleEvictions;
+        this.capacityEvictions = capacityEvictions;
+        this.allowed = allowed;
+        this.denied = denied;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public int getActiveClients() {
+        return activeClients;
+    }
+
+    /**
+     * Buckets removed by the sweeper after being idle for the idle timeout.
+     */
+    public long getIdleEvictions() {
+        return idleEvictions;
+    }
+
+    /**
+     * Buckets removed to stay under the maximum client count.
+     */
+    public long getCapacityEvictions() {
+        return capacityEvictions;
+    }
+
+    public long getEvictions() {
+        return idleEvictions + capacityEvictions;
+    }
+
+    public long getAllowed() {
+        return allowed;
+    }
+
+    public long getDenied() {
+        return denied;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShardMetrics{shard=%d, active=%d, evictions=%d (idle=%d, capacity=%d), allowed=%d, denied=%d}",
+                shard, activeClients, getEvictions(), idleEvictions, capacityEvictions, allowed, denied);
+    }
+}
@@ -0,0 +1,133 @@
+package org.lld.practice.design_rate_limiter.improved_solution.models;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size sliding window: request counts per sub-window in a primitive ring.
+ *
+ * The window is split into N sub-windows. Instead of one timestamp per
+ * request (the sliding window log), only the count per sub-window is kept,
+ * in an int[] of N + 1 slots used as a ring, plus a running total:
+ *
+ * <pre>
+ *   window = 1 min, N = 6 (10 s sub-windows)
+ *
+ *   slot:   [ 3 ][ 0 ][ 7 ][ 2 ][ 5 ][ 1 ][ 4 ]    total = 22
+ *                                          ▲ head (current sub-window)
+ * </pre>
+ *
+ * Moving to a new sub-window subtracts the slots that fell out of the
+ * window from the total and zeroes them - amortized O(1) per request, and
+ * the footprint is the same whether a client sends 10 or 10 million
+ * requests per window.
+ *
+ * Accuracy: the ring covers the current sub-window plus the N before it,
+ * i.e. between 1 and 1 + 1/N windows of history. It therefore never admits
+ * a request the exact log would deny; it may deny for at most one
+ * sub-window after the exact log would already allow again.
+ *
+ * Thread-safe via a per-client monitor held only for a few array writes.
+ */
+public class SubWindowRing {
+
+    private final int limit;
+    private final long subWindowNanos;
+    private final long originNanos;
+    private final int[] counts;
+    private long head;       // sub-window index of the newest slot
+    private int total;
+
+    /**
+     * @param subWindows number of sub-windows per window (accuracy vs memory)
+     */
+    public SubWindowRing(int limit, long windowNanos, int subWindows) {
+        if (limit <= 0 || subWindows <= 0) {
+            throw new IllegalArgumentException("Limit and sub-window count must be positive");
+        }
+        if (windowNanos < subWindows) {
+            throw new IllegalArgumentException("Window too short for " + subWindows + " sub-windows");
+        }
+        this.limit = limit;
+        // Round up so N sub-windows always span at least the full window
+        this.subWindowNanos = (windowNanos + subWindows - 1) / subWindows;
+        this.originNanos = System.nanoTime();
+        this.counts = new int[subWindows + 1];
+    }
+
+    public synchronized boolean tryAcquire(int permits, long nowNanos) {
+        advanceTo(subWindowIndex(nowNanos));
+        if (total + permits > limit) {
+            return false;
+        }
+        counts[(int) (head % counts.length)] += permits;
+        total += permits;
+        return true;
+    }
+
+    /**
+     * Give back permits from an acquire that was not used (e.g. rolled back),
+     * newest sub-window first but none older than the acquire's. Nothing is
+     * given back once the acquire's sub-window has slid out of the window.
+     *
+     * @param acquiredAtNanos System.nanoTime() read before the acquire
+     */
+    public synchronized void release(int permits, long acquiredAtNanos) {
+        long oldest = subWindowIndex(acquiredAtNanos);
+        if (oldest <= head - counts.length) {
+            return;
+        }
+        for (long index = head; permits > 0 && index >= oldest; index--) {
+            int slot = (int) (index % counts.length);
+            int released = Math.min(permits, counts[slot]);
+            counts[slot] -= released;
+            total -= released;
+            permits -= released;
+        }
+    }
+
+    public synchronized int getRemaining() {
+        advanceTo(subWindowIndex(System.nanoTime()));
+        return Math.max(0, limit - total);
+    }
+
+    /**
+     * Nanoseconds until the oldest counted requests leave the window (0 if empty).
+     */
+    public synchronized long nanosUntilOldestExpires() {
+        long now = System.nanoTime();
+        advanceTo(subWindowIndex(now));
+        for (long index = head - counts.length + 1; index <= head; index++) {
+            if (index >= 0 && counts[(int) (index % counts.length)] > 0) {
+                long expiresAt = originNanos + (index + counts.length) * subWindowNanos;
+                return Math.max(0, expiresAt - now);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Drop sub-windows that slid out of the window since the last call.
+     */
+    private void advanceTo(long index) {
+        if (index <= head) {
+            // Same sub-window, or a caller whose clock read is slightly stale:
+            // it is counted in the newest sub-window
+            return;
+        }
+        if (index - head >= counts.length) {
+            Arrays.fill(counts, 0);
+            total = 0;
+        } else {
+            for (long expired = head + 1; expired <= index; expired++) {
+                int slot = (int) (expired % counts.length);
+                total -= counts[slot];
+                counts[slot] = 0;
+            }
+        }
+        head = index;
+    }
+
+    private long subWindowIndex(long nowNanos) {
+        return Math.max(0, nowNanos - originNanos) / subWindowNanos;
+    }
+}
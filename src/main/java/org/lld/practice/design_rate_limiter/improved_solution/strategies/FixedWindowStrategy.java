@@ -44,6 +44,21 @@ public class FixedWindowStrategy implements RateLimitStrategy {
         }
     }
 
+    @Override
+    public boolean allow(ClientBucket bucket, int permits) {
+        return bucket.tryAcquireFixedWindow(permits);
+    }
+
+    @Override
+    public boolean allow(ClientBucket bucket, int permits, long nowNanos) {
+        return bucket.tryAcquireFixedWindow(permits, nowNanos);
+    }
+
+    @Override
+    public void release(ClientBucket bucket, int permits, long acquiredAtNanos) {
+        bucket.releaseWindowPermits(permits, acquiredAtNanos);
+    }
+
     @Override
     public String getName() {
         return "Fixed Window";
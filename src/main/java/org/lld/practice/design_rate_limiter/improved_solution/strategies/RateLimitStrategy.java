@@ -18,6 +18,32 @@ public interface RateLimitStrategy {
      */
     RateLimitResult tryAcquire(ClientBucket bucket, int permits);
     
+    /**
+     * Same decision as tryAcquire(), without building a RateLimitResult.
+     * Strategies override this with an allocation-free path.
+     */
+    default boolean allow(ClientBucket bucket, int permits) {
+        return tryAcquire(bucket, permits).isAllowed();
+    }
+    
+    /**
+     * allow() against a clock reading shared by several decisions (batches).
+     * Strategies whose state is not nanoTime-based ignore it.
+     */
+    default boolean allow(ClientBucket bucket, int permits, long nowNanos) {
+        return allow(bucket, permits);
+    }
+    
+    /**
+     * Return permits granted by an earlier allowed decision that was not used,
+     * e.g. because a later limit in a chain denied the request. Permits are
+     * only returned to the window they were taken from: once that has
+     * passed, there is nothing to give back.
+     *
+     * @param acquiredAtNanos System.nanoTime() read before the acquire
+     */
+    void release(ClientBucket bucket, int permits, long acquiredAtNanos);
+    
     /**
      * Get the name of this strategy.
      */
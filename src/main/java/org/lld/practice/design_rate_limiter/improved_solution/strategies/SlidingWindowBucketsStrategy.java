@@ -0,0 +1,65 @@
+package org.lld.practice.design_rate_limiter.improved_solution.strategies;
+
+import org.lld.practice.design_rate_limiter.improved_solution.models.ClientBucket;
+import org.lld.practice.design_rate_limiter.improved_solution.models.RateLimitResult;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Sliding Window Buckets rate limiting strategy.
+ * 
+ * How it works:
+ * - Splits the window into N sub-windows (e.g., 60 x 1 second)
+ * - Keeps one request count per sub-window in a fixed-size ring
+ * - Sums the counts of the sub-windows still inside the window
+ * 
+ * Pros:
+ * - Fixed memory per client (N + 1 ints), independent of traffic
+ * - Never more permissive than the sliding window log
+ * - Amortized O(1) per request (no timestamp cleanup)
+ * 
+ * Cons:
+ * - May deny for up to one sub-window longer than the exact log
+ */
+public class SlidingWindowBucketsStrategy implements RateLimitStrategy {
+
+    @Override
+    public RateLimitResult tryAcquire(ClientBucket bucket, int permits) {
+        boolean allowed = bucket.tryAcquireSlidingWindowBuckets(permits);
+        
+        int limit = bucket.getConfig().getMaxRequests();
+        int remaining = bucket.getSlidingWindowBucketsRemaining();
+        Instant resetTime = bucket.getSlidingWindowBucketsResetTime();
+        
+        if (allowed) {
+            return RateLimitResult.allowed(limit, remaining, resetTime);
+        } else {
+            Duration retryAfter = Duration.between(Instant.now(), resetTime);
+            if (retryAfter.isNegative()) {
+                retryAfter = Duration.ofMillis(100);
+            }
+            return RateLimitResult.denied(limit, resetTime, retryAfter);
+        }
+    }
+
+    @Override
+    public boolean allow(ClientBucket bucket, int permits) {
+        return bucket.tryAcquireSlidingWindowBuckets(permits);
+    }
+
+    @Override
+    public boolean allow(ClientBucket bucket, int permits, long nowNanos) {
+        return bucket.tryAcquireSlidingWindowBuckets(permits, nowNanos);
+    }
+
+    @Override
+    public void release(ClientBucket bucket, int permits, long acquiredAtNanos) {
+        bucket.releaseSlidingWindowBuckets(permits, acquiredAtNanos);
+    }
+
+    @Override
+    public String getName() {
+        return "Sliding Window Buckets";
+    }
+}
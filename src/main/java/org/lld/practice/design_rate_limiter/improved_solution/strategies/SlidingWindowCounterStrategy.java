@@ -50,6 +50,21 @@ public class SlidingWindowCounterStrategy implements RateLimitStrategy {
         }
     }
 
+    @Override
+    public boolean allow(ClientBucket bucket, int permits) {
+        return bucket.tryAcquireSlidingWindowCounter(permits);
+    }
+
+    @Override
+    public boolean allow(ClientBucket bucket, int permits, long nowNanos) {
+        return bucket.tryAcquireSlidingWindowCounter(permits, nowNanos);
+    }
+
+    @Override
+    public void release(ClientBucket bucket, int permits, long acquiredAtNanos) {
+        bucket.releaseWindowPermits(permits, acquiredAtNanos);
+    }
+
     @Override
     public String getName() {
         return "Sliding Window Counter";
@@ -45,6 +45,16 @@ public class SlidingWindowLogStrategy implements RateLimitStrategy {
         }
     }
 
+    @Override
+    public boolean allow(ClientBucket bucket, int permits) {
+        return bucket.tryAcquireSlidingWindowLog(permits);
+    }
+
+    @Override
+    public void release(ClientBucket bucket, int permits, long acquiredAtNanos) {
+        bucket.releaseSlidingWindowLog(permits, acquiredAtNanos);
+    }
+
     @Override
     public String getName() {
         return "Sliding Window Log";
@@ -45,6 +45,21 @@ public class TokenBucketStrategy implements RateLimitStrategy {
         }
     }
 
+    @Override
+    public boolean allow(ClientBucket bucket, int permits) {
+        return bucket.tryAcquireTokens(permits);
+    }
+
+    @Override
+    public boolean allow(ClientBucket bucket, int permits, long nowNanos) {
+        return bucket.tryAcquireTokens(permits, nowNanos);
+    }
+
+    @Override
+    public void release(ClientBucket bucket, int permits, long acquiredAtNanos) {
+        bucket.releaseTokens(permits);
+    }
+
     @Override
     public String getName() {
         return "Token Bucket";
@@ -3,7 +3,10 @@ package org.lld.practice.design_stock_trading_system.improved_solution;
 import org.lld.practice.design_stock_trading_system.improved_solution.factories.OrderFactory;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType;
+import org.lld.practice.design_stock_trading_system.improved_solution.observers.TradeLogObserver;
 import org.lld.practice.design_stock_trading_system.improved_solution.observers.UserNotificationObserver;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.LimitOrderBook;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.OrderBook;
 import org.lld.practice.design_stock_trading_system.improved_solution.services.PortfolioService;
 import org.lld.practice.design_stock_trading_system.improved_solution.services.TradingEngine;
 
@@ -14,13 +17,14 @@ public class Main {
         TradingEngine engine = TradingEngine.getInstance();
         PortfolioService portfolioService = engine.getPortfolioService();
         
-        // Add observer
+        // Add observers (called on the stock's sequencer thread)
+        engine.addObserver(new TradeLogObserver());
         engine.addObserver(new UserNotificationObserver());
         
         // Create portfolios for users
-        portfolioService.getOrCreatePortfolio("user1", 10000.0);
-        portfolioService.getOrCreatePortfolio("user2", 10000.0);
-        portfolioService.getOrCreatePortfolio("user3", 10000.0);
+        portfolioService.getOrCreatePortfolio("user1", 20000.0);
+        portfolioService.getOrCreatePortfolio("user2", 20000.0);
+        portfolioService.getOrCreatePortfolio("user3", 10000.0).addHolding("AAPL", 200);
         
         System.out.println("1. Initial Portfolios:");
         System.out.println(portfolioService.getPortfolio("user1"));
@@ -58,11 +62,23 @@ public class Main {
         
         // Place market order using Factory
         System.out.println("6. Placing Market Order (using Factory):");
-        Order marketBuy = OrderFactory.createMarketOrder("user1", "AAPL", OrderType.BUY, 25);
+        Order sell2 = OrderFactory.createLimitOrder("user3", "AAPL", OrderType.SELL, 152.0, 40);
+        engine.placeOrder(sell2);
+        Order marketBuy = OrderFactory.createMarketOrder("user2", "AAPL", OrderType.BUY, 25);
         engine.placeOrder(marketBuy);
         System.out.println();
         
-        System.out.println("7. Final Portfolios:");
+        // Inspect and cancel using the order book
+        System.out.println("7. Order Book and Cancellation:");
+        OrderBook book = engine.getOrderBookService().getOrderBook("AAPL");
+        System.out.println(book);
+        System.out.println("Depth at $150.00 bid: " + ((LimitOrderBook) book).getQuantityAt(OrderType.BUY, 150.0));
+        engine.cancelOrder(buy1.getOrderId(), "user1");
+        System.out.println(buy1);
+        System.out.println(book);
+        System.out.println();
+        
+        System.out.println("8. Final Portfolios:");
         System.out.println(portfolioService.getPortfolio("user1"));
         System.out.println(portfolioService.getPortfolio("user2"));
         System.out.println(portfolioService.getPortfolio("user3"));
@@ -0,0 +1,162 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.benchmark;
+
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.LimitOrderBook;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.ListOrderBook;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.OrderBook;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy.MatchResult;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Replays one synthetic order flow through each OrderBook implementation.
+ *
+ * The flow (fixed seed, one stock) follows a mid price that random-walks
+ * one tick at a time:
+ * - 65% limit orders, 1-20 ticks from the mid on the passive side, or up
+ *   to 3 ticks through it (these trade immediately);
+ * - 30% cancels of one of the last 2,000 orders (some already filled);
+ * - 5% market orders.
+ * Each placement is timed through match() plus applying the fills to both
+ * Order objects, which is what TradingEngine does before settlement.
+ *
+ * ListOrderBook (the previous unsorted lists + PriceTimePriorityStrategy)
+ * re-sorts the opposite side on every order, so it replays only a prefix
+ * of the flow.
+ *
+ * Usage:
+ *   java ... OrderBookBenchmark [orders] [listBookOrders]
+ */
+public class OrderBookBenchmark {
+
+    private static final long START_TICK = 10_000;   // $100.00
+    private static final int RECENT_ORDERS = 2_000;
+
+    private static final byte LIMIT = 0;
+    private static final byte MARKET = 1;
+    private static final byte CANCEL = 2;
+
+    /**
+     * The flow as primitive arrays; Order objects are built during the replay.
+     */
+    private record Flow(byte[] kind, boolean[] buy, long[] tick, int[] quantity, int[] cancelTarget, String[] ids) {
+        int size() {
+            return kind.length;
+        }
+    }
+
+    private record Result(long placements, long cancels, long trades, double seconds,
+                          long[] placeLatencies, long[] cancelLatencies, int resting) {}
+
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int listOrders = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     📒 ORDER BOOK BENCHMARK                                     ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%,d orders replayed (ListOrderBook: first %,d), 65%% limit / 30%% cancel / 5%% market%n%n",
+                orders, listOrders);
+
+        Flow flow = generate(orders, 42);
+
+        // Warm up
+        replay(LimitOrderBook::new, flow, orders);
+        replay(ListOrderBook::new, flow, Math.min(listOrders, 20_000));
+
+        System.out.printf("%-16s %10s %12s %9s %9s %10s %12s %9s %9s%n",
+                "Book", "orders", "orders/s", "p50 ns", "p99 ns", "p99.9 ns", "cancel p99", "trades", "resting");
+        print("ListOrderBook", replay(ListOrderBook::new, flow, listOrders));
+        print("LimitOrderBook", replay(LimitOrderBook::new, flow, listOrders));
+        print("LimitOrderBook", replay(LimitOrderBook::new, flow, orders));
+    }
+
+    private static Flow generate(int count, long seed) {
+        Random random = new Random(seed);
+        Flow flow = new Flow(new byte[count], new boolean[count], new long[count], new int[count], new int[count],
+                new String[count]);
+        long mid = START_TICK;
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(100) == 0) {
+                mid += random.nextBoolean() ? 1 : -1;
+            }
+            flow.ids()[i] = "O" + i;
+            flow.buy()[i] = random.nextBoolean();
+            flow.quantity()[i] = 1 + random.nextInt(500);
+            int roll = random.nextInt(100);
+            if (roll < 30 && i > 0) {
+                flow.kind()[i] = CANCEL;
+                flow.cancelTarget()[i] = Math.max(0, i - 1 - random.nextInt(RECENT_ORDERS));
+            } else if (roll < 35) {
+                flow.kind()[i] = MARKET;
+            } else {
+                flow.kind()[i] = LIMIT;
+                long offset = random.nextInt(100) < 10 ? -1 - random.nextInt(3) : 1 + random.nextInt(20);
+                flow.tick()[i] = flow.buy()[i] ? mid - offset : mid + offset;
+            }
+        }
+        return flow;
+    }
+
+    private static Result replay(Function<String, OrderBook> factory, Flow flow, int count) {
+        OrderBook book = factory.apply("BENCH");
+        long[] placeLatencies = new long[count];
+        long[] cancelLatencies = new long[count];
+        long placements = 0;
+        long cancels = 0;
+        long trades = 0;
+        long totalNanos = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (flow.kind()[i] == CANCEL) {
+                String id = flow.ids()[flow.cancelTarget()[i]];
+                long start = System.nanoTime();
+                book.cancel(id);
+                long elapsed = System.nanoTime() - start;
+                cancelLatencies[(int) cancels++] = elapsed;
+                totalNanos += elapsed;
+                continue;
+            }
+            OrderType type = flow.buy()[i] ? OrderType.BUY : OrderType.SELL;
+            Order order = flow.kind()[i] == MARKET
+                    ? new Order(flow.ids()[i], "trader", "BENCH", type, OrderSide.MARKET, 0, flow.quantity()[i])
+                    : new Order(flow.ids()[i], "trader", "BENCH", type, OrderSide.LIMIT,
+                                flow.tick()[i] / 100.0, flow.quantity()[i]);
+            long start = System.nanoTime();
+            List<MatchResult> matches = book.match(order);
+            for (MatchResult match : matches) {
+                match.getOrder().fill(match.getQuantity());
+                order.fill(match.getQuantity());
+            }
+            long elapsed = System.nanoTime() - start;
+            placeLatencies[(int) placements++] = elapsed;
+            totalNanos += elapsed;
+            trades += matches.size();
+        }
+        return new Result(placements, cancels, trades, totalNanos / 1e9,
+                Arrays.copyOf(placeLatencies, (int) placements), Arrays.copyOf(cancelLatencies, (int) cancels),
+                book.size());
+    }
+
+    private static void print(String label, Result result) {
+        Arrays.sort(result.placeLatencies());
+        Arrays.sort(result.cancelLatencies());
+        long orders = result.placements() + result.cancels();
+        System.out.printf("%-16s %,10d %,12.0f %,9d %,9d %,10d %,12d %,9d %,9d%n", label, orders,
+                orders / result.seconds(),
+                percentile(result.placeLatencies(), 0.50),
+                percentile(result.placeLatencies(), 0.99),
+                percentile(result.placeLatencies(), 0.999),
+                percentile(result.cancelLatencies(), 0.99),
+                result.trades(), result.resting());
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, (long) (sorted.length * fraction))];
+    }
+}
@@ -0,0 +1,257 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.benchmark;
+
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Trade;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.TradeExecution;
+import org.lld.practice.design_stock_trading_system.improved_solution.observers.TradeObserver;
+import org.lld.practice.design_stock_trading_system.improved_solution.services.OrderBookService;
+import org.lld.practice.design_stock_trading_system.improved_solution.services.PortfolioService;
+import org.lld.practice.design_stock_trading_system.improved_solution.services.TradingEngine;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy.MatchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Order throughput of TradingEngine as the number of stocks grows.
+ *
+ * P producer threads place limit orders for random stocks (1, 4, 16, 64),
+ * 1-10 ticks from $100.00 on the passive side or up to 2 ticks through it.
+ * Compared, all on LimitOrderBook so only the threading model differs:
+ * - single lock: the previous placeOrder(), reproduced below: every order
+ *   for every stock matched and settled under one ReentrantLock, observers
+ *   notified per trade;
+ * - sequencers: TradingEngine with N sequencer threads (default: one per
+ *   CPU), and with one sequencer per stock; producers submit without
+ *   waiting and the run ends when every order has been matched.
+ * Each row is the best of several runs.
+ *
+ * Usage:
+ *   java ... SequencerScalingBenchmark [orders] [producers] [sequencers] [runs]
+ */
+public class SequencerScalingBenchmark {
+
+    private static final int[] SYMBOL_COUNTS = {1, 4, 16, 64};
+    private static final long MID_TICK = 10_000;   // $100.00
+
+    private interface OrderSink {
+        void place(Order order);
+
+        /** Wait until every order placed so far has been matched. */
+        void await();
+    }
+
+    private record Result(double seconds, long trades, long batches, double ordersPerBatch) {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int sequencers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🧵 TRADING ENGINE SEQUENCER SCALING BENCHMARK               ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%,d limit orders per run, %d producer threads, %d CPUs, best of %d runs%n%n",
+                orders, producers, Runtime.getRuntime().availableProcessors(), runs);
+
+        // Warm up
+        for (int symbols : new int[] {1, 64}) {
+            runLocked(orders / 2, symbols, producers);
+            runSequenced(orders / 2, symbols, producers, sequencers);
+            runSequenced(orders / 2, symbols, producers, symbols);
+        }
+
+        System.out.printf("%-8s %-22s %12s %10s %14s %14s%n",
+                "stocks", "engine", "orders/s", "trades", "trades/notify", "orders/batch");
+        for (int symbols : SYMBOL_COUNTS) {
+            Result locked = null;
+            Result shared = null;
+            Result perStock = null;
+            for (int run = 0; run < runs; run++) {
+                locked = best(locked, runLocked(orders, symbols, producers));
+                shared = best(shared, runSequenced(orders, symbols, producers, sequencers));
+                if (symbols != sequencers) {
+                    perStock = best(perStock, runSequenced(orders, symbols, producers, symbols));
+                }
+            }
+            print(symbols, "single lock", orders, locked);
+            print(symbols, sequencers + " sequencer(s)", orders, shared);
+            if (perStock != null) {
+                print(symbols, symbols + " sequencers (1/stock)", orders, perStock);
+            }
+        }
+    }
+
+    private static Result best(Result best, Result result) {
+        return best == null || result.seconds() < best.seconds() ? result : best;
+    }
+
+    private static Result runLocked(int orders, int symbols, int producers) throws InterruptedException {
+        LockedEngine engine = new LockedEngine(portfolios(producers, symbols));
+        CountingObserver observer = new CountingObserver();
+        engine.observer = observer;
+        double seconds = drive(orders, symbols, producers, () -> new OrderSink() {
+            @Override
+            public void place(Order order) {
+                engine.placeOrder(order);
+            }
+
+            @Override
+            public void await() {
+            }
+        });
+        return new Result(seconds, observer.trades.sum(), observer.batches.sum(), 1);
+    }
+
+    private static Result runSequenced(int orders, int symbols, int producers, int sequencers)
+            throws InterruptedException {
+        TradingEngine engine = new TradingEngine(new OrderBookService(), portfolios(producers, symbols), sequencers);
+        CountingObserver observer = new CountingObserver();
+        engine.addObserver(observer);
+        double seconds = drive(orders, symbols, producers, () -> new OrderSink() {
+            private final List<CompletableFuture<Order>> lastBySymbol = new ArrayList<>();
+
+            @Override
+            public void place(Order order) {
+                int symbol = Integer.parseInt(order.getStockSymbol().substring(3));
+                while (lastBySymbol.size() <= symbol) {
+                    lastBySymbol.add(null);
+                }
+                lastBySymbol.set(symbol, engine.submitOrder(order));
+            }
+
+            @Override
+            public void await() {
+                // Each sequencer applies a stock's orders in order: the last one done means all are
+                for (CompletableFuture<Order> last : lastBySymbol) {
+                    if (last != null) {
+                        last.join();
+                    }
+                }
+            }
+        });
+        double ordersPerBatch = engine.getAverageBatchSize();
+        engine.shutdown();
+        return new Result(seconds, observer.trades.sum(), observer.batches.sum(), ordersPerBatch);
+    }
+
+    private static PortfolioService portfolios(int producers, int symbols) {
+        PortfolioService portfolioService = new PortfolioService();
+        for (int p = 0; p < producers; p++) {
+            var portfolio = portfolioService.getOrCreatePortfolio("trader-" + p, 1e15);
+            for (int s = 0; s < symbols; s++) {
+                portfolio.addHolding("SYM" + s, 500_000_000);
+            }
+        }
+        return portfolioService;
+    }
+
+    /**
+     * Run the producers and time until every order has been matched.
+     */
+    private static double drive(int orders, int symbols, int producers,
+                                Supplier<OrderSink> sinks) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers);
+        int perProducer = orders / producers;
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            OrderSink sink = sinks.get();
+            Thread thread = new Thread(() -> {
+                Random random = new Random(producer);
+                String userId = "trader-" + producer;
+                try {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        boolean buy = random.nextBoolean();
+                        long offset = random.nextInt(100) < 15 ? -1 - random.nextInt(2) : 1 + random.nextInt(10);
+                        long tick = buy ? MID_TICK - offset : MID_TICK + offset;
+                        sink.place(new Order("P" + producer + "-" + i, userId, "SYM" + random.nextInt(symbols),
+                                buy ? OrderType.BUY : OrderType.SELL, OrderSide.LIMIT, tick / 100.0,
+                                1 + random.nextInt(100)));
+                    }
+                    sink.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "producer-" + p);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (System.nanoTime() - begin) / 1e9;
+    }
+
+    private static void print(int symbols, String label, int orders, Result result) {
+        System.out.printf("%-8d %-22s %,12.0f %,10d %14.1f %14.1f%n", symbols, label, orders / result.seconds(),
+                result.trades(), result.batches() == 0 ? 0.0 : (double) result.trades() / result.batches(),
+                result.ordersPerBatch());
+    }
+
+    private static final class CountingObserver implements TradeObserver {
+        final LongAdder trades = new LongAdder();
+        final LongAdder batches = new LongAdder();
+
+        @Override
+        public void onTradeExecuted(Trade trade, Order buyOrder, Order sellOrder) {
+            trades.increment();
+            batches.increment();
+        }
+
+        @Override
+        public void onTradesExecuted(List<TradeExecution> executions) {
+            trades.add(executions.size());
+            batches.increment();
+        }
+    }
+
+    /**
+     * The previous TradingEngine.placeOrder(): one lock for every stock.
+     */
+    private static final class LockedEngine {
+        private final OrderBookService orderBookService = new OrderBookService();
+        private final PortfolioService portfolioService;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong tradeCounter = new AtomicLong(1);
+        private TradeObserver observer;
+
+        LockedEngine(PortfolioService portfolioService) {
+            this.portfolioService = portfolioService;
+        }
+
+        void placeOrder(Order order) {
+            lock.lock();
+            try {
+                if (!portfolioService.canAfford(order)) {
+                    throw new IllegalArgumentException("Insufficient funds or holdings for order: " + order.getOrderId());
+                }
+                for (MatchResult match : orderBookService.match(order)) {
+                    Order resting = match.getOrder();
+                    Order buyOrder = order.getType() == OrderType.BUY ? order : resting;
+                    Order sellOrder = order.getType() == OrderType.BUY ? resting : order;
+                    Trade trade = new Trade("T" + tradeCounter.getAndIncrement(), order.getStockSymbol(),
+                            buyOrder.getOrderId(), sellOrder.getOrderId(), resting.getPrice(), match.getQuantity());
+                    buyOrder.fill(match.getQuantity());
+                    sellOrder.fill(match.getQuantity());
+                    portfolioService.executeTrade(trade, buyOrder, sellOrder);
+                    observer.onTradeExecuted(trade, buyOrder, sellOrder);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class Order {
     private final int quantity;
     private int filledQuantity;
     private OrderStatus status;
+    private double reservedCash;    // Buy orders: cash held in the portfolio, not yet spent
     private final LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -85,6 +86,14 @@ public class Order {
         this.updatedAt = LocalDateTime.now();
     }
 
+    public double getReservedCash() {
+        return reservedCash;
+    }
+
+    public void setReservedCash(double reservedCash) {
+        this.reservedCash = reservedCash;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -3,10 +3,20 @@ package org.lld.practice.design_stock_trading_system.improved_solution.models;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * A user's cash and holdings. Synchronized: trades in different stocks
+ * settle on different sequencer threads.
+ *
+ * Open orders reserve what they may spend (cash for buys, shares for
+ * sells), so orders in stocks on different sequencers cannot both count
+ * the same cash or shares; fills spend from the reservation.
+ */
 public class Portfolio {
     private final String userId;
     private double cashBalance;
+    private double reservedCash;
     private final Map<String, Integer> holdings; // stockSymbol -> quantity
+    private final Map<String, Integer> reservedHoldings = new HashMap<>();
 
     public Portfolio(String userId, double initialBalance) {
         this.userId = userId;
@@ -18,30 +28,115 @@ public class Portfolio {
         return userId;
     }
 
-    public double getCashBalance() {
+    public synchronized double getCashBalance() {
         return cashBalance;
     }
 
-    public void addCash(double amount) {
+    public synchronized void addCash(double amount) {
         this.cashBalance += amount;
     }
 
-    public void deductCash(double amount) {
+    public synchronized void deductCash(double amount) {
         if (this.cashBalance < amount) {
             throw new IllegalArgumentException("Insufficient cash balance");
         }
         this.cashBalance -= amount;
     }
 
-    public int getHolding(String stockSymbol) {
+    public synchronized int getHolding(String stockSymbol) {
         return holdings.getOrDefault(stockSymbol, 0);
     }
 
-    public void addHolding(String stockSymbol, int quantity) {
+    /**
+     * Cash not reserved by open buy orders.
+     */
+    public synchronized double getAvailableCash() {
+        return cashBalance - reservedCash;
+    }
+
+    /**
+     * Shares not reserved by open sell orders.
+     */
+    public synchronized int getAvailableHolding(String stockSymbol) {
+        return holdings.getOrDefault(stockSymbol, 0) - reservedHoldings.getOrDefault(stockSymbol, 0);
+    }
+
+    /**
+     * @return false (and nothing reserved) if less than amount is available
+     */
+    public synchronized boolean reserveCash(double amount) {
+        if (cashBalance - reservedCash < amount) {
+            return false;
+        }
+        reservedCash += amount;
+        return true;
+    }
+
+    /**
+     * Reserve all available cash (a market buy, whose cost is unknown).
+     *
+     * @return the amount reserved
+     */
+    public synchronized double reserveAvailableCash() {
+        double amount = Math.max(0, cashBalance - reservedCash);
+        reservedCash += amount;
+        return amount;
+    }
+
+    public synchronized void releaseCash(double amount) {
+        reservedCash = Math.max(0, reservedCash - amount);
+    }
+
+    /**
+     * Pay for a fill: release what the order reserved for it and deduct
+     * what it cost, in one step.
+     */
+    public synchronized void spendReservedCash(double reserved, double amount) {
+        double remainingReserve = Math.max(0, reservedCash - reserved);
+        if (cashBalance - remainingReserve < amount) {
+            throw new IllegalArgumentException("Insufficient cash balance");
+        }
+        reservedCash = remainingReserve;
+        cashBalance -= amount;
+    }
+
+    /**
+     * @return false (and nothing reserved) if fewer shares are available
+     */
+    public synchronized boolean reserveHolding(String stockSymbol, int quantity) {
+        if (getAvailableHolding(stockSymbol) < quantity) {
+            return false;
+        }
+        reservedHoldings.merge(stockSymbol, quantity, Integer::sum);
+        return true;
+    }
+
+    public synchronized void releaseHolding(String stockSymbol, int quantity) {
+        int remaining = reservedHoldings.getOrDefault(stockSymbol, 0) - quantity;
+        if (remaining > 0) {
+            reservedHoldings.put(stockSymbol, remaining);
+        } else {
+            reservedHoldings.remove(stockSymbol);
+        }
+    }
+
+    /**
+     * Deliver sold shares: release their reservation and deduct them, in one step.
+     */
+    public synchronized void spendReservedHolding(String stockSymbol, int quantity) {
+        int reserved = reservedHoldings.getOrDefault(stockSymbol, 0);
+        if (holdings.getOrDefault(stockSymbol, 0) - Math.max(0, reserved - quantity) < quantity) {
+            throw new IllegalArgumentException("Insufficient holdings for " + stockSymbol);
+        }
+        releaseHolding(stockSymbol, quantity);
+        deductHolding(stockSymbol, quantity);
+    }
+
+    public synchronized void addHolding(String stockSymbol, int quantity) {
         holdings.put(stockSymbol, holdings.getOrDefault(stockSymbol, 0) + quantity);
     }
 
-    public void deductHolding(String stockSymbol, int quantity) {
+    public synchronized void deductHolding(String stockSymbol, int quantity) {
         int current = holdings.getOrDefault(stockSymbol, 0);
         if (current < quantity) {
             throw new IllegalArgumentException("Insufficient holdings for " + stockSymbol);
@@ -52,12 +147,12 @@ public class Portfolio {
         }
     }
 
-    public Map<String, Integer> getAllHoldings() {
+    public synchronized Map<String, Integer> getAllHoldings() {
         return new HashMap<>(holdings);
     }
 
     @Override
-    public String toString() {
+    public synchronized String toString() {
         return String.format("Portfolio[userId=%s, cash=$%.2f, holdings=%s]",
                 userId, cashBalance, holdings);
     }
@@ -0,0 +1,33 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.models;
+
+/**
+ * A trade together with the two orders it filled.
+ */
+public class TradeExecution {
+    private final Trade trade;
+    private final Order buyOrder;
+    private final Order sellOrder;
+
+    public TradeExecution(Trade trade, Order buyOrder, Order sellOrder) {
+        this.trade = trade;
+        this.buyOrder = buyOrder;
+        this.sellOrder = sellOrder;
+    }
+
+    public Trade getTrade() {
+        return trade;
+    }
+
+    public Order getBuyOrder() {
+        return buyOrder;
+    }
+
+    public Order getSellOrder() {
+        return sellOrder;
+    }
+
+    @Override
+    public String toString() {
+        return trade.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.observers;
+
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Trade;
+
+/**
+ * Prints every executed trade.
+ */
+public class TradeLogObserver implements TradeObserver {
+    @Override
+    public void onTradeExecuted(Trade trade, Order buyOrder, Order sellOrder) {
+        System.out.println("Executed: " + trade);
+    }
+}
@@ -2,11 +2,26 @@ package org.lld.practice.design_stock_trading_system.improved_solution.observers
 
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Trade;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.TradeExecution;
+
+import java.util.List;
 
 /**
  * Observer interface for trade execution notifications.
  */
 public interface TradeObserver {
     void onTradeExecuted(Trade trade, Order buyOrder, Order sellOrder);
-}
 
+    /**
+     * Trades from one batch of orders, in execution order. Called on the
+     * sequencer thread that matched them, so trades of one stock arrive in
+     * order; trades of stocks on different sequencers may arrive concurrently.
+     * By default calls onTradeExecuted() for each trade; override to handle
+     * the batch at once (one write, one message).
+     */
+    default void onTradesExecuted(List<TradeExecution> executions) {
+        for (TradeExecution execution : executions) {
+            onTradeExecuted(execution.getTrade(), execution.getBuyOrder(), execution.getSellOrder());
+        }
+    }
+}
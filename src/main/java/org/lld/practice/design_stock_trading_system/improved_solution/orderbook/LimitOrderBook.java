@@ -0,0 +1,300 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.orderbook;
+
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy.MatchResult;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Limit order book with integer price ticks and an array of price levels.
+ *
+ * Prices are converted to ticks (price / tickSize) once, on arrival. Each
+ * side is a PriceLevel[] indexed by tick - baseTick, with a BitSet marking
+ * the non-empty levels:
+ * - best bid/ask: cached level indexes, O(1) to read;
+ * - matching: take orders from the best level's FIFO queue; when a level
+ *   empties, the next best is the next set bit (64 levels per word);
+ * - resting: append to the level's queue, O(1);
+ * - cancel: HashMap lookup by order ID and an O(1) unlink.
+ *
+ * The array starts with 4096 levels centred on the first resting price
+ * and grows (and re-bases) when a price falls outside it.
+ *
+ * Methods are synchronized so other threads can query the book; under
+ * TradingEngine only the stock's sequencer thread changes it, so the lock
+ * is never contended on the matching path.
+ */
+public class LimitOrderBook implements OrderBook {
+
+    public static final double DEFAULT_TICK_SIZE = 0.01;
+    private static final int INITIAL_LEVELS = 4096;
+    private static final int MAX_LEVELS = 1 << 24;
+
+    private final String stockSymbol;
+    private final double tickSize;
+    private final Map<String, PriceLevel.Entry> ordersById = new HashMap<>();
+    private PriceLevel[] bids = new PriceLevel[0];
+    private PriceLevel[] asks = new PriceLevel[0];
+    private BitSet bidLevels = new BitSet();
+    private BitSet askLevels = new BitSet();
+    private long baseTick;          // Tick of index 0
+    private int bestBid = -1;       // Index of the highest non-empty bid level
+    private int bestAsk = -1;       // Index of the lowest non-empty ask level
+
+    public LimitOrderBook(String stockSymbol) {
+        this(stockSymbol, DEFAULT_TICK_SIZE);
+    }
+
+    public LimitOrderBook(String stockSymbol, double tickSize) {
+        if (!(tickSize > 0)) {
+            throw new IllegalArgumentException("Tick size must be positive: " + tickSize);
+        }
+        this.stockSymbol = stockSymbol;
+        this.tickSize = tickSize;
+    }
+
+    @Override
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public double getTickSize() {
+        return tickSize;
+    }
+
+    @Override
+    public synchronized List<MatchResult> match(Order order) {
+        if (ordersById.containsKey(order.getOrderId())) {
+            throw new IllegalArgumentException("Order already in the book: " + order.getOrderId());
+        }
+        boolean buy = order.getType() == OrderType.BUY;
+        boolean market = order.getSide() == OrderSide.MARKET;
+        long limitTick = market ? 0 : toTick(order.getPrice());
+        if (!market) {
+            checkRange(limitTick);  // reject before matching, not after resting orders were filled
+        }
+        int remaining = order.getRemainingQuantity();
+
+        List<MatchResult> matches = new ArrayList<>();
+        while (remaining > 0) {
+            int best = buy ? bestAsk : bestBid;
+            if (best < 0 || !market && (buy ? baseTick + best > limitTick : baseTick + best < limitTick)) {
+                break;
+            }
+            PriceLevel level = buy ? asks[best] : bids[best];
+            while (remaining > 0 && !level.isEmpty()) {
+                PriceLevel.Entry resting = level.head();
+                int quantity = Math.min(remaining, resting.remaining);
+                matches.add(new MatchResult(resting.order, quantity));
+                remaining -= quantity;
+                level.reduce(resting, quantity);
+                if (resting.remaining == 0) {
+                    ordersById.remove(resting.order.getOrderId());
+                }
+            }
+            if (level.isEmpty()) {
+                levelEmptied(!buy, best);
+            }
+        }
+
+        if (remaining > 0 && !market) {
+            rest(order, buy, limitTick, remaining);
+        }
+        return matches;
+    }
+
+    private void rest(Order order, boolean buy, long tick, int quantity) {
+        int index = indexOf(tick);
+        PriceLevel[] levels = buy ? bids : asks;
+        if (levels[index] == null) {
+            levels[index] = new PriceLevel();
+        }
+        ordersById.put(order.getOrderId(), levels[index].add(order, tick, quantity));
+        if (buy) {
+            bidLevels.set(index);
+            if (index > bestBid) {
+                bestBid = index;
+            }
+        } else {
+            askLevels.set(index);
+            if (bestAsk < 0 || index < bestAsk) {
+                bestAsk = index;
+            }
+        }
+    }
+
+    @Override
+    public synchronized Order cancel(String orderId) {
+        PriceLevel.Entry entry = ordersById.remove(orderId);
+        if (entry == null) {
+            return null;
+        }
+        entry.level.remove(entry);
+        if (entry.level.isEmpty()) {
+            levelEmptied(entry.order.getType() == OrderType.BUY, (int) (entry.tick - baseTick));
+        }
+        return entry.order;
+    }
+
+    private void levelEmptied(boolean bidSide, int index) {
+        if (bidSide) {
+            bidLevels.clear(index);
+            if (index == bestBid) {
+                bestBid = bidLevels.previousSetBit(index);
+            }
+        } else {
+            askLevels.clear(index);
+            if (index == bestAsk) {
+                bestAsk = askLevels.nextSetBit(index);
+            }
+        }
+    }
+
+    // ========== Prices and levels ==========
+
+    private long toTick(double price) {
+        double ticks = price / tickSize;
+        long tick = Math.round(ticks);
+        if (tick <= 0 || Math.abs(ticks - tick) > 1e-6) {
+            throw new IllegalArgumentException(
+                    "Limit price must be a positive multiple of " + tickSize + ": " + price);
+        }
+        return tick;
+    }
+
+    private int indexOf(long tick) {
+        if (bids.length == 0) {
+            baseTick = Math.max(0, tick - INITIAL_LEVELS / 2);
+            bids = new PriceLevel[INITIAL_LEVELS];
+            asks = new PriceLevel[INITIAL_LEVELS];
+        }
+        if (tick < baseTick || tick >= baseTick + bids.length) {
+            grow(tick);
+        }
+        return (int) (tick - baseTick);
+    }
+
+    /**
+     * Widen the arrays to cover the tick, with at least the old size again
+     * as headroom on the side that overflowed, and shift every index.
+     */
+    private void grow(long tick) {
+        long size = grownSize(tick);
+        long newBase = tick < baseTick
+                ? Math.max(0, baseTick + bids.length - size)  // the old top stays the top
+                : baseTick;
+        int shift = (int) (baseTick - newBase);
+
+        PriceLevel[] newBids = new PriceLevel[(int) size];
+        PriceLevel[] newAsks = new PriceLevel[(int) size];
+        System.arraycopy(bids, 0, newBids, shift, bids.length);
+        System.arraycopy(asks, 0, newAsks, shift, asks.length);
+        bids = newBids;
+        asks = newAsks;
+        bidLevels = shifted(bidLevels, shift);
+        askLevels = shifted(askLevels, shift);
+        bestBid = bestBid < 0 ? -1 : bestBid + shift;
+        bestAsk = bestAsk < 0 ? -1 : bestAsk + shift;
+        baseTick = newBase;
+    }
+
+    /**
+     * Throw if resting at the tick would need more than MAX_LEVELS levels.
+     */
+    private void checkRange(long tick) {
+        if (bids.length > 0 && (tick < baseTick || tick >= baseTick + bids.length)) {
+            grownSize(tick);
+        }
+    }
+
+    private long grownSize(long tick) {
+        long low = Math.min(baseTick, tick);
+        long high = Math.max(baseTick + bids.length - 1, tick);
+        long size = Math.max(2L * bids.length, high - low + 1 + bids.length);
+        if (size > MAX_LEVELS) {
+            throw new IllegalArgumentException(String.format(
+                    "Price %.2f is too far from the other orders in %s (more than %d ticks)",
+                    tick * tickSize, stockSymbol, MAX_LEVELS));
+        }
+        return size;
+    }
+
+    private static BitSet shifted(BitSet levels, int shift) {
+        BitSet result = new BitSet();
+        for (int i = levels.nextSetBit(0); i >= 0; i = levels.nextSetBit(i + 1)) {
+            result.set(i + shift);
+        }
+        return result;
+    }
+
+    // ========== Queries ==========
+
+    @Override
+    public synchronized Order getOrder(String orderId) {
+        PriceLevel.Entry entry = ordersById.get(orderId);
+        return entry == null ? null : entry.order;
+    }
+
+    @Override
+    public synchronized OptionalDouble getBestBid() {
+        return bestBid < 0 ? OptionalDouble.empty() : OptionalDouble.of((baseTick + bestBid) * tickSize);
+    }
+
+    @Override
+    public synchronized OptionalDouble getBestAsk() {
+        return bestAsk < 0 ? OptionalDouble.empty() : OptionalDouble.of((baseTick + bestAsk) * tickSize);
+    }
+
+    /**
+     * Total resting quantity at one price on one side (market depth).
+     */
+    public synchronized long getQuantityAt(OrderType type, double price) {
+        long tick = toTick(price);
+        PriceLevel[] levels = type == OrderType.BUY ? bids : asks;
+        if (tick < baseTick || tick >= baseTick + levels.length || levels[(int) (tick - baseTick)] == null) {
+            return 0;
+        }
+        return levels[(int) (tick - baseTick)].getTotalQuantity();
+    }
+
+    @Override
+    public synchronized List<Order> getBuyOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = bestBid; i >= 0; i = bidLevels.previousSetBit(i - 1)) {
+            bids[i].collectOrders(orders);
+        }
+        return orders;
+    }
+
+    @Override
+    public synchronized List<Order> getSellOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = bestAsk; i >= 0; i = askLevels.nextSetBit(i + 1)) {
+            asks[i].collectOrders(orders);
+        }
+        return orders;
+    }
+
+    @Override
+    public synchronized int size() {
+        return ordersById.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("LimitOrderBook[%s, bid=%s, ask=%s, orders=%d, bid levels=%d, ask levels=%d]",
+                stockSymbol, format(getBestBid()), format(getBestAsk()), ordersById.size(),
+                bidLevels.cardinality(), askLevels.cardinality());
+    }
+
+    private static String format(OptionalDouble price) {
+        return price.isPresent() ? String.format("$%.2f", price.getAsDouble()) : "-";
+    }
+}
@@ -0,0 +1,112 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.orderbook;
+
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy.MatchResult;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.PriceTimePriorityStrategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * Order book kept as two unsorted lists, matched by a MatchingStrategy.
+ *
+ * Every match filters and sorts the whole opposite side (O(n log n) per
+ * order), and cancel and removal are linear scans. Kept for pluggable
+ * strategies such as pro-rata matching, and as the baseline in
+ * OrderBookBenchmark; LimitOrderBook is the default.
+ */
+public class ListOrderBook implements OrderBook {
+
+    private final String stockSymbol;
+    private final MatchingStrategy matchingStrategy;
+    private final List<Order> buyOrders = new ArrayList<>();
+    private final List<Order> sellOrders = new ArrayList<>();
+
+    public ListOrderBook(String stockSymbol) {
+        this(stockSymbol, new PriceTimePriorityStrategy());
+    }
+
+    public ListOrderBook(String stockSymbol, MatchingStrategy matchingStrategy) {
+        this.stockSymbol = stockSymbol;
+        this.matchingStrategy = matchingStrategy;
+    }
+
+    @Override
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    @Override
+    public synchronized List<MatchResult> match(Order order) {
+        boolean buy = order.getType() == OrderType.BUY;
+        List<Order> opposite = buy ? sellOrders : buyOrders;
+        List<MatchResult> matches = matchingStrategy.findMatches(order, opposite);
+
+        int matched = 0;
+        for (MatchResult match : matches) {
+            matched += match.getQuantity();
+            if (match.getQuantity() == match.getOrder().getRemainingQuantity()) {
+                opposite.remove(match.getOrder());
+            }
+        }
+        if (order.getSide() == OrderSide.LIMIT && order.getRemainingQuantity() > matched) {
+            (buy ? buyOrders : sellOrders).add(order);
+        }
+        return matches;
+    }
+
+    @Override
+    public synchronized Order cancel(String orderId) {
+        Order order = getOrder(orderId);
+        if (order != null) {
+            (order.getType() == OrderType.BUY ? buyOrders : sellOrders).remove(order);
+        }
+        return order;
+    }
+
+    @Override
+    public synchronized Order getOrder(String orderId) {
+        for (List<Order> orders : List.of(buyOrders, sellOrders)) {
+            for (Order order : orders) {
+                if (order.getOrderId().equals(orderId)) {
+                    return order;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized OptionalDouble getBestBid() {
+        return buyOrders.stream().mapToDouble(Order::getPrice).max();
+    }
+
+    @Override
+    public synchronized OptionalDouble getBestAsk() {
+        return sellOrders.stream().mapToDouble(Order::getPrice).min();
+    }
+
+    @Override
+    public synchronized List<Order> getBuyOrders() {
+        List<Order> orders = new ArrayList<>(buyOrders);
+        orders.sort(Comparator.comparing(Order::getPrice, Comparator.reverseOrder()).thenComparing(Order::getCreatedAt));
+        return orders;
+    }
+
+    @Override
+    public synchronized List<Order> getSellOrders() {
+        List<Order> orders = new ArrayList<>(sellOrders);
+        orders.sort(Comparator.comparing(Order::getPrice).thenComparing(Order::getCreatedAt));
+        return orders;
+    }
+
+    @Override
+    public synchronized int size() {
+        return buyOrders.size() + sellOrders.size();
+    }
+}
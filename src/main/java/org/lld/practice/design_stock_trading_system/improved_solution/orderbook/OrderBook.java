@@ -0,0 +1,66 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.orderbook;
+
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy.MatchResult;
+
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * Resting orders for one stock.
+ *
+ * match() only decides what trades: it removes the resting quantity it
+ * hands out, but the caller (TradingEngine) fills both Order objects and
+ * settles the portfolios. Callers must apply the fills from one match()
+ * before the next call.
+ */
+public interface OrderBook {
+
+    String getStockSymbol();
+
+    /**
+     * Match an incoming order against the opposite side in price-time
+     * priority, then rest whatever is left of a limit order. Market orders
+     * never rest: their unmatched quantity is left to the caller.
+     *
+     * @return resting orders to trade with, best first, and the quantity of each
+     */
+    List<MatchResult> match(Order order);
+
+    /**
+     * Remove a resting order.
+     *
+     * @return the order, or null if it is not resting in this book
+     */
+    Order cancel(String orderId);
+
+    /**
+     * @return the resting order, or null if it is not resting in this book
+     */
+    Order getOrder(String orderId);
+
+    /**
+     * Highest resting buy price; empty if there are no buy orders.
+     */
+    OptionalDouble getBestBid();
+
+    /**
+     * Lowest resting sell price; empty if there are no sell orders.
+     */
+    OptionalDouble getBestAsk();
+
+    /**
+     * Resting buy orders in priority order (best price first, then oldest).
+     */
+    List<Order> getBuyOrders();
+
+    /**
+     * Resting sell orders in priority order (best price first, then oldest).
+     */
+    List<Order> getSellOrders();
+
+    /**
+     * Number of resting orders on both sides.
+     */
+    int size();
+}
@@ -0,0 +1,101 @@
+package org.lld.practice.design_stock_trading_system.improved_solution.orderbook;
+
+import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+
+import java.util.List;
+
+/**
+ * All resting orders at one price on one side of a LimitOrderBook.
+ *
+ * A FIFO queue kept as an intrusive doubly linked list, so that the oldest
+ * order is matched first and any order can be unlinked in O(1) on cancel.
+ * Level objects stay in the book's array once created and are reused when
+ * the price fills again.
+ */
+class PriceLevel {
+
+    /**
+     * One resting order: its links and the quantity still on offer.
+     */
+    static final class Entry {
+        final Order order;
+        final long tick;
+        final PriceLevel level;
+        int remaining;
+        Entry previous;
+        Entry next;
+
+        Entry(Order order, long tick, PriceLevel level, int remaining) {
+            this.order = order;
+            this.tick = tick;
+            this.level = level;
+            this.remaining = remaining;
+        }
+    }
+
+    private Entry head;
+    private Entry tail;
+    private long totalQuantity;
+
+    Entry add(Order order, long tick, int quantity) {
+        Entry entry = new Entry(order, tick, this, quantity);
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+            entry.previous = tail;
+        }
+        tail = entry;
+        totalQuantity += quantity;
+        return entry;
+    }
+
+    /**
+     * Take quantity from an entry; it is unlinked once nothing remains.
+     */
+    void reduce(Entry entry, int quantity) {
+        entry.remaining -= quantity;
+        totalQuantity -= quantity;
+        if (entry.remaining == 0) {
+            unlink(entry);
+        }
+    }
+
+    void remove(Entry entry) {
+        totalQuantity -= entry.remaining;
+        unlink(entry);
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous == null) {
+            head = entry.next;
+        } else {
+            entry.previous.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.previous;
+        } else {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    Entry head() {
+        return head;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    void collectOrders(List<Order> orders) {
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            orders.add(entry.order);
+        }
+    }
+}
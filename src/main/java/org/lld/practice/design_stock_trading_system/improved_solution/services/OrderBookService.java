@@ -1,94 +1,90 @@
 package org.lld.practice.design_stock_trading_system.improved_solution.services;
 
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
-import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderStatus;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.LimitOrderBook;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.OrderBook;
+import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy.MatchResult;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalDouble;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
 /**
  * Manages order book for each stock.
- * Uses priority queues for efficient matching.
+ * Uses a LimitOrderBook (price levels, O(1) best bid/ask and cancel) unless
+ * another OrderBook factory is given.
  */
 public class OrderBookService {
     private final ConcurrentHashMap<String, OrderBook> orderBooks = new ConcurrentHashMap<>();
-    
-    private static class OrderBook {
-        private final List<Order> buyOrders = new ArrayList<>();
-        private final List<Order> sellOrders = new ArrayList<>();
-        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-        
-        public void addOrder(Order order) {
-            lock.writeLock().lock();
-            try {
-                if (order.getType() == org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType.BUY) {
-                    buyOrders.add(order);
-                } else {
-                    sellOrders.add(order);
-                }
-            } finally {
-                lock.writeLock().unlock();
-            }
-        }
-        
-        public List<Order> getBuyOrders() {
-            lock.readLock().lock();
-            try {
-                return new ArrayList<>(buyOrders);
-            } finally {
-                lock.readLock().unlock();
-            }
-        }
-        
-        public List<Order> getSellOrders() {
-            lock.readLock().lock();
-            try {
-                return new ArrayList<>(sellOrders);
-            } finally {
-                lock.readLock().unlock();
+    private final Function<String, OrderBook> orderBookFactory;
+
+    public OrderBookService() {
+        this(LimitOrderBook::new);
+    }
+
+    /**
+     * @param orderBookFactory Creates the book for a stock symbol on its first order
+     */
+    public OrderBookService(Function<String, OrderBook> orderBookFactory) {
+        this.orderBookFactory = orderBookFactory;
+    }
+
+    public OrderBook getOrderBook(String stockSymbol) {
+        return orderBooks.computeIfAbsent(stockSymbol, orderBookFactory);
+    }
+
+    /**
+     * Match an order in its stock's book, resting what is left of a limit order.
+     */
+    public List<MatchResult> match(Order order) {
+        return getOrderBook(order.getStockSymbol()).match(order);
+    }
+
+    /**
+     * Find a resting order: an O(1) lookup in each stock's book.
+     */
+    public Order getOrder(String orderId) {
+        for (OrderBook book : orderBooks.values()) {
+            Order order = book.getOrder(orderId);
+            if (order != null) {
+                return order;
             }
         }
-        
-        public void removeOrder(Order order) {
-            lock.writeLock().lock();
-            try {
-                if (order.getType() == org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType.BUY) {
-                    buyOrders.remove(order);
-                } else {
-                    sellOrders.remove(order);
-                }
-            } finally {
-                lock.writeLock().unlock();
+        return null;
+    }
+
+    /**
+     * @return the removed order, or null if it is not resting in any book
+     */
+    public Order cancel(String orderId) {
+        for (OrderBook book : orderBooks.values()) {
+            Order order = book.cancel(orderId);
+            if (order != null) {
+                return order;
             }
         }
+        return null;
     }
-    
-    public void addOrder(Order order) {
-        OrderBook book = orderBooks.computeIfAbsent(order.getStockSymbol(), k -> new OrderBook());
-        book.addOrder(order);
-    }
-    
+
     public List<Order> getBuyOrders(String stockSymbol) {
         OrderBook book = orderBooks.get(stockSymbol);
         return book != null ? book.getBuyOrders() : new ArrayList<>();
     }
-    
+
     public List<Order> getSellOrders(String stockSymbol) {
         OrderBook book = orderBooks.get(stockSymbol);
         return book != null ? book.getSellOrders() : new ArrayList<>();
     }
-    
-    public void removeFilledOrders(String stockSymbol) {
+
+    public OptionalDouble getBestBid(String stockSymbol) {
         OrderBook book = orderBooks.get(stockSymbol);
-        if (book != null) {
-            List<Order> buyOrders = book.getBuyOrders();
-            List<Order> sellOrders = book.getSellOrders();
-            
-            buyOrders.removeIf(o -> o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.CANCELLED);
-            sellOrders.removeIf(o -> o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.CANCELLED);
-        }
+        return book != null ? book.getBestBid() : OptionalDouble.empty();
     }
-}
 
+    public OptionalDouble getBestAsk(String stockSymbol) {
+        OrderBook book = orderBooks.get(stockSymbol);
+        return book != null ? book.getBestAsk() : OptionalDouble.empty();
+    }
+}
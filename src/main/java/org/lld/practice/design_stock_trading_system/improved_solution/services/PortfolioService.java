@@ -1,6 +1,7 @@
 package org.lld.practice.design_stock_trading_system.improved_solution.services;
 
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Portfolio;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Trade;
@@ -25,28 +26,89 @@ public class PortfolioService {
         return portfolio;
     }
     
+    /**
+     * Settle a trade before the orders are filled, spending from their
+     * reservations (see reserve()). The seller's shares are checked before
+     * either portfolio changes.
+     */
     public void executeTrade(Trade trade, Order buyOrder, Order sellOrder) {
         Portfolio buyPortfolio = getPortfolio(buyOrder.getUserId());
         Portfolio sellPortfolio = getPortfolio(sellOrder.getUserId());
         
         double totalValue = trade.getPrice() * trade.getQuantity();
+        // Release what the buy order reserved for these shares: its limit price per
+        // share, everything left on its last fill (no rounding residue), or for a
+        // market buy just the cost (the rest is released after matching)
+        double reserved;
+        if (buyOrder.getSide() == OrderSide.MARKET) {
+            reserved = totalValue;
+        } else if (buyOrder.getRemainingQuantity() == trade.getQuantity()) {
+            reserved = buyOrder.getReservedCash();
+        } else {
+            reserved = buyOrder.getPrice() * trade.getQuantity();
+        }
+        if (sellPortfolio.getHolding(trade.getStockSymbol()) < trade.getQuantity()) {
+            throw new IllegalArgumentException("Insufficient holdings for " + trade.getStockSymbol());
+        }
         
-        // Update buyer portfolio
-        buyPortfolio.deductCash(totalValue);
+        buyPortfolio.spendReservedCash(reserved, totalValue);
+        buyOrder.setReservedCash(Math.max(0, buyOrder.getReservedCash() - reserved));
+        sellPortfolio.spendReservedHolding(trade.getStockSymbol(), trade.getQuantity());
         buyPortfolio.addHolding(trade.getStockSymbol(), trade.getQuantity());
-        
-        // Update seller portfolio
         sellPortfolio.addCash(totalValue);
-        sellPortfolio.deductHolding(trade.getStockSymbol(), trade.getQuantity());
     }
     
+    /**
+     * Reserve what the order may spend: limit price x quantity in cash for a
+     * limit buy, all available cash for a market buy (its cost is unknown
+     * until it matches), the shares for a sell. Call releaseUnfilled() when
+     * the order is done.
+     *
+     * @return false (and nothing reserved) if the user cannot afford the order
+     */
+    public boolean reserve(Order order) {
+        Portfolio portfolio = getPortfolio(order.getUserId());
+        if (order.getType() == OrderType.SELL) {
+            return portfolio.reserveHolding(order.getStockSymbol(), order.getQuantity());
+        }
+        if (order.getSide() == OrderSide.MARKET) {
+            double reserved = portfolio.reserveAvailableCash();
+            order.setReservedCash(reserved);
+            return true;
+        }
+        double requiredCash = order.getPrice() * order.getQuantity();
+        if (!portfolio.reserveCash(requiredCash)) {
+            return false;
+        }
+        order.setReservedCash(requiredCash);
+        return true;
+    }
+    
+    /**
+     * Release what a finished order (cancelled, or a market order done
+     * matching) still holds.
+     */
+    public void releaseUnfilled(Order order) {
+        Portfolio portfolio = getPortfolio(order.getUserId());
+        if (order.getType() == OrderType.SELL) {
+            portfolio.releaseHolding(order.getStockSymbol(), order.getRemainingQuantity());
+        } else {
+            portfolio.releaseCash(order.getReservedCash());
+            order.setReservedCash(0);
+        }
+    }
+    
+    /**
+     * Whether the user has the unreserved cash or shares for the whole order
+     * (a check only: see reserve()).
+     */
     public boolean canAfford(Order order) {
         Portfolio portfolio = getPortfolio(order.getUserId());
         if (order.getType() == OrderType.BUY) {
             double requiredCash = order.getPrice() * order.getQuantity();
-            return portfolio.getCashBalance() >= requiredCash;
+            return portfolio.getAvailableCash() >= requiredCash;
         } else {
-            int availableQuantity = portfolio.getHolding(order.getStockSymbol());
+            int availableQuantity = portfolio.getAvailableHolding(order.getStockSymbol());
             return availableQuantity >= order.getQuantity();
         }
     }
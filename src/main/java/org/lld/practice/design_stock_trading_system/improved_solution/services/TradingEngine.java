@@ -1,161 +1,340 @@
 package org.lld.practice.design_stock_trading_system.improved_solution.services;
 
+import org.lld.practice.common.concurrent.Sequencer;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Order;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderStatus;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.OrderType;
 import org.lld.practice.design_stock_trading_system.improved_solution.models.Trade;
+import org.lld.practice.design_stock_trading_system.improved_solution.models.TradeExecution;
 import org.lld.practice.design_stock_trading_system.improved_solution.observers.TradeObserver;
+import org.lld.practice.design_stock_trading_system.improved_solution.orderbook.OrderBook;
 import org.lld.practice.design_stock_trading_system.improved_solution.strategies.MatchingStrategy;
-import org.lld.practice.design_stock_trading_system.improved_solution.strategies.PriceTimePriorityStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Singleton Trading Engine that manages order matching and execution.
+ * Trading Engine that manages order matching and execution, partitioned by stock.
+ *
+ * Each stock is assigned (round-robin, on its first order) to one of N
+ * sequencer threads, which is then the only thread that matches orders in
+ * that stock's book. Callers hand orders over through the sequencer's
+ * lock-free ring buffer, so stocks on different sequencers are matched in
+ * parallel with no shared lock. Each sequencer drains orders in batches
+ * and passes the batch's trades to observers in one call.
+ *
+ * Observers run on a sequencer thread, so they may submit orders but must
+ * not wait for them: placeOrder() and cancelOrder() refuse to run there.
+ *
+ * The singleton (getInstance()) remains for the demo; engines can also be
+ * constructed directly.
  */
 public class TradingEngine {
+    private static final int RING_CAPACITY = 1 << 16;
+    private static final int MAX_BATCH = 256;
+
     private static TradingEngine instance;
     private final OrderBookService orderBookService;
     private final PortfolioService portfolioService;
-    private final MatchingStrategy matchingStrategy;
-    private final List<TradeObserver> observers = new ArrayList<>();
-    private final ReentrantLock lock = new ReentrantLock();
-    private int tradeCounter = 1;
-    
+    private final List<TradeObserver> observers = new CopyOnWriteArrayList<>();
+    private final List<Sequencer<OrderCommand>> sequencers = new ArrayList<>();
+    private final Map<String, Sequencer<OrderCommand>> sequencersBySymbol = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSequencer = new AtomicInteger();
+    private final AtomicLong tradeCounter = new AtomicLong(1);
+
+    /**
+     * A place or cancel request, applied on the stock's sequencer thread.
+     */
+    private static final class OrderCommand {
+        final Order order;              // Place, or null for a cancel
+        final String stockSymbol;
+        final String orderId;
+        final String userId;
+        final CompletableFuture<Order> result = new CompletableFuture<>();
+        Order outcome;
+        RuntimeException error;
+
+        OrderCommand(Order order, String stockSymbol, String orderId, String userId) {
+            this.order = order;
+            this.stockSymbol = stockSymbol;
+            this.orderId = orderId;
+            this.userId = userId;
+        }
+    }
+
     private TradingEngine() {
-        this.orderBookService = new OrderBookService();
-        this.portfolioService = new PortfolioService();
-        this.matchingStrategy = new PriceTimePriorityStrategy();
+        this(new OrderBookService(), new PortfolioService());
     }
-    
+
+    /**
+     * A standalone engine with one sequencer per available processor.
+     */
+    public TradingEngine(OrderBookService orderBookService, PortfolioService portfolioService) {
+        this(orderBookService, portfolioService, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TradingEngine(OrderBookService orderBookService, PortfolioService portfolioService, int sequencerCount) {
+        if (sequencerCount < 1) {
+            throw new IllegalArgumentException("Sequencer count must be positive: " + sequencerCount);
+        }
+        this.orderBookService = orderBookService;
+        this.portfolioService = portfolioService;
+        for (int i = 0; i < sequencerCount; i++) {
+            sequencers.add(new Sequencer<>("sequencer-" + i, RING_CAPACITY, MAX_BATCH,
+                    this::applyBatch, TradingEngine::failBatch));
+        }
+    }
+
     public static synchronized TradingEngine getInstance() {
         if (instance == null) {
             instance = new TradingEngine();
         }
         return instance;
     }
-    
+
+    /**
+     * Place an order and wait until it has been matched.
+     *
+     * @throws IllegalArgumentException on insufficient funds or holdings
+     * @throws IllegalStateException    if called on a sequencer thread (from an observer)
+     */
     public void placeOrder(Order order) {
-        lock.lock();
+        checkNotOnSequencer("placeOrder");
+        await(submitOrder(order));
+    }
+
+    /**
+     * Queue an order on its stock's sequencer without waiting.
+     *
+     * @return completes with the order once it has been matched (and any
+     *         trades delivered to observers), or exceptionally if rejected
+     */
+    public CompletableFuture<Order> submitOrder(Order order) {
+        OrderCommand command = new OrderCommand(order, order.getStockSymbol(), order.getOrderId(), order.getUserId());
+        sequencerFor(order.getStockSymbol()).submit(command);
+        return command.result;
+    }
+
+    /**
+     * Cancel a resting order and wait for the cancellation.
+     *
+     * @throws IllegalArgumentException if the order is not resting or belongs to another user
+     * @throws IllegalStateException    if called on a sequencer thread (from an observer)
+     */
+    public void cancelOrder(String orderId, String userId) {
+        checkNotOnSequencer("cancelOrder");
+        Order order = orderBookService.getOrder(orderId);
+        if (order == null) {
+            throw new IllegalArgumentException("Order not found or cannot be cancelled: " + orderId);
+        }
+        await(submitCancel(order.getStockSymbol(), orderId, userId));
+    }
+
+    /**
+     * Queue a cancellation on the stock's sequencer without waiting. It is
+     * ordered after every order already submitted for that stock.
+     */
+    public CompletableFuture<Order> submitCancel(String stockSymbol, String orderId, String userId) {
+        OrderCommand command = new OrderCommand(null, stockSymbol, orderId, userId);
+        sequencerFor(stockSymbol).submit(command);
+        return command.result;
+    }
+
+    private Sequencer<OrderCommand> sequencerFor(String stockSymbol) {
+        return sequencersBySymbol.computeIfAbsent(stockSymbol,
+                symbol -> sequencers.get(Math.floorMod(nextSequencer.getAndIncrement(), sequencers.size())));
+    }
+
+    /**
+     * Waiting on a sequencer thread deadlocks: the command queues behind the
+     * batch being applied, or on a sequencer that may be waiting for this one.
+     */
+    private void checkNotOnSequencer(String method) {
+        for (Sequencer<OrderCommand> sequencer : sequencers) {
+            if (sequencer.isSequencerThread()) {
+                throw new IllegalStateException(method + "() would wait for " + sequencer.getName()
+                        + " on its own thread; use the submit method from observers");
+            }
+        }
+    }
+
+    private static Order await(CompletableFuture<Order> result) {
         try {
-            // Validate order
-            if (!portfolioService.canAfford(order)) {
-                throw new IllegalArgumentException("Insufficient funds or holdings for order: " + order.getOrderId());
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
             }
-            
-            // Add to order book
-            orderBookService.addOrder(order);
-            
-            // Try to match
-            matchAndExecute(order);
-        } finally {
-            lock.unlock();
-        }
-    }
-    
-    private void matchAndExecute(Order order) {
-        List<Order> oppositeOrders = getOppositeOrders(order);
-        List<MatchingStrategy.MatchResult> matches = matchingStrategy.findMatches(order, oppositeOrders);
-        
+            throw e;
+        }
+    }
+
+    // ========== Sequencer thread ==========
+
+    /**
+     * Apply a batch of commands, deliver its trades, then complete the
+     * callers' futures (so trades are observed before placeOrder() returns).
+     */
+    private void applyBatch(List<OrderCommand> batch) {
+        List<TradeExecution> executions = new ArrayList<>();
+        for (OrderCommand command : batch) {
+            try {
+                command.outcome = command.order != null ? place(command.order, executions) : cancel(command);
+            } catch (RuntimeException e) {
+                command.error = e;
+            }
+        }
+        if (!executions.isEmpty()) {
+            notifyObservers(List.copyOf(executions));
+        }
+        for (OrderCommand command : batch) {
+            if (command.error != null) {
+                command.result.completeExceptionally(command.error);
+            } else {
+                command.result.complete(command.outcome);
+            }
+        }
+    }
+
+    /**
+     * Fail the futures of a batch the sequencer could not apply; futures that
+     * were already completed keep their result.
+     */
+    private static void failBatch(List<OrderCommand> batch, Throwable error) {
+        for (OrderCommand command : batch) {
+            command.result.completeExceptionally(error);
+        }
+    }
+
+    private Order place(Order order, List<TradeExecution> executions) {
+        // Reserve the cash or shares first: another sequencer may be placing an
+        // order for the same user in another stock right now
+        if (!portfolioService.reserve(order)) {
+            throw new IllegalArgumentException("Insufficient funds or holdings for order: " + order.getOrderId());
+        }
+
+        // Match, then rest what is left of a limit order
+        try {
+            matchAndExecute(order, executions);
+        } catch (RuntimeException e) {
+            portfolioService.releaseUnfilled(order);
+            throw e;
+        }
+
+        // Market orders never rest: the unfilled rest is cancelled
+        if (order.getSide() == OrderSide.MARKET) {
+            portfolioService.releaseUnfilled(order);
+            if (order.getRemainingQuantity() > 0) {
+                order.setStatus(OrderStatus.CANCELLED);
+                System.out.println("Market order " + order.getOrderId() + ": " + order.getRemainingQuantity()
+                        + " shares unfilled, no more liquidity - cancelled");
+            }
+        }
+        return order;
+    }
+
+    private void matchAndExecute(Order order, List<TradeExecution> executions) {
+        List<MatchingStrategy.MatchResult> matches = orderBookService.match(order);
+
         for (MatchingStrategy.MatchResult match : matches) {
-            Order oppositeOrder = match.getOrder();
+            Order restingOrder = match.getOrder();
             int quantity = match.getQuantity();
-            
-            // Execute trade
-            Trade trade = executeTrade(order, oppositeOrder, quantity);
-            
-            // Notify observers
-            notifyObservers(trade, order, oppositeOrder);
-        }
-    }
-    
-    private List<Order> getOppositeOrders(Order order) {
-        if (order.getType() == OrderType.BUY) {
-            return orderBookService.getSellOrders(order.getStockSymbol());
-        } else {
-            return orderBookService.getBuyOrders(order.getStockSymbol());
-        }
-    }
-    
-    private Trade executeTrade(Order buyOrder, Order sellOrder, int quantity) {
-        // Determine execution price (use limit price if available, else market price)
-        double executionPrice = determineExecutionPrice(buyOrder, sellOrder);
-        
+            Order buyOrder = order.getType() == OrderType.BUY ? order : restingOrder;
+            Order sellOrder = order.getType() == OrderType.BUY ? restingOrder : order;
+
+            // Execute trade at the price of the order already in the book
+            Trade trade = executeTrade(buyOrder, sellOrder, restingOrder.getPrice(), quantity);
+            executions.add(new TradeExecution(trade, buyOrder, sellOrder));
+        }
+    }
+
+    private Trade executeTrade(Order buyOrder, Order sellOrder, double executionPrice, int quantity) {
         // Create trade
-        String tradeId = "T" + tradeCounter++;
-        Trade trade = new Trade(tradeId, buyOrder.getStockSymbol(), 
+        String tradeId = "T" + tradeCounter.getAndIncrement();
+        Trade trade = new Trade(tradeId, buyOrder.getStockSymbol(),
                 buyOrder.getOrderId(), sellOrder.getOrderId(), executionPrice, quantity);
-        
+
+        // Update portfolios first: if settlement fails, the orders are unchanged
+        portfolioService.executeTrade(trade, buyOrder, sellOrder);
+
         // Update orders
         buyOrder.fill(quantity);
         sellOrder.fill(quantity);
-        
-        // Update portfolios
-        portfolioService.executeTrade(trade, buyOrder, sellOrder);
-        
-        System.out.println("Executed: " + trade);
-        
+
         return trade;
     }
-    
-    private double determineExecutionPrice(Order buyOrder, Order sellOrder) {
-        // Use the limit price if available, otherwise use market price
-        if (buyOrder.getSide() == org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide.LIMIT &&
-            sellOrder.getSide() == org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide.LIMIT) {
-            // Both are limit orders - use the price that was in the market first
-            return sellOrder.getPrice(); // Typically use the price of the order already in the book
-        } else if (buyOrder.getSide() == org.lld.practice.design_stock_trading_system.improved_solution.models.OrderSide.MARKET) {
-            return sellOrder.getPrice();
-        } else {
-            return buyOrder.getPrice();
+
+    private Order cancel(OrderCommand command) {
+        OrderBook book = orderBookService.getOrderBook(command.stockSymbol);
+        Order order = book.getOrder(command.orderId);
+        if (order == null || !order.getUserId().equals(command.userId)) {
+            throw new IllegalArgumentException("Order not found or cannot be cancelled: " + command.orderId);
         }
+        book.cancel(command.orderId);
+        portfolioService.releaseUnfilled(order);
+        order.setStatus(OrderStatus.CANCELLED);
+        System.out.println("Order " + command.orderId + " cancelled");
+        return order;
     }
-    
-    public void cancelOrder(String orderId, String userId) {
-        lock.lock();
-        try {
-            // Find order in order book
-            // In real system, would maintain order lookup map
-            // For simplicity, we'll search through order books
-            // This is simplified - in production, use a HashMap for O(1) lookup
-            List<Order> allOrders = new ArrayList<>();
-            orderBookService.getBuyOrders("AAPL").forEach(allOrders::add);
-            orderBookService.getSellOrders("AAPL").forEach(allOrders::add);
-            
-            for (Order order : allOrders) {
-                if (order.getOrderId().equals(orderId) && order.getUserId().equals(userId)) {
-                    if (order.getStatus() == OrderStatus.PENDING || 
-                        order.getStatus() == OrderStatus.PARTIALLY_FILLED) {
-                        order.setStatus(OrderStatus.CANCELLED);
-                        System.out.println("Order " + orderId + " cancelled");
-                        return;
-                    }
-                }
+
+    private void notifyObservers(List<TradeExecution> executions) {
+        for (TradeObserver observer : observers) {
+            try {
+                observer.onTradesExecuted(executions);
+            } catch (RuntimeException e) {
+                System.err.println("Trade observer " + observer.getClass().getSimpleName() + " failed: " + e);
             }
-            throw new IllegalArgumentException("Order not found or cannot be cancelled: " + orderId);
-        } finally {
-            lock.unlock();
         }
     }
-    
+
+    // ========== Lifecycle ==========
+
     public void addObserver(TradeObserver observer) {
         observers.add(observer);
     }
-    
-    private void notifyObservers(Trade trade, Order buyOrder, Order sellOrder) {
-        for (TradeObserver observer : observers) {
-            observer.onTradeExecuted(trade, buyOrder, sellOrder);
+
+    /**
+     * Finish every queued order and stop the sequencer threads.
+     */
+    public void shutdown() {
+        for (Sequencer<OrderCommand> sequencer : sequencers) {
+            sequencer.shutdown();
+        }
+    }
+
+    public int getSequencerCount() {
+        return sequencers.size();
+    }
+
+    /**
+     * Mean number of orders a sequencer applied per batch, across all sequencers.
+     */
+    public double getAverageBatchSize() {
+        long processed = 0;
+        long batches = 0;
+        for (Sequencer<OrderCommand> sequencer : sequencers) {
+            processed += sequencer.getProcessedCount();
+            batches += sequencer.getBatchCount();
         }
+        return batches == 0 ? 0 : (double) processed / batches;
     }
-    
+
     public OrderBookService getOrderBookService() {
         return orderBookService;
     }
-    
+
     public PortfolioService getPortfolioService() {
         return portfolioService;
     }
 }
-
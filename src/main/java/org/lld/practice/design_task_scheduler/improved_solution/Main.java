@@ -1,12 +1,24 @@
 package org.lld.practice.design_task_scheduler.improved_solution;
 
+import org.lld.practice.design_task_scheduler.improved_solution.dag.DagRun;
+import org.lld.practice.design_task_scheduler.improved_solution.dag.DagScheduler;
+import org.lld.practice.design_task_scheduler.improved_solution.dag.TaskGraph;
 import org.lld.practice.design_task_scheduler.improved_solution.models.*;
 import org.lld.practice.design_task_scheduler.improved_solution.observer.LoggingTaskListener;
+import org.lld.practice.design_task_scheduler.improved_solution.persistence.JournalConfig;
+import org.lld.practice.design_task_scheduler.improved_solution.persistence.TaskJournal;
 import org.lld.practice.design_task_scheduler.improved_solution.scheduler.TaskScheduler;
 import org.lld.practice.design_task_scheduler.improved_solution.scheduler.ThreadPoolTaskScheduler;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Demo application for the Task Scheduler.
@@ -17,9 +29,14 @@ import java.util.concurrent.atomic.AtomicInteger;
  * - Recurring tasks (fixed-rate)
  * - Retry with exponential backoff
  * - Task cancellation
+ * - Execution backends (worker pool, work stealing, virtual threads)
+ * - Task DAGs with parallel fan-out and critical-path timing
+ * - Durable task journal with crash recovery
  */
 public class Main {
     
+    private static final LoggingTaskListener LISTENER = new LoggingTaskListener();
+    
     public static void main(String[] args) throws InterruptedException {
         System.out.println("╔═══════════════════════════════════════════════════════════════╗");
         System.out.println("║     ⏰ TASK SCHEDULER - DEMO                                   ║");
@@ -28,7 +45,7 @@ public class Main {
         
         // Create scheduler with 4 workers
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler(4);
-        scheduler.addListener(new LoggingTaskListener());
+        scheduler.addListener(LISTENER);
         scheduler.start();
         
         // Demo 1: One-time delayed tasks
@@ -46,12 +63,21 @@ public class Main {
         // Demo 5: Task cancellation
         demoTaskCancellation(scheduler);
         
+        // Demo 6: Execution backends
+        demoExecutionModes(scheduler);
+        
+        // Demo 7: Task DAGs
+        demoTaskGraph(scheduler);
+        
         // Final status
         scheduler.printStatus();
         
         // Cleanup
         scheduler.shutdown();
         
+        // Demo 8: Durable task journal (own schedulers, restarted)
+        demoDurableJournal();
+        
         printSummary();
     }
     
@@ -87,17 +113,18 @@ public class Main {
         System.out.println("Scheduling 3 tasks with same time but different priorities:\n");
         
         // All tasks scheduled for the same time
+        Instant runAt = Instant.now().plusMillis(50);
         Task lowPriority = Task.builder("LowPriorityTask", () -> {
             System.out.println("   🔵 LOW priority task running");
-        }).priority(TaskPriority.LOW).build();
+        }).priority(TaskPriority.LOW).scheduleAt(runAt).build();
         
         Task normalPriority = Task.builder("NormalPriorityTask", () -> {
             System.out.println("   🟡 NORMAL priority task running");
-        }).priority(TaskPriority.NORMAL).build();
+        }).priority(TaskPriority.NORMAL).scheduleAt(runAt).build();
         
         Task criticalPriority = Task.builder("CriticalPriorityTask", () -> {
             System.out.println("   🔴 CRITICAL priority task running");
-        }).priority(TaskPriority.CRITICAL).build();
+        }).priority(TaskPriority.CRITICAL).scheduleAt(runAt).build();
         
         // Schedule in reverse priority order
         scheduler.schedule(lowPriority);
@@ -184,6 +211,119 @@ public class Main {
         Thread.sleep(200);
     }
     
+    private static void demoExecutionModes(TaskScheduler scheduler) throws InterruptedException {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 6: Execution Backends");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        // More blocking tasks than pool workers: on virtual threads they hold no worker
+        for (int i = 1; i <= 6; i++) {
+            int call = i;
+            scheduler.schedule(Task.builder("SlowApiCall-" + i, () -> {
+                sleep(300);
+                System.out.printf("   🌐 Slow API call %d returned%n", call);
+            }).blocking().noRetry().build());
+        }
+        AtomicInteger checksums = new AtomicInteger(0);
+        for (int i = 0; i < 10; i++) {
+            scheduler.schedule(Task.builder("Checksum", checksums::incrementAndGet).cpuBound().noRetry().build());
+        }
+        
+        Thread.sleep(100);
+        TaskScheduler.SchedulerStats stats = scheduler.getStats();
+        System.out.printf("While the API calls block: %d checksum tasks done, active workers by mode %s%n",
+                checksums.get(), stats.activeWorkersByMode());
+        Thread.sleep(400);
+        System.out.println();
+    }
+    
+    private static void demoTaskGraph(ThreadPoolTaskScheduler scheduler) throws InterruptedException {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 7: Task DAG (parallel fan-out, failure propagation)");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        // Quiet listener output for this demo: the run's timing table says it all
+        scheduler.removeListener(LISTENER);
+        DagScheduler dags = new DagScheduler(scheduler);
+        AtomicInteger summaryRuns = new AtomicInteger(0);
+        TaskGraph etl = TaskGraph.builder("nightly-etl")
+                .task("extract-orders", () -> sleep(80))
+                .task("extract-users", () -> sleep(60))
+                .task("join", () -> sleep(30), "extract-orders", "extract-users")
+                .task("revenue-report", () -> sleep(50), "join")
+                .task("churn-model", () -> sleep(90), "join")
+                .task("email-summary", () -> {
+                    sleep(20);
+                    if (summaryRuns.incrementAndGet() > 1) {
+                        throw new IllegalStateException("Mail server down");
+                    }
+                }, options -> options.noRetry(), "join")
+                .task("publish", () -> sleep(10), "revenue-report", "churn-model")
+                .task("notify-team", () -> sleep(10), "email-summary")
+                .build();
+        
+        DagRun run = dags.submit(etl);
+        run.completion().join();
+        run.printTiming();
+        
+        System.out.println("\nSecond run: email-summary fails, only its downstream is skipped:");
+        DagRun failing = dags.submit(etl);
+        failing.completion().join();
+        System.out.printf("   %s: %s%n", failing.getStatus(), failing.getNodeStatuses());
+        System.out.printf("   notify-team: %s%n%n", failing.getNodeError("notify-team").orElse(""));
+        scheduler.addListener(LISTENER);
+    }
+    
+    private static void demoDurableJournal() throws InterruptedException {
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.println("DEMO 8: Durable Task Journal (restart without losing tasks)");
+        System.out.println("═══════════════════════════════════════════════════════════════\n");
+        
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("scheduler-journal-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Commands are code: both "processes" register them under the task names
+        Map<String, Runnable> commands = Map.of(
+                "NightlyBackup", () -> System.out.println("   💾 Running nightly backup"),
+                "Heartbeat", () -> System.out.println("   💓 Heartbeat"),
+                "WarmCache", () -> System.out.println("   🔥 Warming cache"));
+        // No snapshot on close: the restart below has to replay the journal, as after a crash
+        JournalConfig config = JournalConfig.builder().snapshotOnClose(false).build();
+        
+        ThreadPoolTaskScheduler first = new ThreadPoolTaskScheduler(2, new TaskJournal(directory, config), commands::get);
+        first.start();
+        String backupId = first.schedule(Task.builder("NightlyBackup", commands.get("NightlyBackup"))
+                .delay(Duration.ofHours(6)).build());
+        first.schedule(Task.builder("Heartbeat", commands.get("Heartbeat"))
+                .fixedRate(Duration.ofMillis(300)).noRetry().build());
+        first.schedule(Task.builder("WarmCache", commands.get("WarmCache")).noRetry().build());
+        Thread.sleep(100);
+        System.out.printf("Live tasks before the restart: %d (WarmCache completed and was dropped)%n",
+                first.getStats().totalTasks());
+        first.shutdown();
+        
+        ThreadPoolTaskScheduler second = new ThreadPoolTaskScheduler(2, new TaskJournal(directory), commands::get);
+        second.start();
+        System.out.printf("NightlyBackup after the restart: %s%n",
+                second.getTask(backupId).map(Task::toString).orElse("lost"));
+        Thread.sleep(350);
+        second.shutdown();  // writes a snapshot and drops the replayed journal segments
+        
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted()::iterator) {
+                System.out.printf("   %-28s %,6d bytes%n", path.getFileName(), Files.size(path));
+                Files.delete(path);
+            }
+            Files.delete(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println();
+    }
+    
     private static void printSummary() {
         System.out.println("═══════════════════════════════════════════════════════════════");
         System.out.println("DEMO COMPLETE - KEY CONCEPTS DEMONSTRATED:");
@@ -191,7 +331,11 @@ public class Main {
         System.out.println("✅ Thread Pool: Efficient worker thread management");
         System.out.println("✅ Priority Queue: Higher priority tasks execute first");
         System.out.println("✅ Delayed Execution: Schedule for future time");
+        System.out.println("✅ Timing Wheel: Millisecond-precise dispatch, O(1) schedule/cancel");
+        System.out.println("✅ Execution Backends: Worker pool, work stealing, virtual threads");
         System.out.println("✅ Recurring Tasks: Fixed-rate and fixed-delay");
+        System.out.println("✅ Task DAGs: Parallel fan-out, failure propagation, critical path");
+        System.out.println("✅ Durable Journal: Write-ahead log, snapshots, crash recovery");
         System.out.println("✅ Retry Policy: Exponential backoff on failure");
         System.out.println("✅ Task Lifecycle: PENDING → RUNNING → COMPLETED/FAILED");
         System.out.println("✅ Observer Pattern: Task event notifications");
@@ -200,7 +344,6 @@ public class Main {
         System.out.println("   - Distributed scheduling with Redis/database");
         System.out.println("   - Exactly-once execution with distributed locks");
         System.out.println("   - Dead letter queues for failed tasks");
-        System.out.println("   - Task dependencies and DAG execution");
         System.out.println("   - Cron expression parsing");
     }
     
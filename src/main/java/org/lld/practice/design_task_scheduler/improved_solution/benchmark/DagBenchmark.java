@@ -0,0 +1,128 @@
+package org.lld.practice.design_task_scheduler.improved_solution.benchmark;
+
+import org.lld.practice.design_task_scheduler.improved_solution.dag.DagRun;
+import org.lld.practice.design_task_scheduler.improved_solution.dag.DagScheduler;
+import org.lld.practice.design_task_scheduler.improved_solution.dag.TaskGraph;
+import org.lld.practice.design_task_scheduler.improved_solution.scheduler.ThreadPoolTaskScheduler;
+
+/**
+ * DAG execution: serial chains versus parallel fan-out, and per-node overhead.
+ *
+ * ETL shape: extract (20 ms) -> W transforms (20 ms each) -> W/4
+ * aggregates over 4 transforms each (10 ms) -> load (10 ms). Node work is
+ * a sleep (I/O-like), so parallelism does not depend on the CPU count.
+ * - serial chain: the same nodes, each depending on the previous one, as
+ *   when follow-up tasks are resubmitted by hand from listeners;
+ * - DAG: the real dependencies, so the transforms run side by side.
+ *
+ * Overhead: N no-op nodes as one long chain (latency per dependency hop)
+ * and as a fan-out of N independent nodes into one sink (nodes per second).
+ *
+ * Usage:
+ *   java ... DagBenchmark [width] [overheadNodes] [workers]
+ */
+public class DagBenchmark {
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int overheadNodes = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🕸️  TASK SCHEDULER DAG BENCHMARK                            ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("ETL width %d, %,d no-op nodes for overhead, %d workers%n%n", width, overheadNodes, workers);
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler(workers);
+        scheduler.start();
+        DagScheduler dags = new DagScheduler(scheduler);
+
+        // Warm up
+        run(dags, etl(width, false));
+        run(dags, etl(width, true));
+        run(dags, chain(overheadNodes / 10));
+        run(dags, fanOut(overheadNodes / 10));
+
+        System.out.printf("%-26s %8s %12s %14s %12s %12s%n",
+                "Graph", "nodes", "makespan ms", "crit. path ms", "work ms", "parallelism");
+        print("ETL as a serial chain", run(dags, etl(width, false)));
+        DagRun etl = run(dags, etl(width, true));
+        print("ETL as a DAG", etl);
+
+        DagRun chain = run(dags, chain(overheadNodes));
+        DagRun fanOut = run(dags, fanOut(overheadNodes));
+        System.out.printf("%nOverhead (no-op nodes)%n");
+        System.out.printf("   chain of %,d:   %.1f µs per dependency hop%n",
+                overheadNodes, chain.getMakespan().toNanos() / 1e3 / overheadNodes);
+        System.out.printf("   fan-out of %,d: %,.0f nodes/s%n",
+                overheadNodes, (overheadNodes + 1) * 1e9 / fanOut.getMakespan().toNanos());
+
+        System.out.println();
+        etl.printTiming();
+        scheduler.shutdown();
+    }
+
+    private static TaskGraph etl(int width, boolean parallel) {
+        TaskGraph.Builder graph = TaskGraph.builder(parallel ? "etl-dag" : "etl-chain");
+        String previous = "extract";
+        graph.task("extract", () -> sleep(20));
+        for (int i = 0; i < width; i++) {
+            String node = "transform-" + i;
+            graph.task(node, () -> sleep(20), parallel ? "extract" : previous);
+            previous = node;
+        }
+        String[] aggregates = new String[width / 4];
+        for (int i = 0; i < aggregates.length; i++) {
+            aggregates[i] = "aggregate-" + i;
+            String[] inputs = parallel
+                    ? new String[] {"transform-" + (4 * i), "transform-" + (4 * i + 1),
+                                    "transform-" + (4 * i + 2), "transform-" + (4 * i + 3)}
+                    : new String[] {previous};
+            graph.task(aggregates[i], () -> sleep(10), inputs);
+            previous = aggregates[i];
+        }
+        graph.task("load", () -> sleep(10), parallel ? aggregates : new String[] {previous});
+        return graph.build();
+    }
+
+    private static TaskGraph chain(int nodes) {
+        TaskGraph.Builder graph = TaskGraph.builder("chain");
+        graph.task("node-0", () -> { });
+        for (int i = 1; i < nodes; i++) {
+            graph.task("node-" + i, () -> { }, "node-" + (i - 1));
+        }
+        return graph.build();
+    }
+
+    private static TaskGraph fanOut(int nodes) {
+        TaskGraph.Builder graph = TaskGraph.builder("fan-out");
+        String[] all = new String[nodes];
+        for (int i = 0; i < nodes; i++) {
+            all[i] = "node-" + i;
+            graph.task(all[i], () -> { });
+        }
+        graph.task("sink", () -> { }, all);
+        return graph.build();
+    }
+
+    private static DagRun run(DagScheduler dags, TaskGraph graph) {
+        DagRun run = dags.submit(graph);
+        run.completion().join();
+        return run;
+    }
+
+    private static void print(String label, DagRun run) {
+        double makespan = run.getMakespan().toNanos() / 1e6;
+        double work = run.getTotalWork().toNanos() / 1e6;
+        System.out.printf("%-26s %8d %12.1f %14.1f %12.1f %11.1fx%n", label, run.getGraph().size(),
+                makespan, run.getCriticalPathTime().toNanos() / 1e6, work, work / makespan);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.lld.practice.design_task_scheduler.improved_solution.benchmark;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.ExecutionMode;
+import org.lld.practice.design_task_scheduler.improved_solution.models.Task;
+import org.lld.practice.design_task_scheduler.improved_solution.scheduler.TaskScheduler;
+import org.lld.practice.design_task_scheduler.improved_solution.scheduler.ThreadPoolTaskScheduler;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution backends under a mixed workload.
+ *
+ * Submits, at once, B blocking tasks (each sleeps for blockMillis, like a
+ * slow I/O call) followed by C short CPU tasks (a few microseconds of
+ * arithmetic each), on a scheduler with W pool workers. Reports:
+ * - throughput: CPU tasks per second, from submission to the last CPU task;
+ * - CPU-task latency: from submission to the task's command finishing;
+ * - activeWorkers per backend, sampled every millisecond (peak and mean).
+ *
+ * Rows:
+ * - all on WORKER_POOL: every task shares the fixed pool, so the blocking
+ *   tasks hold all W workers and the CPU tasks queue behind them.
+ * - split: CPU tasks on WORK_STEALING, blocking tasks on VIRTUAL_THREAD.
+ *
+ * Usage:
+ *   java ... ExecutionModeBenchmark [cpuTasks] [blockingTasks] [blockMillis] [workers]
+ */
+public class ExecutionModeBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        int cpuTasks = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int blockingTasks = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int blockMillis = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     🧵 TASK SCHEDULER EXECUTION BACKEND BENCHMARK               ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%,d CPU tasks + %d blocking tasks (%d ms each), %d pool workers, %d CPU(s)%n%n",
+                cpuTasks, blockingTasks, blockMillis, workers, Runtime.getRuntime().availableProcessors());
+
+        // Warm up both configurations on a short run
+        run(cpuTasks / 10, blockingTasks / 10, blockMillis / 10, workers, ExecutionMode.WORKER_POOL, ExecutionMode.WORKER_POOL);
+        run(cpuTasks / 10, blockingTasks / 10, blockMillis / 10, workers, ExecutionMode.WORK_STEALING, ExecutionMode.VIRTUAL_THREAD);
+
+        System.out.printf("%-34s %12s %9s %9s %9s %9s%n",
+                "Configuration", "CPU tasks/s", "p50 ms", "p99 ms", "max ms", "total s");
+        Result shared = run(cpuTasks, blockingTasks, blockMillis, workers,
+                ExecutionMode.WORKER_POOL, ExecutionMode.WORKER_POOL);
+        shared.print("all on WORKER_POOL");
+        Result split = run(cpuTasks, blockingTasks, blockMillis, workers,
+                ExecutionMode.WORK_STEALING, ExecutionMode.VIRTUAL_THREAD);
+        split.print("WORK_STEALING + VIRTUAL_THREAD");
+
+        System.out.printf("%n%-34s %-16s %9s %9s%n", "activeWorkers", "mode", "peak", "mean");
+        shared.printActive("all on WORKER_POOL");
+        split.printActive("WORK_STEALING + VIRTUAL_THREAD");
+    }
+
+    private static Result run(int cpuTasks, int blockingTasks, int blockMillis, int workers,
+                              ExecutionMode cpuMode, ExecutionMode blockingMode) throws InterruptedException {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler(workers);
+        scheduler.start();
+        CountDownLatch cpuDone = new CountDownLatch(cpuTasks);
+        CountDownLatch allDone = new CountDownLatch(cpuTasks + blockingTasks);
+        long[] latency = new long[cpuTasks];
+
+        Sampler sampler = new Sampler(scheduler);
+        sampler.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < blockingTasks; i++) {
+            scheduler.schedule(Task.builder("blocking", () -> {
+                sleep(blockMillis);
+                allDone.countDown();
+            }).executionMode(blockingMode).noRetry().build());
+        }
+        for (int i = 0; i < cpuTasks; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            scheduler.schedule(Task.builder("cpu", () -> {
+                spin();
+                latency[index] = System.nanoTime() - submitted;
+                cpuDone.countDown();
+                allDone.countDown();
+            }).executionMode(cpuMode).noRetry().build());
+        }
+        cpuDone.await();
+        long cpuNanos = System.nanoTime() - start;
+        allDone.await();
+        long totalNanos = System.nanoTime() - start;
+        sampler.stop();
+        scheduler.shutdown();
+        return new Result(cpuTasks * 1e9 / cpuNanos, latency, totalNanos, sampler);
+    }
+
+    private static void spin() {
+        long x = System.nanoTime();
+        for (int i = 0; i < 2_000; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        sink = x;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Samples SchedulerStats.activeWorkersByMode every millisecond.
+     */
+    private static final class Sampler {
+        private final TaskScheduler scheduler;
+        private final Map<ExecutionMode, Integer> peak = new EnumMap<>(ExecutionMode.class);
+        private final Map<ExecutionMode, Long> sum = new EnumMap<>(ExecutionMode.class);
+        private long samples;
+        private volatile boolean running = true;
+        private Thread thread;
+
+        Sampler(TaskScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        void start() {
+            thread = new Thread(() -> {
+                while (running) {
+                    scheduler.getStats().activeWorkersByMode().forEach((mode, active) -> {
+                        peak.merge(mode, active, Math::max);
+                        sum.merge(mode, (long) active, Long::sum);
+                    });
+                    samples++;
+                    sleep(1);
+                }
+            }, "active-sampler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            thread.join();
+        }
+    }
+
+    private record Result(double cpuThroughput, long[] latencyNanos, long totalNanos, Sampler sampler) {
+
+        void print(String label) {
+            long[] sorted = latencyNanos.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-34s %,12.0f %9.2f %9.2f %9.2f %9.2f%n", label, cpuThroughput,
+                    percentile(sorted, 50), percentile(sorted, 99), sorted[sorted.length - 1] / 1e6,
+                    totalNanos / 1e9);
+        }
+
+        void printActive(String label) {
+            for (ExecutionMode mode : ExecutionMode.values()) {
+                int peak = sampler.peak.getOrDefault(mode, 0);
+                if (peak == 0) {
+                    continue;
+                }
+                double mean = (double) sampler.sum.getOrDefault(mode, 0L) / Math.max(1, sampler.samples);
+                System.out.printf("%-34s %-16s %9d %9.2f%n", label, mode, peak, mean);
+                label = "";
+            }
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
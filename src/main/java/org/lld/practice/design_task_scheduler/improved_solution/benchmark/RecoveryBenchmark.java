@@ -0,0 +1,189 @@
+package org.lld.practice.design_task_scheduler.improved_solution.benchmark;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.Task;
+import org.lld.practice.design_task_scheduler.improved_solution.persistence.JournalConfig;
+import org.lld.practice.design_task_scheduler.improved_solution.persistence.TaskJournal;
+import org.lld.practice.design_task_scheduler.improved_solution.scheduler.ThreadPoolTaskScheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Crash recovery: how long does start() take to restore N journaled tasks?
+ *
+ * Phases, each on a fresh scheduler over the same journal directory:
+ * 1. schedule N tasks due in an hour (journal only, no snapshot), then
+ *    stop without a final snapshot, as a crash would;
+ * 2. start: replay the N journal records; then shut down, which writes a
+ *    snapshot;
+ * 3. start: load the snapshot.
+ * "journal read" is TaskJournal.open() alone (read and replay); "start()"
+ * also rebuilds the Task objects and puts them on the timing wheel.
+ *
+ * Then, in a new directory with the default config (snapshot every 100k
+ * records), N tasks that run at once: completed tasks are compacted out
+ * of memory and of the files as they go.
+ *
+ * Usage:
+ *   java -Xms2g -Xmx2g ... RecoveryBenchmark [tasks]
+ */
+public class RecoveryBenchmark {
+
+    private static final String[] NAMES = {"SendEmail", "GenerateReport", "SyncInventory", "ExpireSessions"};
+    private static final Function<String, Runnable> COMMANDS = name -> () -> { };
+
+    public static void main(String[] args) throws InterruptedException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     ♻️  TASK SCHEDULER RECOVERY BENCHMARK                       ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%,d tasks%n%n", tasks);
+
+        // Warm up every path on a small run
+        runRecovery(tasks / 10, false);
+        runCompaction(tasks / 10, false);
+
+        runRecovery(tasks, true);
+        runCompaction(tasks, true);
+    }
+
+    private static void runRecovery(int tasks, boolean print) throws InterruptedException {
+        Path directory = createDirectory();
+        JournalConfig crashLike = JournalConfig.builder().snapshotEveryRecords(0).snapshotOnClose(false).build();
+        JournalConfig snapshotOnClose = JournalConfig.builder().snapshotEveryRecords(0).build();
+
+        // 1. Schedule
+        ThreadPoolTaskScheduler writer = new ThreadPoolTaskScheduler(1, new TaskJournal(directory, crashLike), COMMANDS);
+        writer.start();
+        Task[] pending = new Task[tasks];
+        for (int i = 0; i < tasks; i++) {
+            pending[i] = Task.builder(NAMES[i % NAMES.length], COMMANDS.apply(null))
+                    .delay(Duration.ofHours(1)).build();
+        }
+        long start = System.nanoTime();
+        for (Task task : pending) {
+            writer.schedule(task);
+        }
+        long scheduleNanos = System.nanoTime() - start;
+        writer.shutdown();
+        pending = null;
+        writer = null;
+        long journalBytes = directorySize(directory);
+
+        // 2. Replay the journal
+        System.gc();
+        long readNanos = timeJournalRead(directory);
+        System.gc();
+        ThreadPoolTaskScheduler fromJournal = new ThreadPoolTaskScheduler(1, new TaskJournal(directory, snapshotOnClose), COMMANDS);
+        start = System.nanoTime();
+        fromJournal.start();
+        long journalStartNanos = System.nanoTime() - start;
+        int restored = fromJournal.getStats().totalTasks();
+        start = System.nanoTime();
+        fromJournal.shutdown();
+        long snapshotNanos = System.nanoTime() - start;
+        fromJournal = null;
+        long snapshotBytes = directorySize(directory);
+
+        // 3. Load the snapshot
+        System.gc();
+        long snapshotReadNanos = timeJournalRead(directory);
+        System.gc();
+        ThreadPoolTaskScheduler fromSnapshot = new ThreadPoolTaskScheduler(1, new TaskJournal(directory, crashLike), COMMANDS);
+        start = System.nanoTime();
+        fromSnapshot.start();
+        long snapshotStartNanos = System.nanoTime() - start;
+        int restoredFromSnapshot = fromSnapshot.getStats().totalTasks();
+        fromSnapshot.shutdown();
+        deleteDirectory(directory);
+
+        if (print) {
+            System.out.printf("%n%-32s %10s %10s %12s %14s%n", "Phase", "tasks", "files MB", "time ms", "tasks/s");
+            printRow("schedule (journaled)", tasks, journalBytes, scheduleNanos);
+            printRow("journal read (replay)", restored, journalBytes, readNanos);
+            printRow("start() from journal", restored, journalBytes, journalStartNanos);
+            printRow("snapshot on shutdown", restored, snapshotBytes, snapshotNanos);
+            printRow("journal read (snapshot)", restoredFromSnapshot, snapshotBytes, snapshotReadNanos);
+            printRow("start() from snapshot", restoredFromSnapshot, snapshotBytes, snapshotStartNanos);
+            System.out.println();
+        }
+    }
+
+    /**
+     * Read and replay the directory, as start() does, without building tasks.
+     */
+    private static long timeJournalRead(Path directory) {
+        TaskJournal journal = new TaskJournal(directory, JournalConfig.builder().snapshotOnClose(false).build());
+        long start = System.nanoTime();
+        journal.open(java.util.List::of);
+        long nanos = System.nanoTime() - start;
+        journal.close();
+        return nanos;
+    }
+
+    private static void runCompaction(int tasks, boolean print) throws InterruptedException {
+        Path directory = createDirectory();
+        TaskJournal journal = new TaskJournal(directory);
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler(1, journal, COMMANDS);
+        scheduler.start();
+        AtomicInteger done = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            scheduler.schedule(Task.builder(NAMES[i % NAMES.length], done::incrementAndGet).noRetry().build());
+        }
+        while (done.get() < tasks) {
+            Thread.sleep(10);
+        }
+        long nanos = System.nanoTime() - start;
+        int live = scheduler.getStats().totalTasks();
+        long snapshots = journal.getSnapshotCount();
+        long bytes = directorySize(directory);
+        scheduler.shutdown();
+        deleteDirectory(directory);
+
+        if (print) {
+            System.out.printf("Compaction: %,d tasks run at once (%,.0f tasks/s incl. 2 journal records each)%n",
+                    tasks, tasks * 1e9 / nanos);
+            System.out.printf("   afterwards: %d live tasks in memory, %d snapshots taken, %.2f MB on disk%n",
+                    live, snapshots, bytes / 1e6);
+        }
+    }
+
+    private static void printRow(String phase, int tasks, long bytes, long nanos) {
+        System.out.printf("%-32s %,10d %10.1f %,12.0f %,14.0f%n", phase, tasks, bytes / 1e6, nanos / 1e6, tasks * 1e9 / nanos);
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("recovery-bench-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long directorySize(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
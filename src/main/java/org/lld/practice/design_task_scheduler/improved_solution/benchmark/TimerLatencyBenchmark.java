@@ -0,0 +1,193 @@
+package org.lld.practice.design_task_scheduler.improved_solution.benchmark;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.Task;
+import org.lld.practice.design_task_scheduler.improved_solution.scheduler.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer precision: how late do delayed tasks start?
+ *
+ * Schedules N one-time tasks due at times spread uniformly over S seconds
+ * and records, for each, when its command starts minus when it was due
+ * (System.nanoTime() based). Lateness includes the wait for a free worker,
+ * so it measures the whole dispatch path, not only the timer.
+ *
+ * The tasks are built and scheduled during a lead time before the first
+ * one is due, followed by a System.gc(), so neither the producer loop nor
+ * the first copy of a million live tasks into the old generation lands in
+ * the measurement.
+ *
+ * Rows:
+ * - ThreadPoolTaskScheduler: timing wheel dispatcher, 1 worker per CPU.
+ * - ScheduledThreadPoolExecutor: the JDK's heap-based scheduler (same
+ *   number of threads), as a reference.
+ *
+ * Then schedules N tasks an hour out and cancels all of them, to time
+ * schedule and cancel on a full timer.
+ *
+ * Usage:
+ *   java -Xms2g -Xmx2g ... TimerLatencyBenchmark [tasks] [spreadSeconds]
+ * (a fixed-size heap keeps heap-growth collections out of the measurement)
+ */
+public class TimerLatencyBenchmark {
+
+    private static final long LEAD_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    public static void main(String[] args) throws InterruptedException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int spreadSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int workers = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("╔═══════════════════════════════════════════════════════════════╗");
+        System.out.println("║     ⏱️  TASK SCHEDULER TIMER LATENCY BENCHMARK                  ║");
+        System.out.println("╚═══════════════════════════════════════════════════════════════╝\n");
+        System.out.printf("%,d delayed tasks over %d s, %d worker(s)%n%n", tasks, spreadSeconds, workers);
+
+        // Warm up both paths on a short run
+        runScheduler(tasks / 10, 1, workers);
+        runExecutor(tasks / 10, 1, workers);
+
+        System.out.printf("%-30s %9s %9s %9s %9s %9s %9s%n",
+                "Lateness (ms)", "mean", "p50", "p90", "p99", "p99.9", "max");
+        print("ThreadPoolTaskScheduler", runScheduler(tasks, spreadSeconds, workers));
+        print("ScheduledThreadPoolExecutor", runExecutor(tasks, spreadSeconds, workers));
+
+        System.out.printf("%n%-30s %16s %16s%n", "Full timer (" + tasks / 1000 + "k pending)", "schedule/s", "cancel/s");
+        scheduleAndCancel(tasks, workers);
+    }
+
+    /**
+     * @return lateness of each task in nanoseconds
+     */
+    private static long[] runScheduler(int tasks, int spreadSeconds, int workers) throws InterruptedException {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler(workers);
+        long[] lateness = new long[tasks];
+        CountDownLatch done = new CountDownLatch(tasks);
+        scheduler.start();
+
+        long[] dueNanos = dueTimes(tasks, spreadSeconds);
+        Instant baseInstant = Instant.now();
+        long baseNanos = System.nanoTime();
+        Task[] timers = new Task[tasks];
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            long due = dueNanos[i];
+            timers[i] = Task.builder("timer", () -> {
+                lateness[index] = System.nanoTime() - due;
+                done.countDown();
+            }).scheduleAt(baseInstant.plusNanos(due - baseNanos)).noRetry().build();
+        }
+        for (Task timer : timers) {
+            scheduler.schedule(timer);
+        }
+        checkLead(dueNanos);
+
+        done.await();
+        scheduler.shutdown();
+        return lateness;
+    }
+
+    private static long[] runExecutor(int tasks, int spreadSeconds, int workers) throws InterruptedException {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(workers);
+        long[] lateness = new long[tasks];
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        long[] dueNanos = dueTimes(tasks, spreadSeconds);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            long due = dueNanos[i];
+            executor.schedule(() -> {
+                lateness[index] = System.nanoTime() - due;
+                done.countDown();
+            }, due - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        checkLead(dueNanos);
+
+        done.await();
+        executor.shutdown();
+        return lateness;
+    }
+
+    /**
+     * Due times (nanoTime) spread uniformly over spreadSeconds, starting after the lead time.
+     */
+    private static long[] dueTimes(int tasks, int spreadSeconds) {
+        long first = System.nanoTime() + LEAD_NANOS;
+        long spreadNanos = TimeUnit.SECONDS.toNanos(spreadSeconds);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] due = new long[tasks];
+        for (int i = 0; i < tasks; i++) {
+            due[i] = first + random.nextLong(spreadNanos);
+        }
+        return due;
+    }
+
+    private static void checkLead(long[] dueNanos) {
+        System.gc();
+        long earliest = Arrays.stream(dueNanos).min().orElse(Long.MAX_VALUE);
+        if (System.nanoTime() > earliest) {
+            System.out.println("   (scheduling overran the lead time; the first tasks compete with the producer)");
+        }
+    }
+
+    private static void scheduleAndCancel(int tasks, int workers) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler(workers);
+        scheduler.start();
+        Task[] pending = new Task[tasks];
+        for (int i = 0; i < tasks; i++) {
+            pending[i] = Task.builder("idle", () -> { }).delay(Duration.ofHours(1)).noRetry().build();
+        }
+        long start = System.nanoTime();
+        for (Task task : pending) {
+            scheduler.schedule(task);
+        }
+        long scheduled = System.nanoTime();
+        for (Task task : pending) {
+            scheduler.cancel(task.getTaskId());
+        }
+        long cancelled = System.nanoTime();
+        scheduler.shutdown();
+        printRate("ThreadPoolTaskScheduler", tasks, scheduled - start, cancelled - scheduled);
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(workers);
+        executor.setRemoveOnCancelPolicy(true);  // actually remove from the heap, like cancel() above
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[tasks];
+        start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            futures[i] = executor.schedule(() -> { }, 1, TimeUnit.HOURS);
+        }
+        scheduled = System.nanoTime();
+        for (ScheduledFuture<?> future : futures) {
+            future.cancel(false);
+        }
+        cancelled = System.nanoTime();
+        executor.shutdown();
+        printRate("ScheduledThreadPoolExecutor", tasks, scheduled - start, cancelled - scheduled);
+    }
+
+    private static void print(String label, long[] latenessNanos) {
+        long[] sorted = latenessNanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        System.out.printf("%-30s %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", label,
+                mean / 1e6, percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                percentile(sorted, 99.9), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static void printRate(String label, int tasks, long scheduleNanos, long cancelNanos) {
+        System.out.printf("%-30s %,16.0f %,16.0f%n", label, tasks * 1e9 / scheduleNanos, tasks * 1e9 / cancelNanos);
+    }
+}
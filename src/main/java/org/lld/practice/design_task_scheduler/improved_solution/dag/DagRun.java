@@ -0,0 +1,397 @@
+package org.lld.practice.design_task_scheduler.improved_solution.dag;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One execution of a TaskGraph, created by DagScheduler.submit().
+ *
+ * Tracks every node's status and timing. A node is released (scheduled)
+ * as soon as its last predecessor completes, so independent branches run
+ * in parallel. When a node fails for good, every node downstream of it
+ * that has not run is SKIPPED; when one is cancelled, they are CANCELLED.
+ * Other branches carry on. The run is done when every node is terminal.
+ *
+ * Timing is measured from submission (System.nanoTime()):
+ * - released: the node's inputs were complete and it was scheduled;
+ * - started: its first attempt started;
+ * - finished: it completed or failed for good (so run time includes retries).
+ *
+ * The critical path is the chain of nodes that decided when the run
+ * finished: from the last node to finish, repeatedly step to the
+ * predecessor that finished last (the one that released it).
+ */
+public class DagRun {
+
+    /**
+     * Offsets of a node's milestones from the start of the run; null if not reached.
+     */
+    public record NodeTiming(Duration released, Duration started, Duration finished) {
+
+        /**
+         * Time between release and start: scheduler dispatch plus waiting for a worker.
+         */
+        public Duration waitTime() {
+            return started == null ? null : started.minus(released);
+        }
+
+        public Duration runTime() {
+            return finished == null || started == null ? null : finished.minus(started);
+        }
+    }
+
+    public enum Status {
+        RUNNING,
+        SUCCEEDED,      // Every node completed
+        FAILED,         // At least one node failed
+        CANCELLED       // Cancelled, and no node failed
+    }
+
+    private static final long UNSET = -1;
+
+    private final String runId;
+    private final TaskGraph graph;
+    private final DagScheduler dagScheduler;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, NodeState> states = new LinkedHashMap<>();
+    private final CompletableFuture<DagRun> completion = new CompletableFuture<>();
+    private int unfinished;
+    private long finishNanos = UNSET;
+    private boolean cancelRequested;
+
+    private static final class NodeState {
+        NodeStatus status = NodeStatus.WAITING;
+        int waitingFor;
+        String taskId;
+        String error;
+        long releasedNanos = UNSET;
+        long startedNanos = UNSET;
+        long finishedNanos = UNSET;
+    }
+
+    DagRun(TaskGraph graph, DagScheduler dagScheduler) {
+        this.runId = "DAG-" + HexFormat.of().withUpperCase().toHexDigits(ThreadLocalRandom.current().nextInt());
+        this.graph = graph;
+        this.dagScheduler = dagScheduler;
+        for (TaskGraph.Node node : graph.nodes()) {
+            NodeState state = new NodeState();
+            state.waitingFor = node.predecessors().size();
+            states.put(node.name(), state);
+        }
+        this.unfinished = states.size();
+    }
+
+    // ========== Transitions (called by DagScheduler) ==========
+
+    synchronized List<String> roots() {
+        List<String> roots = new ArrayList<>();
+        states.forEach((node, state) -> {
+            if (state.waitingFor == 0) {
+                roots.add(node);
+            }
+        });
+        return roots;
+    }
+
+    /**
+     * @return false if the run was cancelled and the node must not be scheduled
+     */
+    synchronized boolean markScheduled(String node, String taskId) {
+        NodeState state = states.get(node);
+        if (cancelRequested || state.status != NodeStatus.WAITING) {
+            return false;
+        }
+        state.status = NodeStatus.SCHEDULED;
+        state.taskId = taskId;
+        state.releasedNanos = System.nanoTime();
+        return true;
+    }
+
+    synchronized void markStarted(String node) {
+        NodeState state = states.get(node);
+        if (state.status == NodeStatus.SCHEDULED) {
+            state.status = NodeStatus.RUNNING;
+            state.startedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return successors whose inputs are now all complete
+     */
+    List<String> markCompleted(String node) {
+        List<String> ready = new ArrayList<>();
+        boolean done;
+        synchronized (this) {
+            if (!finish(node, NodeStatus.COMPLETED, null)) {
+                return ready;
+            }
+            for (String next : graph.node(node).successors()) {
+                NodeState successor = states.get(next);
+                // Not WAITING if another input failed or the run was cancelled
+                if (--successor.waitingFor == 0 && successor.status == NodeStatus.WAITING) {
+                    ready.add(next);
+                }
+            }
+            done = unfinished == 0;
+        }
+        completeIfDone(done);
+        return ready;
+    }
+
+    void markFailed(String node, String error) {
+        markEndedDownstream(node, NodeStatus.FAILED, error, NodeStatus.SKIPPED);
+    }
+
+    void markCancelled(String node) {
+        markEndedDownstream(node, NodeStatus.CANCELLED, null, NodeStatus.CANCELLED);
+    }
+
+    private void markEndedDownstream(String node, NodeStatus status, String error, NodeStatus downstreamStatus) {
+        boolean done;
+        synchronized (this) {
+            if (!finish(node, status, error)) {
+                return;
+            }
+            // Everything downstream is still WAITING: it needed this node's output
+            Deque<String> pending = new ArrayDeque<>(graph.node(node).successors());
+            while (!pending.isEmpty()) {
+                String next = pending.poll();
+                if (finish(next, downstreamStatus, "upstream " + node + " " + status.name().toLowerCase())) {
+                    pending.addAll(graph.node(next).successors());
+                }
+            }
+            done = unfinished == 0;
+        }
+        completeIfDone(done);
+    }
+
+    /**
+     * Cancel the run: nodes still waiting are cancelled at once; nodes
+     * handed to the scheduler are cancelled there if they have not started.
+     * Running nodes finish, but release nothing.
+     *
+     * @return ids of the scheduled tasks to cancel in the scheduler
+     */
+    List<String> requestCancel() {
+        List<String> toCancel = new ArrayList<>();
+        boolean done;
+        synchronized (this) {
+            if (cancelRequested || isDone()) {
+                return toCancel;
+            }
+            cancelRequested = true;
+            states.forEach((node, state) -> {
+                if (state.status == NodeStatus.WAITING) {
+                    finish(node, NodeStatus.CANCELLED, null);
+                } else if (state.status == NodeStatus.SCHEDULED) {
+                    toCancel.add(state.taskId);
+                }
+            });
+            done = unfinished == 0;
+        }
+        completeIfDone(done);
+        return toCancel;
+    }
+
+    synchronized boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Holding the lock: move a non-terminal node to a terminal status.
+     */
+    private boolean finish(String node, NodeStatus status, String error) {
+        NodeState state = states.get(node);
+        if (state.status.isTerminal()) {
+            return false;
+        }
+        state.status = status;
+        state.error = error;
+        if (status == NodeStatus.COMPLETED || status == NodeStatus.FAILED) {
+            state.finishedNanos = System.nanoTime();
+        }
+        if (--unfinished == 0) {
+            finishNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    private void completeIfDone(boolean done) {
+        if (done) {
+            completion.complete(this);  // outside the lock: callbacks may query the run
+        }
+    }
+
+    // ========== Queries ==========
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public TaskGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Completes with this run once every node is terminal.
+     */
+    public CompletableFuture<DagRun> completion() {
+        return completion;
+    }
+
+    public synchronized boolean isDone() {
+        return unfinished == 0;
+    }
+
+    public synchronized Status getStatus() {
+        if (unfinished > 0) {
+            return Status.RUNNING;
+        }
+        boolean cancelled = false;
+        for (NodeState state : states.values()) {
+            if (state.status == NodeStatus.FAILED) {
+                return Status.FAILED;
+            }
+            cancelled |= state.status == NodeStatus.CANCELLED;
+        }
+        return cancelled ? Status.CANCELLED : Status.SUCCEEDED;
+    }
+
+    public synchronized NodeStatus getNodeStatus(String node) {
+        graph.node(node);  // validates the name
+        return states.get(node).status;
+    }
+
+    /**
+     * Status of every node, in topological order.
+     */
+    public synchronized Map<String, NodeStatus> getNodeStatuses() {
+        Map<String, NodeStatus> statuses = new LinkedHashMap<>();
+        states.forEach((node, state) -> statuses.put(node, state.status));
+        return statuses;
+    }
+
+    /**
+     * Why a node failed, was skipped or was cancelled, if known.
+     */
+    public synchronized Optional<String> getNodeError(String node) {
+        graph.node(node);
+        return Optional.ofNullable(states.get(node).error);
+    }
+
+    public synchronized NodeTiming getNodeTiming(String node) {
+        graph.node(node);
+        NodeState state = states.get(node);
+        return new NodeTiming(offset(state.releasedNanos), offset(state.startedNanos), offset(state.finishedNanos));
+    }
+
+    /**
+     * Submission to the last node turning terminal; so far, while running.
+     */
+    public synchronized Duration getMakespan() {
+        return Duration.ofNanos((finishNanos == UNSET ? System.nanoTime() : finishNanos) - startNanos);
+    }
+
+    /**
+     * Nodes on the critical path, first to last (empty if no node finished).
+     */
+    public synchronized List<String> getCriticalPath() {
+        String last = null;
+        long lastFinish = UNSET;
+        for (Map.Entry<String, NodeState> entry : states.entrySet()) {
+            if (entry.getValue().finishedNanos > lastFinish) {
+                last = entry.getKey();
+                lastFinish = entry.getValue().finishedNanos;
+            }
+        }
+        LinkedList<String> path = new LinkedList<>();
+        while (last != null) {
+            path.addFirst(last);
+            String releasedBy = null;
+            long releasedAt = UNSET;
+            for (String input : graph.node(last).predecessors()) {
+                long finished = states.get(input).finishedNanos;
+                if (finished > releasedAt) {
+                    releasedBy = input;
+                    releasedAt = finished;
+                }
+            }
+            last = releasedBy;
+        }
+        return path;
+    }
+
+    /**
+     * Run time of the nodes on the critical path. The rest of the makespan
+     * is dispatch and queueing on that path: the floor no amount of
+     * parallelism removes is this figure, not the makespan.
+     */
+    public synchronized Duration getCriticalPathTime() {
+        Duration total = Duration.ZERO;
+        for (String node : getCriticalPath()) {
+            Duration runTime = getNodeTiming(node).runTime();
+            if (runTime != null) {
+                total = total.plus(runTime);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sum of every node's run time: the makespan of running them one by one.
+     */
+    public synchronized Duration getTotalWork() {
+        long total = 0;
+        for (NodeState state : states.values()) {
+            if (state.startedNanos != UNSET && state.finishedNanos != UNSET) {
+                total += state.finishedNanos - state.startedNanos;
+            }
+        }
+        return Duration.ofNanos(total);
+    }
+
+    /**
+     * Cancel the run (see DagScheduler.cancel()).
+     */
+    public void cancel() {
+        dagScheduler.cancel(this);
+    }
+
+    private Duration offset(long nanos) {
+        return nanos == UNSET ? null : Duration.ofNanos(nanos - startNanos);
+    }
+
+    // ========== Status ==========
+
+    public synchronized void printTiming() {
+        System.out.printf("📈 DAG %s [%s] %s in %.1f ms%n", graph.getName(), runId, getStatus(), millis(getMakespan()));
+        System.out.printf("   %-20s %-10s %9s %9s %9s %9s%n", "node", "status", "released", "wait", "run", "finished");
+        for (String node : states.keySet()) {
+            NodeTiming timing = getNodeTiming(node);
+            System.out.printf("   %-20s %-10s %9s %9s %9s %9s%n", node, states.get(node).status,
+                    format(timing.released()), format(timing.waitTime()), format(timing.runTime()),
+                    format(timing.finished()));
+        }
+        Duration work = getTotalWork();
+        Duration makespan = getMakespan();
+        System.out.printf("   Critical path: %s%n", String.join(" → ", getCriticalPath()));
+        System.out.printf("   Critical path run time %.1f ms of %.1f ms makespan; total work %.1f ms (%.1fx parallelism)%n",
+                millis(getCriticalPathTime()), millis(makespan), millis(work),
+                makespan.isZero() ? 0.0 : millis(work) / millis(makespan));
+    }
+
+    private static String format(Duration duration) {
+        return duration == null ? "-" : String.format("%.1f", millis(duration));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DagRun{id='%s', graph='%s', status=%s}", runId, graph.getName(), getStatus());
+    }
+}
@@ -0,0 +1,111 @@
+package org.lld.practice.design_task_scheduler.improved_solution.dag;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.Task;
+import org.lld.practice.design_task_scheduler.improved_solution.models.TaskResult;
+import org.lld.practice.design_task_scheduler.improved_solution.observer.TaskListener;
+import org.lld.practice.design_task_scheduler.improved_solution.scheduler.TaskScheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs TaskGraphs on a TaskScheduler.
+ *
+ * Each node becomes an ordinary one-time task, scheduled to run at once
+ * when its last predecessor completes; the scheduler's worker pools (or
+ * the node's execution mode) then run independent branches in parallel.
+ * Completion, failure and cancellation come back through a TaskListener
+ * registered on the scheduler, so retries, priorities and execution modes
+ * work for nodes exactly as for other tasks.
+ *
+ * Cancelling one node's task through TaskScheduler.cancel() cancels
+ * everything downstream of it; DagRun.cancel() cancels the whole run.
+ * Runs live in memory. Node tasks are built with inMemoryOnly(), so a
+ * scheduler with a TaskJournal does not journal them either: after a
+ * restart there would be no run to release a recovered node's successors.
+ */
+public class DagScheduler {
+
+    private final TaskScheduler scheduler;
+    private final Map<String, NodeRef> nodesByTaskId = new ConcurrentHashMap<>();
+
+    private record NodeRef(DagRun run, String node) {}
+
+    public DagScheduler(TaskScheduler scheduler) {
+        this.scheduler = scheduler;
+        scheduler.addListener(new NodeListener());
+    }
+
+    /**
+     * Start a run of the graph: its root nodes are scheduled immediately.
+     */
+    public DagRun submit(TaskGraph graph) {
+        DagRun run = new DagRun(graph, this);
+        release(run, run.roots());
+        return run;
+    }
+
+    /**
+     * Cancel a run. Waiting nodes never start, scheduled nodes are cancelled
+     * in the scheduler, and nodes already running finish without releasing
+     * their successors.
+     */
+    public void cancel(DagRun run) {
+        for (String taskId : run.requestCancel()) {
+            scheduler.cancel(taskId);
+        }
+    }
+
+    private void release(DagRun run, List<String> nodes) {
+        for (String node : nodes) {
+            Task task = run.getGraph().node(node).buildTask();
+            if (!run.markScheduled(node, task.getTaskId())) {
+                continue;
+            }
+            nodesByTaskId.put(task.getTaskId(), new NodeRef(run, node));
+            scheduler.schedule(task);
+            if (run.isCancelRequested()) {
+                scheduler.cancel(task.getTaskId());  // cancelled between marking and scheduling
+            }
+        }
+    }
+
+    /**
+     * Maps the scheduler's task events onto DAG runs.
+     */
+    private final class NodeListener implements TaskListener {
+
+        @Override
+        public void onTaskStarted(Task task) {
+            NodeRef ref = nodesByTaskId.get(task.getTaskId());
+            if (ref != null) {
+                ref.run().markStarted(ref.node());
+            }
+        }
+
+        @Override
+        public void onTaskCompleted(Task task, TaskResult result) {
+            NodeRef ref = nodesByTaskId.remove(task.getTaskId());
+            if (ref != null) {
+                release(ref.run(), ref.run().markCompleted(ref.node()));
+            }
+        }
+
+        @Override
+        public void onTaskFailed(Task task, TaskResult result) {
+            NodeRef ref = nodesByTaskId.remove(task.getTaskId());
+            if (ref != null) {
+                ref.run().markFailed(ref.node(), result.getErrorMessage());
+            }
+        }
+
+        @Override
+        public void onTaskCancelled(Task task) {
+            NodeRef ref = nodesByTaskId.remove(task.getTaskId());
+            if (ref != null) {
+                ref.run().markCancelled(ref.node());
+            }
+        }
+    }
+}
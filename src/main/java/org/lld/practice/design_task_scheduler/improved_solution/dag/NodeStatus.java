@@ -0,0 +1,18 @@
+package org.lld.practice.design_task_scheduler.improved_solution.dag;
+
+/**
+ * Enum representing the state of one node in a DAG run.
+ */
+public enum NodeStatus {
+    WAITING,        // Waiting for predecessors to complete
+    SCHEDULED,      // Inputs complete, handed to the task scheduler
+    RUNNING,        // Currently executing (including retries)
+    COMPLETED,      // Successfully completed
+    FAILED,         // Execution failed (after all retries)
+    SKIPPED,        // Not run: a predecessor failed
+    CANCELLED;      // Not run, or stopped being scheduled: cancelled
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED || this == SKIPPED || this == CANCELLED;
+    }
+}
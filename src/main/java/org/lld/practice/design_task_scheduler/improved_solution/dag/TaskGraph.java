@@ -0,0 +1,182 @@
+package org.lld.practice.design_task_scheduler.improved_solution.dag;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.Task;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Immutable definition of a task DAG: named nodes, each with a command and
+ * the nodes it depends on. One graph can be submitted any number of times;
+ * every run builds fresh tasks.
+ *
+ * <pre>
+ *   TaskGraph etl = TaskGraph.builder("nightly-etl")
+ *           .task("extract-orders", extractOrders)
+ *           .task("extract-users", extractUsers)
+ *           .task("join", join, "extract-orders", "extract-users")
+ *           .task("load", load, options -> options.blocking(), "join")
+ *           .build();
+ * </pre>
+ *
+ * build() rejects unknown predecessors and cycles, and keeps the nodes in
+ * a topological order (every node after all of its predecessors).
+ */
+public class TaskGraph {
+
+    private final String name;
+    private final Map<String, Node> nodes;  // topological order
+
+    /**
+     * One node: the task to build for each run, and its edges.
+     */
+    record Node(String name, Runnable command, Consumer<Task.Builder> options,
+                List<String> predecessors, List<String> successors) {
+
+        Task buildTask() {
+            Task.Builder builder = Task.builder(name, command);
+            options.accept(builder);
+            return builder.inMemoryOnly().build();  // runs are not journaled, see DagScheduler
+        }
+    }
+
+    private TaskGraph(String name, Map<String, Node> nodes) {
+        this.name = name;
+        this.nodes = nodes;
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Node names in topological order.
+     */
+    public List<String> getNodeNames() {
+        return List.copyOf(nodes.keySet());
+    }
+
+    public List<String> getPredecessors(String node) {
+        return node(node).predecessors();
+    }
+
+    public List<String> getSuccessors(String node) {
+        return node(node).successors();
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    Node node(String node) {
+        Node found = nodes.get(node);
+        if (found == null) {
+            throw new IllegalArgumentException("No node '" + node + "' in task graph " + name);
+        }
+        return found;
+    }
+
+    Collection<Node> nodes() {
+        return nodes.values();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TaskGraph{name='%s', nodes=%d}", name, nodes.size());
+    }
+
+    public static class Builder {
+        private final String name;
+        private final Map<String, Runnable> commands = new LinkedHashMap<>();
+        private final Map<String, Consumer<Task.Builder>> options = new HashMap<>();
+        private final Map<String, List<String>> predecessors = new HashMap<>();
+
+        public Builder(String name) {
+            this.name = Objects.requireNonNull(name);
+        }
+
+        public Builder task(String node, Runnable command, String... dependsOn) {
+            return task(node, command, options -> { }, dependsOn);
+        }
+
+        /**
+         * @param options Applied to the node's Task.Builder on every run
+         *                (priority, retry policy, execution mode); the node
+         *                must stay a one-time task
+         */
+        public Builder task(String node, Runnable command, Consumer<Task.Builder> options, String... dependsOn) {
+            Objects.requireNonNull(node);
+            Objects.requireNonNull(command);
+            if (commands.containsKey(node)) {
+                throw new IllegalArgumentException("Duplicate node '" + node + "' in task graph " + name);
+            }
+            List<String> inputs = List.of(dependsOn);
+            if (inputs.contains(node)) {
+                throw new IllegalArgumentException("Node '" + node + "' cannot depend on itself");
+            }
+            if (new HashSet<>(inputs).size() != inputs.size()) {
+                throw new IllegalArgumentException("Node '" + node + "' lists a predecessor twice: " + inputs);
+            }
+            Task.Builder probe = Task.builder(node, command);
+            options.accept(probe);
+            if (probe.build().isRecurring()) {
+                throw new IllegalArgumentException("DAG node '" + node + "' must be a one-time task");
+            }
+            commands.put(node, command);
+            this.options.put(node, options);
+            predecessors.put(node, inputs);
+            return this;
+        }
+
+        /**
+         * Validate the edges and order the nodes topologically (Kahn's algorithm).
+         */
+        public TaskGraph build() {
+            Map<String, List<String>> successors = new HashMap<>();
+            Map<String, Integer> inDegree = new HashMap<>();
+            for (String node : commands.keySet()) {
+                successors.put(node, new ArrayList<>());
+            }
+            for (String node : commands.keySet()) {
+                for (String input : predecessors.get(node)) {
+                    if (!commands.containsKey(input)) {
+                        throw new IllegalArgumentException(
+                                "Node '" + node + "' depends on unknown node '" + input + "' in task graph " + name);
+                    }
+                    successors.get(input).add(node);
+                }
+                inDegree.put(node, predecessors.get(node).size());
+            }
+
+            Map<String, Node> ordered = new LinkedHashMap<>();
+            Deque<String> ready = new ArrayDeque<>();
+            for (String node : commands.keySet()) {
+                if (inDegree.get(node) == 0) {
+                    ready.add(node);
+                }
+            }
+            while (!ready.isEmpty()) {
+                String node = ready.poll();
+                ordered.put(node, new Node(node, commands.get(node), options.get(node),
+                        predecessors.get(node), List.copyOf(successors.get(node))));
+                for (String next : successors.get(node)) {
+                    if (inDegree.merge(next, -1, Integer::sum) == 0) {
+                        ready.add(next);
+                    }
+                }
+            }
+            if (ordered.size() != commands.size()) {
+                List<String> cyclic = commands.keySet().stream().filter(node -> !ordered.containsKey(node)).toList();
+                throw new IllegalStateException("Task graph " + name + " has a cycle; nodes on or after it: " + cyclic);
+            }
+            if (ordered.isEmpty()) {
+                throw new IllegalStateException("Task graph " + name + " has no nodes");
+            }
+            return new TaskGraph(name, Collections.unmodifiableMap(ordered));
+        }
+    }
+}
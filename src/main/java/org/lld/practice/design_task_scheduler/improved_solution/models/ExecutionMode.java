@@ -0,0 +1,10 @@
+package org.lld.practice.design_task_scheduler.improved_solution.models;
+
+/**
+ * Enum representing where a task runs once it is due.
+ */
+public enum ExecutionMode {
+    WORKER_POOL,     // Shared fixed-size worker pool (default)
+    WORK_STEALING,   // ForkJoinPool: short CPU-bound tasks
+    VIRTUAL_THREAD   // One virtual thread per run: tasks that block (I/O, sleeps)
+}
@@ -2,9 +2,11 @@ package org.lld.practice.design_task_scheduler.improved_solution.models;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents a scheduled task.
@@ -18,16 +20,20 @@ public class Task implements Comparable<Task> {
     private final ScheduleType scheduleType;
     private final Duration interval;
     private final RetryPolicy retryPolicy;
+    private final ExecutionMode executionMode;
+    private final boolean durable;
     private final Instant createdAt;
     
     private Instant scheduledTime;
-    private TaskStatus status;
+    private final AtomicReference<TaskStatus> status = new AtomicReference<>(TaskStatus.PENDING);
     private int attemptCount;
     private Instant lastExecutedAt;
     private String lastError;
 
     private Task(Builder builder) {
-        this.taskId = "TASK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        this.taskId = builder.taskId != null
+                ? builder.taskId
+                : "TASK-" + HexFormat.of().withUpperCase().toHexDigits(UUID.randomUUID().getMostSignificantBits());
         this.name = builder.name;
         this.command = builder.command;
         this.priority = builder.priority;
@@ -35,26 +41,37 @@ public class Task implements Comparable<Task> {
         this.scheduledTime = builder.scheduledTime;
         this.interval = builder.interval;
         this.retryPolicy = builder.retryPolicy;
+        this.executionMode = builder.executionMode;
+        this.durable = builder.durable;
         this.createdAt = Instant.now();
-        this.status = TaskStatus.PENDING;
-        this.attemptCount = 0;
+        this.attemptCount = builder.attemptCount;
     }
 
     // ========== Execution ==========
 
+    /**
+     * Claim a pending task for a run: PENDING to RUNNING in one step, so a
+     * concurrent cancel() either wins before the run or fails.
+     *
+     * @return false if the task is no longer pending (cancelled)
+     */
+    public boolean tryStart() {
+        return status.compareAndSet(TaskStatus.PENDING, TaskStatus.RUNNING);
+    }
+
     /**
      * Execute the task and return result.
      */
     public TaskResult execute() {
         Instant startTime = Instant.now();
         attemptCount++;
-        status = TaskStatus.RUNNING;
+        status.set(TaskStatus.RUNNING);
         
         try {
             command.run();
             lastExecutedAt = Instant.now();
             Duration executionTime = Duration.between(startTime, lastExecutedAt);
-            status = TaskStatus.COMPLETED;
+            status.set(TaskStatus.COMPLETED);
             lastError = null;
             
             return TaskResult.success(taskId, startTime, executionTime, attemptCount);
@@ -65,9 +82,9 @@ public class Task implements Comparable<Task> {
             lastError = e.getMessage();
             
             if (retryPolicy.shouldRetry(attemptCount)) {
-                status = TaskStatus.RETRYING;
+                status.set(TaskStatus.RETRYING);
             } else {
-                status = TaskStatus.FAILED;
+                status.set(TaskStatus.FAILED);
             }
             
             return TaskResult.failure(taskId, startTime, executionTime, e.getMessage(), attemptCount);
@@ -90,7 +107,7 @@ public class Task implements Comparable<Task> {
             scheduledTime = Instant.now().plus(interval);
         }
         
-        status = TaskStatus.PENDING;
+        status.set(TaskStatus.PENDING);
     }
 
     /**
@@ -99,16 +116,16 @@ public class Task implements Comparable<Task> {
     public void scheduleRetry() {
         Duration retryDelay = retryPolicy.getDelayForAttempt(attemptCount);
         scheduledTime = Instant.now().plus(retryDelay);
-        status = TaskStatus.PENDING;
+        status.set(TaskStatus.PENDING);
     }
 
     /**
-     * Cancel the task.
+     * Cancel the task if it is pending: PENDING to CANCELLED in one step.
+     *
+     * @return false if the task is running, finished or already cancelled
      */
-    public void cancel() {
-        if (status != TaskStatus.RUNNING) {
-            status = TaskStatus.CANCELLED;
-        }
+    public boolean cancel() {
+        return status.compareAndSet(TaskStatus.PENDING, TaskStatus.CANCELLED);
     }
 
     // ========== Getters ==========
@@ -141,8 +158,19 @@ public class Task implements Comparable<Task> {
         return retryPolicy;
     }
 
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
     public TaskStatus getStatus() {
-        return status;
+        return status.get();
+    }
+
+    /**
+     * Whether a scheduler with a TaskJournal journals this task (the default).
+     */
+    public boolean isDurable() {
+        return durable;
     }
 
     public int getAttemptCount() {
@@ -162,12 +190,12 @@ public class Task implements Comparable<Task> {
     }
 
     public boolean isReadyToRun() {
-        return status == TaskStatus.PENDING && 
+        return status.get() == TaskStatus.PENDING && 
                !scheduledTime.isAfter(Instant.now());
     }
 
     public boolean canRetry() {
-        return status == TaskStatus.RETRYING && 
+        return status.get() == TaskStatus.RETRYING && 
                retryPolicy.shouldRetry(attemptCount);
     }
 
@@ -185,8 +213,8 @@ public class Task implements Comparable<Task> {
 
     @Override
     public String toString() {
-        return String.format("Task{id='%s', name='%s', priority=%s, status=%s, scheduled=%s}",
-                taskId, name, priority, status, scheduledTime);
+        return String.format("Task{id='%s', name='%s', priority=%s, mode=%s, status=%s, scheduled=%s}",
+                taskId, name, priority, executionMode, status.get(), scheduledTime);
     }
 
     @Override
@@ -216,6 +244,10 @@ public class Task implements Comparable<Task> {
         private Instant scheduledTime = Instant.now();
         private Duration interval = Duration.ZERO;
         private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+        private ExecutionMode executionMode = ExecutionMode.WORKER_POOL;
+        private boolean durable = true;
+        private String taskId;
+        private int attemptCount;
 
         public Builder(String name, Runnable command) {
             this.name = Objects.requireNonNull(name);
@@ -259,6 +291,53 @@ public class Task implements Comparable<Task> {
             return this;
         }
 
+        /**
+         * Pick the execution backend: WORK_STEALING for short CPU-bound
+         * work, VIRTUAL_THREAD for work that blocks.
+         */
+        public Builder executionMode(ExecutionMode mode) {
+            this.executionMode = Objects.requireNonNull(mode);
+            return this;
+        }
+
+        public Builder cpuBound() {
+            return executionMode(ExecutionMode.WORK_STEALING);
+        }
+
+        public Builder blocking() {
+            return executionMode(ExecutionMode.VIRTUAL_THREAD);
+        }
+
+        /**
+         * Keep the task out of the scheduler's journal: it is lost on restart.
+         * For tasks whose owner lives in memory and could not resume them.
+         */
+        public Builder inMemoryOnly() {
+            this.durable = false;
+            return this;
+        }
+
+        /**
+         * Keep an existing task id instead of generating one, e.g. when
+         * restoring a task from a journal.
+         */
+        public Builder taskId(String taskId) {
+            this.taskId = Objects.requireNonNull(taskId);
+            return this;
+        }
+
+        /**
+         * Attempts already made, e.g. when restoring a task that is waiting
+         * for a retry; the retry policy counts from here.
+         */
+        public Builder attemptCount(int attemptCount) {
+            if (attemptCount < 0) {
+                throw new IllegalArgumentException("Attempt count cannot be negative");
+            }
+            this.attemptCount = attemptCount;
+            return this;
+        }
+
         public Task build() {
             return new Task(this);
         }
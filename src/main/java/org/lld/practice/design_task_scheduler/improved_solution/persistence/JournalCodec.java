@@ -0,0 +1,209 @@
+package org.lld.practice.design_task_scheduler.improved_solution.persistence;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of journal and snapshot records.
+ *
+ * Each record is framed as [int payload length][int CRC32C of payload]
+ * [payload], and the payload starts with a type byte:
+ * - SCHEDULED: the full TaskRecord (new task, or a task in a snapshot);
+ * - RESCHEDULED: id, next scheduled time, attempt count (next recurring
+ *   run or a retry);
+ * - REMOVED: id, final status (completed, failed or cancelled).
+ *
+ * An instance reuses one buffer and is not thread-safe.
+ */
+final class JournalCodec {
+
+    static final int FRAME_BYTES = 8;
+
+    private static final byte SCHEDULED = 1;
+    private static final byte RESCHEDULED = 2;
+    private static final byte REMOVED = 3;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+    private static final ScheduleType[] SCHEDULE_TYPES = ScheduleType.values();
+    private static final ExecutionMode[] EXECUTION_MODES = ExecutionMode.values();
+
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    // ========== Encoding ==========
+
+    /**
+     * @return the framed record, ready to write; valid until the next call
+     */
+    ByteBuffer scheduled(TaskRecord record) {
+        byte[] id = utf8(record.taskId());
+        byte[] name = utf8(record.name());
+        begin(1 + 2 + id.length + 2 + name.length + 3 + 12 + 12 + 4 + 8 + 8 + 1 + 4);
+        buffer.put(SCHEDULED);
+        putString(id);
+        putString(name);
+        buffer.put((byte) record.priority().ordinal());
+        buffer.put((byte) record.scheduleType().ordinal());
+        buffer.put((byte) record.executionMode().ordinal());
+        putDuration(record.interval());
+        putInstant(record.scheduledTime());
+        RetryPolicy retryPolicy = record.retryPolicy();
+        buffer.putInt(retryPolicy.getMaxAttempts());
+        buffer.putLong(retryPolicy.getInitialDelay().toMillis());
+        buffer.putDouble(retryPolicy.getBackoffMultiplier());
+        buffer.putInt(record.attemptCount());
+        return finish();
+    }
+
+    ByteBuffer rescheduled(String taskId, Instant scheduledTime, int attemptCount) {
+        byte[] id = utf8(taskId);
+        begin(1 + 2 + id.length + 12 + 4);
+        buffer.put(RESCHEDULED);
+        putString(id);
+        putInstant(scheduledTime);
+        buffer.putInt(attemptCount);
+        return finish();
+    }
+
+    ByteBuffer removed(String taskId, TaskStatus status) {
+        byte[] id = utf8(taskId);
+        begin(1 + 2 + id.length + 1);
+        buffer.put(REMOVED);
+        putString(id);
+        buffer.put((byte) status.ordinal());
+        return finish();
+    }
+
+    private void begin(int payloadBytes) {
+        int needed = FRAME_BYTES + payloadBytes;
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(needed) << 1);
+        }
+        buffer.clear();
+        buffer.position(FRAME_BYTES);
+    }
+
+    private ByteBuffer finish() {
+        int payloadLength = buffer.position() - FRAME_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), FRAME_BYTES, payloadLength);
+        buffer.putInt(0, payloadLength);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Cannot journal a string longer than 64 KB: " + value.substring(0, 32) + "...");
+        }
+        return bytes;
+    }
+
+    private void putString(byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void putDuration(Duration duration) {
+        buffer.putLong(duration.getSeconds());
+        buffer.putInt(duration.getNano());
+    }
+
+    private void putInstant(Instant instant) {
+        buffer.putLong(instant.getEpochSecond());
+        buffer.putInt(instant.getNano());
+    }
+
+    // ========== Decoding ==========
+
+    /**
+     * Apply records from data's position onwards to state (taskId -> record),
+     * stopping at the end or at the first torn or corrupt record. data is
+     * left positioned just past the last intact record.
+     *
+     * @return number of records applied
+     */
+    static long replay(ByteBuffer data, Map<String, TaskRecord> state) {
+        CRC32C crc = new CRC32C();
+        long applied = 0;
+        while (data.remaining() >= FRAME_BYTES) {
+            int start = data.position();
+            int length = data.getInt(start);
+            int checksum = data.getInt(start + 4);
+            if (length <= 0 || length > data.remaining() - FRAME_BYTES) {
+                break;
+            }
+            ByteBuffer payload = data.slice(start + FRAME_BYTES, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum || !apply(payload, state)) {
+                break;
+            }
+            data.position(start + FRAME_BYTES + length);
+            applied++;
+        }
+        return applied;
+    }
+
+    private static boolean apply(ByteBuffer payload, Map<String, TaskRecord> state) {
+        try {
+            switch (payload.get()) {
+                case SCHEDULED -> {
+                    String taskId = getString(payload);
+                    String name = getString(payload);
+                    TaskPriority priority = PRIORITIES[payload.get()];
+                    ScheduleType scheduleType = SCHEDULE_TYPES[payload.get()];
+                    ExecutionMode executionMode = EXECUTION_MODES[payload.get()];
+                    Duration interval = getDuration(payload);
+                    Instant scheduledTime = getInstant(payload);
+                    RetryPolicy retryPolicy = new RetryPolicy(payload.getInt(),
+                            Duration.ofMillis(payload.getLong()), payload.getDouble());
+                    int attemptCount = payload.getInt();
+                    state.put(taskId, new TaskRecord(taskId, name, priority, scheduleType, interval,
+                            scheduledTime, retryPolicy, executionMode, attemptCount));
+                }
+                case RESCHEDULED -> {
+                    String taskId = getString(payload);
+                    Instant scheduledTime = getInstant(payload);
+                    int attemptCount = payload.getInt();
+                    state.computeIfPresent(taskId, (id, record) -> record.withSchedule(scheduledTime, attemptCount));
+                }
+                case REMOVED -> {
+                    String taskId = getString(payload);
+                    payload.get();  // final status: informational, the task is gone either way
+                    state.remove(taskId);
+                }
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String getString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Duration getDuration(ByteBuffer payload) {
+        return Duration.ofSeconds(payload.getLong(), payload.getInt());
+    }
+
+    private static Instant getInstant(ByteBuffer payload) {
+        return Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+    }
+}
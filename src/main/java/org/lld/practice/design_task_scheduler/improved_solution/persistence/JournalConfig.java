@@ -0,0 +1,140 @@
+package org.lld.practice.design_task_scheduler.improved_solution.persistence;
+
+import java.time.Duration;
+
+/**
+ * Durability, snapshot and segment settings for a TaskJournal.
+ *
+ * <pre>
+ *   JournalConfig config = JournalConfig.builder()
+ *           .snapshotEveryRecords(500_000)         // compact after 500k journal records
+ *           .segmentBytes(128L * 1024 * 1024)      // start a new journal file every 128 MB
+ *           .syncInterval(Duration.ofMillis(50))   // fsync at most 50 ms after a write
+ *           .build();
+ *   TaskJournal journal = new TaskJournal(Path.of("data/scheduler"), config);
+ * </pre>
+ *
+ * Every record is written to the file as it is appended, so a process
+ * crash loses nothing; "sync" forces the file to disk, which bounds what a
+ * machine crash can lose.
+ */
+public class JournalConfig {
+
+    private final int snapshotEveryRecords;
+    private final long segmentBytes;
+    private final boolean syncEveryRecord;
+    private final Duration syncInterval;
+    private final boolean snapshotOnClose;
+
+    private JournalConfig(Builder builder) {
+        this.snapshotEveryRecords = builder.snapshotEveryRecords;
+        this.segmentBytes = builder.segmentBytes;
+        this.syncEveryRecord = builder.syncEveryRecord;
+        this.syncInterval = builder.syncInterval;
+        this.snapshotOnClose = builder.snapshotOnClose;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Defaults: snapshot every 100k records and on close, 64 MB segments,
+     * sync every 100 ms.
+     */
+    public static JournalConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Take a snapshot (and drop older journal segments) after this many
+     * records; 0 disables the count trigger.
+     */
+    public int getSnapshotEveryRecords() {
+        return snapshotEveryRecords;
+    }
+
+    public long getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public boolean isSyncEveryRecord() {
+        return syncEveryRecord;
+    }
+
+    /**
+     * Sync unsynced records this often; null disables the timer.
+     */
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public boolean isSnapshotOnClose() {
+        return snapshotOnClose;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JournalConfig{snapshotEvery=%d, segmentBytes=%d, syncEveryRecord=%s, "
+                        + "syncInterval=%s, snapshotOnClose=%s}",
+                snapshotEveryRecords, segmentBytes, syncEveryRecord, syncInterval, snapshotOnClose);
+    }
+
+    public static class Builder {
+        private int snapshotEveryRecords = 100_000;
+        private long segmentBytes = 64L * 1024 * 1024;
+        private boolean syncEveryRecord = false;
+        private Duration syncInterval = Duration.ofMillis(100);
+        private boolean snapshotOnClose = true;
+
+        public Builder snapshotEveryRecords(int snapshotEveryRecords) {
+            if (snapshotEveryRecords < 0) {
+                throw new IllegalArgumentException("Snapshot record count cannot be negative");
+            }
+            this.snapshotEveryRecords = snapshotEveryRecords;
+            return this;
+        }
+
+        /**
+         * Start a new journal file before a record would take the current one
+         * past this size. Recovery reads each segment into memory, hence the cap.
+         */
+        public Builder segmentBytes(long segmentBytes) {
+            if (segmentBytes < 4096 || segmentBytes > 1024L * 1024 * 1024) {
+                throw new IllegalArgumentException("Segment size must be between 4 KB and 1 GB");
+            }
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * Force the file to disk after every record (one fsync per schedule,
+         * retry and completion).
+         */
+        public Builder syncEveryRecord(boolean syncEveryRecord) {
+            this.syncEveryRecord = syncEveryRecord;
+            return this;
+        }
+
+        public Builder syncInterval(Duration syncInterval) {
+            if (syncInterval != null && syncInterval.toMillis() <= 0) {
+                throw new IllegalArgumentException("Sync interval must be at least 1 ms");
+            }
+            this.syncInterval = syncInterval;
+            return this;
+        }
+
+        /**
+         * Write a final snapshot on close, so the next start reads one file
+         * instead of replaying the journal.
+         */
+        public Builder snapshotOnClose(boolean snapshotOnClose) {
+            this.snapshotOnClose = snapshotOnClose;
+            return this;
+        }
+
+        public JournalConfig build() {
+            return new JournalConfig(this);
+        }
+    }
+}
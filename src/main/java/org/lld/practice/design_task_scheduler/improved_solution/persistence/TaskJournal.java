@@ -0,0 +1,423 @@
+package org.lld.practice.design_task_scheduler.improved_solution.persistence;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.Task;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal of task state transitions, with periodic snapshots.
+ *
+ * Files in the journal directory:
+ * - journal-NNNNNNNNNN.wal: segments of framed records (see JournalCodec),
+ *   one per schedule, reschedule (next recurring run or retry) and removal
+ *   (completed, failed or cancelled). A new segment starts every
+ *   segmentBytes and on every open.
+ * - tasks.snapshot: every live task at some point, plus the number of the
+ *   first segment that is not yet reflected in it.
+ *
+ * A snapshot switches appends to a new segment, then writes the live tasks
+ * (from the supplier given to open()) to a temporary file that is synced
+ * and atomically renamed over the old snapshot, and finally deletes the
+ * older segments. Completed tasks are not live, so they disappear from the
+ * files at that point: this is the journal's compaction. Appends carry on
+ * while the snapshot is written; the caller only has to change a task in
+ * memory before journaling the change, so that anything the snapshot
+ * misses is in a segment it keeps.
+ *
+ * Recovery (open()) loads the snapshot and replays the newer segments in
+ * order. A record torn or corrupted by a crash ends its segment: the
+ * segment is truncated there.
+ *
+ * Snapshots are taken every snapshotEveryRecords records on a background
+ * "task-journal" thread, which also runs the timed sync, and on close.
+ *
+ * Files are written with java.io streams and synced with FileDescriptor.sync(),
+ * not through a FileChannel: channel I/O is interruptible, and one write from
+ * a worker whose interrupt flag is set (a task that restored its interrupt
+ * status, or executor.shutdownNow()) would close the channel and fail every
+ * later append and close().
+ */
+public class TaskJournal {
+
+    private static final String SNAPSHOT_FILE = "tasks.snapshot";
+    private static final String SNAPSHOT_TEMP_FILE = "tasks.snapshot.tmp";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("journal-(\\d{10})\\.wal");
+    private static final int SNAPSHOT_MAGIC = 0x54534E50;  // "TSNP"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_CHUNK_BYTES = 1024 * 1024;
+
+    private final Path directory;
+    private final JournalConfig config;
+    private final JournalCodec codec = new JournalCodec();
+    private final Object snapshotLock = new Object();
+
+    // Guarded by this
+    private ScheduledExecutorService maintenance;
+    private Supplier<? extends Collection<Task>> liveTasks;
+    private FileOutputStream segment;
+    private long segmentNumber;
+    private long segmentSize;
+    private long recordsSinceSnapshot;
+    private boolean snapshotQueued;
+    private boolean unsynced;
+    private boolean open;
+
+    private volatile long snapshotCount;
+
+    /**
+     * Result of open(): the live tasks in the order they were first scheduled.
+     *
+     * @param snapshotTasks  tasks read from the snapshot
+     * @param journalRecords records replayed from segments newer than the snapshot
+     * @param discardedBytes bytes of torn or corrupt records dropped
+     */
+    public record Recovery(
+            List<TaskRecord> tasks,
+            int snapshotTasks,
+            long journalRecords,
+            long discardedBytes,
+            Duration elapsed
+    ) {}
+
+    public TaskJournal(Path directory) {
+        this(directory, JournalConfig.defaults());
+    }
+
+    public TaskJournal(Path directory, JournalConfig config) {
+        this.directory = directory;
+        this.config = config;
+    }
+
+    // ========== Lifecycle ==========
+
+    /**
+     * Recover the journal's tasks and start appending to a new segment.
+     *
+     * @param liveTasks Tasks to write into each snapshot
+     */
+    public synchronized Recovery open(Supplier<? extends Collection<Task>> liveTasks) {
+        if (open) {
+            throw new IllegalStateException("Task journal is already open: " + directory);
+        }
+        long start = System.nanoTime();
+        Map<String, TaskRecord> state = new LinkedHashMap<>();
+        int snapshotTasks = 0;
+        long discardedBytes = 0;
+        long journalRecords = 0;
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP_FILE));  // left by a crash mid-snapshot
+
+            long firstSegment = 1;
+            Path snapshot = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+                if (data.remaining() < 16 || data.getInt() != SNAPSHOT_MAGIC || data.getInt() != SNAPSHOT_VERSION) {
+                    throw new IllegalStateException("Not a task snapshot: " + snapshot);
+                }
+                firstSegment = data.getLong();
+                JournalCodec.replay(data, state);
+                if (data.hasRemaining()) {
+                    discardedBytes += data.remaining();
+                    System.err.printf("Task journal: snapshot %s is corrupt after %d tasks%n", snapshot, state.size());
+                }
+            }
+            snapshotTasks = state.size();
+
+            long lastSegment = firstSegment - 1;
+            for (long number : segmentNumbers()) {
+                Path path = segmentPath(number);
+                if (number < firstSegment) {
+                    Files.delete(path);  // already in the snapshot
+                    continue;
+                }
+                ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+                journalRecords += JournalCodec.replay(data, state);
+                if (data.hasRemaining()) {
+                    discardedBytes += data.remaining();
+                    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                        file.setLength(data.position());
+                    }
+                }
+                lastSegment = number;
+            }
+
+            openSegment(lastSegment + 1);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to recover task journal: " + directory, e);
+        }
+
+        this.liveTasks = liveTasks;
+        this.recordsSinceSnapshot = journalRecords;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (config.getSyncInterval() != null) {
+            long intervalMillis = config.getSyncInterval().toMillis();
+            maintenance.scheduleAtFixedRate(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        open = true;
+
+        return new Recovery(new ArrayList<>(state.values()), snapshotTasks, journalRecords, discardedBytes,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Stop background work, take a final snapshot (if configured) and
+     * close the current segment.
+     */
+    public void close() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            executor = maintenance;
+        }
+        executor.shutdown();  // a queued snapshot still runs
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (config.isSnapshotOnClose()) {
+                snapshot();
+            }
+        } finally {
+            synchronized (this) {
+                open = false;
+                try {
+                    segment.getFD().sync();
+                    segment.close();
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to close task journal: " + directory, e);
+                }
+            }
+        }
+    }
+
+    // ========== Journal Records ==========
+
+    /**
+     * A new task was scheduled.
+     */
+    public synchronized void scheduled(Task task) {
+        append(codec.scheduled(TaskRecord.of(task)));
+    }
+
+    /**
+     * A task moved to its next recurring run or to a retry.
+     */
+    public synchronized void rescheduled(Task task) {
+        append(codec.rescheduled(task.getTaskId(), task.getScheduledTime(), task.getAttemptCount()));
+    }
+
+    /**
+     * A task completed for good, failed for good or was cancelled.
+     */
+    public synchronized void removed(Task task) {
+        append(codec.removed(task.getTaskId(), task.getStatus()));
+    }
+
+    private void append(ByteBuffer record) {
+        if (!open) {
+            throw new IllegalStateException("Task journal is not open: " + directory);
+        }
+        try {
+            if (segmentSize > 0 && segmentSize + record.remaining() > config.getSegmentBytes()) {
+                openSegment(segmentNumber + 1);
+            }
+            segmentSize += record.remaining();
+            write(segment, record);
+            if (config.isSyncEveryRecord()) {
+                segment.getFD().sync();
+            } else {
+                unsynced = true;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append to task journal: " + directory, e);
+        }
+
+        int snapshotEvery = config.getSnapshotEveryRecords();
+        if (snapshotEvery > 0 && ++recordsSinceSnapshot >= snapshotEvery && !snapshotQueued) {
+            snapshotQueued = true;
+            maintenance.execute(this::backgroundSnapshot);
+        }
+    }
+
+    // ========== Snapshots ==========
+
+    /**
+     * Write a snapshot of the live tasks and delete the segments it covers.
+     * Appends continue (into a new segment) while it is written.
+     */
+    public void snapshot() {
+        synchronized (snapshotLock) {
+            long firstKept;
+            Supplier<? extends Collection<Task>> source;
+            synchronized (this) {
+                if (!open) {
+                    throw new IllegalStateException("Task journal is not open: " + directory);
+                }
+                try {
+                    openSegment(segmentNumber + 1);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to start a task journal segment: " + directory, e);
+                }
+                firstKept = segmentNumber;
+                recordsSinceSnapshot = 0;
+                source = liveTasks;
+            }
+
+            try {
+                writeSnapshot(source.get(), firstKept);
+                for (long number : segmentNumbers()) {
+                    if (number < firstKept) {
+                        Files.deleteIfExists(segmentPath(number));
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write task snapshot: " + directory, e);
+            }
+            snapshotCount++;
+        }
+    }
+
+    private void writeSnapshot(Collection<Task> tasks, long firstSegment) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+        JournalCodec snapshotCodec = new JournalCodec();
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            ByteBuffer chunk = ByteBuffer.allocate(SNAPSHOT_CHUNK_BYTES);
+            chunk.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(firstSegment);
+            for (Task task : tasks) {
+                ByteBuffer record = snapshotCodec.scheduled(TaskRecord.of(task));
+                if (record.remaining() > chunk.remaining()) {
+                    write(out, chunk.flip());
+                    chunk.clear();
+                }
+                if (record.remaining() > chunk.remaining()) {
+                    write(out, record);  // larger than a whole chunk
+                } else {
+                    chunk.put(record);
+                }
+            }
+            write(out, chunk.flip());
+            out.getFD().sync();
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void backgroundSnapshot() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            System.err.println("Task journal: background snapshot failed: " + e);
+        } finally {
+            synchronized (this) {
+                snapshotQueued = false;
+            }
+        }
+    }
+
+    // ========== Segments ==========
+
+    /**
+     * Sync the previous segment (it is closed, so the timed sync cannot)
+     * and start appending to segment number.
+     */
+    private void openSegment(long number) throws IOException {
+        if (segment != null) {
+            segment.getFD().sync();
+            segment.close();
+        }
+        Path path = Files.createFile(segmentPath(number));  // never reuse an existing segment
+        segment = new FileOutputStream(path.toFile(), true);
+        segmentNumber = number;
+        segmentSize = 0;
+    }
+
+    private void syncQuietly() {
+        FileOutputStream current;
+        synchronized (this) {
+            if (!open || !unsynced) {
+                return;
+            }
+            unsynced = false;
+            current = segment;
+        }
+        try {
+            current.getFD().sync();  // outside the lock: appends continue meanwhile
+        } catch (IOException e) {
+            synchronized (this) {
+                if (current != segment || !open) {
+                    return;  // rolled to a new segment meanwhile; the old one was synced when it was closed
+                }
+            }
+            System.err.println("Task journal: sync failed: " + e);
+        }
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_FILE.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("journal-%010d.wal", number));
+    }
+
+    private static void write(FileOutputStream out, ByteBuffer buffer) throws IOException {
+        out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        buffer.position(buffer.limit());
+    }
+
+    // ========== Getters ==========
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public JournalConfig getConfig() {
+        return config;
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    public synchronized long getSegmentNumber() {
+        return segmentNumber;
+    }
+
+    public synchronized boolean isOpen() {
+        return open;
+    }
+}
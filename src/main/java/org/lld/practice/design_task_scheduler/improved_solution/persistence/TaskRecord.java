@@ -0,0 +1,56 @@
+package org.lld.practice.design_task_scheduler.improved_solution.persistence;
+
+import org.lld.practice.design_task_scheduler.improved_solution.models.*;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Persisted state of a scheduled task: everything needed to rebuild it
+ * except its command, which is code and is looked up by name on recovery.
+ */
+public record TaskRecord(
+        String taskId,
+        String name,
+        TaskPriority priority,
+        ScheduleType scheduleType,
+        Duration interval,
+        Instant scheduledTime,
+        RetryPolicy retryPolicy,
+        ExecutionMode executionMode,
+        int attemptCount
+) {
+
+    public static TaskRecord of(Task task) {
+        return new TaskRecord(task.getTaskId(), task.getName(), task.getPriority(), task.getScheduleType(),
+                task.getInterval(), task.getScheduledTime(), task.getRetryPolicy(), task.getExecutionMode(),
+                task.getAttemptCount());
+    }
+
+    /**
+     * Same task, moved to its next run or retry.
+     */
+    public TaskRecord withSchedule(Instant scheduledTime, int attemptCount) {
+        return new TaskRecord(taskId, name, priority, scheduleType, interval, scheduledTime, retryPolicy,
+                executionMode, attemptCount);
+    }
+
+    /**
+     * Rebuild the task (same id, PENDING) around the given command.
+     */
+    public Task toTask(Runnable command) {
+        Task.Builder builder = Task.builder(name, command)
+                .taskId(taskId)
+                .priority(priority)
+                .scheduleAt(scheduledTime)
+                .retryPolicy(retryPolicy)
+                .executionMode(executionMode)
+                .attemptCount(attemptCount);
+        switch (scheduleType) {
+            case FIXED_RATE -> builder.fixedRate(interval);
+            case FIXED_DELAY -> builder.fixedDelay(interval);
+            case ONE_TIME -> { }
+        }
+        return builder.build();
+    }
+}
@@ -4,6 +4,7 @@ import org.lld.practice.design_task_scheduler.improved_solution.models.*;
 import org.lld.practice.design_task_scheduler.improved_solution.observer.TaskListener;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -22,7 +23,7 @@ public interface TaskScheduler {
     boolean cancel(String taskId);
     
     /**
-     * Get task by ID.
+     * Get task by ID; empty once the task has completed, failed or been cancelled.
      */
     Optional<Task> getTask(String taskId);
     
@@ -63,6 +64,8 @@ public interface TaskScheduler {
     
     /**
      * Statistics about the scheduler.
+     * totalTasks counts live tasks; completedTasks and failedTasks count runs since start.
+     * activeWorkers counts task runs in progress, in total and per execution mode.
      */
     record SchedulerStats(
             int totalTasks,
@@ -70,7 +73,8 @@ public interface TaskScheduler {
             int runningTasks,
             int completedTasks,
             int failedTasks,
-            int activeWorkers
+            int activeWorkers,
+            Map<ExecutionMode, Integer> activeWorkersByMode
     ) {}
 }
 
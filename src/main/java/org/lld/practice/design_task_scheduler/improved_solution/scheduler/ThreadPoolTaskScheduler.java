@@ -2,6 +2,8 @@ package org.lld.practice.design_task_scheduler.improved_solution.scheduler;
 
 import org.lld.practice.design_task_scheduler.improved_solution.models.*;
 import org.lld.practice.design_task_scheduler.improved_solution.observer.TaskListener;
+import org.lld.practice.design_task_scheduler.improved_solution.persistence.TaskJournal;
+import org.lld.practice.design_task_scheduler.improved_solution.persistence.TaskRecord;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -9,34 +11,79 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Thread pool based task scheduler implementation.
- * Uses a priority queue and scheduled executor service.
+ * 
+ * Due times are tracked by a TimingWheel (1 ms ticks, O(1) schedule and
+ * cancel) whose dispatcher thread sleeps until exactly the next deadline
+ * and hands due tasks to their execution backend, earliest and then
+ * highest priority first.
+ * 
+ * Each task picks a backend with Task.Builder.executionMode():
+ * - WORKER_POOL: the fixed pool of workerPoolSize threads (default);
+ * - WORK_STEALING: a ForkJoinPool with one thread per CPU, for many short
+ *   CPU-bound tasks (per-worker deques, idle workers steal);
+ * - VIRTUAL_THREAD: a new virtual thread per run, for tasks that block, so
+ *   a sleeping or waiting task holds no platform thread and cannot starve
+ *   the other backends.
+ * 
+ * Only live tasks (pending, running, waiting for a retry or recurring) are
+ * tracked: a task that completes for good, fails for good or is cancelled
+ * is dropped, so getTask() no longer finds it.
+ * 
+ * With a TaskJournal, every schedule, reschedule (next recurring run or
+ * retry) and removal is journaled, and start() restores the journaled
+ * tasks. Commands are code, so they are looked up again by task name; a
+ * recovered task whose name has no command is dropped with a warning. A
+ * task that was running when the process died runs again (at-least-once).
+ * Tasks built with inMemoryOnly() are never journaled.
  */
 public class ThreadPoolTaskScheduler implements TaskScheduler {
     
     private final int workerPoolSize;
-    private final PriorityBlockingQueue<Task> taskQueue;
+    private final TimingWheel<Task> timingWheel;
+    private final Map<String, TimingWheel<Task>.Timeout> timeouts;  // taskId -> pending timeout
     private final Map<String, Task> tasksById;
     private final List<TaskListener> listeners;
     private final AtomicBoolean running;
     private final AtomicInteger activeWorkers;
+    private final Map<ExecutionMode, AtomicInteger> activeWorkersByMode;
     
-    private ExecutorService workerPool;
-    private ScheduledExecutorService schedulerThread;
+    private final Map<ExecutionMode, ExecutorService> executors;
+    
+    private final TaskJournal journal;                       // null: in memory only
+    private final Function<String, Runnable> commandsByName;  // restores journaled tasks
     
     // Statistics
     private final AtomicInteger completedCount = new AtomicInteger(0);
     private final AtomicInteger failedCount = new AtomicInteger(0);
 
     public ThreadPoolTaskScheduler(int workerPoolSize) {
+        this(workerPoolSize, null, name -> null);
+    }
+
+    /**
+     * Scheduler whose tasks survive restarts: start() restores them from the
+     * journal, taking each task's command from commandsByName (by task name).
+     * Tasks can only be scheduled once the scheduler has started.
+     */
+    public ThreadPoolTaskScheduler(int workerPoolSize, TaskJournal journal, Function<String, Runnable> commandsByName) {
         this.workerPoolSize = workerPoolSize;
-        this.taskQueue = new PriorityBlockingQueue<>();
+        this.timingWheel = new TimingWheel<>("task-dispatcher", this::dispatch, Comparator.naturalOrder());
+        this.timeouts = new ConcurrentHashMap<>();
         this.tasksById = new ConcurrentHashMap<>();
         this.listeners = new CopyOnWriteArrayList<>();
         this.running = new AtomicBoolean(false);
         this.activeWorkers = new AtomicInteger(0);
+        this.activeWorkersByMode = new EnumMap<>(ExecutionMode.class);
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            activeWorkersByMode.put(mode, new AtomicInteger(0));
+        }
+        this.executors = new EnumMap<>(ExecutionMode.class);
+        this.journal = journal;
+        this.commandsByName = Objects.requireNonNull(commandsByName);
     }
 
     public ThreadPoolTaskScheduler() {
@@ -47,22 +94,43 @@ public class ThreadPoolTaskScheduler implements TaskScheduler {
 
     @Override
     public String schedule(Task task) {
+        if (journal != null && !journal.isOpen()) {
+            throw new IllegalStateException("Start the scheduler before scheduling: it restores the journal first");
+        }
         tasksById.put(task.getTaskId(), task);
-        taskQueue.offer(task);
+        if (journaled(task)) {
+            journal.scheduled(task);
+        }
+        arm(task);
         notifyScheduled(task);
         return task.getTaskId();
     }
 
+    /**
+     * Cancel a pending task. A task a worker has already started cannot be
+     * cancelled: its PENDING to RUNNING step and this one are the same CAS.
+     * The task's lock orders the removal after a recurring task's reschedule
+     * (see executeTask()), so the journal never sees it rescheduled after
+     * removal.
+     */
     @Override
     public boolean cancel(String taskId) {
         Task task = tasksById.get(taskId);
-        if (task != null && task.getStatus() == TaskStatus.PENDING) {
-            task.cancel();
-            taskQueue.remove(task);
-            notifyCancelled(task);
-            return true;
+        if (task == null) {
+            return false;
         }
-        return false;
+        synchronized (task) {
+            if (!task.cancel()) {
+                return false;
+            }
+            TimingWheel<Task>.Timeout timeout = timeouts.remove(taskId);
+            if (timeout != null) {
+                timeout.cancel();  // O(1)
+            }
+            drop(task);
+        }
+        notifyCancelled(task);
+        return true;
     }
 
     @Override
@@ -88,13 +156,16 @@ public class ThreadPoolTaskScheduler implements TaskScheduler {
     @Override
     public void start() {
         if (running.compareAndSet(false, true)) {
-            workerPool = Executors.newFixedThreadPool(workerPoolSize);
-            schedulerThread = Executors.newSingleThreadScheduledExecutor();
+            for (ExecutionMode mode : ExecutionMode.values()) {
+                executors.put(mode, createExecutor(mode));
+            }
             
-            // Start polling for tasks
-            schedulerThread.scheduleAtFixedRate(
-                    this::pollAndExecuteTasks,
-                    0, 100, TimeUnit.MILLISECONDS);
+            if (journal != null) {
+                recover();
+            }
+            
+            // Dispatch due tasks as their deadlines arrive
+            timingWheel.start();
             
             System.out.printf("🚀 Scheduler started with %d workers%n", workerPoolSize);
         }
@@ -103,18 +174,25 @@ public class ThreadPoolTaskScheduler implements TaskScheduler {
     @Override
     public void shutdown() {
         if (running.compareAndSet(true, false)) {
-            schedulerThread.shutdown();
-            workerPool.shutdown();
+            timingWheel.stop();
+            executors.values().forEach(ExecutorService::shutdown);
             
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
             try {
-                if (!workerPool.awaitTermination(5, TimeUnit.SECONDS)) {
-                    workerPool.shutdownNow();
+                for (ExecutorService executor : executors.values()) {
+                    if (!executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        executor.shutdownNow();
+                    }
                 }
             } catch (InterruptedException e) {
-                workerPool.shutdownNow();
+                executors.values().forEach(ExecutorService::shutdownNow);
                 Thread.currentThread().interrupt();
             }
             
+            if (journal != null) {
+                journal.close();  // final snapshot, if configured
+            }
+            
             System.out.println("🛑 Scheduler shutdown");
         }
     }
@@ -141,35 +219,89 @@ public class ThreadPoolTaskScheduler implements TaskScheduler {
                 inProgress,
                 completedCount.get(),
                 failedCount.get(),
-                activeWorkers.get()
+                activeWorkers.get(),
+                activeByMode()
         );
     }
 
+    private Map<ExecutionMode, Integer> activeByMode() {
+        Map<ExecutionMode, Integer> active = new EnumMap<>(ExecutionMode.class);
+        activeWorkersByMode.forEach((mode, count) -> active.put(mode, count.get()));
+        return active;
+    }
+
     // ========== Internal Methods ==========
 
-    private void pollAndExecuteTasks() {
-        while (running.get()) {
-            Task task = taskQueue.peek();
-            
-            if (task == null) break;
-            
-            if (!task.isReadyToRun()) {
-                // Task is scheduled for future, stop polling
-                break;
+    private ExecutorService createExecutor(ExecutionMode mode) {
+        return switch (mode) {
+            case WORKER_POOL -> Executors.newFixedThreadPool(workerPoolSize);
+            case WORK_STEALING -> new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+            case VIRTUAL_THREAD -> Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("task-virtual-", 0).factory());
+        };
+    }
+
+    /**
+     * Restore the journaled tasks that are not already in memory (they are
+     * after a shutdown and start of the same scheduler).
+     */
+    private void recover() {
+        TaskJournal.Recovery recovery = journal.open(
+                () -> tasksById.values().stream().filter(Task::isDurable).toList());
+        int restored = 0;
+        List<String> unknown = new ArrayList<>();
+        for (TaskRecord record : recovery.tasks()) {
+            if (tasksById.containsKey(record.taskId())) {
+                continue;
             }
-            
-            // Remove from queue and execute
-            task = taskQueue.poll();
-            if (task != null && task.getStatus() == TaskStatus.PENDING) {
-                executeTask(task);
+            Runnable command = commandsByName.apply(record.name());
+            if (command == null) {
+                unknown.add(record.name());
+                continue;
             }
+            Task task = record.toTask(command);
+            tasksById.put(task.getTaskId(), task);
+            arm(task);
+            restored++;
+        }
+        System.out.printf("♻️ Restored %d tasks from %s (%d from snapshot, %d journal records) in %d ms%n",
+                restored, journal.getDirectory(), recovery.snapshotTasks(), recovery.journalRecords(),
+                recovery.elapsed().toMillis());
+        if (!unknown.isEmpty()) {
+            System.out.printf("⚠️ Dropped %d recovered tasks with no registered command: %s%n",
+                    unknown.size(), unknown.stream().distinct().limit(5).toList());
+        }
+    }
+
+    /**
+     * Put the task on the timing wheel for its scheduled time.
+     */
+    private void arm(Task task) {
+        long delayNanos = Duration.between(Instant.now(), task.getScheduledTime()).toNanos();
+        timeouts.put(task.getTaskId(), timingWheel.schedule(task, delayNanos));
+    }
+
+    /**
+     * Called on the timing wheel's dispatcher thread when a task is due.
+     */
+    private void dispatch(Task task) {
+        timeouts.remove(task.getTaskId());
+        if (running.get() && task.getStatus() == TaskStatus.PENDING) {
+            executeTask(task);
         }
     }
 
     private void executeTask(Task task) {
-        activeWorkers.incrementAndGet();
+        AtomicInteger activeInMode = activeWorkersByMode.get(task.getExecutionMode());
         
-        workerPool.submit(() -> {
+        executors.get(task.getExecutionMode()).submit(() -> {
+            if (!task.tryStart()) {
+                return;  // cancelled while queued for a worker
+            }
+            // Counted while actually running, not while queued for a worker
+            activeWorkers.incrementAndGet();
+            activeInMode.incrementAndGet();
             try {
                 notifyStarted(task);
                 TaskResult result = task.execute();
@@ -180,27 +312,62 @@ public class ThreadPoolTaskScheduler implements TaskScheduler {
                     
                     // Handle recurring tasks
                     if (task.isRecurring()) {
-                        task.rescheduleForNextRun();
-                        taskQueue.offer(task);
+                        rearm(task, task::rescheduleForNextRun);
                         notifyScheduled(task);
+                    } else {
+                        drop(task);
                     }
                 } else {
                     // Handle failure and retry
                     if (task.canRetry()) {
-                        task.scheduleRetry();
-                        taskQueue.offer(task);
+                        rearm(task, task::scheduleRetry);
                         notifyRetry(task, task.getAttemptCount());
                     } else {
                         failedCount.incrementAndGet();
+                        drop(task);
                         notifyFailed(task, result);
                     }
                 }
             } finally {
+                activeInMode.decrementAndGet();
                 activeWorkers.decrementAndGet();
             }
         });
     }
 
+    /**
+     * Make a finished run's task pending again, journal it and arm it, under
+     * the task's lock: cancel() can only succeed once it is pending, and then
+     * only after the reschedule is journaled.
+     */
+    private void rearm(Task task, Runnable reschedule) {
+        synchronized (task) {
+            reschedule.run();
+            journalRescheduled(task);
+            arm(task);
+        }
+    }
+
+    private boolean journaled(Task task) {
+        return journal != null && task.isDurable();
+    }
+
+    private void journalRescheduled(Task task) {
+        if (journaled(task)) {
+            journal.rescheduled(task);
+        }
+    }
+
+    /**
+     * Forget a task that is done for good, in memory and in the journal.
+     */
+    private void drop(Task task) {
+        tasksById.remove(task.getTaskId());
+        if (journaled(task)) {
+            journal.removed(task);
+        }
+    }
+
     // ========== Listener Notifications ==========
 
     private void notifyScheduled(Task task) {
@@ -249,6 +416,8 @@ public class ThreadPoolTaskScheduler implements TaskScheduler {
         System.out.printf("║ Running: %-30s ║%n", running.get() ? "✅ YES" : "❌ NO");
         System.out.printf("║ Worker Pool Size: %-21d ║%n", workerPoolSize);
         System.out.printf("║ Active Workers: %-23d ║%n", stats.activeWorkers());
+        stats.activeWorkersByMode().forEach((mode, active) ->
+                System.out.printf("║   %-15s %-21d ║%n", mode + ":", active));
         System.out.println("╠════════════════════════════════════════╣");
         System.out.printf("║ Total Tasks: %-26d ║%n", stats.totalTasks());
         System.out.printf("║ Pending: %-30d ║%n", stats.pendingTasks());
@@ -0,0 +1,374 @@
+package org.lld.practice.design_task_scheduler.improved_solution.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel with 1 ms ticks, driven by one
+ * dispatcher thread.
+ *
+ * Seven levels of 64 slots: level 0 holds deadlines in the current 64 ms
+ * block (one slot per ms), level 1 the current 4 s block (one slot per
+ * 64 ms), and so on up to ~139 years. A timeout sits on the lowest level
+ * whose block it shares with the wheel's current time; when time reaches
+ * the start of a higher-level slot, its timeouts cascade down a level.
+ * Each slot is an intrusive doubly linked list and each level keeps a
+ * 64-bit occupancy bitmap, so:
+ *
+ * - schedule and cancel are O(1) (link/unlink one node);
+ * - the next deadline is found with one numberOfTrailingZeros on the
+ *   lowest non-empty level, and the dispatcher parks until exactly then
+ *   (no fixed-rate polling, no work while idle);
+ * - time jumps straight from one occupied slot to the next.
+ *
+ * Any thread may schedule or cancel: new and cancelled timeouts go through
+ * lock-free queues, and only the dispatcher touches the wheel itself. A
+ * schedule earlier than the dispatcher's current wake-up time unparks it.
+ * Expired items are handed to the callback on the dispatcher thread (so it
+ * must not block), sorted by the given order when several expire in one
+ * wake-up.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 7;
+    private static final long MAX_DEADLINE = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final long NANOS_PER_TICK = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long AWAKE = Long.MIN_VALUE;
+
+    private static final int PENDING = 0;
+    private static final int EXPIRED = 1;
+    private static final int CANCELLED = 2;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<TimingWheel.Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(TimingWheel.Timeout.class, "state");
+
+    private final String threadName;
+    private final Consumer<T> onExpired;
+    private final Comparator<? super T> order;
+    private final long startNanos = System.nanoTime();
+
+    // Owned by the dispatcher thread
+    @SuppressWarnings("unchecked")
+    private final Timeout[][] slots = (Timeout[][]) new TimingWheel<?>.Timeout[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private final List<T> expired = new ArrayList<>();
+    private long now;  // wheel time in ms ticks since startNanos
+
+    private final Queue<Timeout> inbound = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private volatile long wakeAt = AWAKE;  // tick the parked dispatcher wakes at
+    private volatile boolean running;
+    private volatile Thread dispatcher;
+
+    /**
+     * @param threadName Name of the dispatcher thread
+     * @param onExpired Called on the dispatcher thread for each expired item
+     * @param order Order of items expiring in the same wake-up, or null for deadline order
+     */
+    TimingWheel(String threadName, Consumer<T> onExpired, Comparator<? super T> order) {
+        this.threadName = threadName;
+        this.onExpired = onExpired;
+        this.order = order;
+    }
+
+    /**
+     * A scheduled item; cancel() it to remove it from the wheel.
+     */
+    final class Timeout {
+        private final T item;
+        private final long deadline;
+        private volatile int state = PENDING;
+        // Wheel links, dispatcher thread only
+        private Timeout prev;
+        private Timeout next;
+        private int level;
+        private int slot = -1;
+
+        private Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        T item() {
+            return item;
+        }
+
+        /**
+         * O(1): marks the timeout cancelled; the dispatcher unlinks it on its
+         * next wake-up.
+         * @return false if it already expired or was cancelled
+         */
+        boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            cancelled.offer(this);
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state == CANCELLED;
+        }
+    }
+
+    /**
+     * Schedule item to expire after delayNanos (rounded up to the next
+     * millisecond; never early). An item that is already due (delay &lt;= 0)
+     * expires on the dispatcher's next wake-up, without waiting for a tick.
+     * Safe from any thread, before or after start().
+     */
+    Timeout schedule(T item, long delayNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        long deadline = delayNanos <= 0
+                ? elapsed / NANOS_PER_TICK
+                : Math.ceilDiv(elapsed + Math.min(delayNanos, MAX_DEADLINE * NANOS_PER_TICK), NANOS_PER_TICK);
+        Timeout timeout = new Timeout(item, Math.min(deadline, MAX_DEADLINE));
+        inbound.offer(timeout);
+        Thread thread = dispatcher;
+        if (thread != null && timeout.deadline < wakeAt) {
+            LockSupport.unpark(thread);
+        }
+        return timeout;
+    }
+
+    synchronized void start() {
+        if (dispatcher == null) {
+            running = true;
+            Thread thread = new Thread(this::run, threadName);
+            thread.setDaemon(true);
+            dispatcher = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop the dispatcher thread. Pending timeouts stay in the wheel and
+     * fire (if due) once start() is called again.
+     */
+    synchronized void stop() {
+        Thread thread = dispatcher;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcher = null;
+    }
+
+    // ========== Dispatcher ==========
+
+    private void run() {
+        while (running) {
+            wakeAt = AWAKE;
+            long tick = currentTick();
+            drainCancelled();
+            drainInbound();
+            advance(tick);
+            fireExpired();
+
+            long next = nextEventTick();
+            wakeAt = next;
+            // Re-check after publishing wakeAt: a schedule() that saw the old value did not unpark us
+            if (!inbound.isEmpty() || !running) {
+                continue;
+            }
+            if (next == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else {
+                long sleepNanos = startNanos + next * NANOS_PER_TICK - System.nanoTime();
+                if (sleepNanos > 0) {
+                    LockSupport.parkNanos(this, sleepNanos);
+                }
+            }
+        }
+        wakeAt = AWAKE;
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startNanos) / NANOS_PER_TICK;
+    }
+
+    private void drainCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            unlink(timeout);
+        }
+    }
+
+    private void drainInbound() {
+        Timeout timeout;
+        while ((timeout = inbound.poll()) != null) {
+            insert(timeout);
+        }
+    }
+
+    /**
+     * Move wheel time to target, cascading and expiring every occupied
+     * slot on the way (jumping straight between them).
+     */
+    private void advance(long target) {
+        while (true) {
+            long next = nextEventTick();
+            if (next > target) {
+                now = Math.max(now, target);
+                return;
+            }
+            now = next;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int slot = slotOf(now, level);
+                if ((occupied[level] & (1L << slot)) != 0) {
+                    cascade(level, slot);
+                }
+            }
+            int slot = slotOf(now, 0);
+            if ((occupied[0] & (1L << slot)) != 0) {
+                expireSlot(slot);
+            }
+        }
+    }
+
+    /**
+     * Tick of the next occupied slot: a deadline on level 0, a cascade on
+     * higher levels. Lower levels always come first, so the first non-empty
+     * level decides.
+     */
+    private long nextEventTick() {
+        for (int level = 0; level < LEVELS; level++) {
+            long bits = occupied[level];
+            if (bits == 0) {
+                continue;
+            }
+            int shift = SLOT_BITS * level;
+            long ahead = bits & (-1L << slotOf(now, level));
+            if (ahead == 0) {
+                continue;
+            }
+            long blockStart = (now >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+            long slotStart = blockStart | ((long) Long.numberOfTrailingZeros(ahead) << shift);
+            return Math.max(slotStart, now);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void insert(Timeout timeout) {
+        if (timeout.state != PENDING) {
+            return;
+        }
+        long deadline = timeout.deadline;
+        if (deadline <= now) {
+            expire(timeout);
+            return;
+        }
+        // Lowest level whose block (all higher bits) deadline shares with now
+        int highestDifferentBit = 63 - Long.numberOfLeadingZeros(deadline ^ now);
+        int level = highestDifferentBit / SLOT_BITS;
+        int slot = slotOf(deadline, level);
+
+        Timeout head = slots[level][slot];
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        slots[level][slot] = timeout;
+        occupied[level] |= 1L << slot;
+        timeout.level = level;
+        timeout.slot = slot;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.slot < 0) {
+            return;
+        }
+        int level = timeout.level;
+        int slot = timeout.slot;
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[level][slot] = timeout.next;
+            if (timeout.next == null) {
+                occupied[level] &= ~(1L << slot);
+            }
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = -1;
+    }
+
+    private Timeout detachSlot(int level, int slot) {
+        Timeout head = slots[level][slot];
+        slots[level][slot] = null;
+        occupied[level] &= ~(1L << slot);
+        return head;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout timeout = detachSlot(level, slot);
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = -1;
+            insert(timeout);  // now lands on a lower level (or expires)
+            timeout = next;
+        }
+    }
+
+    private void expireSlot(int slot) {
+        Timeout timeout = detachSlot(0, slot);
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = -1;
+            expire(timeout);
+            timeout = next;
+        }
+    }
+
+    private void expire(Timeout timeout) {
+        if (STATE.compareAndSet(timeout, PENDING, EXPIRED)) {
+            expired.add(timeout.item);
+        }
+    }
+
+    private void fireExpired() {
+        if (expired.isEmpty()) {
+            return;
+        }
+        if (order != null && expired.size() > 1) {
+            expired.sort(order);
+        }
+        for (T item : expired) {
+            try {
+                onExpired.accept(item);
+            } catch (RuntimeException e) {
+                // Never let one item kill the dispatcher thread
+                System.err.println("Timing wheel: expiry callback failed for " + item + ": " + e);
+            }
+        }
+        expired.clear();
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+}